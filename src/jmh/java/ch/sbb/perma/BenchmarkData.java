@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.INTEGER;
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING;
+
+/**
+ * Datasets of the storage engine benchmarks, created in a temp directory: integer keys and short string values.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class BenchmarkData {
+    static final String NAME = "timetable";
+
+    private BenchmarkData() {
+    }
+
+    static File createDir(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix).toFile();
+    }
+
+    static void deleteDir(File dir) throws IOException {
+        MoreFiles.deleteRecursively(dir.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+    }
+
+    static WritablePerma<Integer, String> createPerma(File dir, Options options, int size) throws IOException {
+        WritablePerma<Integer, String> perma = WritablePerma.loadOrCreate(dir, NAME, INTEGER, STRING, options);
+        for (int i = 0; i < size; i++) {
+            perma.put(i, value(i, 0));
+        }
+        perma.persist();
+        return perma;
+    }
+
+    /**
+     * Update count entries starting at the round'th block of count entries (wrapping around), a different value per round.
+     */
+    static void change(Map<Integer, String> map, int size, int count, int round) {
+        int first = (int) ((long) round * count % size);
+        for (int i = 0; i < count; i++) {
+            int key = (first + i) % size;
+            map.put(key, value(key, round + 1));
+        }
+    }
+
+    static int changeCount(int size, double changePercent) {
+        return Math.max(1, (int) (size * changePercent / 100));
+    }
+
+    private static String value(int key, int round) {
+        return "Bern " + key + "/" + round;
+    }
+}
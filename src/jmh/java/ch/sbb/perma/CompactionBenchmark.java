@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compacting a map of 1M entries with a delta changing 1% of the entries, with and without compression and raw
+ * compaction.
+ * <p>
+ *     The delta is persisted before each invocation, not measured.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class CompactionBenchmark {
+    private static final int SIZE = 1000000;
+
+    @Param({"false", "true"})
+    private boolean compressed;
+
+    @Param({"true", "false"})
+    private boolean rawCompaction;
+
+    private File dir;
+    private WritablePerma<Integer, String> perma;
+    private int round;
+
+    @Setup
+    public void createPerma() throws IOException {
+        dir = BenchmarkData.createDir("perma-compaction");
+        Options options = Options.builder()
+                .compress(compressed)
+                .rawCompaction(rawCompaction)
+                .build();
+        perma = BenchmarkData.createPerma(dir, options, SIZE);
+    }
+
+    @Setup(Level.Invocation)
+    public void persistDelta() throws IOException {
+        BenchmarkData.change(perma, SIZE, SIZE / 100, round++);
+        perma.persist();
+    }
+
+    @TearDown
+    public void deleteDir() throws IOException {
+        BenchmarkData.deleteDir(dir);
+    }
+
+    @Benchmark
+    public void compact() throws IOException {
+        perma.compact();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.file.Durability;
+import ch.sbb.perma.file.SyncBatch;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING;
+
+/**
+ * Latency of persisting a small delta per {@link Durability} level, for one perma and for two permas in a {@link SyncBatch}.
+ * <p>
+ *     Run in the directory to measure with <code>-Djava.io.tmpdir</code>, fsync costs depend heavily on the disk.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DurabilityBenchmark {
+    @Param({"NONE", "FSYNC_FILE", "FSYNC_FILE_AND_DIRECTORY"})
+    private Durability durability;
+
+    private File dir;
+    private WritablePerma<String, String> stations;
+    private WritablePerma<String, String> lines;
+    private int counter;
+
+    @Setup
+    public void createPermas() throws IOException {
+        dir = Files.createTempDirectory("perma-durability").toFile();
+        Options options = Options.builder()
+                .durability(durability)
+                .build();
+        stations = WritablePerma.loadOrCreate(dir, "stations", STRING, STRING, options);
+        lines = WritablePerma.loadOrCreate(dir, "lines", STRING, STRING, options);
+        for (int i = 0; i < 1000; i++) {
+            stations.put("station " + i, "Bern");
+            lines.put("line " + i, "IC 1");
+        }
+        stations.persist();
+        lines.persist();
+    }
+
+    /**
+     * Keep the number of delta files small, not measured.
+     */
+    @TearDown(Level.Invocation)
+    public void compactRegularly() throws IOException {
+        if (counter % 200 == 0) {
+            stations.compact();
+            lines.compact();
+        }
+    }
+
+    @TearDown
+    public void deleteDir() throws IOException {
+        MoreFiles.deleteRecursively(dir.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+    }
+
+    @Benchmark
+    public void persist() throws IOException {
+        stations.put("station " + (counter++ % 1000), "Olten " + counter);
+        stations.persist();
+    }
+
+    @Benchmark
+    public void persistTwoInBatch() throws IOException {
+        stations.put("station " + (counter % 1000), "Olten " + counter);
+        lines.put("line " + (counter++ % 1000), "IR " + counter);
+        try (SyncBatch batch = SyncBatch.open()) {
+            stations.persist();
+            lines.persist();
+        }
+    }
+}
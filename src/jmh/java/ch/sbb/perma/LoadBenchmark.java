@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.INTEGER;
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING;
+
+/**
+ * Loading a persisted map of 1M entries from a full file and a chain of deltas each changing 1% of the entries.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+    private static final int SIZE = 1000000;
+
+    @Param({"0", "5", "50"})
+    private int deltaFiles;
+
+    @Param({"false", "true"})
+    private boolean compressed;
+
+    private File dir;
+    private Options options;
+
+    @Setup
+    public void createFiles() throws IOException {
+        dir = BenchmarkData.createDir("perma-load");
+        options = compressed ? Options.compressed() : Options.defaults();
+        WritablePerma<Integer, String> perma = BenchmarkData.createPerma(dir, options, SIZE);
+        for (int round = 0; round < deltaFiles; round++) {
+            BenchmarkData.change(perma, SIZE, SIZE / 100, round);
+            perma.persist();
+        }
+    }
+
+    @TearDown
+    public void deleteDir() throws IOException {
+        BenchmarkData.deleteDir(dir);
+    }
+
+    @Benchmark
+    public MapSnapshot<Integer, String> load() throws IOException {
+        return MapSnapshot.loadOrCreate(dir, BenchmarkData.NAME, options, INTEGER, STRING);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persisting a delta of {@link WritablePerma} per map size and percentage of changed entries.
+ * <p>
+ *     The entries are changed before each invocation, not measured. 10M entries need a heap of about 10 GB, on
+ *     smaller machines run 1M entries only with <code>-p size=1000000</code>.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx10g")
+@State(Scope.Thread)
+public class PersistBenchmark {
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    @Param({"0.01", "1", "10"})
+    private double changePercent;
+
+    private File dir;
+    private WritablePerma<Integer, String> perma;
+    private int changeCount;
+    private int round;
+
+    @Setup
+    public void createPerma() throws IOException {
+        dir = BenchmarkData.createDir("perma-persist");
+        perma = BenchmarkData.createPerma(dir, Options.defaults(), size);
+        changeCount = BenchmarkData.changeCount(size, changePercent);
+    }
+
+    @Setup(Level.Invocation)
+    public void change() {
+        BenchmarkData.change(perma, size, changeCount, round++);
+    }
+
+    @TearDown
+    public void deleteDir() throws IOException {
+        BenchmarkData.deleteDir(dir);
+    }
+
+    @Benchmark
+    public void persist() throws IOException {
+        perma.persist();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.INTEGER;
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING;
+
+/**
+ * Refreshing a {@link ReadOnlyPerma} of 1M entries after the writer persisted a delta of the given number of entries.
+ * <p>
+ *     The writer changes and persists before each invocation, not measured.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class RefreshBenchmark {
+    private static final int SIZE = 1000000;
+
+    @Param({"1", "1000", "100000"})
+    private int changedEntries;
+
+    private File dir;
+    private WritablePerma<Integer, String> writer;
+    private ReadOnlyPerma<Integer, String> reader;
+    private int round;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void createPermas() throws IOException {
+        dir = BenchmarkData.createDir("perma-refresh");
+        writer = BenchmarkData.createPerma(dir, Options.defaults(), SIZE);
+        reader = ReadOnlyPerma.load(dir, BenchmarkData.NAME, INTEGER, STRING);
+    }
+
+    @Setup(Level.Invocation)
+    public void persistChanges() throws IOException {
+        BenchmarkData.change(writer, SIZE, changedEntries, round++);
+        writer.persist();
+    }
+
+    @TearDown
+    public void deleteDir() throws IOException {
+        BenchmarkData.deleteDir(dir);
+    }
+
+    @Benchmark
+    public void refresh() throws IOException {
+        reader.refresh();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.INTEGER;
+
+/**
+ * Reads of a {@link WritablePermaSet} of 1M elements: contains from 4 threads, contains from 3 threads while a fourth
+ * one adds and removes, and iterating all elements.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SetBenchmark {
+    private static final int SIZE = 1000000;
+
+    private File dir;
+    private WritablePermaSet<Integer> set;
+
+    @Setup
+    public void createSet() throws IOException {
+        dir = BenchmarkData.createDir("perma-set");
+        set = WritablePermaSet.loadOrCreate(dir, BenchmarkData.NAME, INTEGER);
+        for (int i = 0; i < SIZE; i++) {
+            set.add(i);
+        }
+    }
+
+    @TearDown
+    public void deleteDir() throws IOException {
+        BenchmarkData.deleteDir(dir);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean contains() {
+        return set.contains(ThreadLocalRandom.current().nextInt(SIZE * 2));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public boolean mixedContains() {
+        return set.contains(ThreadLocalRandom.current().nextInt(SIZE * 2));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public boolean mixedChange() {
+        int element = ThreadLocalRandom.current().nextInt(SIZE * 2);
+        return set.add(element) || set.remove(element);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long iterate() {
+        long sum = 0;
+        for (Integer element : set) {
+            sum += element;
+        }
+        return sum;
+    }
+}
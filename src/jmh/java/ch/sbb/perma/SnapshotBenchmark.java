@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Changing 1% of a {@link WritablePerma} of 1M entries and taking a snapshot of it, with and without versioned
+ * snapshots.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+    private static final int SIZE = 1000000;
+
+    @Param({"false", "true"})
+    private boolean versionedSnapshots;
+
+    private File dir;
+    private WritablePerma<Integer, String> perma;
+    private int round;
+
+    @Setup
+    public void createPerma() throws IOException {
+        dir = BenchmarkData.createDir("perma-snapshot");
+        perma = BenchmarkData.createPerma(dir, Options.builder().versionedSnapshots(versionedSnapshots).build(), SIZE);
+    }
+
+    @TearDown
+    public void deleteDir() throws IOException {
+        BenchmarkData.deleteDir(dir);
+    }
+
+    @Benchmark
+    public void change() {
+        BenchmarkData.change(perma, SIZE, SIZE / 100, round++);
+    }
+
+    @Benchmark
+    public int snapshot() {
+        try (SnapshotView<Integer, String> snapshot = perma.snapshot()) {
+            return snapshot.size();
+        }
+    }
+}
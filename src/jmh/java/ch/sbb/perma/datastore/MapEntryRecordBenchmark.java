@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.datastore;
+
+import ch.sbb.perma.serializers.BufferSerializer;
+import ch.sbb.perma.serializers.ReadBuffer;
+import com.google.common.io.ByteStreams;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.LONG;
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING;
+
+/**
+ * Encoding and decoding of records, run with <code>-prof gc</code> to see the allocation rate per record.
+ * <p>
+ *     Decoding the raw records must not allocate (besides the amortized read buffer of the file),
+ *     decoding with deserialization should only allocate the keys and values.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapEntryRecordBenchmark {
+    private static final int RECORDS = 100_000;
+    private static final String[] VALUES = {"Bern", "Zürich HB", "Olten", "Lausanne", "St. Gallen"};
+    private static final Long[] KEYS = new Long[RECORDS];
+    static {
+        for (int i = 0; i < RECORDS; i++) {
+            KEYS[i] = (long) i;
+        }
+    }
+
+    private byte[] file;
+    private ReadBuffer keyView;
+    private ReadBuffer valueView;
+
+    @Setup
+    public void writeFile() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryEncoder encoder = new BinaryEncoder(out);
+        writeRecords(encoder);
+        encoder.flush();
+        file = out.toByteArray();
+        keyView = new ReadBuffer();
+        valueView = new ReadBuffer();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long decodeRaw() throws IOException {
+        BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(file));
+        LengthSum sum = new LengthSum();
+        while (MapEntryRecord.readFrom(decoder, sum, keyView, valueView)) {
+            // only sum up
+        }
+        return sum.total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void decodeDeserialized(Blackhole blackhole) throws IOException {
+        BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(file));
+        RecordHandler handler = new RecordHandler() {
+            @Override
+            public void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+                blackhole.consume(LONG.readFrom(key));
+                blackhole.consume(STRING.readFrom(value));
+            }
+
+            @Override
+            public void deleted(ReadBuffer key) {
+                blackhole.consume(LONG.readFrom(key));
+            }
+        };
+        while (MapEntryRecord.readFrom(decoder, handler, keyView, valueView)) {
+            // consumed by handler
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void encode() throws IOException {
+        BinaryEncoder encoder = new BinaryEncoder(ByteStreams.nullOutputStream());
+        writeRecords(encoder);
+        encoder.flush();
+    }
+
+    private static void writeRecords(BinaryEncoder encoder) throws IOException {
+        BufferSerializer<Long> keySerializer = LONG;
+        BufferSerializer<String> valueSerializer = STRING;
+        for (int i = 0; i < RECORDS; i++) {
+            MapEntryRecord.writeNewOrUpdated(encoder, KEYS[i], VALUES[i % VALUES.length], keySerializer, valueSerializer);
+        }
+    }
+
+    private static class LengthSum implements RecordHandler {
+        private long total;
+
+        @Override
+        public void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+            total += key.remaining() + value.remaining();
+        }
+
+        @Override
+        public void deleted(ReadBuffer key) {
+            total += key.remaining();
+        }
+    }
+}
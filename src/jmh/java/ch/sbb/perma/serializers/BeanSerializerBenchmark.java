@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.*;
+
+/**
+ * Serializing a value class with {@link BeanSerializer} compared to {@link KeyOrValueSerializer#JAVA_OBJECT},
+ * run with <code>-prof gc</code> to see the allocation rate per value.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BeanSerializerBenchmark {
+    private static final BeanSerializer<Journey> BEAN = BeanSerializer.builder(Journey.class)
+                                                                      .field("id", LONG)
+                                                                      .field("line", STRING)
+                                                                      .field("operatingDay", PACKED_LOCAL_DATE)
+                                                                      .field("departure", PACKED_LOCAL_TIME)
+                                                                      .field("platform", STRING)
+                                                                      .field("delay", VAR_INTEGER)
+                                                                      .build();
+
+    private final WriteBuffer out = new WriteBuffer(512);
+    private final ReadBuffer in = new ReadBuffer();
+    private Journey journey;
+    private byte[] beanBytes;
+    private byte[] javaObjectBytes;
+
+    @Setup
+    public void serialize() {
+        journey = new Journey();
+        journey.id = 4711L;
+        journey.line = "IC 8";
+        journey.operatingDay = LocalDate.of(2018, 12, 9);
+        journey.departure = LocalTime.of(7, 2);
+        journey.platform = "7";
+        journey.delay = 3;
+        beanBytes = BEAN.toByteArray(journey);
+        javaObjectBytes = JAVA_OBJECT.toByteArray(journey);
+    }
+
+    @Benchmark
+    public int writeBean() {
+        out.reset();
+        BEAN.writeTo(journey, out);
+        return out.length();
+    }
+
+    @Benchmark
+    public int writeJavaObject() {
+        out.reset();
+        JAVA_OBJECT.writeTo(journey, out);
+        return out.length();
+    }
+
+    @Benchmark
+    public Journey readBean() {
+        return BEAN.readFrom(in.reset(beanBytes, 0, beanBytes.length));
+    }
+
+    @Benchmark
+    public Object readJavaObject() {
+        return JAVA_OBJECT.readFrom(in.reset(javaObjectBytes, 0, javaObjectBytes.length));
+    }
+
+    public static class Journey implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private long id;
+        private String line;
+        private LocalDate operatingDay;
+        private LocalTime departure;
+        private String platform;
+        private int delay;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Framing of a compound value (a string, an int and a long) with {@link CompoundBinaryWriter} and
+ * {@link CompoundBinaryReader} compared to writing to a reused {@link WriteBuffer} and reading from a {@link ReadBuffer}.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompoundBinaryBenchmark {
+    private static final byte[] NAME = "Zürich HB".getBytes(StandardCharsets.UTF_8);
+
+    private final WriteBuffer out = new WriteBuffer(64);
+    private final ReadBuffer in = new ReadBuffer();
+    private byte[] bytes;
+
+    @Setup
+    public void write() {
+        bytes = writeCompound();
+    }
+
+    @Benchmark
+    public byte[] writeCompound() {
+        CompoundBinaryWriter writer = new CompoundBinaryWriter();
+        writer.writeWithLength(NAME);
+        writer.writeInt(8503000);
+        writer.writeLong(1544335320000L);
+        return writer.toByteArray();
+    }
+
+    @Benchmark
+    public int writeBuffer() {
+        out.reset();
+        out.writeWithLength(NAME);
+        out.writeInt(8503000);
+        out.writeLong(1544335320000L);
+        return out.length();
+    }
+
+    @Benchmark
+    public long readCompound() {
+        CompoundBinaryReader reader = new CompoundBinaryReader(bytes);
+        return reader.readWithLength().length + reader.readInt() + reader.readLong();
+    }
+
+    @Benchmark
+    public long readBuffer() {
+        in.reset(bytes, 0, bytes.length);
+        return in.readWithLength().length + in.readInt() + in.readLong();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.javatuples.Pair;
+import org.javatuples.Triplet;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.*;
+
+/**
+ * Writing and reading a typical value with each built-in serializer, run with <code>-prof gc</code> (the default
+ * benchmark args) to see the allocation rate per value.
+ * <p>
+ *     writeTo and readFrom are the paths used by perma, toByteArray and fromByteArray the ones of custom code and of
+ *     serializers wrapped with {@link ByteArraySerializerAdapter}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializerBenchmark {
+    private static final ImmutableMap<String, Object[]> CASES = ImmutableMap.<String, Object[]>builder()
+            .put("STRING", sample(STRING, "Zürich HB, Gleis 7"))
+            .put("STRING_UTF_16BE", sample(new StringSerializer(StringSerializer.UTF_16BE), "Zürich HB, Gleis 7"))
+            .put("OPTIONAL_STRING", sample(OPTIONAL_STRING, Optional.of("Bern")))
+            .put("INTEGER", sample(INTEGER, 8507000))
+            .put("LONG", sample(LONG, 8507000L))
+            .put("SHORT", sample(SHORT, (short) 42))
+            .put("BYTE", sample(BYTE, (byte) 42))
+            .put("DOUBLE", sample(DOUBLE, 46.948))
+            .put("FLOAT", sample(FLOAT, 7.44f))
+            .put("CHARACTER", sample(CHARACTER, 'A'))
+            .put("BIG_DECIMAL", sample(BIG_DECIMAL, new BigDecimal("12.50")))
+            .put("BIG_INTEGER", sample(BIG_INTEGER, BigInteger.valueOf(Long.MAX_VALUE).pow(2)))
+            .put("LOCAL_DATE", sample(LOCAL_DATE, LocalDate.of(2018, 12, 9)))
+            .put("LOCAL_TIME", sample(LOCAL_TIME, LocalTime.of(7, 2)))
+            .put("LOCAL_DATE_TIME", sample(LOCAL_DATE_TIME, LocalDateTime.of(2018, 12, 9, 7, 2)))
+            .put("ZONED_DATE_TIME", sample(ZONED_DATE_TIME, ZonedDateTime.of(2018, 12, 9, 7, 2, 0, 0, ZoneId.of("Europe/Zurich"))))
+            .put("OFFSET_DATE_TIME", sample(OFFSET_DATE_TIME, OffsetDateTime.of(2018, 12, 9, 7, 2, 0, 0, ZoneOffset.ofHours(1))))
+            .put("DATE", sample(DATE, new Date(1544335320000L)))
+            .put("JAVA_OBJECT", sample(JAVA_OBJECT, LocalDate.of(2018, 12, 9)))
+            .put("VAR_INTEGER", sample(VAR_INTEGER, 8507000))
+            .put("VAR_LONG", sample(VAR_LONG, 8507000L))
+            .put("COMPACT_BIG_DECIMAL", sample(COMPACT_BIG_DECIMAL, new BigDecimal("12.50")))
+            .put("PACKED_LOCAL_DATE", sample(PACKED_LOCAL_DATE, LocalDate.of(2018, 12, 9)))
+            .put("PACKED_LOCAL_TIME", sample(PACKED_LOCAL_TIME, LocalTime.of(7, 2)))
+            .put("PACKED_LOCAL_DATE_TIME", sample(PACKED_LOCAL_DATE_TIME, LocalDateTime.of(2018, 12, 9, 7, 2)))
+            .put("PACKED_ZONED_DATE_TIME", sample(PACKED_ZONED_DATE_TIME, ZonedDateTime.of(2018, 12, 9, 7, 2, 0, 0, ZoneId.of("Europe/Zurich"))))
+            .put("ENUM", sample(new EnumSerializer<>(DayOfWeek.class), DayOfWeek.SUNDAY))
+            .put("PAIR", sample(new PairSerializer<>(STRING, INTEGER), Pair.with("IC 8", 7)))
+            .put("TRIPLET", sample(new TripletSerializer<>(STRING, INTEGER, LOCAL_TIME), Triplet.with("IC 8", 7, LocalTime.of(7, 2))))
+            .put("IMMUTABLE_LIST", sample(new ImmutableListSerializer<>(STRING), ImmutableList.of("Bern", "Olten", "Zürich HB")))
+            .put("IMMUTABLE_SET", sample(new ImmutableSetSerializer<>(INTEGER), ImmutableSet.of(1, 2, 3, 5, 8)))
+            .put("STRING_ARRAY", sample(new StringArraySerializer(), new String[]{"Bern", "Olten", "Zürich HB"}))
+            .build();
+
+    @Param({"STRING", "STRING_UTF_16BE", "OPTIONAL_STRING", "INTEGER", "LONG", "SHORT", "BYTE", "DOUBLE", "FLOAT",
+            "CHARACTER", "BIG_DECIMAL", "BIG_INTEGER", "LOCAL_DATE", "LOCAL_TIME", "LOCAL_DATE_TIME",
+            "ZONED_DATE_TIME", "OFFSET_DATE_TIME", "DATE", "JAVA_OBJECT", "VAR_INTEGER", "VAR_LONG",
+            "COMPACT_BIG_DECIMAL", "PACKED_LOCAL_DATE", "PACKED_LOCAL_TIME", "PACKED_LOCAL_DATE_TIME",
+            "PACKED_ZONED_DATE_TIME", "ENUM", "PAIR", "TRIPLET", "IMMUTABLE_LIST", "IMMUTABLE_SET", "STRING_ARRAY"})
+    private String serializer;
+
+    private final WriteBuffer out = new WriteBuffer(512);
+    private final ReadBuffer in = new ReadBuffer();
+    private BufferSerializer<Object> bufferSerializer;
+    private Object value;
+    private byte[] bytes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void serialize() {
+        Object[] sample = CASES.get(serializer);
+        bufferSerializer = (BufferSerializer<Object>) sample[0];
+        value = sample[1];
+        bytes = bufferSerializer.toByteArray(value);
+    }
+
+    @Benchmark
+    public int writeTo() {
+        out.reset();
+        bufferSerializer.writeTo(value, out);
+        return out.length();
+    }
+
+    @Benchmark
+    public Object readFrom() {
+        return bufferSerializer.readFrom(in.reset(bytes, 0, bytes.length));
+    }
+
+    @Benchmark
+    public byte[] toByteArray() {
+        return bufferSerializer.toByteArray(value);
+    }
+
+    @Benchmark
+    public Object fromByteArray() {
+        return bufferSerializer.fromByteArray(bytes);
+    }
+
+    private static <T> Object[] sample(BufferSerializer<T> serializer, T value) {
+        return new Object[]{serializer, value};
+    }
+}
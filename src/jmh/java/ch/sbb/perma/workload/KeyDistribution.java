@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.workload;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keys from 0 (inclusive) to the key count (exclusive) accessed by a workload. Thread safe.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+interface KeyDistribution {
+    int nextKey();
+
+    static KeyDistribution of(String name, int keyCount) {
+        switch (name) {
+            case "uniform":
+                return uniform(keyCount);
+            case "sequential":
+                return sequential(keyCount);
+            case "zipfian":
+                return zipfian(keyCount, 0.99);
+            default:
+                throw new IllegalArgumentException(String.format(
+                        "Unknown key distribution %s, expected uniform, sequential or zipfian", name));
+        }
+    }
+
+    static KeyDistribution uniform(int keyCount) {
+        return () -> ThreadLocalRandom.current().nextInt(keyCount);
+    }
+
+    /**
+     * All keys in ascending order, starting again at 0 after the last key.
+     */
+    static KeyDistribution sequential(int keyCount) {
+        AtomicLong next = new AtomicLong();
+        return () -> (int) (next.getAndIncrement() % keyCount);
+    }
+
+    /**
+     * Key i is accessed with a probability proportional to 1/(i+1)^theta, key 0 is the most popular.
+     * <p>
+     *     Constant time sampling as in "Quickly Generating Billion-Record Synthetic Databases" (Gray et al.), the
+     *     generator of YCSB. Theta 0.99 is the YCSB default.
+     * </p>
+     */
+    static KeyDistribution zipfian(int keyCount, double theta) {
+        double zetaN = zeta(keyCount, theta);
+        double zeta2 = zeta(2, theta);
+        double alpha = 1 / (1 - theta);
+        double eta = (1 - Math.pow(2.0 / keyCount, 1 - theta)) / (1 - zeta2 / zetaN);
+        double secondThreshold = 1 + Math.pow(0.5, theta);
+        return () -> {
+            double u = ThreadLocalRandom.current().nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1) {
+                return 0;
+            }
+            if (uz < secondThreshold) {
+                return Math.min(1, keyCount - 1);
+            }
+            return (int) Math.min(keyCount - 1, (long) (keyCount * Math.pow(eta * u - eta + 1, alpha)));
+        };
+    }
+
+    static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.workload;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of a workload, parsed from arguments <code>--name=value</code>.
+ * <ul>
+ * <li>keys: number of keys, all present before the start. Default 1000000</li>
+ * <li>distribution: uniform, sequential or zipfian key access. Default zipfian</li>
+ * <li>valueSize: characters per value. Default 100</li>
+ * <li>writers: writer threads, each putting and getting on the writable perma. Default 1</li>
+ * <li>readPercent: percentage of gets instead of puts of the writers. Default 50</li>
+ * <li>putsPerPersist: puts of a writer between its persists. Default 1000</li>
+ * <li>readers: threads getting from the read only perma. Default 2</li>
+ * <li>refreshMillis: pause between the refreshes of the read only perma. Default 100</li>
+ * <li>readerProcesses: reader processes on the same directory in addition to the in process readers. Default 0</li>
+ * <li>compressed: compress the files. Default false</li>
+ * <li>warmupSeconds and seconds: time to run unmeasured and measured. Default 5 and 30</li>
+ * <li>dir: directory of the perma. Default a new temp directory, deleted at the end</li>
+ * </ul>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class WorkloadOptions {
+    private final Map<String, String> values = new LinkedHashMap<>();
+
+    private WorkloadOptions() {
+        values.put("keys", "1000000");
+        values.put("distribution", "zipfian");
+        values.put("valueSize", "100");
+        values.put("writers", "1");
+        values.put("readPercent", "50");
+        values.put("putsPerPersist", "1000");
+        values.put("readers", "2");
+        values.put("refreshMillis", "100");
+        values.put("readerProcesses", "0");
+        values.put("compressed", "false");
+        values.put("warmupSeconds", "5");
+        values.put("seconds", "30");
+        values.put("dir", "");
+    }
+
+    static WorkloadOptions parse(String... args) {
+        WorkloadOptions options = new WorkloadOptions();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            Preconditions.checkArgument(arg.startsWith("--") && separator > 2,
+                                        String.format("Invalid argument %s, expected --name=value", arg));
+            String name = arg.substring(2, separator);
+            Preconditions.checkArgument(options.values.containsKey(name),
+                                        String.format("Unknown option %s, known are %s", name, options.values.keySet()));
+            options.values.put(name, arg.substring(separator + 1));
+        }
+        Preconditions.checkArgument(options.keys() > 0, "keys must be positive");
+        Preconditions.checkArgument(options.readPercent() >= 0 && options.readPercent() <= 100,
+                                    "readPercent must be between 0 and 100");
+        options.distribution();
+        return options;
+    }
+
+    /**
+     * @return the options for a reader process on the directory
+     */
+    WorkloadOptions forReaderProcess(File dir) {
+        WorkloadOptions options = new WorkloadOptions();
+        options.values.putAll(values);
+        options.values.put("dir", dir.getPath());
+        options.values.put("writers", "0");
+        options.values.put("readers", Integer.toString(Math.max(1, readers())));
+        options.values.put("readerProcesses", "0");
+        return options;
+    }
+
+    List<String> toArgs() {
+        List<String> args = new ArrayList<>();
+        values.forEach((name, value) -> args.add("--" + name + "=" + value));
+        return args;
+    }
+
+    int keys() {
+        return integer("keys");
+    }
+
+    KeyDistribution distribution() {
+        return KeyDistribution.of(values.get("distribution"), keys());
+    }
+
+    int valueSize() {
+        return integer("valueSize");
+    }
+
+    int writers() {
+        return integer("writers");
+    }
+
+    int readPercent() {
+        return integer("readPercent");
+    }
+
+    int putsPerPersist() {
+        return integer("putsPerPersist");
+    }
+
+    int readers() {
+        return integer("readers");
+    }
+
+    long refreshMillis() {
+        return integer("refreshMillis");
+    }
+
+    int readerProcesses() {
+        return integer("readerProcesses");
+    }
+
+    boolean compressed() {
+        return Boolean.parseBoolean(values.get("compressed"));
+    }
+
+    long warmupSeconds() {
+        return integer("warmupSeconds");
+    }
+
+    long seconds() {
+        return integer("seconds");
+    }
+
+    File dir() {
+        String dir = values.get("dir");
+        return dir.isEmpty() ? null : new File(dir);
+    }
+
+    private int integer(String name) {
+        try {
+            return Integer.parseInt(values.get(name));
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Option %s is not a number: %s", name, values.get(name)), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(this);
+        values.forEach(helper::add);
+        return helper.toString();
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.workload;
+
+import ch.sbb.perma.Options;
+import ch.sbb.perma.ReadOnlyPerma;
+import ch.sbb.perma.WritablePerma;
+import com.google.common.base.Strings;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.INTEGER;
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING;
+
+/**
+ * Run a mixed workload on a perma of integer keys and string values and report the latency percentiles per operation.
+ * <p>
+ *     Writer threads put and get on a {@link WritablePerma} and persist regularly, reader threads get from a
+ *     {@link ReadOnlyPerma} refreshed by a refresh thread. Before each persist the writer puts the wall clock time to
+ *     a heartbeat key, the refresh thread records the time until it sees a new heartbeat as propagation delay (with
+ *     millisecond resolution, comparable across processes). Reader processes run the readers and the refresh thread
+ *     on the same directory and report separately. See {@link WorkloadOptions} for the options.
+ * </p>
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec@workload -Dworkload.args="--writers=2 --readers=4 --readerProcesses=1"
+ * </pre>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class WorkloadRunner {
+    private static final String NAME = "workload";
+    private static final Integer HEARTBEAT_KEY = -1;
+
+    private enum Operation {
+        PUT("put"),
+        GET("get"),
+        PERSIST("persist"),
+        READ_ONLY_GET("get read only"),
+        REFRESH("refresh"),
+        PROPAGATION("writer to reader");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+    }
+
+    private final WorkloadOptions options;
+    private final KeyDistribution keys;
+    private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+    private long measureFrom;
+    private long end;
+
+    private WorkloadRunner(WorkloadOptions options) {
+        this.options = options;
+        this.keys = options.distribution();
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new LatencyHistogram());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("org.slf4j.simpleLogger.defaultLogLevel") == null) {
+            System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", "warn");
+        }
+        WorkloadOptions options = WorkloadOptions.parse(args);
+        File dir = options.dir() == null ? Files.createTempDirectory("perma-workload").toFile() : options.dir();
+        try {
+            new WorkloadRunner(options).run(dir);
+        }
+        finally {
+            if (options.dir() == null) {
+                MoreFiles.deleteRecursively(dir.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void run(File dir) throws Exception {
+        WritablePerma<Integer, String> writable = null;
+        if (options.writers() > 0) {
+            writable = WritablePerma.loadOrCreate(dir, NAME, INTEGER, STRING,
+                                                  options.compressed() ? Options.compressed() : Options.defaults());
+            fill(writable);
+        }
+        ReadOnlyPerma<Integer, String> readOnly = options.readers() > 0 ? ReadOnlyPerma.load(dir, NAME, INTEGER, STRING) : null;
+        List<Process> readerProcesses = startReaderProcesses(dir);
+
+        measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+        end = measureFrom + TimeUnit.SECONDS.toNanos(options.seconds());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < options.writers(); i++) {
+            threads.add(start("writer-" + i, writer(writable)));
+        }
+        if (readOnly != null) {
+            for (int i = 0; i < options.readers(); i++) {
+                threads.add(start("reader-" + i, reader(readOnly)));
+            }
+            threads.add(start("refresher", refresher(readOnly)));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        report();
+        for (Process process : readerProcesses) {
+            process.waitFor();
+        }
+    }
+
+    private void fill(WritablePerma<Integer, String> perma) throws IOException {
+        for (int key = 0; key < options.keys(); key++) {
+            perma.putIfAbsent(key, value(key, 0));
+        }
+        perma.put(HEARTBEAT_KEY, Long.toString(System.currentTimeMillis()));
+        perma.persist();
+    }
+
+    private List<Process> startReaderProcesses(File dir) throws IOException {
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < options.readerProcesses(); i++) {
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(WorkloadRunner.class.getName());
+            command.addAll(options.forReaderProcess(dir).toArgs());
+            processes.add(new ProcessBuilder(command).inheritIO().start());
+        }
+        return processes;
+    }
+
+    private Thread start(String name, Worker worker) {
+        Thread thread = new Thread(() -> {
+            Map<Operation, LatencyHistogram> local = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                local.put(operation, new LatencyHistogram());
+            }
+            try {
+                worker.run(local);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (histograms) {
+                local.forEach((operation, histogram) -> histograms.get(operation).add(histogram));
+            }
+        }, name);
+        thread.start();
+        return thread;
+    }
+
+    private Worker writer(WritablePerma<Integer, String> perma) {
+        return recorded -> {
+            int puts = 0;
+            int round = 0;
+            for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+                Integer key = keys.nextKey();
+                if (ThreadLocalRandom.current().nextInt(100) < options.readPercent()) {
+                    perma.get(key);
+                    record(recorded, Operation.GET, now);
+                    continue;
+                }
+                String value = value(key, ++round);
+                now = System.nanoTime();
+                perma.put(key, value);
+                record(recorded, Operation.PUT, now);
+                if (++puts % options.putsPerPersist() == 0) {
+                    perma.put(HEARTBEAT_KEY, Long.toString(System.currentTimeMillis()));
+                    now = System.nanoTime();
+                    perma.persist();
+                    record(recorded, Operation.PERSIST, now);
+                }
+            }
+        };
+    }
+
+    private Worker reader(ReadOnlyPerma<Integer, String> perma) {
+        return recorded -> {
+            for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+                perma.get(keys.nextKey());
+                record(recorded, Operation.READ_ONLY_GET, now);
+            }
+        };
+    }
+
+    private Worker refresher(ReadOnlyPerma<Integer, String> perma) {
+        return recorded -> {
+            String lastHeartbeat = perma.get(HEARTBEAT_KEY);
+            while (System.nanoTime() < end) {
+                Thread.sleep(options.refreshMillis());
+                long now = System.nanoTime();
+                perma.refresh();
+                record(recorded, Operation.REFRESH, now);
+                String heartbeat = perma.get(HEARTBEAT_KEY);
+                if (heartbeat != null && !heartbeat.equals(lastHeartbeat)) {
+                    lastHeartbeat = heartbeat;
+                    long delayMillis = System.currentTimeMillis() - Long.parseLong(heartbeat);
+                    if (now >= measureFrom) {
+                        recorded.get(Operation.PROPAGATION).record(TimeUnit.MILLISECONDS.toNanos(delayMillis));
+                    }
+                }
+            }
+        };
+    }
+
+    private void record(Map<Operation, LatencyHistogram> recorded, Operation operation, long start) {
+        if (start >= measureFrom) {
+            recorded.get(operation).record(System.nanoTime() - start);
+        }
+    }
+
+    private String value(int key, int round) {
+        return Strings.padEnd(key + "/" + round + ":", options.valueSize(), '.');
+    }
+
+    private void report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%nWorkload %s in %s%n", options, ManagementFactory.getRuntimeMXBean().getName()));
+        report.append(String.format("%-18s %10s %12s %10s %10s %10s %10s%n",
+                                    "operation", "count", "ops/s", "p50 us", "p99 us", "p99.9 us", "max us"));
+        histograms.forEach((operation, histogram) -> {
+            if (histogram.count() > 0) {
+                report.append(String.format("%-18s %10d %12.1f %10.1f %10.1f %10.1f %10.1f%n",
+                                            operation.label,
+                                            histogram.count(),
+                                            (double) histogram.count() / options.seconds(),
+                                            micros(histogram.percentile(50)),
+                                            micros(histogram.percentile(99)),
+                                            micros(histogram.percentile(99.9)),
+                                            micros(histogram.max())));
+            }
+        });
+        System.out.print(report);
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    private interface Worker {
+        void run(Map<Operation, LatencyHistogram> recorded) throws IOException, InterruptedException;
+    }
+}
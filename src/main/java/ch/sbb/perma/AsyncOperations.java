@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The asynchronous persist, compact and refresh operations of the permas.
+ * <p>
+ *     An operation is queued until the previous operation of the same kind on the same perma is done and then runs on
+ *     the executor. Calls while an operation is queued share it, so repeated calls collapse into at most one running
+ *     and one queued operation per perma and kind. A call while an operation runs queues the next one, the future of a
+ *     call completes after an operation that started after the call, e.g. after all changes made before it are
+ *     persisted.
+ * </p>
+ * <p>
+ *     Each call gets its own future. Cancelling it does not affect the other callers, a queued operation is skipped
+ *     if all its callers cancelled. A running operation is not interrupted, files are never left half written.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class AsyncOperations {
+    enum Kind {
+        PERSIST,
+        COMPACT,
+        REFRESH
+    }
+
+    interface Operation {
+        void run() throws IOException;
+    }
+
+    static final Executor DEFAULT_EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("perma-async-%d").build());
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+    private static final ConcurrentMap<Object, AsyncOperations> OF_PERMA = new MapMaker().weakKeys().makeMap();
+
+    private final Map<Kind, Queued> queued = new EnumMap<>(Kind.class);
+    private final Map<Kind, CompletableFuture<Void>> last = new EnumMap<>(Kind.class);
+
+    private static final class Queued {
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private int callers;
+        private int cancelled;
+    }
+
+    private AsyncOperations() {
+    }
+
+    /**
+     * @return the future of this call, completed after the operation queued for it is done
+     */
+    static CompletableFuture<Void> submit(Object perma, Kind kind, Operation operation, Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("executor is null");
+        }
+        return OF_PERMA.computeIfAbsent(perma, key -> new AsyncOperations()).submit(kind, operation, executor);
+    }
+
+    private CompletableFuture<Void> submit(Kind kind, Operation operation, Executor executor) {
+        Queued shared;
+        CompletableFuture<Void> previous = null;
+        synchronized (this) {
+            shared = queued.get(kind);
+            if (shared == null) {
+                shared = new Queued();
+                queued.put(kind, shared);
+                previous = last.getOrDefault(kind, DONE);
+                last.put(kind, shared.result);
+            }
+            shared.callers++;
+        }
+        CompletableFuture<Void> caller = caller(shared);
+        if (previous != null) {
+            Queued next = shared;
+            previous.whenComplete((ignored, failure) -> start(kind, next, operation, executor));
+        }
+        return caller;
+    }
+
+    private CompletableFuture<Void> caller(Queued shared) {
+        CompletableFuture<Void> caller = new CompletableFuture<>();
+        caller.whenComplete((ignored, failure) -> {
+            if (caller.isCancelled()) {
+                synchronized (this) {
+                    shared.cancelled++;
+                }
+            }
+        });
+        shared.result.whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                caller.complete(null);
+            }
+            else {
+                caller.completeExceptionally(failure);
+            }
+        });
+        return caller;
+    }
+
+    private void start(Kind kind, Queued shared, Operation operation, Executor executor) {
+        try {
+            executor.execute(() -> run(kind, shared, operation));
+        }
+        catch (RejectedExecutionException e) {
+            synchronized (this) {
+                queued.remove(kind, shared);
+            }
+            shared.result.completeExceptionally(e);
+        }
+    }
+
+    private void run(Kind kind, Queued shared, Operation operation) {
+        synchronized (this) {
+            queued.remove(kind, shared); // later calls queue the next operation
+            if (shared.cancelled == shared.callers) {
+                shared.result.cancel(false);
+                return;
+            }
+        }
+        try {
+            operation.run();
+            shared.result.complete(null);
+        }
+        catch (Throwable e) {
+            shared.result.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+/**
+ * Why a full file was written.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public enum CompactionReason {
+    /**
+     * No compaction, a delta file or the first full file of a perma.
+     */
+    NONE,
+    /**
+     * The changes to persist reached the compaction threshold of the {@link Options}.
+     */
+    THRESHOLD,
+    /**
+     * Compact was called.
+     */
+    REQUESTED
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Iterates a copy of the elements of a synchronized collection, remove is delegated to the collection.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+abstract class CopyIterator<E> implements Iterator<E> {
+    private final Iterator<E> elements;
+    private E current;
+
+    CopyIterator(List<E> copy) {
+        this.elements = copy.iterator();
+    }
+
+    abstract void remove(E element);
+
+    @Override
+    public boolean hasNext() {
+        return elements.hasNext();
+    }
+
+    @Override
+    public E next() {
+        current = elements.next();
+        return current;
+    }
+
+    @Override
+    public void remove() {
+        if (current == null) {
+            throw new IllegalStateException("next() not called");
+        }
+        remove(current);
+        current = null;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.file.FileGroup;
+import ch.sbb.perma.file.FileStats;
+import ch.sbb.perma.file.PermaFile;
+import ch.sbb.perma.serializers.KeyOrValueSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The instrumentation of a read or a write of the files of a perma: the flight events, the statistics of the files
+ * and the notification of the listener of the options.
+ * <p>
+ *     Begin an operation, read or write the files returned by {@link #recording(PermaFile)}, then end it exactly once
+ *     with {@link #read(FileGroup)} or {@link #written(PermaFile, long)}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class FileOperation {
+    private final String permaName;
+    private final Options options;
+    private final boolean refresh;
+    private final CompactionReason reason;
+    private final FlightEvent event;
+    private final FlightEvent compaction;
+    private final FileStats stats = new FileStats();
+    private final long start = System.nanoTime();
+
+    private FileOperation(String permaName,
+                          Options options,
+                          boolean refresh,
+                          CompactionReason reason,
+                          FlightEvent event,
+                          FlightEvent compaction) {
+        this.permaName = permaName;
+        this.options = options;
+        this.refresh = refresh;
+        this.reason = reason;
+        this.event = event;
+        this.compaction = compaction;
+    }
+
+    /**
+     * Begin the initial load or a refresh.
+     */
+    static FileOperation read(String permaName, Options options, boolean refresh) {
+        return new FileOperation(permaName,
+                                 options,
+                                 refresh,
+                                 CompactionReason.NONE,
+                                 FlightEvent.begin(refresh ? FlightEvent.Type.REFRESH : FlightEvent.Type.LOAD),
+                                 FlightEvent.NONE);
+    }
+
+    /**
+     * Begin the write of a full file, in a compaction event too if the reason is not NONE.
+     */
+    static FileOperation writeFull(String permaName, Options options, CompactionReason reason) {
+        return new FileOperation(permaName,
+                                 options,
+                                 false,
+                                 reason,
+                                 FlightEvent.begin(FlightEvent.Type.FULL_WRITE),
+                                 FlightEvent.beginCompaction(reason));
+    }
+
+    static FileOperation writeDelta(String permaName, Options options) {
+        return new FileOperation(permaName,
+                                 options,
+                                 false,
+                                 CompactionReason.NONE,
+                                 FlightEvent.begin(FlightEvent.Type.DELTA_WRITE),
+                                 FlightEvent.NONE);
+    }
+
+    FileOperation serializers(KeyOrValueSerializer<?> keySerializer, KeyOrValueSerializer<?> valueSerializer) {
+        event.serializers(keySerializer, valueSerializer);
+        compaction.serializers(keySerializer, valueSerializer);
+        return this;
+    }
+
+    PermaFile recording(PermaFile file) {
+        return file.recordingTo(stats);
+    }
+
+    List<PermaFile> recording(List<PermaFile> files) {
+        return PermaFile.recordingTo(files, stats);
+    }
+
+    /**
+     * End a load or refresh.
+     *
+     * @param files the files after the read, not existing for a new perma
+     */
+    void read(FileGroup files) throws IOException {
+        ReadEvent read = ReadEvent.of(permaName, refresh, files, stats, start);
+        event.read(read).commit();
+        options.read(read);
+    }
+
+    /**
+     * End a write.
+     *
+     * @param diffNanos the time spent before the begin to take the changes, reported to the listener
+     */
+    void written(PermaFile file, long diffNanos) {
+        WriteEvent written = WriteEvent.of(permaName, file, reason, stats, diffNanos, System.nanoTime() - start);
+        event.written(written).commit();
+        compaction.written(written).commit();
+        options.written(written);
+    }
+}
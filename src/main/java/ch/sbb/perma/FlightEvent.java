@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.file.FileGroup;
+import ch.sbb.perma.serializers.KeyOrValueSerializer;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+/**
+ * A Java Flight Recorder event of a perma operation, see {@link JfrEvents} for the event types.
+ * <p>
+ *     Begin returns {@link #NONE} (ignoring all values) if the event type is not enabled in a running recording or if
+ *     the JVM has no JFR API (Java 8 before update 262), the JFR classes are only loaded if the API is there.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+class FlightEvent {
+    enum Type {
+        PERSIST,
+        DELTA_WRITE,
+        FULL_WRITE,
+        COMPACTION,
+        LOAD,
+        REFRESH,
+        DIRECTORY_SCAN
+    }
+
+    static final FlightEvent NONE = new FlightEvent();
+
+    private static final boolean FLIGHT_RECORDER_API = flightRecorderApi();
+
+    String permaName = "";
+    String serializers = "";
+    String directory = "";
+    String compactionReason = "";
+    int fullFileNumber;
+    int deltaFileNumber;
+    int files;
+    int records;
+    long bytes;
+
+    FlightEvent() {
+    }
+
+    static FlightEvent begin(Type type) {
+        return FLIGHT_RECORDER_API ? JfrEvents.begin(type) : NONE;
+    }
+
+    /**
+     * Begin a compaction event if the reason is not NONE.
+     */
+    static FlightEvent beginCompaction(CompactionReason reason) {
+        return reason == CompactionReason.NONE ? NONE : begin(Type.COMPACTION);
+    }
+
+    /**
+     * List the files of a perma in a directory scan event.
+     */
+    static FileGroup list(File dir, String permaName, String commitGroup) throws IOException {
+        FlightEvent event = begin(Type.DIRECTORY_SCAN);
+        FileGroup files = FileGroup.list(dir, permaName, commitGroup);
+        event.perma(permaName).scanned(files).commit();
+        return files;
+    }
+
+    /**
+     * Refresh the files of a perma in a directory scan event.
+     */
+    static FileGroup refresh(FileGroup previous, String permaName) throws IOException {
+        FlightEvent event = begin(Type.DIRECTORY_SCAN);
+        FileGroup files = previous.refresh();
+        event.perma(permaName).scanned(files).commit();
+        return files;
+    }
+
+    FlightEvent perma(String name) {
+        if (this != NONE) {
+            permaName = name;
+        }
+        return this;
+    }
+
+    FlightEvent serializers(KeyOrValueSerializer<?> keySerializer, KeyOrValueSerializer<?> valueSerializer) {
+        if (this != NONE) {
+            serializers = keySerializer.getClass().getName() + ", " + valueSerializer.getClass().getName();
+        }
+        return this;
+    }
+
+    /**
+     * Set the number of changed entries written by a persist.
+     */
+    FlightEvent changed(int entries) {
+        if (this != NONE) {
+            records = entries;
+        }
+        return this;
+    }
+
+    FlightEvent written(WriteEvent event) {
+        if (this != NONE) {
+            permaName = event.permaName();
+            fullFileNumber = event.fullFileNumber();
+            deltaFileNumber = event.deltaFileNumber();
+            compactionReason = event.compactionReason().name();
+            files = 1;
+            records = event.records();
+            bytes = event.bytes();
+        }
+        return this;
+    }
+
+    FlightEvent read(ReadEvent event) {
+        if (this != NONE) {
+            permaName = event.permaName();
+            fullFileNumber = event.fullFileNumber();
+            deltaFileNumber = event.deltaFileNumber();
+            files = event.files();
+            records = event.records();
+            bytes = event.bytes();
+        }
+        return this;
+    }
+
+    FlightEvent compactionReason(CompactionReason reason) {
+        if (this != NONE) {
+            compactionReason = reason.name();
+        }
+        return this;
+    }
+
+    /**
+     * Set the generation numbers of the latest file.
+     */
+    FlightEvent files(FileGroup group) throws FileNotFoundException {
+        if (this != NONE && group.exists()) {
+            fullFileNumber = group.latestFile().fullFileNumber();
+            deltaFileNumber = group.latestFile().deltaFileNumber();
+        }
+        return this;
+    }
+
+    private FlightEvent scanned(FileGroup group) throws FileNotFoundException {
+        if (this != NONE) {
+            directory = group.directory().getPath();
+            files = group.exists() ? 1 + group.deltaFiles().size() : 0;
+        }
+        return files(group);
+    }
+
+    /**
+     * End and commit, if recording.
+     */
+    void commit() {
+    }
+
+    private static boolean flightRecorderApi() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
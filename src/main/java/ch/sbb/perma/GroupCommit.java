@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.file.CommitMarker;
+import ch.sbb.perma.file.Durability;
+import ch.sbb.perma.file.PermaFile;
+import ch.sbb.perma.file.SyncBatch;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Persist several permas of a directory together and publish them atomically.
+ * <p>
+ *     A commit persists all permas in parallel on the executor, syncs their directory once and then writes the
+ *     {@link CommitMarker} of the group with the committed files of each perma. Readers loaded with
+ *     {@link Options.Builder#commitGroup(String)} only see the files of the latest marker. Refresh them together with
+ *     {@link #refresh(File, String, Collection)}, which reads the marker once, so they see either all or none of the
+ *     changes of a commit, also after a crash in the middle of it. Files replaced by a compaction are deleted after
+ *     the marker is written.
+ * </p>
+ * <p>
+ *     The marker is written under a file lock, commits of several instances or processes for different permas of the
+ *     same group do not lose each other's files. If a persist fails, no marker is written and the exception is thrown.
+ *     The files written by the other permas are published by the next successful commit of the same instance. Writers
+ *     of the permas should be loaded with the commit group too, so they continue from the committed files and
+ *     overwrite files written by a failed commit.
+ * </p>
+ * <p>
+ *     Once the group has a marker, a perma not committed in it does not exist for its readers and writers.
+ *     {@link #compact(Collection)} an existing perma once with a writer loaded without the commit group to add it with
+ *     its entries. A delta file persisted outside of a commit is never published: a commit of the later delta files of
+ *     the same full file fails with an IllegalStateException, {@link #compact(Collection)} the perma to publish it
+ *     again.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class GroupCommit {
+    private static final Logger LOG = LoggerFactory.getLogger(GroupCommit.class);
+
+    private static final Executor PERSISTERS = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("perma-group-commit-%d").build());
+
+    private final File dir;
+    private final String group;
+    private final Durability durability;
+    private final Executor executor;
+    private final List<PermaFile> uncommitted = new ArrayList<>();
+    private final List<PermaFile> replaced = new ArrayList<>();
+
+    private GroupCommit(File dir, String group, Durability durability, Executor executor) {
+        this.dir = Preconditions.checkNotNull(dir, "dir is null");
+        this.group = Preconditions.checkNotNull(group, "group is null");
+        this.durability = Preconditions.checkNotNull(durability, "durability is null");
+        this.executor = Preconditions.checkNotNull(executor, "executor is null");
+    }
+
+    public static GroupCommit of(File dir, String group) {
+        return of(dir, group, Durability.NONE);
+    }
+
+    /**
+     * @param durability of the commit marker, the files of the permas are written with the durability of their options
+     */
+    public static GroupCommit of(File dir, String group, Durability durability) {
+        return of(dir, group, durability, PERSISTERS);
+    }
+
+    public static GroupCommit of(File dir, String group, Durability durability, Executor executor) {
+        return new GroupCommit(dir, group, durability, executor);
+    }
+
+    public void commit(Writable<?, ?>... permas) throws IOException {
+        commit(Arrays.asList(permas));
+    }
+
+    /**
+     * Persist the permas in parallel and publish their files with the next commit marker.
+     */
+    public synchronized void commit(Collection<? extends Writable<?, ?>> permas) throws IOException {
+        commit(permas, false);
+    }
+
+    public void compact(Writable<?, ?>... permas) throws IOException {
+        compact(Arrays.asList(permas));
+    }
+
+    /**
+     * Compact the permas in parallel and publish their new full files with the next commit marker, also publishes a
+     * perma persisted outside of a commit.
+     */
+    public synchronized void compact(Collection<? extends Writable<?, ?>> permas) throws IOException {
+        commit(permas, true);
+    }
+
+    private void commit(Collection<? extends Writable<?, ?>> permas, boolean compact) throws IOException {
+        SyncBatch batch = SyncBatch.openGroup();
+        try {
+            persistAll(batch, permas, compact);
+            batch.syncDirectories();
+        }
+        finally {
+            uncommitted.addAll(batch.written());
+            replaced.addAll(batch.replaced());
+        }
+        CommitMarker marker = CommitMarker.update(dir, group, durability, committed -> committed.next(uncommitted));
+        LOG.debug("Committed {}", marker);
+        uncommitted.clear();
+        for (PermaFile file : replaced) {
+            file.delete();
+        }
+        replaced.clear();
+    }
+
+    public static void refresh(File dir, String group, Refreshable... permas) throws IOException {
+        refresh(dir, group, Arrays.asList(permas));
+    }
+
+    /**
+     * Refresh readers of the group from the latest marker, read once for all of them: after the refresh they show
+     * the files of the same commit. The permas are refreshed one after the other on the calling thread.
+     *
+     * @param permas loaded with the commit group in the directory
+     */
+    public static void refresh(File dir, String group, Collection<? extends Refreshable> permas) throws IOException {
+        CommitMarker marker = CommitMarker.read(dir, group);
+        try (Closeable pinned = CommitMarker.pin(marker)) {
+            for (Refreshable perma : permas) {
+                perma.refresh();
+            }
+        }
+        LOG.debug("Refreshed {} permas to {}", permas.size(), marker);
+    }
+
+    private void persistAll(SyncBatch batch, Collection<? extends Writable<?, ?>> permas, boolean compact)
+            throws IOException {
+        List<CompletableFuture<Void>> persists = new ArrayList<>();
+        for (Writable<?, ?> perma : permas) {
+            persists.add(CompletableFuture.runAsync(() -> persist(batch, perma, compact), executor));
+        }
+        Throwable failure = null;
+        for (CompletableFuture<Void> persist : persists) {
+            try {
+                persist.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = add(failure, new InterruptedIOException("Interrupted while persisting the group " + group));
+                break;
+            }
+            catch (ExecutionException e) {
+                Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+                failure = add(failure, cause);
+            }
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IOException(failure);
+        }
+    }
+
+    private static void persist(SyncBatch batch, Writable<?, ?> perma, boolean compact) {
+        try (Closeable joined = batch.join()) {
+            if (compact) {
+                perma.compact();
+            } else {
+                perma.persist();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Throwable add(Throwable failure, Throwable next) {
+        if (failure == null) {
+            return next;
+        }
+        failure.addSuppressed(next);
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return "GroupCommit{" +
+                "dir=" + dir +
+                ", group=" + group +
+                '}';
+    }
+}
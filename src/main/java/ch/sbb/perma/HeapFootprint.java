@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+/**
+ * Estimated heap retained by a perma or a group of permas.
+ * <p>
+ *     Keys and values are the bytes of the objects (or of their packed form in the specialized tables), the overhead
+ *     is the rest: tables, entry objects, free slots, the last persisted or loaded snapshot and the changes tracked
+ *     for the next persist. Object sizes of large permas are extrapolated from a sample of entries.
+ * </p>
+ * <pre>
+ * HeapFootprint total = HeapFootprint.total(Arrays.asList(stations, trains, platforms));
+ * </pre>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class HeapFootprint {
+    static final HeapFootprint EMPTY = new HeapFootprint(0, 0, 0, 0, 0);
+
+    private final long entries;
+    private final long sampledEntries;
+    private final long keyBytes;
+    private final long valueBytes;
+    private final long overheadBytes;
+
+    HeapFootprint(long entries, long sampledEntries, long keyBytes, long valueBytes, long overheadBytes) {
+        this.entries = entries;
+        this.sampledEntries = sampledEntries;
+        this.keyBytes = keyBytes;
+        this.valueBytes = valueBytes;
+        this.overheadBytes = Math.max(overheadBytes, 0);
+    }
+
+    /**
+     * Sum of the footprints of a group of permas, estimated with {@link HeapSizer#REFLECTIVE}.
+     */
+    public static HeapFootprint total(Iterable<? extends HeapMeasurable> permas) {
+        return total(permas, HeapSizer.REFLECTIVE);
+    }
+
+    public static HeapFootprint total(Iterable<? extends HeapMeasurable> permas, HeapSizer sizer) {
+        HeapFootprint total = EMPTY;
+        for (HeapMeasurable perma : permas) {
+            total = total.plus(perma.heapFootprint(sizer));
+        }
+        return total;
+    }
+
+    public HeapFootprint plus(HeapFootprint other) {
+        return new HeapFootprint(entries + other.entries,
+                                 sampledEntries + other.sampledEntries,
+                                 keyBytes + other.keyBytes,
+                                 valueBytes + other.valueBytes,
+                                 overheadBytes + other.overheadBytes);
+    }
+
+    public long entries() {
+        return entries;
+    }
+
+    /**
+     * @return the number of entries sized, the object sizes of the others are extrapolated
+     */
+    public long sampledEntries() {
+        return sampledEntries;
+    }
+
+    public boolean isSampled() {
+        return sampledEntries < entries;
+    }
+
+    public long keyBytes() {
+        return keyBytes;
+    }
+
+    public long valueBytes() {
+        return valueBytes;
+    }
+
+    public long overheadBytes() {
+        return overheadBytes;
+    }
+
+    public long totalBytes() {
+        return keyBytes + valueBytes + overheadBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "HeapFootprint{" +
+                "entries=" + entries +
+                ", sampledEntries=" + sampledEntries +
+                ", keyBytes=" + keyBytes +
+                ", valueBytes=" + valueBytes +
+                ", overheadBytes=" + overheadBytes +
+                ", totalBytes=" + totalBytes() +
+                '}';
+    }
+}
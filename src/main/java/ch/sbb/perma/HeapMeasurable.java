@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+/**
+ * A perma estimating the heap it retains.
+ * <p>
+ *     Implemented by all permas of this library. {@link Writable} and {@link Refreshable} do not extend it, other
+ *     implementations of them do not have to estimate their heap.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public interface HeapMeasurable {
+    /**
+     * Estimate with {@link HeapSizer#REFLECTIVE}.
+     */
+    default HeapFootprint heapFootprint() {
+        return heapFootprint(HeapSizer.REFLECTIVE);
+    }
+
+    /**
+     * Estimate the retained heap, objects are sized for a sample of at most {@value HeapSample#SAMPLES} entries.
+     */
+    HeapFootprint heapFootprint(HeapSizer sizer);
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.collections.LongObjectHashMap;
+import ch.sbb.perma.collections.ObjectHashSet;
+import ch.sbb.perma.collections.Utf8HashMap;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Size every n-th entry of a perma and extrapolate to all entries.
+ * <p>
+ *     Also estimates the tables of the JDK and Guava maps for a 64 bit JVM with compressed references.
+ * </p>
+ * <pre>
+ * HeapSample sample = new HeapSample(map.size(), sizer);
+ * for (Map.Entry&lt;K,V&gt; entry : map.entrySet()) {
+ *     if (sample.isComplete()) {
+ *         break;
+ *     }
+ *     if (sample.next()) {
+ *         sample.add(entry.getKey(), entry.getValue());
+ *     }
+ * }
+ * </pre>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class HeapSample {
+    static final int SAMPLES = 1000;
+
+    private static final int CONCURRENT_HASH_MAP = 64;
+    private static final int CONCURRENT_HASH_MAP_NODE = 32;
+    private static final int IMMUTABLE_MAP = 24;
+    private static final int IMMUTABLE_MAP_ENTRY = 24;
+    private static final int REFERENCE = 4;
+
+    private final int size;
+    private final int stride;
+    private final HeapSizer sizer;
+    private int index;
+    private int sampled;
+    private long keyBytes;
+    private long valueBytes;
+
+    HeapSample(int size, HeapSizer sizer) {
+        this.size = size;
+        this.stride = Math.max(1, size / SAMPLES);
+        this.sizer = sizer;
+    }
+
+    static HeapSample of(Map<?,?> map, HeapSizer sizer) {
+        HeapSample sample = new HeapSample(map.size(), sizer);
+        for (Map.Entry<?,?> entry : map.entrySet()) {
+            if (sample.isComplete()) {
+                break;
+            }
+            if (sample.next()) {
+                sample.add(entry.getKey(), entry.getValue());
+            }
+        }
+        return sample;
+    }
+
+    static HeapSample of(Collection<?> set, HeapSizer sizer) {
+        HeapSample sample = new HeapSample(set.size(), sizer);
+        for (Iterator<?> elements = set.iterator(); elements.hasNext() && !sample.isComplete(); ) {
+            Object element = elements.next();
+            if (sample.next()) {
+                sample.add(element, null);
+            }
+        }
+        return sample;
+    }
+
+    static HeapSample of(ObjectHashSet<?> set, HeapSizer sizer) {
+        HeapSample sample = new HeapSample(set.size(), sizer);
+        for (int slot = set.nextSlot(0); slot >= 0 && !sample.isComplete(); slot = set.nextSlot(slot + 1)) {
+            if (sample.next()) {
+                sample.add(set.elementAt(slot), null);
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Keys are the 8 bytes of the key array, values are sized.
+     */
+    static HeapSample of(LongObjectHashMap<?> map, HeapSizer sizer) {
+        HeapSample sample = new HeapSample(map.size(), sizer);
+        for (int slot = map.nextSlot(0); slot >= 0 && !sample.isComplete(); slot = map.nextSlot(slot + 1)) {
+            if (sample.next()) {
+                sample.addBytes(8, sizer.sizeOf(map.valueAt(slot)));
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Keys and values are their bytes in the arena.
+     */
+    static HeapSample of(Utf8HashMap map) {
+        HeapSample sample = new HeapSample(map.size(), HeapSizer.REFLECTIVE);
+        for (int slot = map.nextSlot(0); slot >= 0 && !sample.isComplete(); slot = map.nextSlot(slot + 1)) {
+            if (sample.next()) {
+                sample.addBytes(map.keyBytesAt(slot), map.valueBytesAt(slot));
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Advance to the next entry.
+     *
+     * @return true if the entry is to be sampled
+     */
+    boolean next() {
+        return index++ % stride == 0;
+    }
+
+    boolean isComplete() {
+        return sampled >= SAMPLES;
+    }
+
+    void add(Object key, Object value) {
+        addBytes(sizer.sizeOf(key), sizer.sizeOf(value));
+    }
+
+    void addBytes(long keyBytes, long valueBytes) {
+        this.keyBytes += keyBytes;
+        this.valueBytes += valueBytes;
+        sampled++;
+    }
+
+    long keyBytes() {
+        return extrapolate(keyBytes);
+    }
+
+    long valueBytes() {
+        return extrapolate(valueBytes);
+    }
+
+    HeapFootprint footprint(long overheadBytes) {
+        return new HeapFootprint(size, sampled, keyBytes(), valueBytes(), overheadBytes);
+    }
+
+    /**
+     * @param tableBytes the bytes of a table containing the keys and values
+     */
+    HeapFootprint footprintWithin(long tableBytes) {
+        return footprint(tableBytes - keyBytes() - valueBytes());
+    }
+
+    /**
+     * Of a table with fixed size keys and values.
+     *
+     * @param tableBytes the bytes of the table containing the keys and values
+     */
+    static HeapFootprint exact(int size, int keyWidth, int valueWidth, long tableBytes) {
+        long keyBytes = (long) size * keyWidth;
+        long valueBytes = (long) size * valueWidth;
+        return new HeapFootprint(size, size, keyBytes, valueBytes, tableBytes - keyBytes - valueBytes);
+    }
+
+    static long concurrentHashMap(int size) {
+        return CONCURRENT_HASH_MAP +
+                ReflectiveHeapSizer.array(tableSize(size, 0.75), REFERENCE) +
+                (long) size * CONCURRENT_HASH_MAP_NODE;
+    }
+
+    static long immutableMap(int size) {
+        if (size == 0) {
+            return 0;
+        }
+        return IMMUTABLE_MAP +
+                ReflectiveHeapSizer.array(size, REFERENCE) +
+                ReflectiveHeapSizer.array(tableSize(size, 1.2), REFERENCE) +
+                (long) size * IMMUTABLE_MAP_ENTRY;
+    }
+
+    static long immutableSet(int size) {
+        if (size == 0) {
+            return 0;
+        }
+        return IMMUTABLE_MAP +
+                ReflectiveHeapSizer.array(size, REFERENCE) +
+                ReflectiveHeapSizer.array(tableSize(size, 0.7), REFERENCE);
+    }
+
+    private long extrapolate(long sampledBytes) {
+        return sampled == 0 ? 0 : Math.round((double) sampledBytes * size / sampled);
+    }
+
+    private static int tableSize(int size, double loadFactor) {
+        int tableSize = Integer.highestOneBit(Math.max((int) (size / loadFactor), 1));
+        return tableSize * loadFactor < size ? tableSize << 1 : tableSize;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import java.lang.instrument.Instrumentation;
+
+/**
+ * Size of an object and the objects reachable from it.
+ * <p>
+ *     The built-in sizers walk the object graph and skip enums and classes, objects shared between entries are
+ *     counted for each entry.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+@FunctionalInterface
+public interface HeapSizer {
+    /**
+     * Sizes from the declared fields for a 64 bit JVM with compressed references. On Java 9 and later, JDK classes
+     * other than strings, collections and maps are sized without the objects they refer to.
+     */
+    HeapSizer REFLECTIVE = new ReflectiveHeapSizer(null);
+
+    /**
+     * Sizes from the JVM (e.g. passed to the premain of an agent), the graph is walked as by {@link #REFLECTIVE}.
+     */
+    static HeapSizer instrumented(Instrumentation instrumentation) {
+        return new ReflectiveHeapSizer(instrumentation);
+    }
+
+    /**
+     * @return the retained bytes, 0 for null
+     */
+    long sizeOf(Object object);
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Java Flight Recorder events of perma in the category "Perma", only loaded if the JFR API is available.
+ * <p>
+ *     All event types have the same fields, the values not applying to a type are empty or 0. Persist counts the
+ *     changed entries as records, the written file is in the nested delta or full write event. Compaction spans the
+ *     write of the compacted full file, load and refresh count the records and bytes of the files read.
+ * </p>
+ * <p>
+ *     Stack traces are off, the events are enabled with the JFR settings, e.g. <code>ch.sbb.perma.Persist#enabled=true</code>
+ *     or all with <code>-XX:StartFlightRecording:settings=perma.jfc</code> listing the event names.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class JfrEvents {
+    @Category("Perma")
+    @StackTrace(false)
+    static abstract class PermaEvent extends Event {
+        @Label("Perma")
+        String permaName;
+
+        @Label("Serializers")
+        @Description("Key and value serializer classes of a WritablePerma or ReadOnlyPerma")
+        String serializers;
+
+        @Label("Full File Number")
+        @Description("Generation of the full file, incremented by each compaction")
+        int fullFileNumber;
+
+        @Label("Delta File Number")
+        @Description("Length of the delta chain")
+        int deltaFileNumber;
+
+        @Label("Files")
+        int files;
+
+        @Label("Records")
+        int records;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("ch.sbb.perma.Persist")
+    @Label("Perma Persist")
+    static final class Persist extends PermaEvent {
+    }
+
+    @Name("ch.sbb.perma.DeltaWrite")
+    @Label("Perma Delta File Write")
+    static final class DeltaWrite extends PermaEvent {
+    }
+
+    @Name("ch.sbb.perma.FullWrite")
+    @Label("Perma Full File Write")
+    static final class FullWrite extends PermaEvent {
+    }
+
+    @Name("ch.sbb.perma.Compaction")
+    @Label("Perma Compaction")
+    static final class Compaction extends PermaEvent {
+        @Label("Reason")
+        String compactionReason;
+    }
+
+    @Name("ch.sbb.perma.Load")
+    @Label("Perma Load")
+    static final class Load extends PermaEvent {
+    }
+
+    @Name("ch.sbb.perma.Refresh")
+    @Label("Perma Refresh")
+    static final class Refresh extends PermaEvent {
+    }
+
+    @Name("ch.sbb.perma.DirectoryScan")
+    @Label("Perma Directory Scan")
+    static final class DirectoryScan extends PermaEvent {
+        @Label("Directory")
+        String directory;
+    }
+
+    private static final EventType[] TYPES = {
+            EventType.getEventType(Persist.class),
+            EventType.getEventType(DeltaWrite.class),
+            EventType.getEventType(FullWrite.class),
+            EventType.getEventType(Compaction.class),
+            EventType.getEventType(Load.class),
+            EventType.getEventType(Refresh.class),
+            EventType.getEventType(DirectoryScan.class)
+    };
+
+    private JfrEvents() {
+    }
+
+    static FlightEvent begin(FlightEvent.Type type) {
+        if (!TYPES[type.ordinal()].isEnabled()) {
+            return FlightEvent.NONE;
+        }
+        PermaEvent event = newEvent(type);
+        event.begin();
+        return new Recorded(event);
+    }
+
+    private static PermaEvent newEvent(FlightEvent.Type type) {
+        switch (type) {
+            case PERSIST:
+                return new Persist();
+            case DELTA_WRITE:
+                return new DeltaWrite();
+            case FULL_WRITE:
+                return new FullWrite();
+            case COMPACTION:
+                return new Compaction();
+            case LOAD:
+                return new Load();
+            case REFRESH:
+                return new Refresh();
+            case DIRECTORY_SCAN:
+                return new DirectoryScan();
+            default:
+                throw new IllegalArgumentException(String.format("Unknown event type %s", type));
+        }
+    }
+
+    private static final class Recorded extends FlightEvent {
+        private final PermaEvent event;
+
+        private Recorded(PermaEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        void commit() {
+            event.end();
+            if (!event.shouldCommit()) {
+                return;
+            }
+            event.permaName = permaName;
+            event.serializers = serializers;
+            event.fullFileNumber = fullFileNumber;
+            event.deltaFileNumber = deltaFileNumber;
+            event.files = files;
+            event.records = records;
+            event.bytes = bytes;
+            if (event instanceof Compaction) {
+                ((Compaction) event).compactionReason = compactionReason;
+            } else if (event instanceof DirectoryScan) {
+                ((DirectoryScan) event).directory = directory;
+            }
+            event.commit();
+        }
+    }
+}
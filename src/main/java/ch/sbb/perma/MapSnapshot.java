@@ -27,7 +27,7 @@ interface MapSnapshot<K, V> {
         if(keySerializer == null || valueSerializer == null) {
             throw new NullPointerException("keySerializer and/or valueSerializer is null");
         }
-        FileGroup files = FileGroup.list(dir, name);
+        FileGroup files = FlightEvent.list(dir, name, options.commitGroup());
         if (!files.exists()) {
             return new NewMapSnapshot<>(
                     name,
@@ -51,4 +51,9 @@ interface MapSnapshot<K, V> {
     MapSnapshot<K,V> compact() throws IOException;
 
     ImmutableMap<K, V> asImmutableMap();
+
+    /**
+     * @return estimated heap bytes of the snapshot and of the data of the last file, without the keys and values
+     */
+    long overheadBytes();
 }
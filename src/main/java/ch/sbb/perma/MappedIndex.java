@@ -0,0 +1,370 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.datastore.FileInspection;
+import ch.sbb.perma.file.IndexFile;
+import ch.sbb.perma.file.PermaFile;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * An open addressing hash index of the entries of an uncompressed full file, the index and the full file are mapped
+ * into memory.
+ * <p>
+ *     The index only holds the slot table, a slot holds the upper {@value #TAG_BITS} bits of the key hash and the
+ *     offset of the record of the entry in the full file, 0 if empty. The trailer holds the offset of the first record,
+ *     the counts, the uuid and the length of the full file the index was built from and the CRC32 of the index. Slots
+ *     are probed linearly, at most half of them are used. Null values are not supported.
+ * </p>
+ * <p>
+ *     The index is built by the writer, see {@link Options.Builder#mappedIndex(boolean)}, readers only open it: an
+ *     index which is missing, corrupt or built from another full file is not used.
+ * </p>
+ * <p>
+ *     The files are mapped in segments of at most {@value #SEGMENT_BYTES} bytes, a record may span two segments. Reads
+ *     do not change the mapped buffers and are not synchronized, the pages are shared with all processes mapping the
+ *     files.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class MappedIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(MappedIndex.class);
+
+    static final int SEGMENT_BYTES = 1 << 30;
+    private static final byte[] MAGIC = "PeMX".getBytes(US_ASCII);
+    private static final int VERSION = 2;
+    private static final int SLOTS_OFFSET = MAGIC.length + Integer.BYTES;
+    private static final int TRAILER_BYTES = Long.BYTES * 5 + Integer.BYTES * 3 + MAGIC.length;
+    private static final int CHECKED_TRAILER_BYTES = Long.BYTES * 4 + Integer.BYTES * 2; // the trailer before the CRC
+    private static final int TAG_BITS = 24;
+    private static final int OFFSET_BITS = Long.SIZE - TAG_BITS;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final int MAX_SLOTS = 1 << 30;
+    private static final HashFunction KEY_HASH = Hashing.murmur3_128();
+
+    // record: marker, type, key length, key, value length, value, checksum
+    private static final int RECORD_MARKER = 0xF5;
+    private static final int KEY_LENGTH_OFFSET = 2;
+    private static final int RECORD_OVERHEAD = 2 + Integer.BYTES * 2 + Long.BYTES;
+
+    private final Mapped index;
+    private final Mapped fullFile;
+    private final int slotMask;
+    private final long firstRecord;
+    private final int entries;
+    private final UUID fullFileUUID;
+
+    private MappedIndex(Mapped index, Mapped fullFile, int slots, long firstRecord, int entries, UUID fullFileUUID) {
+        this.index = index;
+        this.fullFile = fullFile;
+        this.slotMask = slots - 1;
+        this.firstRecord = firstRecord;
+        this.entries = entries;
+        this.fullFileUUID = fullFileUUID;
+    }
+
+    /**
+     * Build the index of a full file and delete the indexes of the older generations. Compressed full files and full
+     * files with null values are not indexed.
+     */
+    static void build(PermaFile fullFile) throws IOException {
+        if (fullFile.isCompressed()) {
+            LOG.warn("Full file {} is compressed, only uncompressed full files are indexed", fullFile);
+            return;
+        }
+        long start = System.nanoTime();
+        RecordOffsets offsets = new RecordOffsets();
+        FileInspection inspection = FileInspection.read(fullFile, (key, value, deleted, recordBytes) -> {
+            if (value == null) {
+                offsets.nullValues = true;
+            }
+            offsets.add(hash(key.array(), key.position(), key.remaining()), recordBytes);
+        });
+        if (!inspection.isFullFile()) {
+            throw new IOException(String.format("%s is not a full file", fullFile));
+        }
+        if (offsets.nullValues) {
+            LOG.warn("Full file {} has null values, not supported by mapped permas, not indexing it", fullFile);
+            return;
+        }
+        long[] slots = offsets.slots(inspection.headerBytes());
+        IndexFile indexFile = IndexFile.of(fullFile);
+        indexFile.withOutputStream(stream -> {
+            CheckedOutputStream checked = new CheckedOutputStream(stream, new CRC32());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 1 << 16));
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            for (long slot : slots) {
+                out.writeLong(slot);
+            }
+            out.writeLong(inspection.headerBytes());
+            out.writeInt(slots.length);
+            out.writeInt(offsets.count);
+            out.writeLong(inspection.fullFileUUID().getMostSignificantBits());
+            out.writeLong(inspection.fullFileUUID().getLeastSignificantBits());
+            out.writeLong(inspection.fileBytes());
+            out.flush();
+            out.writeLong(checked.getChecksum().getValue());
+            out.writeInt(VERSION);
+            out.write(MAGIC);
+            out.flush();
+            return null;
+        });
+        indexFile.deleteOlder();
+        LOG.info("Built index {} of {} entries in {} ms",
+                 indexFile, offsets.count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Map the index of the full file and the full file.
+     *
+     * @param segmentBytes a multiple of 8
+     * @return null if there is no index, or if it is invalid or was built from another full file
+     */
+    static MappedIndex open(PermaFile fullFile, int segmentBytes) throws IOException {
+        IndexFile indexFile = IndexFile.of(fullFile);
+        if (fullFile.isCompressed() || !indexFile.exists()) {
+            return null;
+        }
+        Mapped index;
+        try {
+            index = Mapped.map(new FileInputStream(indexFile.toFile()), segmentBytes);
+        }
+        catch (FileNotFoundException e) {
+            return null; // deleted by a compaction meanwhile
+        }
+        long size = index.size;
+        if (size < SLOTS_OFFSET + TRAILER_BYTES) {
+            LOG.warn("Index {} is truncated, not using it", indexFile);
+            return null;
+        }
+        long trailer = size - TRAILER_BYTES;
+        long firstRecord = index.readLong(trailer);
+        int slots = index.readInt(trailer + Long.BYTES);
+        int entries = index.readInt(trailer + Long.BYTES + Integer.BYTES);
+        UUID fullFileUUID = new UUID(index.readLong(trailer + Long.BYTES + Integer.BYTES * 2),
+                                     index.readLong(trailer + Long.BYTES * 2 + Integer.BYTES * 2));
+        long fullFileBytes = index.readLong(trailer + Long.BYTES * 3 + Integer.BYTES * 2);
+        long crc = index.readLong(trailer + CHECKED_TRAILER_BYTES);
+        int version = index.readInt(trailer + CHECKED_TRAILER_BYTES + Long.BYTES);
+        byte[] magic = index.read(size - MAGIC.length, MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC) || version != VERSION || Integer.bitCount(slots) != 1 ||
+                SLOTS_OFFSET + (long) slots * Long.BYTES != trailer || index.crc(trailer + CHECKED_TRAILER_BYTES) != crc) {
+            LOG.warn("Index {} is invalid, not using it", indexFile);
+            return null;
+        }
+        if (fullFile.length() != fullFileBytes || !FileInspection.readFullFileUUID(fullFile).equals(fullFileUUID)) {
+            LOG.info("Index {} was built from another full file, not using it", indexFile);
+            return null;
+        }
+        Mapped records = Mapped.map(fullFile.openStored(), segmentBytes);
+        if (records.size != fullFileBytes || entries > 0 && records.readByte(firstRecord) != RECORD_MARKER) {
+            LOG.info("Full file {} has changed, not using index {}", fullFile, indexFile);
+            return null;
+        }
+        return new MappedIndex(index, records, slots, firstRecord, entries, fullFileUUID);
+    }
+
+    int entries() {
+        return entries;
+    }
+
+    UUID fullFileUUID() {
+        return fullFileUUID;
+    }
+
+    /**
+     * @return the offset of the record of the key in the full file, -1 if there is none
+     */
+    long find(byte[] key) {
+        long hash = hash(key, 0, key.length);
+        long tag = hash >>> OFFSET_BITS;
+        for (int slot = (int) hash & slotMask; ; slot = (slot + 1) & slotMask) {
+            long entry = index.readLong(SLOTS_OFFSET + (long) slot * Long.BYTES);
+            if (entry == 0) {
+                return -1;
+            }
+            long offset = entry & OFFSET_MASK;
+            if (entry >>> OFFSET_BITS == tag && keyLength(offset) == key.length && Arrays.equals(key(offset), key)) {
+                return offset;
+            }
+        }
+    }
+
+    long firstEntry() {
+        return firstRecord;
+    }
+
+    long nextEntry(long offset) {
+        return offset + RECORD_OVERHEAD + keyLength(offset) + valueLength(offset);
+    }
+
+    byte[] key(long offset) {
+        return fullFile.read(offset + KEY_LENGTH_OFFSET + Integer.BYTES, keyLength(offset));
+    }
+
+    byte[] value(long offset) {
+        return fullFile.read(offset + KEY_LENGTH_OFFSET + Integer.BYTES * 2 + keyLength(offset), valueLength(offset));
+    }
+
+    private int keyLength(long offset) {
+        return fullFile.readInt(offset + KEY_LENGTH_OFFSET);
+    }
+
+    private int valueLength(long offset) {
+        return fullFile.readInt(offset + KEY_LENGTH_OFFSET + Integer.BYTES + keyLength(offset));
+    }
+
+    private static long hash(byte[] key, int offset, int length) {
+        return KEY_HASH.hashBytes(key, offset, length).asLong();
+    }
+
+    /**
+     * A file mapped read only in segments.
+     */
+    private static final class Mapped {
+        private final ByteBuffer[] segments;
+        private final int segmentBytes;
+        private final long size;
+
+        private Mapped(ByteBuffer[] segments, int segmentBytes, long size) {
+            this.segments = segments;
+            this.segmentBytes = segmentBytes;
+            this.size = size;
+        }
+
+        static Mapped map(FileInputStream file, int segmentBytes) throws IOException {
+            try (FileInputStream in = file;
+                 FileChannel channel = in.getChannel()) {
+                long size = channel.size();
+                ByteBuffer[] segments = new ByteBuffer[(int) ((size + segmentBytes - 1) / segmentBytes)];
+                for (int i = 0; i < segments.length; i++) {
+                    long position = (long) i * segmentBytes;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                                              position,
+                                              Math.min(segmentBytes, size - position));
+                }
+                return new Mapped(segments, segmentBytes, size);
+            }
+        }
+
+        /**
+         * @return the CRC32 of the bytes before the position
+         */
+        long crc(long end) {
+            CRC32 crc = new CRC32();
+            for (int i = 0; (long) i * segmentBytes < end; i++) {
+                ByteBuffer segment = segments[i].duplicate();
+                segment.limit((int) Math.min(segment.limit(), end - (long) i * segmentBytes));
+                crc.update(segment);
+            }
+            return crc.getValue();
+        }
+
+        int readByte(long position) {
+            return segments[(int) (position / segmentBytes)].get((int) (position % segmentBytes)) & 0xFF;
+        }
+
+        long readLong(long position) {
+            int index = (int) (position % segmentBytes);
+            if (index + Long.BYTES <= segmentBytes) {
+                return segments[(int) (position / segmentBytes)].getLong(index);
+            }
+            return ByteBuffer.wrap(read(position, Long.BYTES)).getLong();
+        }
+
+        int readInt(long position) {
+            int index = (int) (position % segmentBytes);
+            if (index + Integer.BYTES <= segmentBytes) {
+                return segments[(int) (position / segmentBytes)].getInt(index);
+            }
+            return ByteBuffer.wrap(read(position, Integer.BYTES)).getInt();
+        }
+
+        byte[] read(long position, int length) {
+            byte[] bytes = new byte[length];
+            int done = 0;
+            while (done < length) {
+                long current = position + done;
+                ByteBuffer segment = segments[(int) (current / segmentBytes)].duplicate();
+                segment.position((int) (current % segmentBytes));
+                int chunk = Math.min(length - done, segment.remaining());
+                segment.get(bytes, done, chunk);
+                done += chunk;
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * The hash and offset of the records read so far, 12 bytes per entry while building.
+     */
+    private static final class RecordOffsets {
+        private long[] tagsAndOffsets = new long[1024];
+        private int[] slotHashes = new int[1024];
+        private int count;
+        private long position; // relative to the first record
+        private boolean nullValues;
+
+        void add(long hash, int recordBytes) {
+            if (count == MAX_SLOTS / 2) {
+                throw new IllegalStateException(String.format("More than %d entries cannot be indexed",
+                                                              MAX_SLOTS / 2));
+            }
+            if (position > OFFSET_MASK) {
+                throw new IllegalStateException(String.format("Full file larger than %d bytes", OFFSET_MASK));
+            }
+            if (count == slotHashes.length) {
+                tagsAndOffsets = Arrays.copyOf(tagsAndOffsets, count * 2);
+                slotHashes = Arrays.copyOf(slotHashes, count * 2);
+            }
+            tagsAndOffsets[count] = (hash >>> OFFSET_BITS) << OFFSET_BITS | position;
+            slotHashes[count] = (int) hash;
+            count++;
+            position += recordBytes;
+        }
+
+        /**
+         * @param firstRecord the offset of the first record in the full file
+         */
+        long[] slots(long firstRecord) throws IOException {
+            if (firstRecord + position > OFFSET_MASK) {
+                throw new IOException(String.format("Full file larger than %d bytes", OFFSET_MASK));
+            }
+            int slots = 2;
+            while (slots < count * 2) {
+                slots <<= 1;
+            }
+            long[] table = new long[slots];
+            for (int i = 0; i < count; i++) {
+                int slot = slotHashes[i] & (slots - 1);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & (slots - 1);
+                }
+                table[slot] = tagsAndOffsets[i] + firstRecord;
+            }
+            return table;
+        }
+    }
+}
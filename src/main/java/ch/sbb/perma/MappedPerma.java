@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.datastore.FileInspection;
+import ch.sbb.perma.file.FileGroup;
+import ch.sbb.perma.file.IndexFile;
+import ch.sbb.perma.file.PermaFile;
+import ch.sbb.perma.serializers.KeyOrValueSerializer;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read only persistent map answering reads from a memory mapped index of the full file.
+ * <p>
+ *     The entries of the full file are not loaded into the heap: the writer builds a hash index of offsets into each
+ *     uncompressed full file it writes, see {@link Options.Builder#mappedIndex(boolean)}. Readers map the index and the
+ *     full file and read keys and values from the page cache, values are deserialized on each access. All processes on
+ *     a host reading the same perma share one copy of the data, loading takes milliseconds. The changes of the delta
+ *     files are kept in a small overlay on the heap. Refresh applies new delta files to the overlay, after a compaction
+ *     it maps the index of the new full file.
+ * </p>
+ * <p>
+ *     Readers never write the index. If it is missing, invalid or was built from another full file, for example for a
+ *     compressed full file, the full file is loaded into the overlay like a {@link ReadOnlyPerma} would, and a refresh
+ *     maps the index once the writer has built it. Build the index of the existing full file with
+ *     {@link #buildIndex(File, String, Options)}.
+ * </p>
+ * <p>
+ *     Keys are found by their serialized bytes, the key serializer must write equal keys to equal bytes as all
+ *     built-in serializers do. Null values are not supported. Reads are not synchronized. An index stays mapped until
+ *     it is garbage collected, on file systems which do not allow to delete mapped files, writers cannot delete older
+ *     generations meanwhile.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class MappedPerma<K,V> extends AbstractMap<K,V> implements RefreshableMap<K,V>, HeapMeasurable {
+    private final static Logger LOG = LoggerFactory.getLogger(MappedPerma.class);
+
+    private final KeyOrValueSerializer<K> keySerializer;
+    private final KeyOrValueSerializer<V> valueSerializer;
+    private final int segmentBytes;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Loaded<K,V> loaded;
+
+    private MappedPerma(KeyOrValueSerializer<K> keySerializer,
+                        KeyOrValueSerializer<V> valueSerializer,
+                        int segmentBytes) {
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.segmentBytes = segmentBytes;
+    }
+
+    public static <K,V> MappedPerma<K,V> load(File dir,
+                                              String name,
+                                              KeyOrValueSerializer<K> keySerializer,
+                                              KeyOrValueSerializer<V> valueSerializer) throws IOException {
+        return load(dir, name, keySerializer, valueSerializer, Options.illegal());
+    }
+
+    /**
+     * @param options only the commit group is used
+     */
+    public static <K,V> MappedPerma<K,V> load(File dir,
+                                              String name,
+                                              KeyOrValueSerializer<K> keySerializer,
+                                              KeyOrValueSerializer<V> valueSerializer,
+                                              Options options) throws IOException {
+        return load(dir, name, keySerializer, valueSerializer, options, MappedIndex.SEGMENT_BYTES);
+    }
+
+    static <K,V> MappedPerma<K,V> load(File dir,
+                                       String name,
+                                       KeyOrValueSerializer<K> keySerializer,
+                                       KeyOrValueSerializer<V> valueSerializer,
+                                       Options options,
+                                       int segmentBytes) throws IOException {
+        LOG.info("Mapping readonly Perma {} from directory {}", name, dir);
+        MappedPerma<K,V> perma = new MappedPerma<>(keySerializer, valueSerializer, segmentBytes);
+        perma.loaded = perma.load(FileGroup.list(dir, name, options.commitGroup()));
+        return perma;
+    }
+
+    /**
+     * Build the index of the current full file of a perma written without {@link Options.Builder#mappedIndex(boolean)},
+     * needs write access to the directory. Does nothing if there is no perma or its full file is compressed.
+     *
+     * @param options only the commit group is used
+     */
+    public static void buildIndex(File dir, String name, Options options) throws IOException {
+        FileGroup files = FileGroup.list(dir, name, options.commitGroup());
+        if (files.exists()) {
+            MappedIndex.build(files.fullFile());
+        }
+    }
+
+    @Override
+    public void refresh() throws IOException {
+        try {
+            loadLock.lock();
+            LOG.debug("Refreshing mapped perma");
+            Loaded<K,V> current = loaded;
+            FileGroup files = current.files.refresh();
+            if (files.hasSameFullFileAs(current.files) && !indexBuiltSince(current)) {
+                loaded = apply(current, files, files.deltaFilesSince(current.files));
+            } else {
+                loaded = load(files);
+            }
+            LOG.info("Refreshing mapped perma to {} entries, {} in the overlay",
+                     loaded.size, loaded.overlay.size() + loaded.removed.size());
+        }
+        finally {
+            loadLock.unlock();
+        }
+    }
+
+    private static boolean indexBuiltSince(Loaded<?,?> current) throws IOException {
+        return current.index == null && current.files.exists() &&
+               IndexFile.of(current.files.fullFile()).toFile().lastModified() != current.indexModified;
+    }
+
+    private Loaded<K,V> load(FileGroup files) throws IOException {
+        if (!files.exists()) {
+            return new Loaded<>(files, null, ImmutableMap.of(), ImmutableSet.of(), 0, null, 0);
+        }
+        long indexModified = IndexFile.of(files.fullFile()).toFile().lastModified();
+        MappedIndex index = MappedIndex.open(files.fullFile(), segmentBytes);
+        if (index == null) {
+            LOG.info("No valid index of {}, loading it into the heap", files.fullFile());
+            Loaded<K,V> empty = new Loaded<>(files, null, ImmutableMap.of(), ImmutableSet.of(), 0, null, indexModified);
+            return apply(empty, files, ImmutableList.<PermaFile>builder()
+                                                    .add(files.fullFile())
+                                                    .addAll(files.deltaFiles())
+                                                    .build());
+        }
+        Loaded<K,V> mapped = new Loaded<>(files,
+                                          index,
+                                          ImmutableMap.of(),
+                                          ImmutableSet.of(),
+                                          index.entries(),
+                                          null,
+                                          indexModified);
+        return apply(mapped, files, files.deltaFiles());
+    }
+
+    /**
+     * Apply the delta files to a copy of the overlay, a delete of a key of the index is kept as removed key. Without an
+     * index, the first file applied is the full file.
+     */
+    private Loaded<K,V> apply(Loaded<K,V> current, FileGroup files, List<PermaFile> deltaFiles) throws IOException {
+        if (deltaFiles.isEmpty()) {
+            return new Loaded<>(files,
+                                current.index,
+                                current.overlay,
+                                current.removed,
+                                current.size,
+                                current.latest,
+                                current.indexModified);
+        }
+        Map<K,V> overlay = new HashMap<>(current.overlay);
+        Set<K> removed = new HashSet<>(current.removed);
+        int[] size = {current.size};
+        FileInspection latest = current.latest;
+        for (PermaFile deltaFile : deltaFiles) {
+            FileInspection delta = FileInspection.read(deltaFile, (keyBuffer, valueBuffer, deleted, recordBytes) -> {
+                byte[] keyBytes = keyBuffer.readRemaining();
+                K key = keySerializer.fromByteArray(keyBytes);
+                boolean indexed = current.index != null && current.index.find(keyBytes) >= 0;
+                boolean present = overlay.containsKey(key) || indexed && !removed.contains(key);
+                if (deleted) {
+                    overlay.remove(key);
+                    if (indexed) {
+                        removed.add(key);
+                    }
+                    size[0] -= present ? 1 : 0;
+                } else {
+                    V value = valueBuffer != null ? valueSerializer.fromByteArray(valueBuffer.readRemaining()) : null;
+                    if (value == null) {
+                        throw new IllegalStateException("Null value, not supported by mapped permas");
+                    }
+                    overlay.put(key, value);
+                    removed.remove(key);
+                    size[0] += present ? 0 : 1;
+                }
+            });
+            checkNextDelta(current.index, latest, delta);
+            latest = delta;
+        }
+        return new Loaded<>(files,
+                            current.index,
+                            ImmutableMap.copyOf(overlay),
+                            ImmutableSet.copyOf(removed),
+                            size[0],
+                            latest,
+                            current.indexModified);
+    }
+
+    private static void checkNextDelta(MappedIndex index, FileInspection previous, FileInspection delta)
+            throws IOException {
+        boolean next;
+        if (previous != null) {
+            next = delta.isNextDeltaFileOf(previous);
+        } else if (index != null) {
+            next = delta.deltaFileNumber() == 1 && delta.fullFileUUID().equals(index.fullFileUUID());
+        } else {
+            next = delta.isFullFile();
+        }
+        if (!next) {
+            throw new IOException(String.format("%s is not the next file", delta.file()));
+        }
+    }
+
+    @Override
+    public V get(Object key) {
+        Loaded<K,V> current = loaded;
+        V value = current.overlay.get(key);
+        if (value != null || key == null || current.index == null || current.removed.contains(key)) {
+            return value;
+        }
+        byte[] keyBytes;
+        try {
+            @SuppressWarnings("unchecked")
+            K typedKey = (K) key;
+            keyBytes = keySerializer.toByteArray(typedKey);
+        }
+        catch (ClassCastException e) {
+            return null;
+        }
+        long entry = current.index.find(keyBytes);
+        return entry < 0 ? null : valueSerializer.fromByteArray(current.index.value(entry));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return loaded.size;
+    }
+
+    @Override
+    public Set<Entry<K,V>> entrySet() {
+        Loaded<K,V> current = loaded;
+        return new AbstractSet<Entry<K,V>>() {
+            @Override
+            public Iterator<Entry<K,V>> iterator() {
+                return Iterators.concat(indexed(current), current.overlay.entrySet().iterator());
+            }
+
+            @Override
+            public int size() {
+                return current.size;
+            }
+        };
+    }
+
+    /**
+     * The entries of the index which are neither removed nor in the overlay, in the order of the full file.
+     */
+    private Iterator<Entry<K,V>> indexed(Loaded<K,V> current) {
+        if (current.index == null) {
+            return Collections.emptyIterator();
+        }
+        MappedIndex index = current.index;
+        return new AbstractIterator<Entry<K,V>>() {
+            private int remaining = index.entries();
+            private long entry = index.firstEntry();
+
+            @Override
+            protected Entry<K,V> computeNext() {
+                while (remaining > 0) {
+                    long offset = entry;
+                    entry = index.nextEntry(offset);
+                    remaining--;
+                    K key = keySerializer.fromByteArray(index.key(offset));
+                    if (!current.overlay.containsKey(key) && !current.removed.contains(key)) {
+                        return new SimpleImmutableEntry<>(key, valueSerializer.fromByteArray(index.value(offset)));
+                    }
+                }
+                return endOfData();
+            }
+        };
+    }
+
+    /**
+     * Only the overlay is on the heap, the mapped index and full file are not counted.
+     */
+    @Override
+    public HeapFootprint heapFootprint(HeapSizer sizer) {
+        Loaded<K,V> current = loaded;
+        return HeapSample.of(current.overlay, sizer)
+                         .footprint(HeapSample.immutableMap(current.overlay.size()) +
+                                    HeapSample.immutableSet(current.removed.size()));
+    }
+
+    private static final class Loaded<K,V> {
+        private final FileGroup files;
+        private final MappedIndex index;
+        private final ImmutableMap<K,V> overlay;
+        private final ImmutableSet<K> removed;
+        private final int size;
+        private final FileInspection latest;
+        private final long indexModified; // of the index file when the index was opened, 0 if there was none
+
+        private Loaded(FileGroup files,
+                       MappedIndex index,
+                       ImmutableMap<K,V> overlay,
+                       ImmutableSet<K> removed,
+                       int size,
+                       FileInspection latest,
+                       long indexModified) {
+            this.files = files;
+            this.index = index;
+            this.overlay = overlay;
+            this.removed = removed;
+            this.size = size;
+            this.latest = latest;
+            this.indexModified = indexModified;
+        }
+    }
+}
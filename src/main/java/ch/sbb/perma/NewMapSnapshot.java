@@ -43,23 +43,41 @@ class NewMapSnapshot<K,V> implements MapSnapshot<K,V> {
 
     @Override
     public MapSnapshot<K,V> writeNext(Map<K,V> current)  throws IOException {
-        return writeNext(ImmutableMap.copyOf(current));
-    }
-
-    private MapSnapshot<K,V> writeNext(ImmutableMap<K,V> currentImmutable)  throws IOException{
+        FlightEvent event = FlightEvent.begin(FlightEvent.Type.PERSIST).perma(name);
+        long start = System.nanoTime();
+        ImmutableMap<K,V> currentImmutable = ImmutableMap.copyOf(current);
         if(currentImmutable.isEmpty() && !files.exists()) {
             LOG.debug("Noting to write (map is not yet peristed and still empty), ignoring");
+            event.serializers(keySerializer, valueSerializer).commit();
             return this;
         }
+        PersistedMapSnapshot<K,V> written = writeFull(currentImmutable, CompactionReason.NONE, System.nanoTime() - start);
+        event.serializers(keySerializer, valueSerializer).changed(currentImmutable.size()).commit();
+        return written;
+    }
+
+    /**
+     * @param diffNanos the time spent to get the map, reported to the listener
+     */
+    PersistedMapSnapshot<K,V> writeFull(ImmutableMap<K,V> currentImmutable,
+                                        CompactionReason reason,
+                                        long diffNanos) throws IOException {
         FileGroup newFullFileGroup = files.withNextFull(options.compression());
         LOG.debug("Writing full file with mapSize={} to file {} after deleting stale temp files",
                 currentImmutable.size(),
                 newFullFileGroup.fullFile());
+        FileOperation write = FileOperation.writeFull(name, options, reason).serializers(keySerializer, valueSerializer);
         MapFileData<K,V> fullData = MapFileData
                                 .createNewFull(name, currentImmutable)
-                                .writeTo(newFullFileGroup.fullFile(),
+                                .writeTo(write.recording(newFullFileGroup.fullFile()),
+                                        options.durability(),
                                         keySerializer,
-                                        valueSerializer);
+                                        valueSerializer,
+                                        options.executor(keySerializer, valueSerializer));
+        write.written(newFullFileGroup.fullFile(), diffNanos);
+        if (options.mappedIndex()) {
+            MappedIndex.build(newFullFileGroup.fullFile());
+        }
         return new PersistedMapSnapshot<>(
                 name,
                 newFullFileGroup,
@@ -72,12 +90,14 @@ class NewMapSnapshot<K,V> implements MapSnapshot<K,V> {
 
     @Override
     public MapSnapshot<K, V> refresh() throws IOException {
-        FileGroup refreshedFiles = files.refresh();
+        FileOperation refresh = FileOperation.read(name, options, true).serializers(keySerializer, valueSerializer);
+        FileGroup refreshedFiles = FlightEvent.refresh(files, name);
         if(!refreshedFiles.exists()) {
             LOG.debug("No file found, cancelling refresh");
+            refresh.read(refreshedFiles);
             return this;
         }
-        return PersistedMapSnapshot.load(name, refreshedFiles, options, keySerializer, valueSerializer);
+        return PersistedMapSnapshot.load(name, refreshedFiles, options, keySerializer, valueSerializer, refresh);
     }
 
     @Override
@@ -89,4 +109,9 @@ class NewMapSnapshot<K,V> implements MapSnapshot<K,V> {
     public ImmutableMap<K,V> asImmutableMap() {
         return ImmutableMap.of();
     }
+
+    @Override
+    public long overheadBytes() {
+        return 0;
+    }
 }
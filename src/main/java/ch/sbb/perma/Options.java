@@ -5,24 +5,67 @@
 package ch.sbb.perma;
 
 import ch.sbb.perma.file.Compression;
+import ch.sbb.perma.file.Durability;
 import ch.sbb.perma.file.GZipCompression;
 import ch.sbb.perma.file.NoCompression;
+import ch.sbb.perma.serializers.KeyOrValueSerializer;
+import ch.sbb.perma.serializers.NullValueSerializer;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * API to configure optional features in perma.
  * <ul>
  * <li>Compress: Switch on or off GZip compression of files. Default is off (false)</li>
+ * <li>Durability: Sync written files and/or their directory to disk, see {@link Durability}. Default is NONE</li>
+ * <li>Raw compaction: Explicit compactions copy the serialized records of the existing files instead of serializing
+ * the map, the full file is streamed and only the changes of the delta files are held in memory. Keys are compared by
+ * their serialized bytes. Compactions over the threshold always serialize the map. Default is off (false)</li>
+ * <li>Versioned snapshots: Keep the entries of a {@link WritablePerma} in versioned nodes, so
+ * {@link WritablePerma#snapshot()} and {@link WritablePerma#fork()} take constant time. Costs a node per entry and a
+ * shared lock per write. Default is off (false): a snapshot or fork copies the entries</li>
+ * <li>Listener: Notified of the files written and read, see {@link PermaListener}. Default is none</li>
+ * <li>Commit group: Load only the files published by the latest commit of a {@link GroupCommit}. Default is none,
+ * the latest files are loaded</li>
+ * <li>Mapped index: Writers of maps build the index of each uncompressed full file they write, so {@link MappedPerma}
+ * maps the full file instead of loading it. Default is off (false)</li>
+ * <li>Executor: Parse the delta files of a map and serialize large maps on this executor in parallel. Custom
+ * serializers must be thread safe then. Default is none: maps using only the built-in serializer constants use a
+ * shared pool of perma threads, maps using custom serializers are parsed and written sequentially</li>
  * </ul>
  *
  * @author u206123 (Florian Seidl)
  * @since 6.2, 2018.
  */
 public class Options {
+    private static final Logger LOG = LoggerFactory.getLogger(Options.class);
+    private static final Executor BUILT_IN_EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("perma-serialize-%d").build());
+    private static final Set<KeyOrValueSerializer<?>> BUILT_IN_SERIALIZERS = builtInSerializers();
+
     public static class Builder {
         private boolean compress = false;
         private int compactThresholdPercent = 34;
+        private Durability durability = Durability.NONE;
+        private boolean rawCompaction = false;
+        private boolean versionedSnapshots = false;
+        private PermaListener listener = PermaListener.NONE;
+        private String commitGroup = null;
+        private Executor executor = null;
+        private boolean mappedIndex = false;
 
         private Builder() {
         }
@@ -37,20 +80,91 @@ public class Options {
             return this;
         }
 
+        public Builder durability(Durability durability) {
+            this.durability = Preconditions.checkNotNull(durability, "durability is null");
+            return this;
+        }
+
+        public Builder rawCompaction(boolean rawCompaction) {
+            this.rawCompaction = rawCompaction;
+            return this;
+        }
+
+        public Builder versionedSnapshots(boolean versionedSnapshots) {
+            this.versionedSnapshots = versionedSnapshots;
+            return this;
+        }
+
+        public Builder listener(PermaListener listener) {
+            this.listener = Preconditions.checkNotNull(listener, "listener is null");
+            return this;
+        }
+
+        public Builder commitGroup(String commitGroup) {
+            this.commitGroup = Preconditions.checkNotNull(commitGroup, "commitGroup is null");
+            return this;
+        }
+
+        /**
+         * Opt in to parallel serialization with custom serializers, they must be thread safe.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Preconditions.checkNotNull(executor, "executor is null");
+            return this;
+        }
+
+        /**
+         * Build the index of {@link MappedPerma} of each uncompressed full file written, costs a read of the full file.
+         */
+        public Builder mappedIndex(boolean mappedIndex) {
+            this.mappedIndex = mappedIndex;
+            return this;
+        }
+
         public Options build() {
             Preconditions.checkArgument(
                     compactThresholdPercent >= 0 && compactThresholdPercent <= 100,
                     String.format("Invalid percent value for compactThresholdPercent: %d", compactThresholdPercent));
-            return new Options(compress, compactThresholdPercent);
+            return new Options(compress,
+                               compactThresholdPercent,
+                               durability,
+                               rawCompaction,
+                               versionedSnapshots,
+                               listener,
+                               commitGroup,
+                               executor,
+                               mappedIndex);
         }
     }
 
     private final boolean compress;
     private final int compactThresholdPercent;
+    private final Durability durability;
+    private final boolean rawCompaction;
+    private final boolean versionedSnapshots;
+    private final PermaListener listener;
+    private final String commitGroup;
+    private final Executor executor;
+    private final boolean mappedIndex;
 
-    private Options(boolean compress, int compactThresholdPercent) {
+    private Options(boolean compress,
+                    int compactThresholdPercent,
+                    Durability durability,
+                    boolean rawCompaction,
+                    boolean versionedSnapshots,
+                    PermaListener listener,
+                    String commitGroup,
+                    Executor executor,
+                    boolean mappedIndex) {
         this.compress = compress;
         this.compactThresholdPercent = compactThresholdPercent;
+        this.durability = durability;
+        this.rawCompaction = rawCompaction;
+        this.versionedSnapshots = versionedSnapshots;
+        this.listener = listener;
+        this.commitGroup = commitGroup;
+        this.executor = executor;
+        this.mappedIndex = mappedIndex;
     }
 
     public static Options compressed() {
@@ -62,7 +176,7 @@ public class Options {
     }
 
     static Options illegal() {
-        return new Options(false, -1) {
+        return new Options(false, -1, Durability.NONE, false, false, PermaListener.NONE, null, null, false) {
             Compression compression() {
                 throw new IllegalStateException("Not allowed to get Compression from options");
             }
@@ -80,6 +194,61 @@ public class Options {
         return NoCompression.NO_COMPRESSION;
     }
 
+    Durability durability() {
+        return durability;
+    }
+
+    boolean rawCompaction() {
+        return rawCompaction;
+    }
+
+    boolean versionedSnapshots() {
+        return versionedSnapshots;
+    }
+
+    boolean mappedIndex() {
+        return mappedIndex;
+    }
+
+    /**
+     * @return the commit group or null if the latest files are loaded
+     */
+    String commitGroup() {
+        return commitGroup;
+    }
+
+    /**
+     * @return the executor given to the builder, else a shared pool if both serializers are built-in, else a direct
+     *         executor, so custom serializers are only called by one thread at a time
+     */
+    Executor executor(KeyOrValueSerializer<?> keySerializer, KeyOrValueSerializer<?> valueSerializer) {
+        if (executor != null) {
+            return executor;
+        }
+        if (BUILT_IN_SERIALIZERS.contains(keySerializer) && BUILT_IN_SERIALIZERS.contains(valueSerializer)) {
+            return BUILT_IN_EXECUTOR;
+        }
+        return MoreExecutors.directExecutor();
+    }
+
+    void written(WriteEvent event) {
+        try {
+            listener.written(event);
+        }
+        catch (RuntimeException e) {
+            LOG.warn("Listener {} failed on {}", listener, event, e);
+        }
+    }
+
+    void read(ReadEvent event) {
+        try {
+            listener.read(event);
+        }
+        catch (RuntimeException e) {
+            LOG.warn("Listener {} failed on {}", listener, event, e);
+        }
+    }
+
     CompactionThreshold compactionStrategy() {
         return new ChangedRemovedCompactionThreshold(compactThresholdPercent);
     }
@@ -90,6 +259,32 @@ public class Options {
                 .toStringHelper(this)
                 .add("compress", compress)
                 .add("compactThresholdPercent", compactThresholdPercent)
+                .add("durability", durability)
+                .add("rawCompaction", rawCompaction)
+                .add("versionedSnapshots", versionedSnapshots)
+                .add("listener", listener)
+                .add("commitGroup", commitGroup)
+                .add("executor", executor)
+                .add("mappedIndex", mappedIndex)
                 .toString();
     }
+
+    /**
+     * The constants of {@link KeyOrValueSerializer}, they have no mutable state.
+     */
+    private static Set<KeyOrValueSerializer<?>> builtInSerializers() {
+        Set<KeyOrValueSerializer<?>> builtIn = Sets.newIdentityHashSet();
+        builtIn.add(NullValueSerializer.NULL);
+        for (Field field : KeyOrValueSerializer.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && KeyOrValueSerializer.class.isAssignableFrom(field.getType())) {
+                try {
+                    builtIn.add((KeyOrValueSerializer<?>) field.get(null));
+                }
+                catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(builtIn);
+    }
 }
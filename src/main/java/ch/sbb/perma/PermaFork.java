@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import com.google.common.collect.ForwardingConcurrentMap;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An independent copy of the entries of a {@link WritablePerma} in memory, see {@link WritablePerma#fork()}.
+ * <p>
+ *     It is not persisted, fork with {@link WritablePerma#fork(java.io.File, String, Options)} to persist the fork as
+ *     another perma.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class PermaFork<K,V> extends ForwardingConcurrentMap<K,V> implements HeapMeasurable {
+    private final ConcurrentMap<K,V> map; // a VersionedMap with versioned snapshots
+
+    PermaFork(ConcurrentMap<K,V> map) {
+        this.map = map;
+    }
+
+    /**
+     * @return an immutable view of the current entries, close it when done. Copies the entries (O(n)) without
+     * versioned snapshots, see {@link WritablePerma#snapshot()}
+     */
+    public SnapshotView<K,V> snapshot() {
+        return WritablePerma.snapshotOf(map);
+    }
+
+    /**
+     * @return an independent copy of the current entries in memory. Copies the entries (O(n)) without versioned
+     * snapshots, see {@link WritablePerma#fork()}
+     */
+    public PermaFork<K,V> fork() {
+        return new PermaFork<>(WritablePerma.forkOf(map));
+    }
+
+    @Override
+    public HeapFootprint heapFootprint(HeapSizer sizer) {
+        return HeapSample.of(map, sizer).footprint(WritablePerma.overheadBytes(map));
+    }
+
+    @Override
+    protected ConcurrentMap<K,V> delegate() {
+        return map;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+/**
+ * Listener for the writes and reads of permas, registered with {@link Options.Builder#listener(PermaListener)}.
+ * <p>
+ *     Called synchronously by the thread persisting, loading or refreshing after the files are written or read, so
+ *     implementations must be fast and thread safe. Exceptions thrown by a listener are logged and ignored.
+ *     {@link PermaMetrics} is a listener collecting counters and timers.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public interface PermaListener {
+    PermaListener NONE = new PermaListener() {
+    };
+
+    /**
+     * A delta or full file was written by persist or compact.
+     */
+    default void written(WriteEvent event) {
+    }
+
+    /**
+     * Files were read by load or refresh (no file for a refresh without new files).
+     */
+    default void read(ReadEvent event) {
+    }
+}
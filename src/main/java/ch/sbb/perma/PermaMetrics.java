@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener collecting counters and timers per perma name, to be read by a monitoring system.
+ * <pre>
+ * PermaMetrics metrics = new PermaMetrics();
+ * WritablePerma&lt;String, String&gt; perma = WritablePerma.loadOrCreate(dir, "stations", STRING, STRING,
+ *                                                                    Options.builder().listener(metrics).build());
+ * ...
+ * metrics.of("stations").persist().meanNanos();
+ * </pre>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class PermaMetrics implements PermaListener {
+    /**
+     * Count, total and maximum of durations.
+     */
+    public static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        public long meanNanos() {
+            long count = count();
+            return count == 0 ? 0 : totalNanos() / count;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("count", count())
+                    .add("meanNanos", meanNanos())
+                    .add("maxNanos", maxNanos())
+                    .toString();
+        }
+    }
+
+    /**
+     * The metrics of one perma.
+     */
+    public static final class Metrics {
+        private final Timer persist = new Timer();
+        private final Timer diff = new Timer();
+        private final Timer serialize = new Timer();
+        private final Timer write = new Timer();
+        private final Timer rename = new Timer();
+        private final Timer load = new Timer();
+        private final Timer refresh = new Timer();
+        private final LongAdder deltaFilesWritten = new LongAdder();
+        private final LongAdder fullFilesWritten = new LongAdder();
+        private final LongAdder thresholdCompactions = new LongAdder();
+        private final LongAdder requestedCompactions = new LongAdder();
+        private final LongAdder recordsWritten = new LongAdder();
+        private final LongAdder bytesWritten = new LongAdder();
+        private final LongAdder recordsRead = new LongAdder();
+        private final LongAdder bytesRead = new LongAdder();
+        private volatile int fullFileNumber;
+        private volatile int deltaFileNumber;
+        private volatile long stalenessMillis = -1;
+
+        void written(WriteEvent event) {
+            persist.record(event.totalNanos());
+            diff.record(event.diffNanos());
+            serialize.record(event.serializeNanos());
+            write.record(event.writeNanos());
+            rename.record(event.renameNanos());
+            (event.isFullFile() ? fullFilesWritten : deltaFilesWritten).increment();
+            if (event.compactionReason() == CompactionReason.THRESHOLD) {
+                thresholdCompactions.increment();
+            } else if (event.compactionReason() == CompactionReason.REQUESTED) {
+                requestedCompactions.increment();
+            }
+            recordsWritten.add(event.records());
+            bytesWritten.add(event.bytes());
+            fullFileNumber = event.fullFileNumber();
+            deltaFileNumber = event.deltaFileNumber();
+        }
+
+        void read(ReadEvent event) {
+            (event.isRefresh() ? refresh : load).record(event.durationNanos());
+            recordsRead.add(event.records());
+            bytesRead.add(event.bytes());
+            fullFileNumber = event.fullFileNumber();
+            deltaFileNumber = event.deltaFileNumber();
+            if (event.files() > 0) {
+                stalenessMillis = event.stalenessMillis();
+            }
+        }
+
+        /**
+         * @return the total duration of the writes of delta and full files
+         */
+        public Timer persist() {
+            return persist;
+        }
+
+        public Timer diff() {
+            return diff;
+        }
+
+        public Timer serialize() {
+            return serialize;
+        }
+
+        public Timer write() {
+            return write;
+        }
+
+        public Timer rename() {
+            return rename;
+        }
+
+        public Timer load() {
+            return load;
+        }
+
+        public Timer refresh() {
+            return refresh;
+        }
+
+        public long deltaFilesWritten() {
+            return deltaFilesWritten.sum();
+        }
+
+        public long fullFilesWritten() {
+            return fullFilesWritten.sum();
+        }
+
+        public long compactions(CompactionReason reason) {
+            switch (reason) {
+                case THRESHOLD:
+                    return thresholdCompactions.sum();
+                case REQUESTED:
+                    return requestedCompactions.sum();
+                default:
+                    return 0;
+            }
+        }
+
+        public long recordsWritten() {
+            return recordsWritten.sum();
+        }
+
+        public long bytesWritten() {
+            return bytesWritten.sum();
+        }
+
+        public long recordsRead() {
+            return recordsRead.sum();
+        }
+
+        public long bytesRead() {
+            return bytesRead.sum();
+        }
+
+        /**
+         * @return the generation of the full file last written or read
+         */
+        public int fullFileNumber() {
+            return fullFileNumber;
+        }
+
+        /**
+         * @return the length of the delta chain last written or read
+         */
+        public int deltaChainLength() {
+            return deltaFileNumber;
+        }
+
+        /**
+         * @return the staleness of the last load or refresh reading files, -1 if none
+         */
+        public long stalenessMillis() {
+            return stalenessMillis;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("persist", persist)
+                    .add("diff", diff)
+                    .add("serialize", serialize)
+                    .add("write", write)
+                    .add("rename", rename)
+                    .add("load", load)
+                    .add("refresh", refresh)
+                    .add("deltaFilesWritten", deltaFilesWritten())
+                    .add("fullFilesWritten", fullFilesWritten())
+                    .add("thresholdCompactions", thresholdCompactions.sum())
+                    .add("requestedCompactions", requestedCompactions.sum())
+                    .add("recordsWritten", recordsWritten())
+                    .add("bytesWritten", bytesWritten())
+                    .add("recordsRead", recordsRead())
+                    .add("bytesRead", bytesRead())
+                    .add("fullFileNumber", fullFileNumber)
+                    .add("deltaChainLength", deltaFileNumber)
+                    .add("stalenessMillis", stalenessMillis)
+                    .toString();
+        }
+    }
+
+    private final Map<String, Metrics> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void written(WriteEvent event) {
+        of(event.permaName()).written(event);
+    }
+
+    @Override
+    public void read(ReadEvent event) {
+        of(event.permaName()).read(event);
+    }
+
+    /**
+     * @return the metrics of the perma, empty if nothing was reported yet
+     */
+    public Metrics of(String permaName) {
+        return metrics.computeIfAbsent(permaName, name -> new Metrics());
+    }
+
+    public Set<String> permaNames() {
+        return metrics.keySet();
+    }
+
+    @Override
+    public String toString() {
+        return "PermaMetrics" + metrics.keySet();
+    }
+}
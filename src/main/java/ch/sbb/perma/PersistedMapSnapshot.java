@@ -60,15 +60,35 @@ class PersistedMapSnapshot<K,V> implements MapSnapshot<K,V> {
                                        Options options,
                                        KeyOrValueSerializer<K> keySerializer,
                                        KeyOrValueSerializer<V> valueSerializer) throws IOException{
+        return load(permaName,
+                    latestFiles,
+                    options,
+                    keySerializer,
+                    valueSerializer,
+                    FileOperation.read(permaName, options, false).serializers(keySerializer, valueSerializer));
+    }
+
+    /**
+     * Load as refresh, the files have changed.
+     *
+     * @param refresh the refresh begun before the directory scan, ended by the load
+     */
+    static <K,V> MapSnapshot<K,V> load(String permaName,
+                                       FileGroup latestFiles,
+                                       Options options,
+                                       KeyOrValueSerializer<K> keySerializer,
+                                       KeyOrValueSerializer<V> valueSerializer,
+                                       FileOperation refresh) throws IOException{
         LOG.debug("Loading persisted Snapshot from files latestFiles {}", latestFiles);
         Map<K,V> collector = new HashMap<>();
         MapFileData<K,V> latestData = MapFileData.readFileGroupAndCollect(
-                latestFiles.fullFile(),
-                latestFiles.deltaFiles(),
+                refresh.recording(latestFiles.fullFile()),
+                refresh.recording(latestFiles.deltaFiles()),
                 keySerializer,
                 valueSerializer,
-                collector);
-        return new PersistedMapSnapshot<>(
+                collector,
+                options.executor(keySerializer, valueSerializer));
+        PersistedMapSnapshot<K,V> loaded = new PersistedMapSnapshot<>(
                 permaName,
                 latestFiles,
                 options,
@@ -76,32 +96,56 @@ class PersistedMapSnapshot<K,V> implements MapSnapshot<K,V> {
                 latestData,
                 keySerializer,
                 valueSerializer);
+        refresh.read(latestFiles);
+        return loaded;
     }
 
     @Override
     public MapSnapshot<K,V> writeNext(Map<K,V> current) throws IOException {
-        return writeNext(ImmutableMap.copyOf(current));
-    }
-
-    private MapSnapshot<K,V> writeNext(ImmutableMap<K,V> currentImmutable) throws IOException {
+        FlightEvent event = FlightEvent.begin(FlightEvent.Type.PERSIST).perma(name);
+        long diffStart = System.nanoTime();
+        ImmutableMap<K,V> currentImmutable = ImmutableMap.copyOf(current);
         MapDifference<K,V> diff = Maps.difference(mapSnapshot, currentImmutable);
         if(diff.areEqual()) {
             LOG.debug("Noting to write (no changes detected), ignoring");
+            event.serializers(keySerializer, valueSerializer).commit();
             return this;
         }
+        MapSnapshot<K,V> written = writeNext(diff, currentImmutable, diffStart);
+        event.serializers(keySerializer, valueSerializer)
+             .changed(diff.entriesOnlyOnLeft().size() + diff.entriesOnlyOnRight().size() + diff.entriesDiffering().size())
+             .commit();
+        return written;
+    }
+
+    private MapSnapshot<K,V> writeNext(MapDifference<K,V> diff,
+                                       ImmutableMap<K,V> currentImmutable,
+                                       long diffStart) throws IOException {
         if(options.compactionStrategy().triggerCompaction(
                 diff.entriesOnlyOnLeft().size(),
                 diff.entriesDiffering().size(),
                 mapSnapshot.size())) {
             LOG.debug("More than the configured threshold of the records are changed and/or deleted, compacting to full file");
-            return compactTo(currentImmutable);
+            return compactTo(currentImmutable, CompactionReason.THRESHOLD, System.nanoTime() - diffStart);
         }
+        return writeDelta(diff, currentImmutable, diffStart);
+    }
+
+    private PersistedMapSnapshot<K,V> writeDelta(MapDifference<K,V> diff,
+                                                 ImmutableMap<K,V> currentImmutable,
+                                                 long diffStart) throws IOException {
         FileGroup filesWithNextDeltaFile = files.withNextDelta();
         LOG.debug("Writing delta to file {} after deleting stale temp files", filesWithNextDeltaFile.latestDeltaFile());
-        MapFileData<K,V> nextDeltaData = toDelta(diff).writeTo(
-                                                filesWithNextDeltaFile.latestDeltaFile(),
+        MapFileData<K,V> delta = toDelta(diff);
+        long writeStart = System.nanoTime();
+        FileOperation write = FileOperation.writeDelta(name, options).serializers(keySerializer, valueSerializer);
+        MapFileData<K,V> nextDeltaData = delta.writeTo(
+                                                write.recording(filesWithNextDeltaFile.latestDeltaFile()),
+                                                options.durability(),
                                                 keySerializer,
-                                                valueSerializer);
+                                                valueSerializer,
+                                                options.executor(keySerializer, valueSerializer));
+        write.written(filesWithNextDeltaFile.latestDeltaFile(), writeStart - diffStart);
         return new PersistedMapSnapshot<>(
                                 name,
                                 filesWithNextDeltaFile,
@@ -114,24 +158,27 @@ class PersistedMapSnapshot<K,V> implements MapSnapshot<K,V> {
 
     @Override
     public MapSnapshot<K, V> refresh() throws IOException {
-        FileGroup refreshedFiles = files.refresh();
+        FileOperation refresh = FileOperation.read(name, options, true).serializers(keySerializer, valueSerializer);
+        FileGroup refreshedFiles = FlightEvent.refresh(files, name);
         if(!refreshedFiles.hasSameFullFileAs(files)) { // there was a triggerCompaction, reload
             LOG.debug("Reloading instead of refresh, full file has changed");
-            return load(name, refreshedFiles, options, keySerializer, valueSerializer);
+            return load(name, refreshedFiles, options, keySerializer, valueSerializer, refresh);
         }
         List<PermaFile> additionalDeltaFiles = refreshedFiles.deltaFilesSince(files);
         if(additionalDeltaFiles.isEmpty()) {
             LOG.debug("No new files found, cancelling refresh");
+            refresh.read(files);
             return this;
         }
         LOG.debug("Refreshing from files {}", additionalDeltaFiles);
         Map<K,V> collector = new HashMap<>(mapSnapshot);
         MapFileData<K,V> lastData = persited.updateWithDeltasAndCollect(
-                                additionalDeltaFiles,
+                                refresh.recording(additionalDeltaFiles),
                                 keySerializer,
                                 valueSerializer,
-                                collector);
-        return new PersistedMapSnapshot<>(
+                                collector,
+                                options.executor(keySerializer, valueSerializer));
+        PersistedMapSnapshot<K,V> refreshed = new PersistedMapSnapshot<>(
                                 name,
                                 refreshedFiles,
                                 options,
@@ -139,27 +186,79 @@ class PersistedMapSnapshot<K,V> implements MapSnapshot<K,V> {
                                 lastData,
                                 keySerializer,
                                 valueSerializer);
+        refresh.read(refreshedFiles);
+        return refreshed;
     }
 
     @Override
     public MapSnapshot<K, V> compact() throws IOException {
-        return compactTo(mapSnapshot);
+        return compact(CompactionReason.REQUESTED);
     }
 
-    private MapSnapshot<K, V> compactTo(ImmutableMap<K,V> nextMapSnapshot) throws IOException {
+    private MapSnapshot<K, V> compact(CompactionReason reason) throws IOException {
+        if (options.rawCompaction()) {
+            Optional<MapSnapshot<K,V>> compacted = compactRaw(reason);
+            if (compacted.isPresent()) {
+                return compacted.get();
+            }
+            LOG.info("Compacting {} by serializing the map", name);
+        }
+        return compactTo(mapSnapshot, reason, 0);
+    }
+
+    private MapSnapshot<K, V> compactTo(ImmutableMap<K,V> nextMapSnapshot,
+                                        CompactionReason reason,
+                                        long diffNanos) throws IOException {
         LOG.debug("Compacting map snapshot files {}", files);
         MapSnapshot<K,V> compactedSnapshot = new NewMapSnapshot<>(name, files, options, keySerializer, valueSerializer)
-                .writeNext(nextMapSnapshot);
+                .writeFull(nextMapSnapshot, reason, diffNanos);
         LOG.debug("Deleting files {}", files);
         files.delete();
         return compactedSnapshot;
     }
 
+    private Optional<MapSnapshot<K, V>> compactRaw(CompactionReason reason) throws IOException {
+        FileGroup newFullFileGroup = files.withNextFull(options.compression());
+        LOG.debug("Compacting map snapshot files {} by copying the records to full file {}", files, newFullFileGroup.fullFile());
+        FileOperation write = FileOperation.writeFull(name, options, reason).serializers(keySerializer, valueSerializer);
+        Optional<MapFileData<K,V>> fullData = MapFileData.compactRaw(
+                name,
+                files.fullFile(),
+                files.deltaFiles(),
+                mapSnapshot,
+                write.recording(newFullFileGroup.fullFile()),
+                options.durability());
+        if (!fullData.isPresent()) {
+            return Optional.empty();
+        }
+        write.written(newFullFileGroup.fullFile(), 0);
+        if (options.mappedIndex()) {
+            MappedIndex.build(newFullFileGroup.fullFile());
+        }
+        LOG.debug("Deleting files {}", files);
+        files.delete();
+        return Optional.of(new PersistedMapSnapshot<>(
+                name,
+                newFullFileGroup,
+                options,
+                mapSnapshot,
+                fullData.get(),
+                keySerializer,
+                valueSerializer));
+    }
+
     @Override
     public ImmutableMap<K,V> asImmutableMap() {
         return mapSnapshot;
     }
 
+    @Override
+    public long overheadBytes() {
+        return HeapSample.immutableMap(mapSnapshot.size()) +
+                HeapSample.immutableMap(persited.newAndUpdatedBesides(mapSnapshot)) +
+                HeapSample.immutableSet(persited.deletedSize());
+    }
+
     private MapFileData<K,V> toDelta(MapDifference<K,V> diff) {
         Set<K> deleted = diff.entriesOnlyOnLeft().keySet();
         Map<K,V> newEntries = diff.entriesOnlyOnRight();
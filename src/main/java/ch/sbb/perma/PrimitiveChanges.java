@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.RecordPersister.Changes;
+import ch.sbb.perma.collections.LongIntHashMap;
+import ch.sbb.perma.datastore.RecordWriter;
+import ch.sbb.perma.serializers.WriteBuffer;
+
+import java.io.IOException;
+import java.util.function.BiFunction;
+import java.util.function.LongFunction;
+
+import static ch.sbb.perma.PrimitiveRecords.intBuffer;
+import static ch.sbb.perma.PrimitiveRecords.longBuffer;
+
+/**
+ * Track the changes of the primitive permas with long or int keys, int keys are tracked as longs.
+ * <p>
+ *     Only the changed keys are tracked, whether they were persisted on the first change since the last persist.
+ *     The values are copied when the changes are taken, so they can be written outside of the monitor of the perma.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class PrimitiveChanges<V> {
+    private final boolean intKeys;
+    private final BiFunction<WriteBuffer, V, WriteBuffer> valueWriter;
+    private LongIntHashMap changed = new LongIntHashMap();
+
+    /**
+     * @param valueWriter writes a value to the buffer, returns null if the value is serialized to null
+     */
+    private PrimitiveChanges(boolean intKeys, BiFunction<WriteBuffer, V, WriteBuffer> valueWriter) {
+        this.intKeys = intKeys;
+        this.valueWriter = valueWriter;
+    }
+
+    static <V> PrimitiveChanges<V> longKeys(BiFunction<WriteBuffer, V, WriteBuffer> valueWriter) {
+        return new PrimitiveChanges<>(false, valueWriter);
+    }
+
+    static <V> PrimitiveChanges<V> intKeys(BiFunction<WriteBuffer, V, WriteBuffer> valueWriter) {
+        return new PrimitiveChanges<>(true, valueWriter);
+    }
+
+    /**
+     * @return heap bytes of the tracked changes
+     */
+    long footprint() {
+        return changed.footprint();
+    }
+
+    /**
+     * Remember whether the key was persisted on the first change since the last persist.
+     */
+    void changed(long key, boolean persisted) {
+        if (!changed.containsKey(key)) {
+            changed.put(key, persisted ? 1 : 0);
+        }
+    }
+
+    /**
+     * Take the changes since the last persist and start tracking anew.
+     *
+     * @param values the current value of a key, null if it is not present
+     */
+    Changes takeChanges(LongFunction<V> values) {
+        LongIntHashMap taken = changed;
+        changed = new LongIntHashMap();
+        long[] keys = new long[taken.size()];
+        Object[] copies = new Object[taken.size()];
+        Changes changes = new Changes() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void writeTo(RecordWriter writer) throws IOException {
+                WriteBuffer keyBuffer = new WriteBuffer(8);
+                WriteBuffer valueBuffer = new WriteBuffer();
+                for (int i = 0; i < size(); i++) {
+                    WriteBuffer key = intKeys ? intBuffer(keyBuffer, (int) keys[i]) : longBuffer(keyBuffer, keys[i]);
+                    if (copies[i] == null) {
+                        writer.deleted(key);
+                    } else {
+                        writer.newOrUpdated(key, valueWriter.apply(valueBuffer, (V) copies[i]));
+                    }
+                }
+            }
+
+            @Override
+            void restore() {
+                for (int slot = taken.nextSlot(0); slot >= 0; slot = taken.nextSlot(slot + 1)) {
+                    changed.put(taken.keyAt(slot), taken.valueAt(slot));
+                }
+            }
+        };
+        int count = 0;
+        for (int slot = taken.nextSlot(0); slot >= 0; slot = taken.nextSlot(slot + 1)) {
+            long key = taken.keyAt(slot);
+            boolean persisted = taken.valueAt(slot) == 1;
+            V value = values.apply(key);
+            if (value != null) {
+                keys[count] = key;
+                copies[count++] = value;
+                if (persisted) {
+                    changes.updated++;
+                } else {
+                    changes.added++;
+                }
+            } else if (persisted) {
+                keys[count++] = key;
+                changes.removed++;
+            }
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.collections.IntIntHashMap;
+import ch.sbb.perma.collections.LongBitmap;
+import ch.sbb.perma.collections.LongIntHashMap;
+import ch.sbb.perma.collections.LongLongHashMap;
+import ch.sbb.perma.collections.LongObjectHashMap;
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import ch.sbb.perma.datastore.RecordHandler;
+import ch.sbb.perma.serializers.BufferSerializer;
+import ch.sbb.perma.serializers.ReadBuffer;
+import ch.sbb.perma.serializers.WriteBuffer;
+
+/**
+ * Read and write the records of the primitive permas.
+ * <p>
+ *     Longs and ints have the binary form of {@link ch.sbb.perma.serializers.KeyOrValueSerializer#LONG} and
+ *     {@link ch.sbb.perma.serializers.KeyOrValueSerializer#INTEGER}, the files are interchangeable with the ones of a
+ *     {@link WritablePerma} with these serializers.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class PrimitiveRecords {
+
+    private PrimitiveRecords() {
+    }
+
+    static RecordHandler loader(LongLongHashMap map) {
+        return new RecordHandler() {
+            @Override
+            public void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+                map.put(key.readLong(), notNull(value).readLong());
+            }
+
+            @Override
+            public void deleted(ReadBuffer key) {
+                map.remove(key.readLong());
+            }
+        };
+    }
+
+    static RecordHandler loader(LongIntHashMap map) {
+        return new RecordHandler() {
+            @Override
+            public void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+                map.put(key.readLong(), notNull(value).readInt());
+            }
+
+            @Override
+            public void deleted(ReadBuffer key) {
+                map.remove(key.readLong());
+            }
+        };
+    }
+
+    static RecordHandler loader(IntIntHashMap map) {
+        return new RecordHandler() {
+            @Override
+            public void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+                map.put(key.readInt(), notNull(value).readInt());
+            }
+
+            @Override
+            public void deleted(ReadBuffer key) {
+                map.remove(key.readInt());
+            }
+        };
+    }
+
+    static <V> RecordHandler loader(LongObjectHashMap<V> map, BufferSerializer<V> valueSerializer) {
+        return new RecordHandler() {
+            @Override
+            public void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+                long longKey = key.readLong();
+                V object = valueSerializer.readFrom(value);
+                if (object == null) {
+                    throw new IllegalStateException(String.format("Null value for key %d", longKey));
+                }
+                map.put(longKey, object);
+            }
+
+            @Override
+            public void deleted(ReadBuffer key) {
+                map.remove(key.readLong());
+            }
+        };
+    }
+
+    /**
+     * The records of bitmap sets have the container key as long key and the container as value.
+     */
+    static RecordHandler loader(LongBitmap bitmap) {
+        return new RecordHandler() {
+            @Override
+            public void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+                bitmap.readContainer(key.readLong(), notNull(value));
+            }
+
+            @Override
+            public void deleted(ReadBuffer key) {
+                bitmap.removeContainer(key.readLong());
+            }
+        };
+    }
+
+    static RecordSource allRecords(LongLongHashMap map) {
+        return writer -> {
+            WriteBuffer key = new WriteBuffer(8);
+            WriteBuffer value = new WriteBuffer(8);
+            for (int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot + 1)) {
+                writer.newOrUpdated(longBuffer(key, map.keyAt(slot)), longBuffer(value, map.valueAt(slot)));
+            }
+        };
+    }
+
+    static RecordSource allRecords(LongIntHashMap map) {
+        return writer -> {
+            WriteBuffer key = new WriteBuffer(8);
+            WriteBuffer value = new WriteBuffer(4);
+            for (int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot + 1)) {
+                writer.newOrUpdated(longBuffer(key, map.keyAt(slot)), intBuffer(value, map.valueAt(slot)));
+            }
+        };
+    }
+
+    static RecordSource allRecords(IntIntHashMap map) {
+        return writer -> {
+            WriteBuffer key = new WriteBuffer(4);
+            WriteBuffer value = new WriteBuffer(4);
+            for (int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot + 1)) {
+                writer.newOrUpdated(intBuffer(key, map.keyAt(slot)), intBuffer(value, map.valueAt(slot)));
+            }
+        };
+    }
+
+    static <V> RecordSource allRecords(LongObjectHashMap<V> map, BufferSerializer<V> valueSerializer) {
+        return writer -> {
+            WriteBuffer key = new WriteBuffer(8);
+            WriteBuffer value = new WriteBuffer();
+            for (int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot + 1)) {
+                writer.newOrUpdated(longBuffer(key, map.keyAt(slot)),
+                                    objectBuffer(value, map.valueAt(slot), valueSerializer));
+            }
+        };
+    }
+
+    static RecordSource allRecords(LongBitmap bitmap) {
+        return writer -> {
+            WriteBuffer key = new WriteBuffer(8);
+            WriteBuffer value = new WriteBuffer();
+            for (long containerKey : bitmap.containerKeys()) {
+                value.reset();
+                bitmap.writeContainerTo(containerKey, value);
+                writer.newOrUpdated(longBuffer(key, containerKey), value);
+            }
+        };
+    }
+
+    static WriteBuffer longBuffer(WriteBuffer buffer, long value) {
+        buffer.reset();
+        buffer.writeLong(value);
+        return buffer;
+    }
+
+    static WriteBuffer intBuffer(WriteBuffer buffer, int value) {
+        buffer.reset();
+        buffer.writeInt(value);
+        return buffer;
+    }
+
+    /**
+     * @return null if the object is serialized to null
+     */
+    static <V> WriteBuffer objectBuffer(WriteBuffer buffer, V object, BufferSerializer<V> serializer) {
+        buffer.reset();
+        return serializer.writeTo(object, buffer) ? buffer : null;
+    }
+
+    private static ReadBuffer notNull(ReadBuffer value) {
+        if (value == null) {
+            throw new IllegalStateException("Null value, not supported by primitive permas");
+        }
+        return value;
+    }
+}
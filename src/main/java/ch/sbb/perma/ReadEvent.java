@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.file.FileGroup;
+import ch.sbb.perma.file.FileStats;
+import ch.sbb.perma.file.PermaFile;
+import com.google.common.base.MoreObjects;
+
+import java.io.IOException;
+
+/**
+ * Files read by load or refresh, see {@link PermaListener}.
+ * <p>
+ *     The staleness is the time from the modification of the newest file read to the end of the read, the delay
+ *     between a writer persisting and the reader seeing the change if the reader refreshes shortly after.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class ReadEvent {
+    private final String permaName;
+    private final boolean refresh;
+    private final int fullFileNumber;
+    private final int deltaFileNumber;
+    private final int files;
+    private final int records;
+    private final long bytes;
+    private final long durationNanos;
+    private final long stalenessMillis;
+
+    private ReadEvent(String permaName,
+                      boolean refresh,
+                      int fullFileNumber,
+                      int deltaFileNumber,
+                      int files,
+                      int records,
+                      long bytes,
+                      long durationNanos,
+                      long stalenessMillis) {
+        this.permaName = permaName;
+        this.refresh = refresh;
+        this.fullFileNumber = fullFileNumber;
+        this.deltaFileNumber = deltaFileNumber;
+        this.files = files;
+        this.records = records;
+        this.bytes = bytes;
+        this.durationNanos = durationNanos;
+        this.stalenessMillis = stalenessMillis;
+    }
+
+    /**
+     * @param files the files after the read, not existing for a new perma
+     */
+    static ReadEvent of(String permaName, boolean refresh, FileGroup files, FileStats stats, long startNanos)
+            throws IOException {
+        long durationNanos = System.nanoTime() - startNanos;
+        PermaFile latest = files.exists() ? files.latestFile() : null;
+        return new ReadEvent(permaName,
+                             refresh,
+                             latest != null ? latest.fullFileNumber() : 0,
+                             latest != null ? latest.deltaFileNumber() : 0,
+                             stats.files(),
+                             stats.records(),
+                             stats.bytes(),
+                             durationNanos,
+                             stats.files() > 0 ? System.currentTimeMillis() - stats.lastModified() : -1);
+    }
+
+    public String permaName() {
+        return permaName;
+    }
+
+    /**
+     * @return true for a refresh, false for the initial load
+     */
+    public boolean isRefresh() {
+        return refresh;
+    }
+
+    /**
+     * @return the generation of the full file, 0 if there are no files
+     */
+    public int fullFileNumber() {
+        return fullFileNumber;
+    }
+
+    /**
+     * @return the length of the delta chain read up to now
+     */
+    public int deltaFileNumber() {
+        return deltaFileNumber;
+    }
+
+    /**
+     * @return the number of files read, 0 if there was nothing new
+     */
+    public int files() {
+        return files;
+    }
+
+    public int records() {
+        return records;
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    public long durationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return the milliseconds since the newest file read was written, -1 if no file was read
+     */
+    public long stalenessMillis() {
+        return stalenessMillis;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("permaName", permaName)
+                .add("refresh", refresh)
+                .add("fullFileNumber", fullFileNumber)
+                .add("deltaFileNumber", deltaFileNumber)
+                .add("files", files)
+                .add("records", records)
+                .add("bytes", bytes)
+                .add("durationNanos", durationNanos)
+                .add("stalenessMillis", stalenessMillis)
+                .toString();
+    }
+}
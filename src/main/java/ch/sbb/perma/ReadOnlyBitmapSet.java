@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.collections.LongBitmap;
+import ch.sbb.perma.datastore.RecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+
+/**
+ * Base of the read only persistent sets of integral numbers keeping their elements in a {@link LongBitmap}.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+abstract class ReadOnlyBitmapSet<T> extends AbstractSet<T> implements RefreshableSet<T>, HeapMeasurable {
+    private final static Logger LOG = LoggerFactory.getLogger(ReadOnlyBitmapSet.class);
+
+    private final RefreshableTable<LongBitmap> table = new RefreshableTable<>(new RefreshableTable.Tables<LongBitmap>() {
+        @Override
+        public LongBitmap newTable() {
+            return new LongBitmap();
+        }
+
+        @Override
+        public LongBitmap copy(LongBitmap table) {
+            return table.copy();
+        }
+
+        @Override
+        public RecordHandler loader(LongBitmap table) {
+            return PrimitiveRecords.loader(table);
+        }
+    });
+
+    final void loadFiles(File dir, String name, Options options) throws IOException {
+        table.load(dir, name, options);
+    }
+
+    /**
+     * The current bitmap, must not be changed.
+     */
+    final LongBitmap bitmap() {
+        return table.get();
+    }
+
+    /**
+     * @return the element of the value
+     */
+    abstract T element(long value);
+
+    /**
+     * @return true if the object is of the element type
+     */
+    abstract boolean isElement(Object object);
+
+    /**
+     * @return a copy of the elements
+     */
+    public LongBitmap toBitmap() {
+        return bitmap().copy();
+    }
+
+    @Override
+    public void refresh() throws IOException {
+        table.refresh();
+        LOG.info("Refreshed set to {} entries", size());
+    }
+
+    /**
+     * Exact, the keys are the bytes of the bitmap.
+     */
+    @Override
+    public HeapFootprint heapFootprint(HeapSizer sizer) {
+        LongBitmap bitmap = bitmap();
+        return new HeapFootprint(bitmap.size(), bitmap.size(), bitmap.footprint(), 0, 0);
+    }
+
+    @Override
+    public int size() {
+        return bitmap().size();
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return isElement(element) && bitmap().contains(((Number) element).longValue());
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        PrimitiveIterator.OfLong values = bitmap().iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return values.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return element(values.nextLong());
+            }
+        };
+    }
+}
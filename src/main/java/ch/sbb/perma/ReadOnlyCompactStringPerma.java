@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.collections.Utf8HashMap;
+import ch.sbb.perma.datastore.RecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Read only persistent map from strings to strings keeping keys and values as UTF-8 bytes.
+ * <p>
+ *     The compact counterpart of {@link ReadOnlyPerma#loadStringMap(File, String)}, see {@link WritableCompactStringPerma}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class ReadOnlyCompactStringPerma extends ReadOnlyPrimitivePerma<String, String, Utf8HashMap> {
+    private final static Logger LOG = LoggerFactory.getLogger(ReadOnlyCompactStringPerma.class);
+
+    private ReadOnlyCompactStringPerma() {
+    }
+
+    public static ReadOnlyCompactStringPerma load(File dir, String name) throws IOException {
+        return load(dir, name, Options.illegal());
+    }
+
+    /**
+     * @param options only the listener and the commit group are used
+     */
+    public static ReadOnlyCompactStringPerma load(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading readonly compact string Perma {} from directory {}", name, dir);
+        ReadOnlyCompactStringPerma perma = new ReadOnlyCompactStringPerma();
+        perma.loadFiles(dir, name, options);
+        return perma;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && table().containsKey((String) key);
+    }
+
+    @Override
+    public String get(Object key) {
+        return key instanceof String ? table().get((String) key) : null;
+    }
+
+    @Override
+    Utf8HashMap newTable() {
+        return new Utf8HashMap();
+    }
+
+    @Override
+    Utf8HashMap copy(Utf8HashMap table) {
+        return table.copy();
+    }
+
+    @Override
+    RecordHandler loader(Utf8HashMap table) {
+        return Utf8Records.loader(table, true);
+    }
+
+    @Override
+    HeapFootprint footprint(Utf8HashMap table, HeapSizer sizer) {
+        return HeapSample.of(table).footprintWithin(table.footprint());
+    }
+
+    @Override
+    int size(Utf8HashMap table) {
+        return table.size();
+    }
+
+    @Override
+    int nextSlot(Utf8HashMap table, int from) {
+        return table.nextSlot(from);
+    }
+
+    @Override
+    Entry<String, String> entryAt(Utf8HashMap table, int slot) {
+        return new SimpleImmutableEntry<>(table.keyAt(slot), table.valueAt(slot));
+    }
+}
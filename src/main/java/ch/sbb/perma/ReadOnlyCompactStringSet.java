@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.collections.Utf8HashMap;
+import ch.sbb.perma.datastore.RecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read only persistent set of strings keeping the strings as UTF-8 bytes.
+ * <p>
+ *     The compact counterpart of {@link ReadOnlyPermaSet#loadStringSet(File, String)}, see
+ *     {@link WritableCompactStringPerma}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class ReadOnlyCompactStringSet extends AbstractSet<String> implements RefreshableSet<String>, HeapMeasurable {
+    private final static Logger LOG = LoggerFactory.getLogger(ReadOnlyCompactStringSet.class);
+
+    private final RefreshableTable<Utf8HashMap> table = new RefreshableTable<>(new RefreshableTable.Tables<Utf8HashMap>() {
+        @Override
+        public Utf8HashMap newTable() {
+            return new Utf8HashMap();
+        }
+
+        @Override
+        public Utf8HashMap copy(Utf8HashMap table) {
+            return table.copy();
+        }
+
+        @Override
+        public RecordHandler loader(Utf8HashMap table) {
+            return Utf8Records.loader(table, false);
+        }
+    });
+
+    private ReadOnlyCompactStringSet() {
+    }
+
+    public static ReadOnlyCompactStringSet load(File dir, String name) throws IOException {
+        return load(dir, name, Options.illegal());
+    }
+
+    /**
+     * @param options only the listener and the commit group are used
+     */
+    public static ReadOnlyCompactStringSet load(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading readonly compact string PermaSet {} from directory {}", name, dir);
+        ReadOnlyCompactStringSet set = new ReadOnlyCompactStringSet();
+        set.table.load(dir, name, options);
+        return set;
+    }
+
+    @Override
+    public void refresh() throws IOException {
+        table.refresh();
+        LOG.info("Refreshed set to {} entries", size());
+    }
+
+    /**
+     * Keys are their UTF-8 bytes in the arena, the sizer is not used.
+     */
+    @Override
+    public HeapFootprint heapFootprint(HeapSizer sizer) {
+        Utf8HashMap set = table.get();
+        return HeapSample.of(set).footprintWithin(set.footprint());
+    }
+
+    @Override
+    public int size() {
+        return table.get().size();
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return element instanceof String && table.get().containsKey((String) element);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        Utf8HashMap set = table.get();
+        return new Iterator<String>() {
+            private int slot = set.nextSlot(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot >= 0;
+            }
+
+            @Override
+            public String next() {
+                if (slot < 0) {
+                    throw new NoSuchElementException();
+                }
+                String element = set.keyAt(slot);
+                slot = set.nextSlot(slot + 1);
+                return element;
+            }
+        };
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Read only persistent set of ints stored as compressed bitmap, see {@link WritableIntBitmapSet}.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class ReadOnlyIntBitmapSet extends ReadOnlyBitmapSet<Integer> {
+    private final static Logger LOG = LoggerFactory.getLogger(ReadOnlyIntBitmapSet.class);
+
+    private ReadOnlyIntBitmapSet() {
+    }
+
+    public static ReadOnlyIntBitmapSet load(File dir, String name) throws IOException {
+        return load(dir, name, Options.illegal());
+    }
+
+    /**
+     * @param options only the listener and the commit group are used
+     */
+    public static ReadOnlyIntBitmapSet load(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading readonly int bitmap PermaSet {} from directory {}", name, dir);
+        ReadOnlyIntBitmapSet set = new ReadOnlyIntBitmapSet();
+        set.loadFiles(dir, name, options);
+        return set;
+    }
+
+    public boolean contains(int element) {
+        return bitmap().contains(element);
+    }
+
+    @Override
+    Integer element(long value) {
+        return (int) value;
+    }
+
+    @Override
+    boolean isElement(Object object) {
+        return object instanceof Integer;
+    }
+}
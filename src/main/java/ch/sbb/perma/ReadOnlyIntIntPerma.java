@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.collections.IntIntHashMap;
+import ch.sbb.perma.datastore.RecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Read only persistent map from int to int without boxing.
+ * <p>
+ *     Reads the files of a {@link WritableIntIntPerma} or of a {@link WritablePerma} with
+ *     {@link ch.sbb.perma.serializers.KeyOrValueSerializer#INTEGER} keys and values.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class ReadOnlyIntIntPerma extends ReadOnlyPrimitivePerma<Integer, Integer, IntIntHashMap> {
+    private final static Logger LOG = LoggerFactory.getLogger(ReadOnlyIntIntPerma.class);
+
+    private ReadOnlyIntIntPerma() {
+    }
+
+    public static ReadOnlyIntIntPerma load(File dir, String name) throws IOException {
+        return load(dir, name, Options.illegal());
+    }
+
+    /**
+     * @param options only the listener and the commit group are used
+     */
+    public static ReadOnlyIntIntPerma load(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading readonly int int Perma {} from directory {}", name, dir);
+        ReadOnlyIntIntPerma perma = new ReadOnlyIntIntPerma();
+        perma.loadFiles(dir, name, options);
+        return perma;
+    }
+
+    public boolean containsKey(int key) {
+        return table().containsKey(key);
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        return table().getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey(((Integer) key).intValue());
+    }
+
+    @Override
+    public Integer get(Object key) {
+        IntIntHashMap map = table();
+        if (!(key instanceof Integer) || !map.containsKey((Integer) key)) {
+            return null;
+        }
+        return map.getOrDefault((Integer) key, 0);
+    }
+
+    @Override
+    IntIntHashMap newTable() {
+        return new IntIntHashMap();
+    }
+
+    @Override
+    IntIntHashMap copy(IntIntHashMap table) {
+        return table.copy();
+    }
+
+    @Override
+    RecordHandler loader(IntIntHashMap table) {
+        return PrimitiveRecords.loader(table);
+    }
+
+    @Override
+    HeapFootprint footprint(IntIntHashMap table, HeapSizer sizer) {
+        return HeapSample.exact(table.size(), 4, 4, table.footprint());
+    }
+
+    @Override
+    int size(IntIntHashMap table) {
+        return table.size();
+    }
+
+    @Override
+    int nextSlot(IntIntHashMap table, int from) {
+        return table.nextSlot(from);
+    }
+
+    @Override
+    Entry<Integer, Integer> entryAt(IntIntHashMap table, int slot) {
+        return new SimpleImmutableEntry<>(table.keyAt(slot), table.valueAt(slot));
+    }
+}
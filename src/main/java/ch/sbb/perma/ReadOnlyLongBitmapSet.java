@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Read only persistent set of longs stored as compressed bitmap, see {@link WritableLongBitmapSet}.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class ReadOnlyLongBitmapSet extends ReadOnlyBitmapSet<Long> {
+    private final static Logger LOG = LoggerFactory.getLogger(ReadOnlyLongBitmapSet.class);
+
+    private ReadOnlyLongBitmapSet() {
+    }
+
+    public static ReadOnlyLongBitmapSet load(File dir, String name) throws IOException {
+        return load(dir, name, Options.illegal());
+    }
+
+    /**
+     * @param options only the listener and the commit group are used
+     */
+    public static ReadOnlyLongBitmapSet load(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading readonly long bitmap PermaSet {} from directory {}", name, dir);
+        ReadOnlyLongBitmapSet set = new ReadOnlyLongBitmapSet();
+        set.loadFiles(dir, name, options);
+        return set;
+    }
+
+    public boolean contains(long element) {
+        return bitmap().contains(element);
+    }
+
+    @Override
+    Long element(long value) {
+        return value;
+    }
+
+    @Override
+    boolean isElement(Object object) {
+        return object instanceof Long;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.collections.LongIntHashMap;
+import ch.sbb.perma.datastore.RecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Read only persistent map from long to int without boxing.
+ * <p>
+ *     Reads the files of a {@link WritableLongIntPerma} or of a {@link WritablePerma} with
+ *     {@link ch.sbb.perma.serializers.KeyOrValueSerializer#LONG} keys and
+ *     {@link ch.sbb.perma.serializers.KeyOrValueSerializer#INTEGER} values.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class ReadOnlyLongIntPerma extends ReadOnlyPrimitivePerma<Long, Integer, LongIntHashMap> {
+    private final static Logger LOG = LoggerFactory.getLogger(ReadOnlyLongIntPerma.class);
+
+    private ReadOnlyLongIntPerma() {
+    }
+
+    public static ReadOnlyLongIntPerma load(File dir, String name) throws IOException {
+        return load(dir, name, Options.illegal());
+    }
+
+    /**
+     * @param options only the listener and the commit group are used
+     */
+    public static ReadOnlyLongIntPerma load(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading readonly long int Perma {} from directory {}", name, dir);
+        ReadOnlyLongIntPerma perma = new ReadOnlyLongIntPerma();
+        perma.loadFiles(dir, name, options);
+        return perma;
+    }
+
+    public boolean containsKey(long key) {
+        return table().containsKey(key);
+    }
+
+    public int getOrDefault(long key, int defaultValue) {
+        return table().getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long && containsKey(((Long) key).longValue());
+    }
+
+    @Override
+    public Integer get(Object key) {
+        LongIntHashMap map = table();
+        if (!(key instanceof Long) || !map.containsKey((Long) key)) {
+            return null;
+        }
+        return map.getOrDefault((Long) key, 0);
+    }
+
+    @Override
+    LongIntHashMap newTable() {
+        return new LongIntHashMap();
+    }
+
+    @Override
+    LongIntHashMap copy(LongIntHashMap table) {
+        return table.copy();
+    }
+
+    @Override
+    RecordHandler loader(LongIntHashMap table) {
+        return PrimitiveRecords.loader(table);
+    }
+
+    @Override
+    HeapFootprint footprint(LongIntHashMap table, HeapSizer sizer) {
+        return HeapSample.exact(table.size(), 8, 4, table.footprint());
+    }
+
+    @Override
+    int size(LongIntHashMap table) {
+        return table.size();
+    }
+
+    @Override
+    int nextSlot(LongIntHashMap table, int from) {
+        return table.nextSlot(from);
+    }
+
+    @Override
+    Entry<Long, Integer> entryAt(LongIntHashMap table, int slot) {
+        return new SimpleImmutableEntry<>(table.keyAt(slot), table.valueAt(slot));
+    }
+}
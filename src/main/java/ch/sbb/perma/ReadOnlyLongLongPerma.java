@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.collections.LongLongHashMap;
+import ch.sbb.perma.datastore.RecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Read only persistent map from long to long without boxing.
+ * <p>
+ *     Reads the files of a {@link WritableLongLongPerma} or of a {@link WritablePerma} with
+ *     {@link ch.sbb.perma.serializers.KeyOrValueSerializer#LONG} keys and values.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class ReadOnlyLongLongPerma extends ReadOnlyPrimitivePerma<Long, Long, LongLongHashMap> {
+    private final static Logger LOG = LoggerFactory.getLogger(ReadOnlyLongLongPerma.class);
+
+    private ReadOnlyLongLongPerma() {
+    }
+
+    public static ReadOnlyLongLongPerma load(File dir, String name) throws IOException {
+        return load(dir, name, Options.illegal());
+    }
+
+    /**
+     * @param options only the listener and the commit group are used
+     */
+    public static ReadOnlyLongLongPerma load(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading readonly long long Perma {} from directory {}", name, dir);
+        ReadOnlyLongLongPerma perma = new ReadOnlyLongLongPerma();
+        perma.loadFiles(dir, name, options);
+        return perma;
+    }
+
+    public boolean containsKey(long key) {
+        return table().containsKey(key);
+    }
+
+    public long getOrDefault(long key, long defaultValue) {
+        return table().getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long && containsKey(((Long) key).longValue());
+    }
+
+    @Override
+    public Long get(Object key) {
+        LongLongHashMap map = table();
+        if (!(key instanceof Long) || !map.containsKey((Long) key)) {
+            return null;
+        }
+        return map.getOrDefault((Long) key, 0);
+    }
+
+    @Override
+    LongLongHashMap newTable() {
+        return new LongLongHashMap();
+    }
+
+    @Override
+    LongLongHashMap copy(LongLongHashMap table) {
+        return table.copy();
+    }
+
+    @Override
+    RecordHandler loader(LongLongHashMap table) {
+        return PrimitiveRecords.loader(table);
+    }
+
+    @Override
+    HeapFootprint footprint(LongLongHashMap table, HeapSizer sizer) {
+        return HeapSample.exact(table.size(), 8, 8, table.footprint());
+    }
+
+    @Override
+    int size(LongLongHashMap table) {
+        return table.size();
+    }
+
+    @Override
+    int nextSlot(LongLongHashMap table, int from) {
+        return table.nextSlot(from);
+    }
+
+    @Override
+    Entry<Long, Long> entryAt(LongLongHashMap table, int slot) {
+        return new SimpleImmutableEntry<>(table.keyAt(slot), table.valueAt(slot));
+    }
+}
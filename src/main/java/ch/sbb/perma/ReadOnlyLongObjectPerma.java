@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.collections.LongObjectHashMap;
+import ch.sbb.perma.datastore.RecordHandler;
+import ch.sbb.perma.serializers.BufferSerializer;
+import ch.sbb.perma.serializers.KeyOrValueSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Read only persistent map from long keys without boxing to objects.
+ * <p>
+ *     Reads the files of a {@link WritableLongObjectPerma} or of a {@link WritablePerma} with
+ *     {@link KeyOrValueSerializer#LONG} keys and the same value serializer.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class ReadOnlyLongObjectPerma<V> extends ReadOnlyPrimitivePerma<Long, V, LongObjectHashMap<V>> {
+    private final static Logger LOG = LoggerFactory.getLogger(ReadOnlyLongObjectPerma.class);
+
+    private final BufferSerializer<V> valueSerializer;
+
+    private ReadOnlyLongObjectPerma(BufferSerializer<V> valueSerializer) {
+        this.valueSerializer = valueSerializer;
+    }
+
+    public static <V> ReadOnlyLongObjectPerma<V> load(File dir,
+                                                      String name,
+                                                      KeyOrValueSerializer<V> valueSerializer) throws IOException {
+        return load(dir, name, valueSerializer, Options.illegal());
+    }
+
+    /**
+     * @param options only the listener and the commit group are used
+     */
+    public static <V> ReadOnlyLongObjectPerma<V> load(File dir,
+                                                      String name,
+                                                      KeyOrValueSerializer<V> valueSerializer,
+                                                      Options options) throws IOException {
+        LOG.info("Loading readonly long object Perma {} from directory {}", name, dir);
+        ReadOnlyLongObjectPerma<V> perma = new ReadOnlyLongObjectPerma<>(BufferSerializer.of(valueSerializer));
+        perma.loadFiles(dir, name, options);
+        return perma;
+    }
+
+    public boolean containsKey(long key) {
+        return table().containsKey(key);
+    }
+
+    /**
+     * @return the value or null if the key is not present
+     */
+    public V get(long key) {
+        return table().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long && containsKey(((Long) key).longValue());
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Long ? get(((Long) key).longValue()) : null;
+    }
+
+    @Override
+    LongObjectHashMap<V> newTable() {
+        return new LongObjectHashMap<>();
+    }
+
+    @Override
+    LongObjectHashMap<V> copy(LongObjectHashMap<V> table) {
+        return table.copy();
+    }
+
+    @Override
+    RecordHandler loader(LongObjectHashMap<V> table) {
+        return PrimitiveRecords.loader(table, valueSerializer);
+    }
+
+    @Override
+    HeapFootprint footprint(LongObjectHashMap<V> table, HeapSizer sizer) {
+        return HeapSample.of(table, sizer).footprint(table.footprint() - 8L * table.size());
+    }
+
+    @Override
+    int size(LongObjectHashMap<V> table) {
+        return table.size();
+    }
+
+    @Override
+    int nextSlot(LongObjectHashMap<V> table, int from) {
+        return table.nextSlot(from);
+    }
+
+    @Override
+    Entry<Long, V> entryAt(LongObjectHashMap<V> table, int slot) {
+        return new SimpleImmutableEntry<>(table.keyAt(slot), table.valueAt(slot));
+    }
+}
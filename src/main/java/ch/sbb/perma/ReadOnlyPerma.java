@@ -23,7 +23,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public class ReadOnlyPerma<K,V> extends ForwardingMap<K,V> implements RefreshableMap<K,V> {
+public class ReadOnlyPerma<K,V> extends ForwardingMap<K,V> implements RefreshableMap<K,V>, HeapMeasurable {
     private final static Logger LOG = LoggerFactory.getLogger(ReadOnlyPerma.class);
 
     private MapSnapshot<K,V> lastLoaded;
@@ -44,8 +44,23 @@ public class ReadOnlyPerma<K,V> extends ForwardingMap<K,V> implements Refreshabl
                                            String name,
                                            KeyOrValueSerializer<K> keySerializer,
                                            KeyOrValueSerializer<V> valueSerializer) throws IOException {
+        return load(dir, name, keySerializer, valueSerializer, Options.illegal());
+    }
+
+    /**
+     * @param options only the listener, the commit group and the executor parsing the delta files are used
+     */
+    public static <K,V> ReadOnlyPerma load(File dir,
+                                           String name,
+                                           KeyOrValueSerializer<K> keySerializer,
+                                           KeyOrValueSerializer<V> valueSerializer,
+                                           Options options) throws IOException {
         LOG.info("Loading readonly Perma {} from directory {}", name, dir);
-        return new ReadOnlyPerma<>(MapSnapshot.loadOrCreate(dir, name, Options.illegal(), keySerializer, valueSerializer));
+        return new ReadOnlyPerma<>(MapSnapshot.loadOrCreate(dir, name, options, keySerializer, valueSerializer));
+    }
+
+    static <K,V> ReadOnlyPerma<K,V> of(MapSnapshot<K,V> snapshot) {
+        return new ReadOnlyPerma<>(snapshot);
     }
 
     public void refresh() throws IOException {
@@ -60,6 +75,12 @@ public class ReadOnlyPerma<K,V> extends ForwardingMap<K,V> implements Refreshabl
         }
     }
 
+    @Override
+    public HeapFootprint heapFootprint(HeapSizer sizer) {
+        MapSnapshot<K,V> loaded = lastLoaded;
+        return HeapSample.of(loaded.asImmutableMap(), sizer).footprint(loaded.overheadBytes());
+    }
+
     @Override
     protected Map<K, V> delegate() {
         return lastLoaded.asImmutableMap();
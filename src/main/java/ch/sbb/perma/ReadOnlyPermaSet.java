@@ -4,35 +4,54 @@
 
 package ch.sbb.perma;
 
+import ch.sbb.perma.collections.ObjectHashSet;
+import ch.sbb.perma.datastore.RecordHandler;
+import ch.sbb.perma.serializers.BufferSerializer;
 import ch.sbb.perma.serializers.KeyOrValueSerializer;
-import com.google.common.collect.ForwardingSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Set;
-import java.util.concurrent.locks.ReentrantLock;
-
-import static ch.sbb.perma.serializers.NullValueSerializer.NULL;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * Read only persistent set.
  * <p>
  *     Is the public Writable API for immutable set. Loads a persisted set and updates it on request.
  * </p>
+ * <p>
+ *     The elements are kept in an open addressing hash set without entry objects, which is never changed after it is
+ *     loaded: refresh applies new files to a copy and replaces the set. Reads are not synchronized.
+ * </p>
  *
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public class ReadOnlyPermaSet<T> extends ForwardingSet<T> implements RefreshableSet<T> {
+public class ReadOnlyPermaSet<T> extends AbstractSet<T> implements RefreshableSet<T>, HeapMeasurable {
     private final static Logger LOG = LoggerFactory.getLogger(ReadOnlyPermaSet.class);
 
-    private MapSnapshot<T,Object> lastLoaded;
-    private final ReentrantLock loadLock = new ReentrantLock();
+    private final RefreshableTable<ObjectHashSet<T>> table;
+
+    private ReadOnlyPermaSet(SetRecords<T> records) {
+        this.table = new RefreshableTable<>(new RefreshableTable.Tables<ObjectHashSet<T>>() {
+            @Override
+            public ObjectHashSet<T> newTable() {
+                return new ObjectHashSet<>();
+            }
+
+            @Override
+            public ObjectHashSet<T> copy(ObjectHashSet<T> table) {
+                return table.copy();
+            }
 
-    private ReadOnlyPermaSet(MapSnapshot<T,Object> loaded) {
-        this.lastLoaded = loaded;
+            @Override
+            public RecordHandler loader(ObjectHashSet<T> table) {
+                return records.loader(table::add, table::remove);
+            }
+        });
     }
 
     public static ReadOnlyPermaSet<String> loadStringSet(File dir, String name) throws IOException {
@@ -44,24 +63,64 @@ public class ReadOnlyPermaSet<T> extends ForwardingSet<T> implements Refreshable
     public static <T> ReadOnlyPermaSet<T> load(File dir,
                                                String name,
                                                KeyOrValueSerializer<T> serializer) throws IOException {
+        return load(dir, name, serializer, Options.illegal());
+    }
+
+    /**
+     * @param options only the listener and the commit group are used
+     */
+    public static <T> ReadOnlyPermaSet<T> load(File dir,
+                                               String name,
+                                               KeyOrValueSerializer<T> serializer,
+                                               Options options) throws IOException {
         LOG.info("Loading readonly PermaSet {} from directory {}", name, dir);
-        return new ReadOnlyPermaSet<>(MapSnapshot.loadOrCreate(dir, name, Options.illegal(), serializer, NULL));
+        ReadOnlyPermaSet<T> permaSet = new ReadOnlyPermaSet<>(new SetRecords<>(BufferSerializer.of(serializer)));
+        permaSet.table.load(dir, name, options);
+        return permaSet;
     }
 
     public void refresh() throws IOException {
-        try {
-            loadLock.lock();
-            LOG.debug("Refreshing set");
-            lastLoaded = lastLoaded.refresh();
-            LOG.info("Refreshed set snapshot with {} entries", lastLoaded.asImmutableMap().size());
-        }
-        finally {
-            loadLock.unlock();
-        }
+        LOG.debug("Refreshing set");
+        table.refresh();
+        LOG.info("Refreshed set with {} entries", size());
+    }
+
+    @Override
+    public HeapFootprint heapFootprint(HeapSizer sizer) {
+        ObjectHashSet<T> set = table.get();
+        return HeapSample.of(set, sizer).footprint(set.footprint());
+    }
+
+    @Override
+    public int size() {
+        return table.get().size();
     }
 
     @Override
-    protected Set<T> delegate() {
-        return lastLoaded.asImmutableMap().keySet();
+    public boolean contains(Object element) {
+        return table.get().contains(element);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        ObjectHashSet<T> set = table.get();
+        return new Iterator<T>() {
+            private int slot = set.nextSlot(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot >= 0;
+            }
+
+            @Override
+            public T next() {
+                if (slot < 0) {
+                    throw new NoSuchElementException();
+                }
+                T element = set.elementAt(slot);
+                slot = set.nextSlot(slot + 1);
+                return element;
+            }
+        };
     }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.datastore.RecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Base of the read only permas keeping their entries in a specialized table instead of an immutable map.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+abstract class ReadOnlyPrimitivePerma<K,V,T> extends AbstractMap<K,V> implements RefreshableMap<K,V>, HeapMeasurable {
+    private final static Logger LOG = LoggerFactory.getLogger(ReadOnlyPrimitivePerma.class);
+
+    private final RefreshableTable<T> table = new RefreshableTable<>(new RefreshableTable.Tables<T>() {
+        @Override
+        public T newTable() {
+            return ReadOnlyPrimitivePerma.this.newTable();
+        }
+
+        @Override
+        public T copy(T table) {
+            return ReadOnlyPrimitivePerma.this.copy(table);
+        }
+
+        @Override
+        public RecordHandler loader(T table) {
+            return ReadOnlyPrimitivePerma.this.loader(table);
+        }
+    });
+
+    final void loadFiles(File dir, String name, Options options) throws IOException {
+        table.load(dir, name, options);
+    }
+
+    /**
+     * The current table, must not be changed.
+     */
+    final T table() {
+        return table.get();
+    }
+
+    abstract T newTable();
+
+    abstract T copy(T table);
+
+    abstract RecordHandler loader(T table);
+
+    abstract HeapFootprint footprint(T table, HeapSizer sizer);
+
+    abstract int size(T table);
+
+    /**
+     * The first used slot of the table from the given slot on, -1 if there is none.
+     */
+    abstract int nextSlot(T table, int from);
+
+    /**
+     * The entry at the used slot of the table.
+     */
+    abstract Entry<K,V> entryAt(T table, int slot);
+
+    @Override
+    public int size() {
+        return size(table());
+    }
+
+    @Override
+    public Set<Entry<K,V>> entrySet() {
+        T current = table();
+        return new AbstractSet<Entry<K,V>>() {
+            @Override
+            public Iterator<Entry<K,V>> iterator() {
+                return new Iterator<Entry<K,V>>() {
+                    private int slot = nextSlot(current, 0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return slot >= 0;
+                    }
+
+                    @Override
+                    public Entry<K,V> next() {
+                        if (slot < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<K,V> entry = entryAt(current, slot);
+                        slot = nextSlot(current, slot + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ReadOnlyPrimitivePerma.this.size(current);
+            }
+        };
+    }
+
+    @Override
+    public void refresh() throws IOException {
+        table.refresh();
+        LOG.info("Refreshed map to {} entries", size());
+    }
+
+    @Override
+    public HeapFootprint heapFootprint(HeapSizer sizer) {
+        return footprint(table(), sizer);
+    }
+}
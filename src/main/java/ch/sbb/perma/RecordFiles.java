@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.datastore.RecordFileSequence;
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import ch.sbb.perma.datastore.RecordHandler;
+import ch.sbb.perma.file.FileGroup;
+import ch.sbb.perma.file.PermaFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The files of a perma with an in-memory representation other than an immutable map.
+ * <p>
+ *     The counterpart of {@link MapSnapshot} which reads and writes records instead of maps, the in-memory
+ *     representation and the change tracking are up to the perma using it.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+class RecordFiles {
+    private static final Logger LOG = LoggerFactory.getLogger(RecordFiles.class);
+
+    private final String name;
+    private final FileGroup files;
+    private final Options options;
+    private final RecordFileSequence sequence;
+
+    private RecordFiles(String name, FileGroup files, Options options, RecordFileSequence sequence) {
+        this.name = name;
+        this.files = files;
+        this.options = options;
+        this.sequence = sequence;
+    }
+
+    static RecordFiles load(File dir, String name, Options options, RecordHandler handler) throws IOException {
+        FileGroup files = FlightEvent.list(dir, name, options.commitGroup());
+        if (!files.exists()) {
+            LOG.debug("No files found for {}, creating new", name);
+            return new RecordFiles(name, files, options, null);
+        }
+        LOG.debug("Loading records from files {}", files);
+        return read(name, files, options, handler, FileOperation.read(name, options, false));
+    }
+
+    private static RecordFiles read(String name,
+                                    FileGroup files,
+                                    Options options,
+                                    RecordHandler handler,
+                                    FileOperation operation) throws IOException {
+        RecordFiles read = new RecordFiles(name,
+                                           files,
+                                           options,
+                                           RecordFileSequence.readFileGroup(
+                                                   operation.recording(files.fullFile()),
+                                                   operation.recording(files.deltaFiles()),
+                                                   handler));
+        operation.read(files);
+        return read;
+    }
+
+    String name() {
+        return name;
+    }
+
+    boolean exists() {
+        return sequence != null;
+    }
+
+    boolean triggerCompaction(int removed, int updated, int persistedSize) {
+        return options.compactionStrategy().triggerCompaction(removed, updated, persistedSize);
+    }
+
+    /**
+     * Write a new full file and delete the previous files.
+     *
+     * @param diffNanos the time spent to take the source, reported to the listener
+     */
+    RecordFiles writeFull(int size, RecordSource source, CompactionReason reason, long diffNanos) throws IOException {
+        FileGroup newFullFileGroup = files.withNextFull(options.compression());
+        LOG.debug("Writing full file with size={} to file {}", size, newFullFileGroup.fullFile());
+        FileOperation write = FileOperation.writeFull(name, options, reason);
+        RecordFileSequence fullSequence = RecordFileSequence.writeFull(
+                name,
+                size,
+                write.recording(newFullFileGroup.fullFile()),
+                options.durability(),
+                source);
+        write.written(newFullFileGroup.fullFile(), diffNanos);
+        LOG.debug("Deleting files {}", files);
+        files.delete();
+        return new RecordFiles(name, newFullFileGroup, options, fullSequence);
+    }
+
+    /**
+     * @param diffNanos the time spent to take the changes, reported to the listener
+     */
+    RecordFiles writeDelta(int size, RecordSource source, long diffNanos) throws IOException {
+        FileGroup filesWithNextDeltaFile = files.withNextDelta();
+        LOG.debug("Writing delta with size={} to file {}", size, filesWithNextDeltaFile.latestDeltaFile());
+        FileOperation write = FileOperation.writeDelta(name, options);
+        RecordFileSequence nextSequence = sequence.writeDelta(
+                size,
+                write.recording(filesWithNextDeltaFile.latestDeltaFile()),
+                options.durability(),
+                source);
+        write.written(filesWithNextDeltaFile.latestDeltaFile(), diffNanos);
+        return new RecordFiles(name, filesWithNextDeltaFile, options, nextSequence);
+    }
+
+    /**
+     * Read new files, if any.
+     *
+     * @param reload handler for all records if the full file has changed (called with the in-memory representation cleared)
+     * @param update handler for the records of new delta files
+     * @return this if nothing has changed
+     */
+    RecordFiles refresh(Supplier<RecordHandler> reload, Supplier<RecordHandler> update) throws IOException {
+        FileOperation refresh = FileOperation.read(name, options, true);
+        FileGroup refreshedFiles = FlightEvent.refresh(files, name);
+        if (!refreshedFiles.exists()) {
+            LOG.debug("No file found, cancelling refresh");
+            refresh.read(refreshedFiles);
+            return this;
+        }
+        if (!exists() || !refreshedFiles.hasSameFullFileAs(files)) {
+            LOG.debug("Reloading instead of refresh, full file has changed");
+            return read(name, refreshedFiles, options, reload.get(), refresh);
+        }
+        List<PermaFile> additionalDeltaFiles = refreshedFiles.deltaFilesSince(files);
+        if (additionalDeltaFiles.isEmpty()) {
+            LOG.debug("No new files found, cancelling refresh");
+            refresh.read(files);
+            return this;
+        }
+        LOG.debug("Refreshing from files {}", additionalDeltaFiles);
+        RecordFiles refreshed = new RecordFiles(name,
+                                                refreshedFiles,
+                                                options,
+                                                sequence.readDeltas(refresh.recording(additionalDeltaFiles),
+                                                                    update.get()));
+        refresh.read(refreshedFiles);
+        return refreshed;
+    }
+
+    @Override
+    public String toString() {
+        return "RecordFiles{" +
+                "files=" + files +
+                ", sequence=" + sequence +
+                '}';
+    }
+}
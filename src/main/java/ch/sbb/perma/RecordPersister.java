@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import ch.sbb.perma.datastore.RecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persistence of the mutable permas tracking their own changes (instead of diffing snapshots).
+ * <p>
+ *     The collection keeps its entries guarded by a monitor and tracks the keys changed since the last persist.
+ *     Persist takes the changes and writes them to a delta file, or all entries to a full file if the collection
+ *     is new or the compaction threshold is reached.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class RecordPersister {
+    private final static Logger LOG = LoggerFactory.getLogger(RecordPersister.class);
+
+    /**
+     * The collection, all methods are called synchronized on the monitor.
+     */
+    interface Tracked {
+        /**
+         * Take the changes since the last persist and start tracking anew.
+         */
+        Changes takeChanges();
+
+        /**
+         * A source writing a copy of all entries.
+         */
+        RecordSource copyAll();
+
+        int size();
+    }
+
+    /**
+     * The changes taken on persist, restored if writing fails.
+     */
+    static abstract class Changes implements RecordSource {
+        int added;
+        int updated;
+        int removed;
+
+        int size() {
+            return added + updated + removed;
+        }
+
+        /**
+         * Called synchronized on the monitor.
+         */
+        abstract void restore();
+    }
+
+    private final ReentrantLock persistLock = new ReentrantLock();
+    private final Object monitor;
+    private final Tracked collection;
+
+    private RecordFiles files;
+    private int persistedSize;
+
+    /**
+     * @param monitor the object guarding the entries of the collection
+     */
+    RecordPersister(Object monitor, Tracked collection) {
+        this.monitor = monitor;
+        this.collection = collection;
+    }
+
+    /**
+     * @param loader handler adding the records to the collection, called before the collection is published
+     */
+    void load(File dir, String name, Options options, RecordHandler loader) throws IOException {
+        files = RecordFiles.load(dir, name, options, loader);
+        persistedSize = collection.size();
+    }
+
+    void persist() throws IOException {
+        try {
+            persistLock.lock();
+            write(false);
+        }
+        finally {
+            persistLock.unlock();
+        }
+    }
+
+    void compact() throws IOException {
+        try {
+            persistLock.lock();
+            write(true);
+        }
+        finally {
+            persistLock.unlock();
+        }
+    }
+
+    /**
+     * Changes and the copy of all entries are taken in the same synchronized block,
+     * a full file must not contain changes which are still tracked for the next delta.
+     */
+    private void write(boolean compact) throws IOException {
+        FlightEvent event = compact ? FlightEvent.NONE : FlightEvent.begin(FlightEvent.Type.PERSIST);
+        write(compact, event);
+        event.perma(files.name()).commit();
+    }
+
+    private void write(boolean compact, FlightEvent event) throws IOException {
+        Changes changes;
+        RecordSource source;
+        int size;
+        boolean full;
+        CompactionReason reason;
+        long diffNanos;
+        synchronized (monitor) {
+            long start = System.nanoTime();
+            changes = collection.takeChanges();
+            if (changes.size() == 0 && !(compact && files.exists())) {
+                LOG.debug("Noting to write (no changes detected), ignoring");
+                return;
+            }
+            reason = compactionReason(compact, changes);
+            full = reason != CompactionReason.NONE || !files.exists();
+            size = full ? collection.size() : changes.size();
+            source = full ? collection.copyAll() : changes;
+            diffNanos = System.nanoTime() - start;
+        }
+        event.changed(size);
+        try {
+            if (full) {
+                files = files.writeFull(size, source, reason, diffNanos);
+                persistedSize = size;
+                LOG.info("Persisted {} entries to full file", size);
+            } else {
+                files = files.writeDelta(size, source, diffNanos);
+                persistedSize += changes.added - changes.removed;
+                LOG.info("Persisted {} changes to delta file, {} entries", size, persistedSize);
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            synchronized (monitor) {
+                changes.restore();
+            }
+            throw e;
+        }
+    }
+
+    private CompactionReason compactionReason(boolean compact, Changes changes) {
+        if (!files.exists()) {
+            return CompactionReason.NONE;
+        }
+        if (compact) {
+            return CompactionReason.REQUESTED;
+        }
+        if (files.triggerCompaction(changes.removed, changes.updated, persistedSize)) {
+            return CompactionReason.THRESHOLD;
+        }
+        return CompactionReason.NONE;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Walk the object graph depth first, the shallow sizes come from the field layout or from the instrumentation.
+ * <p>
+ *     Strings are sized by their length (Latin-1 strings are compact on Java 9 and later). The fields of JDK classes
+ *     are not accessible on Java 9 and later: their shallow size is counted, collections and maps are walked through
+ *     their elements with an estimated internal structure.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class ReflectiveHeapSizer implements HeapSizer {
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int MAP_NODE = 32;
+    private static final boolean JAVA_8 = System.getProperty("java.specification.version").startsWith("1.");
+
+    private static final ClassValue<Layout> LAYOUTS = new ClassValue<Layout>() {
+        @Override
+        protected Layout computeValue(Class<?> type) {
+            return new Layout(type);
+        }
+    };
+
+    private final Instrumentation instrumentation;
+
+    ReflectiveHeapSizer(Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public long sizeOf(Object object) {
+        if (object == null) {
+            return 0;
+        }
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(object);
+        long bytes = 0;
+        while (!pending.isEmpty()) {
+            Object current = pending.pop();
+            if (current instanceof Enum || current instanceof Class || !visited.add(current)) {
+                continue;
+            }
+            bytes += shallowSize(current);
+            if (current instanceof String) {
+                bytes += valueSize((String) current);
+            } else if (current instanceof Object[]) {
+                for (Object element : (Object[]) current) {
+                    push(element, pending);
+                }
+            } else if (!current.getClass().isArray()) {
+                Layout layout = LAYOUTS.get(current.getClass());
+                if (!layout.opaque) {
+                    layout.pushReferences(current, pending);
+                } else if (current instanceof Collection) {
+                    Collection<?> collection = (Collection<?>) current;
+                    bytes += array(collection.size(), REFERENCE);
+                    for (Object element : collection) {
+                        push(element, pending);
+                    }
+                } else if (current instanceof Map) {
+                    Map<?,?> map = (Map<?,?>) current;
+                    bytes += array(map.size(), REFERENCE) + (long) map.size() * MAP_NODE;
+                    for (Map.Entry<?,?> entry : map.entrySet()) {
+                        push(entry.getKey(), pending);
+                        push(entry.getValue(), pending);
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private long shallowSize(Object object) {
+        if (instrumentation != null) {
+            return instrumentation.getObjectSize(object);
+        }
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            return array(java.lang.reflect.Array.getLength(object), width(type.getComponentType()));
+        }
+        return LAYOUTS.get(type).shallowSize;
+    }
+
+    private static long valueSize(String string) {
+        if (JAVA_8) {
+            return array(string.length(), 2);
+        }
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xFF) {
+                return array(string.length(), 2);
+            }
+        }
+        return array(string.length(), 1);
+    }
+
+    private static void push(Object object, Deque<Object> pending) {
+        if (object != null) {
+            pending.push(object);
+        }
+    }
+
+    static long array(int length, int width) {
+        return align(ARRAY_HEADER + (long) length * width);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static int width(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static final class Layout {
+        private final long shallowSize;
+        private final boolean opaque;
+        private final List<Field> references = new ArrayList<>();
+
+        private Layout(Class<?> type) {
+            this.opaque = !JAVA_8 && isJdkClass(type);
+            long size = HEADER;
+            for (Class<?> declaring = type; declaring != null; declaring = declaring.getSuperclass()) {
+                for (Field field : declaring.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    size += width(field.getType());
+                    if (!field.getType().isPrimitive() && !opaque && accessible(field)) {
+                        references.add(field);
+                    }
+                }
+            }
+            this.shallowSize = align(size);
+        }
+
+        private void pushReferences(Object object, Deque<Object> pending) {
+            for (Field field : references) {
+                try {
+                    push(field.get(object), pending);
+                }
+                catch (IllegalAccessException e) {
+                    // not counted
+                }
+            }
+        }
+
+        private static boolean accessible(Field field) {
+            try {
+                field.setAccessible(true);
+                return true;
+            }
+            catch (RuntimeException e) {
+                return false;
+            }
+        }
+
+        private static boolean isJdkClass(Class<?> type) {
+            String name = type.getName();
+            return name.startsWith("java.") ||
+                    name.startsWith("javax.") ||
+                    name.startsWith("jdk.") ||
+                    name.startsWith("sun.") ||
+                    name.startsWith("com.sun.");
+        }
+    }
+}
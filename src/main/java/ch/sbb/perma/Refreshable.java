@@ -5,6 +5,8 @@
 package ch.sbb.perma;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Reload changes from the files of the persisted map.
@@ -14,4 +16,19 @@ import java.io.IOException;
  */
 public interface Refreshable {
    void refresh() throws IOException;
+
+   /**
+    * Refresh on a thread of perma, see {@link #refreshAsync(Executor)}.
+    */
+   default CompletableFuture<Void> refreshAsync() {
+      return refreshAsync(AsyncOperations.DEFAULT_EXECUTOR);
+   }
+
+   /**
+    * Refresh on the executor. Calls while a refresh is queued share it, the future completes after a refresh that
+    * started after the call. Cancelling the future skips the refresh if no other caller waits for it.
+    */
+   default CompletableFuture<Void> refreshAsync(Executor executor) {
+      return AsyncOperations.submit(this, AsyncOperations.Kind.REFRESH, this::refresh, executor);
+   }
 }
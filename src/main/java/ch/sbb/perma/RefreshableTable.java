@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.datastore.RecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The table of a read only perma with an in-memory representation other than an immutable map.
+ * <p>
+ *     The loaded table is never changed after it is published, refresh applies new delta files to a copy
+ *     (or loads a new table if the full file has changed) and replaces the table. Reads are not synchronized.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class RefreshableTable<T> {
+    private final static Logger LOG = LoggerFactory.getLogger(RefreshableTable.class);
+
+    interface Tables<T> {
+        T newTable();
+
+        T copy(T table);
+
+        RecordHandler loader(T table);
+    }
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final Tables<T> tables;
+
+    private volatile T table;
+    private RecordFiles files;
+    private T loading;
+
+    RefreshableTable(Tables<T> tables) {
+        this.tables = tables;
+    }
+
+    void load(File dir, String name, Options options) throws IOException {
+        T loaded = tables.newTable();
+        files = RecordFiles.load(dir, name, options, tables.loader(loaded));
+        table = loaded;
+    }
+
+    /**
+     * The current table, must not be changed.
+     */
+    T get() {
+        return table;
+    }
+
+    void refresh() throws IOException {
+        try {
+            loadLock.lock();
+            LOG.debug("Refreshing table");
+            files = files.refresh(() -> tables.loader(loading = tables.newTable()),
+                                  () -> tables.loader(loading = tables.copy(table)));
+            if (loading != null) {
+                table = loading;
+            }
+        }
+        finally {
+            loading = null;
+            loadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.RecordPersister.Changes;
+import ch.sbb.perma.collections.ObjectHashSet;
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import ch.sbb.perma.datastore.RecordHandler;
+import ch.sbb.perma.datastore.RecordWriter;
+import ch.sbb.perma.serializers.BufferSerializer;
+import ch.sbb.perma.serializers.ReadBuffer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Read, write and track the changes of the key only records of the permasets.
+ * <p>
+ *     Changes are tracked per element: an element removed and added again (or added and removed again) since the last
+ *     persist is no change. Files of sets written as maps with null values are read as well.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class SetRecords<T> {
+    private final BufferSerializer<T> serializer;
+
+    private ObjectHashSet<T> changedPersisted = new ObjectHashSet<>();
+    private ObjectHashSet<T> changedNew = new ObjectHashSet<>();
+
+    SetRecords(BufferSerializer<T> serializer) {
+        this.serializer = serializer;
+    }
+
+    RecordHandler loader(Consumer<T> add, Consumer<T> remove) {
+        return new RecordHandler() {
+            @Override
+            public void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+                add.accept(serializer.readFrom(key));
+            }
+
+            @Override
+            public void deleted(ReadBuffer key) {
+                remove.accept(serializer.readFrom(key));
+            }
+        };
+    }
+
+    /**
+     * @param sets disjoint sets, e.g. the stripes of a set
+     */
+    RecordSource allRecords(List<ObjectHashSet<T>> sets) {
+        return writer -> {
+            for (ObjectHashSet<T> set : sets) {
+                for (int slot = set.nextSlot(0); slot >= 0; slot = set.nextSlot(slot + 1)) {
+                    writer.added(set.elementAt(slot), serializer);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return heap bytes of the tracked changes, the elements are shared with the set
+     */
+    long footprint() {
+        return changedPersisted.footprint() + changedNew.footprint();
+    }
+
+    /**
+     * Remember whether the element was persisted on the first change since the last persist.
+     */
+    void changed(T element, boolean persisted) {
+        if (!changedPersisted.contains(element) && !changedNew.contains(element)) {
+            (persisted ? changedPersisted : changedNew).add(element);
+        }
+    }
+
+    /**
+     * @param set whether an element is in the set, called for the changed elements
+     */
+    Changes takeChanges(Predicate<Object> set) {
+        ObjectHashSet<T> takenPersisted = changedPersisted;
+        ObjectHashSet<T> takenNew = changedNew;
+        changedPersisted = new ObjectHashSet<>();
+        changedNew = new ObjectHashSet<>();
+        ObjectHashSet<T> addedElements = new ObjectHashSet<>();
+        ObjectHashSet<T> removedElements = new ObjectHashSet<>();
+        for (int slot = takenNew.nextSlot(0); slot >= 0; slot = takenNew.nextSlot(slot + 1)) {
+            if (set.test(takenNew.elementAt(slot))) {
+                addedElements.add(takenNew.elementAt(slot));
+            }
+        }
+        for (int slot = takenPersisted.nextSlot(0); slot >= 0; slot = takenPersisted.nextSlot(slot + 1)) {
+            if (!set.test(takenPersisted.elementAt(slot))) {
+                removedElements.add(takenPersisted.elementAt(slot));
+            }
+        }
+        Changes changes = new Changes() {
+            @Override
+            public void writeTo(RecordWriter writer) throws IOException {
+                for (int slot = addedElements.nextSlot(0); slot >= 0; slot = addedElements.nextSlot(slot + 1)) {
+                    writer.added(addedElements.elementAt(slot), serializer);
+                }
+                for (int slot = removedElements.nextSlot(0); slot >= 0; slot = removedElements.nextSlot(slot + 1)) {
+                    writer.removed(removedElements.elementAt(slot), serializer);
+                }
+            }
+
+            @Override
+            void restore() {
+                restoreTo(takenPersisted, true);
+                restoreTo(takenNew, false);
+            }
+        };
+        changes.added = addedElements.size();
+        changes.removed = removedElements.size();
+        return changes;
+    }
+
+    /**
+     * The taken flags are relative to the still valid last persist, they replace the ones tracked since.
+     */
+    private void restoreTo(ObjectHashSet<T> taken, boolean persisted) {
+        for (int slot = taken.nextSlot(0); slot >= 0; slot = taken.nextSlot(slot + 1)) {
+            T element = taken.elementAt(slot);
+            changedPersisted.remove(element);
+            changedNew.remove(element);
+            (persisted ? changedPersisted : changedNew).add(element);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The snapshot last persisted by a writer in the same process, read without file I/O.
+ * <p>
+ *     Refresh takes the latest snapshot of the writer, the immutable map of the snapshot is shared with the writer
+ *     and with all other views, it is not copied. Writing is not supported.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+class SharedMapSnapshot<K,V> implements MapSnapshot<K,V> {
+    private final Supplier<MapSnapshot<K,V>> writer;
+    private final MapSnapshot<K,V> persisted;
+
+    SharedMapSnapshot(Supplier<MapSnapshot<K,V>> writer) {
+        this(writer, writer.get());
+    }
+
+    private SharedMapSnapshot(Supplier<MapSnapshot<K,V>> writer, MapSnapshot<K,V> persisted) {
+        this.writer = writer;
+        this.persisted = persisted;
+    }
+
+    @Override
+    public MapSnapshot<K,V> writeNext(Map<K,V> currentState) {
+        throw new UnsupportedOperationException("A view of a writer is read only");
+    }
+
+    @Override
+    public MapSnapshot<K,V> refresh() {
+        MapSnapshot<K,V> latest = writer.get();
+        return latest == persisted ? this : new SharedMapSnapshot<>(writer, latest);
+    }
+
+    @Override
+    public MapSnapshot<K,V> compact() {
+        throw new UnsupportedOperationException("A view of a writer is read only");
+    }
+
+    @Override
+    public ImmutableMap<K,V> asImmutableMap() {
+        return persisted.asImmutableMap();
+    }
+
+    /**
+     * The snapshot is retained by the writer too, as long as it is the latest.
+     */
+    @Override
+    public long overheadBytes() {
+        return persisted.overheadBytes();
+    }
+}
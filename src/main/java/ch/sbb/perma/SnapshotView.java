@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * An immutable view of a {@link WritablePerma} frozen at a point in time.
+ * <p>
+ *     With versioned snapshots, the view is created in constant time and shares the entries with the perma. While it
+ *     is open, the perma keeps the values replaced or removed after the view was taken, close it when done to release
+ *     them. Otherwise the view is a copy of the entries. Reads after close fail with an IllegalStateException.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class SnapshotView<K,V> extends AbstractMap<K,V> implements AutoCloseable {
+    private final VersionedMap<K,V> map; // null for a copy
+    private final long version;
+    private final int size;
+    private final ImmutableMap<K,V> copy;
+    private volatile boolean closed = false;
+
+    SnapshotView(VersionedMap<K,V> map, long version, int size) {
+        this.map = map;
+        this.version = version;
+        this.size = size;
+        this.copy = null;
+    }
+
+    SnapshotView(ImmutableMap<K,V> copy) {
+        this.map = null;
+        this.version = 0;
+        this.size = copy.size();
+        this.copy = copy;
+    }
+
+    @Override
+    public V get(Object key) {
+        checkOpen();
+        if (key == null) {
+            return null;
+        }
+        return map != null ? map.get(key, version) : copy.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        checkOpen();
+        return size;
+    }
+
+    @Override
+    public Set<Entry<K,V>> entrySet() {
+        checkOpen();
+        return new AbstractSet<Entry<K,V>>() {
+            @Override
+            public Iterator<Entry<K,V>> iterator() {
+                checkOpen();
+                return map != null ? map.entries(version) : copy.entrySet().iterator();
+            }
+
+            @Override
+            public int size() {
+                return SnapshotView.this.size();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            if (map != null) {
+                map.close(this);
+            }
+        }
+    }
+
+    private void checkOpen() {
+        Preconditions.checkState(!closed, "Snapshot is closed");
+    }
+}
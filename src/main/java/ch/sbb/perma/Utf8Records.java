@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.RecordPersister.Changes;
+import ch.sbb.perma.collections.Utf8HashMap;
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import ch.sbb.perma.datastore.RecordHandler;
+import ch.sbb.perma.datastore.RecordWriter;
+import ch.sbb.perma.serializers.ReadBuffer;
+import ch.sbb.perma.serializers.WriteBuffer;
+
+import java.io.IOException;
+
+/**
+ * Read, write and track the changes of the records of the compact string permas.
+ * <p>
+ *     The binary form of {@link ch.sbb.perma.serializers.KeyOrValueSerializer#STRING} are the UTF-8 bytes, so
+ *     records are copied into and out of the {@link Utf8HashMap} without creating strings. Sets are written as key
+ *     only records, as sets of {@link WritablePermaSet} are.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class Utf8Records {
+    private static final byte[] PERSISTED = new byte[0];
+
+    private final WriteBuffer keyBuffer = new WriteBuffer();
+    private final boolean keysOnly;
+    private Utf8HashMap changed = new Utf8HashMap();
+
+    /**
+     * @param keysOnly true for sets, changes are written as key only records
+     */
+    Utf8Records(boolean keysOnly) {
+        this.keysOnly = keysOnly;
+    }
+
+    /**
+     * @return heap bytes of the tracked changes
+     */
+    long footprint() {
+        return changed.footprint();
+    }
+
+    /**
+     * @param withValues false for sets, the values of the records are ignored
+     */
+    static RecordHandler loader(Utf8HashMap table, boolean withValues) {
+        return new RecordHandler() {
+            @Override
+            public void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+                if (!withValues) {
+                    table.put(key.array(), key.position(), key.remaining(), null, 0, 0);
+                    return;
+                }
+                if (value == null) {
+                    throw new IllegalStateException("Null value, not supported by compact string permas");
+                }
+                table.put(key.array(), key.position(), key.remaining(), value.array(), value.position(), value.remaining());
+            }
+
+            @Override
+            public void deleted(ReadBuffer key) {
+                table.remove(key.array(), key.position(), key.remaining());
+            }
+        };
+    }
+
+    static RecordSource allRecords(Utf8HashMap table, boolean keysOnly) {
+        return writer -> writeEntries(table, keysOnly, writer);
+    }
+
+    /**
+     * Remember whether the key was persisted on the first change since the last persist.
+     */
+    void changed(byte[] key, boolean persisted) {
+        if (!changed.containsKey(key, 0, key.length)) {
+            changed.put(key, 0, key.length, persisted ? PERSISTED : null, 0, 0);
+        }
+    }
+
+    /**
+     * The persisted key at the slot of the table is removed.
+     */
+    void removed(Utf8HashMap table, int slot) {
+        keyBuffer.reset();
+        table.writeKeyTo(slot, keyBuffer);
+        if (!changed.containsKey(keyBuffer.array(), 0, keyBuffer.length())) {
+            changed.put(keyBuffer.array(), 0, keyBuffer.length(), PERSISTED, 0, 0);
+        }
+    }
+
+    /**
+     * Take the changes of the table since the last persist, the entries are copied.
+     */
+    Changes takeChanges(Utf8HashMap table) {
+        Utf8HashMap taken = changed;
+        changed = new Utf8HashMap();
+        Utf8HashMap updates = new Utf8HashMap(taken.size());
+        Utf8HashMap deletes = new Utf8HashMap();
+        Changes changes = new Changes() {
+            @Override
+            public void writeTo(RecordWriter writer) throws IOException {
+                writeEntries(updates, keysOnly, writer);
+                WriteBuffer key = new WriteBuffer();
+                for (int slot = deletes.nextSlot(0); slot >= 0; slot = deletes.nextSlot(slot + 1)) {
+                    key.reset();
+                    deletes.writeKeyTo(slot, key);
+                    if (keysOnly) {
+                        writer.removed(key);
+                    } else {
+                        writer.deleted(key);
+                    }
+                }
+            }
+
+            @Override
+            void restore() {
+                WriteBuffer key = new WriteBuffer();
+                for (int slot = taken.nextSlot(0); slot >= 0; slot = taken.nextSlot(slot + 1)) {
+                    key.reset();
+                    taken.writeKeyTo(slot, key);
+                    changed.remove(key.array(), 0, key.length());
+                    changed.putEntry(taken, slot);
+                }
+            }
+        };
+        WriteBuffer key = new WriteBuffer();
+        for (int slot = taken.nextSlot(0); slot >= 0; slot = taken.nextSlot(slot + 1)) {
+            boolean persisted = !taken.hasNullValueAt(slot);
+            key.reset();
+            taken.writeKeyTo(slot, key);
+            int tableSlot = table.slotOf(key.array(), 0, key.length());
+            if (tableSlot >= 0) {
+                updates.putEntry(table, tableSlot);
+                if (persisted) {
+                    changes.updated++;
+                } else {
+                    changes.added++;
+                }
+            } else if (persisted) {
+                deletes.putEntry(taken, slot);
+                changes.removed++;
+            }
+        }
+        return changes;
+    }
+
+    private static void writeEntries(Utf8HashMap table, boolean keysOnly, RecordWriter writer) throws IOException {
+        WriteBuffer key = new WriteBuffer();
+        WriteBuffer value = new WriteBuffer();
+        for (int slot = table.nextSlot(0); slot >= 0; slot = table.nextSlot(slot + 1)) {
+            key.reset();
+            value.reset();
+            table.writeKeyTo(slot, key);
+            if (keysOnly) {
+                writer.added(key);
+                continue;
+            }
+            writer.newOrUpdated(key, table.writeValueTo(slot, value) ? value : null);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A concurrent map with point in time snapshots and forks, both created in constant time.
+ * <p>
+ *     Each key maps to its latest version. A write while snapshots are open keeps the version replaced as the previous
+ *     version of the new one, a snapshot reads the latest version not newer than itself. Versions no open snapshot
+ *     can read anymore are dropped by the next write of their key, without open snapshots a write keeps no history.
+ *     Snapshots not closed are released by the next write after they are garbage collected, except by a write nested in
+ *     a compute function. A compute function must not take or close a snapshot.
+ * </p>
+ * <p>
+ *     A fork is a map on top of a snapshot of its parent: it only stores the keys written in the fork, a removed key
+ *     of the parent is kept as a removed version. The parent keeps the versions the fork still reads.
+ * </p>
+ * <p>
+ *     Writes hold the read lock of the map, creating a snapshot holds the write lock: a snapshot sees exactly the
+ *     writes completed before it. Iterating the map is weakly consistent like iterating a ConcurrentHashMap,
+ *     iterating a snapshot is consistent. Null keys and values are not allowed.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class VersionedMap<K,V> extends AbstractMap<K,V> implements ConcurrentMap<K,V> {
+    private static final long NO_SNAPSHOT = Long.MAX_VALUE;
+    private static final int NODE = 32;
+
+    private static final class Node<V> {
+        private final V value; // null if the key was removed
+        private final long version;
+        private volatile Node<V> previous;
+
+        private Node(V value, long version, Node<V> previous) {
+            this.value = value;
+            this.version = version;
+            this.previous = previous;
+        }
+    }
+
+    private final ConcurrentHashMap<K,Node<V>> nodes = new ConcurrentHashMap<>();
+    private final SnapshotView<K,V> base;
+    private final AtomicInteger size;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReferenceQueue<SnapshotView<K,V>> collected = new ReferenceQueue<>();
+    private final Map<Reference<SnapshotView<K,V>>, Long> snapshots = new HashMap<>();
+    private long version = 0;
+    private long oldestSnapshot = NO_SNAPSHOT;
+
+    VersionedMap(Map<K,V> initial) {
+        this.base = null;
+        this.size = new AtomicInteger(initial.size());
+        initial.forEach((key, value) -> nodes.put(key, new Node<>(value, 0, null)));
+    }
+
+    private VersionedMap(SnapshotView<K,V> base) {
+        this.base = base;
+        this.size = new AtomicInteger(base.size());
+    }
+
+    /**
+     * @return an immutable view of the map as it is now
+     */
+    SnapshotView<K,V> snapshot() {
+        lock.writeLock().lock();
+        try {
+            long snapshotVersion = version++;
+            SnapshotView<K,V> snapshot = new SnapshotView<>(this, snapshotVersion, size.get());
+            snapshots.put(new WeakReference<>(snapshot, collected), snapshotVersion);
+            oldestSnapshot = Math.min(oldestSnapshot, snapshotVersion);
+            return snapshot;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return an independent map starting with the content of this map as it is now
+     */
+    VersionedMap<K,V> fork() {
+        return new VersionedMap<>(snapshot());
+    }
+
+    void close(SnapshotView<K,V> snapshot) {
+        lock.writeLock().lock();
+        try {
+            snapshots.keySet().removeIf(reference -> reference.get() == snapshot);
+            oldestSnapshot = oldest();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return estimated heap bytes of the table and the latest versions, without the keys and values
+     */
+    long overheadBytes() {
+        return HeapSample.concurrentHashMap(nodes.size()) + (long) NODE * nodes.size();
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<V> node = nodes.get(key);
+        if (node == null) {
+            return base == null ? null : base.get(key);
+        }
+        return node.value;
+    }
+
+    V get(Object key, long snapshotVersion) {
+        Node<V> node = visible(nodes.get(key), snapshotVersion);
+        if (node == null) {
+            return base == null ? null : base.get(key);
+        }
+        return node.value;
+    }
+
+    Iterator<Entry<K,V>> entries(long snapshotVersion) {
+        return Iterators.unmodifiableIterator(snapshotEntries(snapshotVersion));
+    }
+
+    private Iterator<Entry<K,V>> snapshotEntries(long snapshotVersion) {
+        Iterator<Entry<K,V>> own = Iterators.filter(
+                Iterators.transform(nodes.entrySet().iterator(), entry -> {
+                    Node<V> node = visible(entry.getValue(), snapshotVersion);
+                    return node == null || node.value == null
+                           ? null
+                           : new SimpleImmutableEntry<>(entry.getKey(), node.value);
+                }),
+                entry -> entry != null);
+        if (base == null) {
+            return own;
+        }
+        // a key of the base with an own version not newer than the snapshot is in the own entries
+        return Iterators.concat(own, Iterators.filter(
+                base.entrySet().iterator(),
+                entry -> visible(nodes.get(entry.getKey()), snapshotVersion) == null));
+    }
+
+    /**
+     * @return the latest version not newer than the snapshot, null if the key was not written before it
+     */
+    private static <V> Node<V> visible(Node<V> latest, long snapshotVersion) {
+        Node<V> node = latest;
+        while (node != null && node.version > snapshotVersion) {
+            node = node.previous;
+        }
+        return node;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Preconditions.checkNotNull(value, "value is null");
+        return update(key, (k, old) -> value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Preconditions.checkNotNull(value, "value is null");
+        return update(key, (k, old) -> old == null ? value : old, false);
+    }
+
+    @Override
+    public V remove(Object key) {
+        @SuppressWarnings("unchecked") K typedKey = (K) key;
+        return update(typedKey, (k, old) -> null, false);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (value == null) {
+            return false;
+        }
+        @SuppressWarnings("unchecked") K typedKey = (K) key;
+        boolean[] removed = new boolean[1];
+        update(typedKey, (k, old) -> {
+            removed[0] = value.equals(old);
+            return removed[0] ? null : old;
+        }, false);
+        return removed[0];
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Preconditions.checkNotNull(oldValue, "oldValue is null");
+        Preconditions.checkNotNull(newValue, "newValue is null");
+        boolean[] replaced = new boolean[1];
+        update(key, (k, old) -> {
+            replaced[0] = oldValue.equals(old);
+            return replaced[0] ? newValue : old;
+        }, false);
+        return replaced[0];
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Preconditions.checkNotNull(value, "value is null");
+        return update(key, (k, old) -> old == null ? null : value, false);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        return update(key, (k, old) -> old == null ? mappingFunction.apply(k) : old, true);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return update(key, (k, old) -> old == null ? null : remappingFunction.apply(k, old), true);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return update(key, remappingFunction, true);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Preconditions.checkNotNull(value, "value is null");
+        return update(key, (k, old) -> old == null ? value : remappingFunction.apply(old, value), true);
+    }
+
+    @Override
+    public void clear() {
+        nodes.keySet().forEach(this::remove);
+        if (base != null) {
+            base.keySet().forEach(this::remove);
+        }
+    }
+
+    @Override
+    public Set<Entry<K,V>> entrySet() {
+        return new AbstractSet<Entry<K,V>>() {
+            @Override
+            public Iterator<Entry<K,V>> iterator() {
+                Iterator<Entry<K,V>> entries = liveEntries();
+                return new Iterator<Entry<K,V>>() {
+                    private Entry<K,V> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K,V> next() {
+                        last = entries.next();
+                        return new SimpleEntry<K,V>(last) {
+                            @Override
+                            public V setValue(V value) {
+                                put(getKey(), value);
+                                return super.setValue(value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        Preconditions.checkState(last != null, "next not called");
+                        VersionedMap.this.remove(last.getKey());
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return VersionedMap.this.size();
+            }
+        };
+    }
+
+    private Iterator<Entry<K,V>> liveEntries() {
+        Iterator<Entry<K,V>> own = Iterators.filter(
+                Iterators.transform(nodes.entrySet().iterator(), entry -> {
+                    V value = entry.getValue().value;
+                    return value == null ? null : new SimpleImmutableEntry<>(entry.getKey(), value);
+                }),
+                entry -> entry != null);
+        if (base == null) {
+            return own;
+        }
+        return Iterators.concat(own, Iterators.filter(base.entrySet().iterator(),
+                                                      entry -> !nodes.containsKey(entry.getKey())));
+    }
+
+    /**
+     * Apply the function to the current value of the key atomically.
+     *
+     * @param function returns the new value, null to remove the key, the old value to leave it unchanged
+     * @return the new value if returnNew, else the old value
+     */
+    private V update(K key, BiFunction<? super K, ? super V, ? extends V> function, boolean returnNew) {
+        Preconditions.checkNotNull(key, "key is null");
+        if (lock.getReadHoldCount() == 0) { // a nested update of a compute function cannot take the write lock
+            Reference<?> garbage = collected.poll();
+            if (garbage != null) {
+                expunge(garbage);
+            }
+        }
+        Object[] oldAndNew = new Object[2];
+        lock.readLock().lock();
+        try {
+            nodes.compute(key, (k, node) -> {
+                V old = node != null ? node.value : (base == null ? null : base.get(k));
+                V next = function.apply(k, old);
+                oldAndNew[0] = old;
+                oldAndNew[1] = next;
+                if (next == old) {
+                    return node;
+                }
+                if (old == null) {
+                    size.incrementAndGet();
+                }
+                else if (next == null) {
+                    size.decrementAndGet();
+                }
+                Node<V> previous = retained(node);
+                if (next == null && previous == null && (base == null || !base.containsKey(k))) {
+                    return null;
+                }
+                return new Node<>(next, version, previous);
+            });
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        @SuppressWarnings("unchecked") V result = (V) oldAndNew[returnNew ? 1 : 0];
+        return result;
+    }
+
+    /**
+     * @return the versions of the replaced node the open snapshots can read, null if none
+     */
+    private Node<V> retained(Node<V> replaced) {
+        long oldest = oldestSnapshot;
+        if (oldest == NO_SNAPSHOT || replaced == null) {
+            return null;
+        }
+        Node<V> previous = replaced.version == version ? replaced.previous : replaced; // not in any snapshot
+        for (Node<V> node = previous; node != null; node = node.previous) {
+            if (node.version <= oldest) {
+                node.previous = null;
+                break;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Remove the snapshots garbage collected without being closed.
+     */
+    private void expunge(Reference<?> garbage) {
+        lock.writeLock().lock();
+        try {
+            for (Reference<?> reference = garbage; reference != null; reference = collected.poll()) {
+                snapshots.remove(reference);
+            }
+            oldestSnapshot = oldest();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long oldest() {
+        return snapshots.values().stream().mapToLong(Long::longValue).min().orElse(NO_SNAPSHOT);
+    }
+}
@@ -5,6 +5,8 @@
 package ch.sbb.perma;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * A map or set can be written to a file.
@@ -19,4 +21,34 @@ import java.io.IOException;
 public interface Writable<K,V> {
     void persist() throws IOException;
     void compact() throws IOException;
+
+    /**
+     * Persist on a thread of perma, see {@link #persistAsync(Executor)}.
+     */
+    default CompletableFuture<Void> persistAsync() {
+        return persistAsync(AsyncOperations.DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Persist on the executor. Calls while a persist is queued share it, the future completes after the changes made
+     * before the call are persisted. Cancelling the future skips the persist if no other caller waits for it.
+     */
+    default CompletableFuture<Void> persistAsync(Executor executor) {
+        return AsyncOperations.submit(this, AsyncOperations.Kind.PERSIST, this::persist, executor);
+    }
+
+    /**
+     * Compact on a thread of perma, see {@link #compactAsync(Executor)}.
+     */
+    default CompletableFuture<Void> compactAsync() {
+        return compactAsync(AsyncOperations.DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Compact on the executor. Calls while a compaction is queued share it, cancelling the future skips the
+     * compaction if no other caller waits for it.
+     */
+    default CompletableFuture<Void> compactAsync(Executor executor) {
+        return AsyncOperations.submit(this, AsyncOperations.Kind.COMPACT, this::compact, executor);
+    }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.RecordPersister.Changes;
+import ch.sbb.perma.collections.LongBitmap;
+import ch.sbb.perma.collections.LongIntHashMap;
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import ch.sbb.perma.datastore.RecordWriter;
+import ch.sbb.perma.serializers.WriteBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+
+import static ch.sbb.perma.PrimitiveRecords.longBuffer;
+
+/**
+ * Base of the mutable persistent sets of integral numbers keeping their elements in a {@link LongBitmap}.
+ * <p>
+ *     A record is a container of the bitmap: full files store all containers, deltas the containers changed since
+ *     the last persist. Adding, retaining or removing all elements of another bitmap set of the same type works on
+ *     whole containers. All methods are synchronized, iterating iterates a copy.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+abstract class WritableBitmapSet<T> extends AbstractSet<T> implements WritableSet<T>, HeapMeasurable {
+    private final LongBitmap bitmap = new LongBitmap();
+    private LongIntHashMap changed = new LongIntHashMap();
+    private final RecordPersister persister = new RecordPersister(this, new RecordPersister.Tracked() {
+        @Override
+        public Changes takeChanges() {
+            return WritableBitmapSet.this.takeChanges();
+        }
+
+        @Override
+        public RecordSource copyAll() {
+            return PrimitiveRecords.allRecords(bitmap.copy());
+        }
+
+        @Override
+        public int size() {
+            return bitmap.containerCount();
+        }
+    });
+
+    final void loadFiles(File dir, String name, Options options) throws IOException {
+        persister.load(dir, name, options, PrimitiveRecords.loader(bitmap));
+    }
+
+    /**
+     * @return the element of the value
+     */
+    abstract T element(long value);
+
+    /**
+     * @return true if the object is of the element type
+     */
+    abstract boolean isElement(Object object);
+
+    /**
+     * @return the bitmap of a bitmap set with the same element type or null
+     */
+    abstract LongBitmap bitmapOf(Collection<?> collection);
+
+    @Override
+    public void persist() throws IOException {
+        persister.persist();
+    }
+
+    @Override
+    public void compact() throws IOException {
+        persister.compact();
+    }
+
+    /**
+     * Exact, the keys are the bytes of the bitmap.
+     */
+    @Override
+    public synchronized HeapFootprint heapFootprint(HeapSizer sizer) {
+        return new HeapFootprint(bitmap.size(), bitmap.size(), bitmap.footprint(), 0, changed.footprint());
+    }
+
+    /**
+     * @return a copy of the elements
+     */
+    public synchronized LongBitmap toBitmap() {
+        return bitmap.copy();
+    }
+
+    @Override
+    public synchronized int size() {
+        return bitmap.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return bitmap.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return isElement(element) && containsValue(((Number) element).longValue());
+    }
+
+    @Override
+    public boolean add(T element) {
+        return addValue(((Number) element).longValue());
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        return isElement(element) && removeValue(((Number) element).longValue());
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> elements) {
+        LongBitmap other = bitmapOf(elements);
+        if (other == null) {
+            return super.addAll(elements);
+        }
+        synchronized (this) {
+            int size = bitmap.size();
+            bitmap.addAll(other, this::changed);
+            return bitmap.size() != size;
+        }
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> elements) {
+        LongBitmap other = bitmapOf(elements);
+        if (other == null) {
+            return super.retainAll(elements);
+        }
+        synchronized (this) {
+            int size = bitmap.size();
+            bitmap.retainAll(other, this::changed);
+            return bitmap.size() != size;
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> elements) {
+        LongBitmap other = bitmapOf(elements);
+        if (other == null) {
+            return super.removeAll(elements);
+        }
+        synchronized (this) {
+            int size = bitmap.size();
+            bitmap.removeAll(other, this::changed);
+            return bitmap.size() != size;
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (long key : bitmap.containerKeys()) {
+            changed(key);
+        }
+        bitmap.clear();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        PrimitiveIterator.OfLong values = toBitmap().iterator();
+        return new Iterator<T>() {
+            private T current;
+
+            @Override
+            public boolean hasNext() {
+                return values.hasNext();
+            }
+
+            @Override
+            public T next() {
+                current = element(values.nextLong());
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException("next() not called");
+                }
+                WritableBitmapSet.this.remove(current);
+                current = null;
+            }
+        };
+    }
+
+    final synchronized boolean containsValue(long value) {
+        return bitmap.contains(value);
+    }
+
+    final synchronized boolean addValue(long value) {
+        if (bitmap.contains(value)) {
+            return false;
+        }
+        changed(LongBitmap.containerKey(value));
+        return bitmap.add(value);
+    }
+
+    final synchronized boolean removeValue(long value) {
+        if (!bitmap.contains(value)) {
+            return false;
+        }
+        changed(LongBitmap.containerKey(value));
+        return bitmap.remove(value);
+    }
+
+    private Changes takeChanges() {
+        LongIntHashMap taken = changed;
+        changed = new LongIntHashMap();
+        LongBitmap updates = new LongBitmap();
+        long[] removedKeys = new long[taken.size()];
+        Changes changes = new Changes() {
+            @Override
+            public void writeTo(RecordWriter writer) throws IOException {
+                WriteBuffer key = new WriteBuffer(8);
+                WriteBuffer value = new WriteBuffer();
+                for (long containerKey : updates.containerKeys()) {
+                    value.reset();
+                    updates.writeContainerTo(containerKey, value);
+                    writer.newOrUpdated(longBuffer(key, containerKey), value);
+                }
+                for (int i = 0; i < removed; i++) {
+                    writer.deleted(longBuffer(key, removedKeys[i]));
+                }
+            }
+
+            @Override
+            void restore() {
+                for (int slot = taken.nextSlot(0); slot >= 0; slot = taken.nextSlot(slot + 1)) {
+                    changed.put(taken.keyAt(slot), taken.valueAt(slot));
+                }
+            }
+        };
+        for (int slot = taken.nextSlot(0); slot >= 0; slot = taken.nextSlot(slot + 1)) {
+            long key = taken.keyAt(slot);
+            boolean persisted = taken.valueAt(slot) == 1;
+            if (bitmap.containsContainer(key)) {
+                updates.copyContainer(bitmap, key);
+                if (persisted) {
+                    changes.updated++;
+                } else {
+                    changes.added++;
+                }
+            } else if (persisted) {
+                removedKeys[changes.removed++] = key;
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Remember whether the container was persisted on the first change since the last persist.
+     */
+    private void changed(long containerKey) {
+        if (!changed.containsKey(containerKey)) {
+            changed.put(containerKey, bitmap.containsContainer(containerKey) ? 1 : 0);
+        }
+    }
+}
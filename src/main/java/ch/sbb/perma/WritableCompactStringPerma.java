@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.RecordPersister.Changes;
+import ch.sbb.perma.collections.Utf8HashMap;
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import ch.sbb.perma.datastore.RecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A mutable persistent map from strings to strings keeping keys and values as UTF-8 bytes.
+ * <p>
+ *     The compact counterpart of {@link WritablePerma#loadOrCreateStringMap(File, String)}: entries are packed into
+ *     the arena of a {@link Utf8HashMap}, strings are only created when they are returned. Mostly ASCII keys and values
+ *     need less than half the heap of java strings. The files are the same as the ones of a string map.
+ *     Null values are not allowed. Thread safe, all methods are synchronized.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class WritableCompactStringPerma extends WritablePrimitivePerma<String, String> {
+    private final static Logger LOG = LoggerFactory.getLogger(WritableCompactStringPerma.class);
+
+    private final Utf8HashMap map = new Utf8HashMap();
+    private final Utf8Records changes = new Utf8Records(false);
+
+    private WritableCompactStringPerma() {
+    }
+
+    public static WritableCompactStringPerma loadOrCreate(File dir, String name) throws IOException {
+        return loadOrCreate(dir, name, Options.defaults());
+    }
+
+    public static WritableCompactStringPerma loadOrCreate(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading writable compact string Perma {} from directory {} with options {}", name, dir, options);
+        WritableCompactStringPerma perma = new WritableCompactStringPerma();
+        perma.loadFiles(dir, name, options);
+        return perma;
+    }
+
+    @Override
+    public synchronized int size() {
+        return map.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return key instanceof String && map.containsKey((String) key);
+    }
+
+    @Override
+    public synchronized String get(Object key) {
+        return key instanceof String ? map.get((String) key) : null;
+    }
+
+    @Override
+    public synchronized String put(String key, String value) {
+        Objects.requireNonNull(value, "value is null");
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int slot = map.slotOf(keyBytes, 0, keyBytes.length);
+        String previous = slot >= 0 ? map.valueAt(slot) : null;
+        if (value.equals(previous)) {
+            return previous;
+        }
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        changes.changed(keyBytes, slot >= 0);
+        map.put(keyBytes, 0, keyBytes.length, valueBytes, 0, valueBytes.length);
+        return previous;
+    }
+
+    @Override
+    public synchronized String remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        byte[] keyBytes = ((String) key).getBytes(StandardCharsets.UTF_8);
+        int slot = map.slotOf(keyBytes, 0, keyBytes.length);
+        if (slot < 0) {
+            return null;
+        }
+        String previous = map.valueAt(slot);
+        changes.changed(keyBytes, true);
+        map.removeAt(slot);
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot + 1)) {
+            changes.removed(map, slot);
+        }
+        map.clear();
+    }
+
+    @Override
+    RecordHandler loader() {
+        return Utf8Records.loader(map, true);
+    }
+
+    @Override
+    Changes takeChanges() {
+        return changes.takeChanges(map);
+    }
+
+    @Override
+    RecordSource copyAll() {
+        return Utf8Records.allRecords(map.copy(), false);
+    }
+
+    /**
+     * Keys and values are their UTF-8 bytes in the arena, the sizer is not used.
+     */
+    @Override
+    public synchronized HeapFootprint heapFootprint(HeapSizer sizer) {
+        return HeapSample.of(map).footprintWithin(map.footprint() + changes.footprint());
+    }
+
+    @Override
+    int nextSlot(int from) {
+        return map.nextSlot(from);
+    }
+
+    @Override
+    Entry<String, String> entryAt(int slot) {
+        return entry(map.keyAt(slot), map.valueAt(slot));
+    }
+}
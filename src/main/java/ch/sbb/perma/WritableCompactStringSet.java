@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.RecordPersister.Changes;
+import ch.sbb.perma.collections.Utf8HashMap;
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A mutable persistent set of strings keeping the strings as UTF-8 bytes.
+ * <p>
+ *     The compact counterpart of {@link WritablePermaSet#loadOrCreateStringSet(File, String)}, see
+ *     {@link WritableCompactStringPerma}. The files are the same as the ones of a string set.
+ *     Thread safe, all methods are synchronized, iterating iterates a copy.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class WritableCompactStringSet extends AbstractSet<String> implements WritableSet<String>, HeapMeasurable {
+    private final static Logger LOG = LoggerFactory.getLogger(WritableCompactStringSet.class);
+
+    private final Utf8HashMap set = new Utf8HashMap();
+    private final Utf8Records changes = new Utf8Records(true);
+    private final RecordPersister persister = new RecordPersister(this, new RecordPersister.Tracked() {
+        @Override
+        public Changes takeChanges() {
+            return changes.takeChanges(set);
+        }
+
+        @Override
+        public RecordSource copyAll() {
+            return Utf8Records.allRecords(set.copy(), true);
+        }
+
+        @Override
+        public int size() {
+            return set.size();
+        }
+    });
+
+    private WritableCompactStringSet() {
+    }
+
+    public static WritableCompactStringSet loadOrCreate(File dir, String name) throws IOException {
+        return loadOrCreate(dir, name, Options.defaults());
+    }
+
+    public static WritableCompactStringSet loadOrCreate(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading writable compact string PermaSet {} from directory {} with options {}", name, dir, options);
+        WritableCompactStringSet set = new WritableCompactStringSet();
+        set.persister.load(dir, name, options, Utf8Records.loader(set.set, false));
+        return set;
+    }
+
+    @Override
+    public void persist() throws IOException {
+        persister.persist();
+    }
+
+    @Override
+    public void compact() throws IOException {
+        persister.compact();
+    }
+
+    /**
+     * Keys are their UTF-8 bytes in the arena, the sizer is not used.
+     */
+    @Override
+    public synchronized HeapFootprint heapFootprint(HeapSizer sizer) {
+        return HeapSample.of(set).footprintWithin(set.footprint() + changes.footprint());
+    }
+
+    @Override
+    public synchronized int size() {
+        return set.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return set.isEmpty();
+    }
+
+    @Override
+    public synchronized boolean contains(Object element) {
+        return element instanceof String && set.containsKey((String) element);
+    }
+
+    @Override
+    public synchronized boolean add(String element) {
+        byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+        if (set.containsKey(bytes, 0, bytes.length)) {
+            return false;
+        }
+        changes.changed(bytes, false);
+        set.put(bytes, 0, bytes.length, null, 0, 0);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(Object element) {
+        if (!(element instanceof String)) {
+            return false;
+        }
+        byte[] bytes = ((String) element).getBytes(StandardCharsets.UTF_8);
+        int slot = set.slotOf(bytes, 0, bytes.length);
+        if (slot < 0) {
+            return false;
+        }
+        changes.changed(bytes, true);
+        set.removeAt(slot);
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int slot = set.nextSlot(0); slot >= 0; slot = set.nextSlot(slot + 1)) {
+            changes.removed(set, slot);
+        }
+        set.clear();
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        List<String> elements;
+        synchronized (this) {
+            elements = new ArrayList<>(set.size());
+            for (int slot = set.nextSlot(0); slot >= 0; slot = set.nextSlot(slot + 1)) {
+                elements.add(set.keyAt(slot));
+            }
+        }
+        return new CopyIterator<String>(elements) {
+            @Override
+            void remove(String element) {
+                WritableCompactStringSet.this.remove(element);
+            }
+        };
+    }
+}
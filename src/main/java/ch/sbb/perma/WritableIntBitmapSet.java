@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.collections.LongBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * A mutable persistent set of ints stored as compressed bitmap.
+ * <p>
+ *     Dense ranges of ids take about a bit per element instead of a boxed Integer in a hash set, sparse ones
+ *     about 2 bytes. Use the primitive methods to avoid boxing. The files are not compatible with the ones of a
+ *     {@link WritablePermaSet}, see {@link WritableBitmapSet}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class WritableIntBitmapSet extends WritableBitmapSet<Integer> {
+    private final static Logger LOG = LoggerFactory.getLogger(WritableIntBitmapSet.class);
+
+    private WritableIntBitmapSet() {
+    }
+
+    public static WritableIntBitmapSet loadOrCreate(File dir, String name) throws IOException {
+        return loadOrCreate(dir, name, Options.defaults());
+    }
+
+    public static WritableIntBitmapSet loadOrCreate(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading writable int bitmap PermaSet {} from directory {} with options {}", name, dir, options);
+        WritableIntBitmapSet set = new WritableIntBitmapSet();
+        set.loadFiles(dir, name, options);
+        return set;
+    }
+
+    public boolean contains(int element) {
+        return containsValue(element);
+    }
+
+    public boolean add(int element) {
+        return addValue(element);
+    }
+
+    public boolean remove(int element) {
+        return removeValue(element);
+    }
+
+    @Override
+    Integer element(long value) {
+        return (int) value;
+    }
+
+    @Override
+    boolean isElement(Object object) {
+        return object instanceof Integer;
+    }
+
+    @Override
+    LongBitmap bitmapOf(Collection<?> collection) {
+        if (collection instanceof WritableIntBitmapSet) {
+            return ((WritableIntBitmapSet) collection).toBitmap();
+        }
+        if (collection instanceof ReadOnlyIntBitmapSet) {
+            return ((ReadOnlyIntBitmapSet) collection).bitmap();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.RecordPersister.Changes;
+import ch.sbb.perma.collections.IntIntHashMap;
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import ch.sbb.perma.datastore.RecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A mutable persistent map from int to int without boxing.
+ * <p>
+ *     Keeps the entries in a primitive hash table with 8 bytes per entry instead of boxed keys and values.
+ *     The files are the same as the ones of a {@link WritablePerma} with {@link ch.sbb.perma.serializers.KeyOrValueSerializer#INTEGER}
+ *     keys and values, use the primitive methods to avoid boxing. Thread safe, all methods are synchronized.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class WritableIntIntPerma extends WritablePrimitivePerma<Integer, Integer> {
+    private final static Logger LOG = LoggerFactory.getLogger(WritableIntIntPerma.class);
+
+    private final IntIntHashMap map = new IntIntHashMap();
+    private final PrimitiveChanges<Integer> changes = PrimitiveChanges.intKeys(PrimitiveRecords::intBuffer);
+
+    private WritableIntIntPerma() {
+    }
+
+    public static WritableIntIntPerma loadOrCreate(File dir, String name) throws IOException {
+        return loadOrCreate(dir, name, Options.defaults());
+    }
+
+    public static WritableIntIntPerma loadOrCreate(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading writable int int Perma {} from directory {} with options {}", name, dir, options);
+        WritableIntIntPerma perma = new WritableIntIntPerma();
+        perma.loadFiles(dir, name, options);
+        return perma;
+    }
+
+    public synchronized boolean containsKey(int key) {
+        return map.containsKey(key);
+    }
+
+    public synchronized int getOrDefault(int key, int defaultValue) {
+        return map.getOrDefault(key, defaultValue);
+    }
+
+    /**
+     * @return true if the key was not present before
+     */
+    public synchronized boolean put(int key, int value) {
+        boolean present = map.containsKey(key);
+        if (present && map.getOrDefault(key, value) == value) {
+            return false;
+        }
+        changes.changed(key, present);
+        map.put(key, value);
+        return !present;
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    public synchronized boolean remove(int key) {
+        if (!map.remove(key)) {
+            return false;
+        }
+        changes.changed(key, true);
+        return true;
+    }
+
+    @Override
+    public synchronized int size() {
+        return map.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey(((Integer) key).intValue());
+    }
+
+    @Override
+    public synchronized Integer get(Object key) {
+        if (!(key instanceof Integer) || !map.containsKey((Integer) key)) {
+            return null;
+        }
+        return map.getOrDefault((Integer) key, 0);
+    }
+
+    @Override
+    public synchronized Integer put(Integer key, Integer value) {
+        Integer previous = get(key);
+        put(key.intValue(), value.intValue());
+        return previous;
+    }
+
+    @Override
+    public synchronized Integer remove(Object key) {
+        Integer previous = get(key);
+        if (previous != null) {
+            remove(((Integer) key).intValue());
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot + 1)) {
+            changes.changed(map.keyAt(slot), true);
+        }
+        map.clear();
+    }
+
+    @Override
+    RecordHandler loader() {
+        return PrimitiveRecords.loader(map);
+    }
+
+    @Override
+    RecordSource copyAll() {
+        return PrimitiveRecords.allRecords(map.copy());
+    }
+
+    /**
+     * Exact, the sizer is not used.
+     */
+    @Override
+    public synchronized HeapFootprint heapFootprint(HeapSizer sizer) {
+        return HeapSample.exact(map.size(), 4, 4, map.footprint() + changes.footprint());
+    }
+
+    @Override
+    int nextSlot(int from) {
+        return map.nextSlot(from);
+    }
+
+    @Override
+    Entry<Integer, Integer> entryAt(int slot) {
+        return entry(map.keyAt(slot), map.valueAt(slot));
+    }
+
+    @Override
+    Changes takeChanges() {
+        return changes.takeChanges(key -> map.containsKey((int) key) ? map.getOrDefault((int) key, 0) : null);
+    }
+}
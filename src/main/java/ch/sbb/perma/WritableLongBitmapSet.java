@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.collections.LongBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * A mutable persistent set of longs stored as compressed bitmap.
+ * <p>
+ *     Dense ranges of ids take about a bit per element instead of a boxed Long in a hash set, sparse ones
+ *     about 2 bytes. Use the primitive methods to avoid boxing. The files are not compatible with the ones of a
+ *     {@link WritablePermaSet}, see {@link WritableBitmapSet}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class WritableLongBitmapSet extends WritableBitmapSet<Long> {
+    private final static Logger LOG = LoggerFactory.getLogger(WritableLongBitmapSet.class);
+
+    private WritableLongBitmapSet() {
+    }
+
+    public static WritableLongBitmapSet loadOrCreate(File dir, String name) throws IOException {
+        return loadOrCreate(dir, name, Options.defaults());
+    }
+
+    public static WritableLongBitmapSet loadOrCreate(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading writable long bitmap PermaSet {} from directory {} with options {}", name, dir, options);
+        WritableLongBitmapSet set = new WritableLongBitmapSet();
+        set.loadFiles(dir, name, options);
+        return set;
+    }
+
+    public boolean contains(long element) {
+        return containsValue(element);
+    }
+
+    public boolean add(long element) {
+        return addValue(element);
+    }
+
+    public boolean remove(long element) {
+        return removeValue(element);
+    }
+
+    @Override
+    Long element(long value) {
+        return value;
+    }
+
+    @Override
+    boolean isElement(Object object) {
+        return object instanceof Long;
+    }
+
+    @Override
+    LongBitmap bitmapOf(Collection<?> collection) {
+        if (collection instanceof WritableLongBitmapSet) {
+            return ((WritableLongBitmapSet) collection).toBitmap();
+        }
+        if (collection instanceof ReadOnlyLongBitmapSet) {
+            return ((ReadOnlyLongBitmapSet) collection).bitmap();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.RecordPersister.Changes;
+import ch.sbb.perma.collections.LongIntHashMap;
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import ch.sbb.perma.datastore.RecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A mutable persistent map from long to int without boxing.
+ * <p>
+ *     Keeps the entries in a primitive hash table with 12 bytes per entry instead of boxed keys and values.
+ *     The files are the same as the ones of a {@link WritablePerma} with {@link ch.sbb.perma.serializers.KeyOrValueSerializer#LONG}
+ *     keys and {@link ch.sbb.perma.serializers.KeyOrValueSerializer#INTEGER} values, use the primitive methods to avoid boxing. Thread safe, all methods are synchronized.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class WritableLongIntPerma extends WritablePrimitivePerma<Long, Integer> {
+    private final static Logger LOG = LoggerFactory.getLogger(WritableLongIntPerma.class);
+
+    private final LongIntHashMap map = new LongIntHashMap();
+    private final PrimitiveChanges<Integer> changes = PrimitiveChanges.longKeys(PrimitiveRecords::intBuffer);
+
+    private WritableLongIntPerma() {
+    }
+
+    public static WritableLongIntPerma loadOrCreate(File dir, String name) throws IOException {
+        return loadOrCreate(dir, name, Options.defaults());
+    }
+
+    public static WritableLongIntPerma loadOrCreate(File dir, String name, Options options) throws IOException {
+        LOG.info("Loading writable long int Perma {} from directory {} with options {}", name, dir, options);
+        WritableLongIntPerma perma = new WritableLongIntPerma();
+        perma.loadFiles(dir, name, options);
+        return perma;
+    }
+
+    public synchronized boolean containsKey(long key) {
+        return map.containsKey(key);
+    }
+
+    public synchronized int getOrDefault(long key, int defaultValue) {
+        return map.getOrDefault(key, defaultValue);
+    }
+
+    /**
+     * @return true if the key was not present before
+     */
+    public synchronized boolean put(long key, int value) {
+        boolean present = map.containsKey(key);
+        if (present && map.getOrDefault(key, value) == value) {
+            return false;
+        }
+        changes.changed(key, present);
+        map.put(key, value);
+        return !present;
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    public synchronized boolean remove(long key) {
+        if (!map.remove(key)) {
+            return false;
+        }
+        changes.changed(key, true);
+        return true;
+    }
+
+    @Override
+    public synchronized int size() {
+        return map.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long && containsKey(((Long) key).longValue());
+    }
+
+    @Override
+    public synchronized Integer get(Object key) {
+        if (!(key instanceof Long) || !map.containsKey((Long) key)) {
+            return null;
+        }
+        return map.getOrDefault((Long) key, 0);
+    }
+
+    @Override
+    public synchronized Integer put(Long key, Integer value) {
+        Integer previous = get(key);
+        put(key.longValue(), value.intValue());
+        return previous;
+    }
+
+    @Override
+    public synchronized Integer remove(Object key) {
+        Integer previous = get(key);
+        if (previous != null) {
+            remove(((Long) key).longValue());
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot + 1)) {
+            changes.changed(map.keyAt(slot), true);
+        }
+        map.clear();
+    }
+
+    @Override
+    RecordHandler loader() {
+        return PrimitiveRecords.loader(map);
+    }
+
+    @Override
+    RecordSource copyAll() {
+        return PrimitiveRecords.allRecords(map.copy());
+    }
+
+    /**
+     * Exact, the sizer is not used.
+     */
+    @Override
+    public synchronized HeapFootprint heapFootprint(HeapSizer sizer) {
+        return HeapSample.exact(map.size(), 8, 4, map.footprint() + changes.footprint());
+    }
+
+    @Override
+    int nextSlot(int from) {
+        return map.nextSlot(from);
+    }
+
+    @Override
+    Entry<Long, Integer> entryAt(int slot) {
+        return entry(map.keyAt(slot), map.valueAt(slot));
+    }
+
+    @Override
+    Changes takeChanges() {
+        return changes.takeChanges(key -> map.containsKey(key) ? map.getOrDefault(key, 0) : null);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.RecordPersister.Changes;
+import ch.sbb.perma.collections.LongObjectHashMap;
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import ch.sbb.perma.datastore.RecordHandler;
+import ch.sbb.perma.serializers.BufferSerializer;
+import ch.sbb.perma.serializers.KeyOrValueSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Objects;
+
+import static ch.sbb.perma.PrimitiveRecords.objectBuffer;
+
+/**
+ * A mutable persistent map from long keys without boxing to objects.
+ * <p>
+ *     Keeps the entries in a primitive hash table with 8 bytes per key instead of a boxed key.
+ *     The files are the same as the ones of a {@link WritablePerma} with {@link KeyOrValueSerializer#LONG} keys,
+ *     use the primitive methods to avoid boxing. Null values are not allowed. Thread safe, all methods are synchronized.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class WritableLongObjectPerma<V> extends WritablePrimitivePerma<Long, V> {
+    private final static Logger LOG = LoggerFactory.getLogger(WritableLongObjectPerma.class);
+
+    private final LongObjectHashMap<V> map = new LongObjectHashMap<>();
+    private final BufferSerializer<V> valueSerializer;
+    private final PrimitiveChanges<V> changes;
+
+    private WritableLongObjectPerma(BufferSerializer<V> valueSerializer) {
+        this.valueSerializer = valueSerializer;
+        this.changes = PrimitiveChanges.longKeys((buffer, value) -> objectBuffer(buffer, value, valueSerializer));
+    }
+
+    public static <V> WritableLongObjectPerma<V> loadOrCreate(File dir,
+                                                              String name,
+                                                              KeyOrValueSerializer<V> valueSerializer) throws IOException {
+        return loadOrCreate(dir, name, valueSerializer, Options.defaults());
+    }
+
+    public static <V> WritableLongObjectPerma<V> loadOrCreate(File dir,
+                                                              String name,
+                                                              KeyOrValueSerializer<V> valueSerializer,
+                                                              Options options) throws IOException {
+        LOG.info("Loading writable long object Perma {} from directory {} with options {}", name, dir, options);
+        WritableLongObjectPerma<V> perma = new WritableLongObjectPerma<>(BufferSerializer.of(valueSerializer));
+        perma.loadFiles(dir, name, options);
+        return perma;
+    }
+
+    public synchronized boolean containsKey(long key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * @return the value or null if the key is not present
+     */
+    public synchronized V get(long key) {
+        return map.get(key);
+    }
+
+    /**
+     * @return the previous value or null if the key was not present
+     */
+    public synchronized V put(long key, V value) {
+        Objects.requireNonNull(value, "value is null");
+        V previous = map.get(key);
+        if (value.equals(previous)) {
+            return previous;
+        }
+        changes.changed(key, previous != null);
+        map.put(key, value);
+        return previous;
+    }
+
+    /**
+     * @return the previous value or null if the key was not present
+     */
+    public synchronized V remove(long key) {
+        V previous = map.get(key);
+        if (previous != null) {
+            map.remove(key);
+            changes.changed(key, true);
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized int size() {
+        return map.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long && containsKey(((Long) key).longValue());
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Long ? get(((Long) key).longValue()) : null;
+    }
+
+    @Override
+    public V put(Long key, V value) {
+        return put(key.longValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Long ? remove(((Long) key).longValue()) : null;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot + 1)) {
+            changes.changed(map.keyAt(slot), true);
+        }
+        map.clear();
+    }
+
+    @Override
+    RecordHandler loader() {
+        return PrimitiveRecords.loader(map, valueSerializer);
+    }
+
+    @Override
+    RecordSource copyAll() {
+        return PrimitiveRecords.allRecords(map.copy(), valueSerializer);
+    }
+
+    @Override
+    public synchronized HeapFootprint heapFootprint(HeapSizer sizer) {
+        return HeapSample.of(map, sizer).footprint(map.footprint() - 8L * map.size() + changes.footprint());
+    }
+
+    @Override
+    int nextSlot(int from) {
+        return map.nextSlot(from);
+    }
+
+    @Override
+    Entry<Long, V> entryAt(int slot) {
+        return entry(map.keyAt(slot), map.valueAt(slot));
+    }
+
+    @Override
+    Changes takeChanges() {
+        return changes.takeChanges(map::get);
+    }
+}
@@ -6,6 +6,7 @@ package ch.sbb.perma;
 
 import ch.sbb.perma.serializers.KeyOrValueSerializer;
 import com.google.common.collect.ForwardingConcurrentMap;
+import com.google.common.collect.ImmutableMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,21 +21,36 @@ import java.util.concurrent.locks.ReentrantLock;
  * <p>
  *     Is the public Writable API for mutable maps. Loads and stores a persisted map.
  * </p>
+ * <p>
+ *     {@link #readOnlyView()} shares the persisted entries with readers in the same process.
+ * </p>
+ * <p>
+ *     {@link #snapshot()} and {@link #fork()} copy the entries, in O(n) time and memory, writes concurrent to the copy
+ *     may or may not be seen. With {@link Options.Builder#versionedSnapshots(boolean)} they are created in constant time at a point in time and
+ *     share the entries with this perma instead, see {@link VersionedMap}.
+ * </p>
  *
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public class WritablePerma<K,V> extends ForwardingConcurrentMap<K,V> implements WritableMap<K,V> {
+public class WritablePerma<K,V> extends ForwardingConcurrentMap<K,V> implements WritableMap<K,V>, HeapMeasurable {
     private final static Logger LOG = LoggerFactory.getLogger(WritablePerma.class);
 
     private final ReentrantLock persistLock = new ReentrantLock();
-    private final ConcurrentMap<K,V> map;
+    private final ConcurrentMap<K,V> map; // a VersionedMap with versioned snapshots
+    private final KeyOrValueSerializer<K> keySerializer;
+    private final KeyOrValueSerializer<V> valueSerializer;
 
-    private MapSnapshot<K,V> lastPersisted;
+    private volatile MapSnapshot<K,V> lastPersisted;
 
-    private WritablePerma(MapSnapshot<K,V> lastPersisted) {
+    private WritablePerma(MapSnapshot<K,V> lastPersisted,
+                          ConcurrentMap<K,V> map,
+                          KeyOrValueSerializer<K> keySerializer,
+                          KeyOrValueSerializer<V> valueSerializer) {
         this.lastPersisted = lastPersisted;
-        this.map = new ConcurrentHashMap<>(lastPersisted.asImmutableMap());
+        this.map = map;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
     }
 
     public static WritablePerma<String, String> loadOrCreateStringMap(File dir, String name) throws IOException {
@@ -62,7 +78,76 @@ public class WritablePerma<K,V> extends ForwardingConcurrentMap<K,V> implements
                                                         KeyOrValueSerializer<V> valueSerializer,
                                                         Options options) throws IOException {
         LOG.info("Loading writabe Perma {} from directory {} with options {}", name, dir, options);
-        return new WritablePerma<>(MapSnapshot.loadOrCreate(dir, name, options, keySerializer, valueSerializer));
+        MapSnapshot<K,V> loaded = MapSnapshot.loadOrCreate(dir, name, options, keySerializer, valueSerializer);
+        ConcurrentMap<K,V> map = options.versionedSnapshots()
+                                 ? new VersionedMap<>(loaded.asImmutableMap())
+                                 : new ConcurrentHashMap<>(loaded.asImmutableMap());
+        return new WritablePerma<>(loaded, map, keySerializer, valueSerializer);
+    }
+
+    /**
+     * A read only perma in the same process without loading the files: it shares the entries last persisted by this
+     * perma, refresh takes the entries of the latest persist without file I/O.
+     */
+    public ReadOnlyPerma<K,V> readOnlyView() {
+        return ReadOnlyPerma.of(new SharedMapSnapshot<>(() -> lastPersisted));
+    }
+
+    /**
+     * Copies all entries (O(n) time and memory) with the default ConcurrentHashMap, takes constant time with
+     * {@link Options.Builder#versionedSnapshots(boolean)}.
+     *
+     * @return an immutable view of the current entries, close it when done
+     */
+    public SnapshotView<K,V> snapshot() {
+        return snapshotOf(map);
+    }
+
+    /**
+     * Copies all entries (O(n) time and memory) with the default ConcurrentHashMap, takes constant time with
+     * {@link Options.Builder#versionedSnapshots(boolean)}.
+     *
+     * @return an independent copy of the current entries in memory, it is not persisted
+     */
+    public PermaFork<K,V> fork() {
+        return new PermaFork<>(forkOf(map));
+    }
+
+    /**
+     * Fork as the perma with the name in the directory, the first persist writes the difference to its files. Copies
+     * the entries as {@link #fork()}.
+     *
+     * @return an independent copy of the current entries persisted as the other perma
+     */
+    public WritablePerma<K,V> fork(File dir, String name, Options options) throws IOException {
+        LOG.info("Forking writable Perma as {} in directory {} with options {}", name, dir, options);
+        return new WritablePerma<>(MapSnapshot.loadOrCreate(dir, name, options, keySerializer, valueSerializer),
+                                   forkOf(map),
+                                   keySerializer,
+                                   valueSerializer);
+    }
+
+    static <K,V> SnapshotView<K,V> snapshotOf(ConcurrentMap<K,V> map) {
+        if (map instanceof VersionedMap) {
+            return ((VersionedMap<K,V>) map).snapshot();
+        }
+        return new SnapshotView<>(ImmutableMap.copyOf(map));
+    }
+
+    static <K,V> ConcurrentMap<K,V> forkOf(ConcurrentMap<K,V> map) {
+        if (map instanceof VersionedMap) {
+            return ((VersionedMap<K,V>) map).fork();
+        }
+        return new ConcurrentHashMap<>(map);
+    }
+
+    /**
+     * @return estimated heap bytes of the table of the map, without the keys and values
+     */
+    static long overheadBytes(ConcurrentMap<?,?> map) {
+        return map instanceof VersionedMap
+               ? ((VersionedMap<?,?>) map).overheadBytes()
+               : HeapSample.concurrentHashMap(map.size());
     }
 
     public void persist() throws IOException {
@@ -90,6 +175,14 @@ public class WritablePerma<K,V> extends ForwardingConcurrentMap<K,V> implements
         }
     }
 
+    /**
+     * Values replaced since the last persist are still retained by the snapshot, they are not counted.
+     */
+    @Override
+    public HeapFootprint heapFootprint(HeapSizer sizer) {
+        return HeapSample.of(map, sizer).footprint(overheadBytes(map) + lastPersisted.overheadBytes());
+    }
+
     @Override
     protected ConcurrentMap<K, V> delegate() {
         return map;
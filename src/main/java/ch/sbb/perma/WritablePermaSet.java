@@ -4,48 +4,57 @@
 
 package ch.sbb.perma;
 
+import ch.sbb.perma.RecordPersister.Changes;
+import ch.sbb.perma.collections.StripedObjectHashSet;
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import ch.sbb.perma.serializers.BufferSerializer;
 import ch.sbb.perma.serializers.KeyOrValueSerializer;
-import com.google.common.collect.ForwardingSet;
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
-
-import static ch.sbb.perma.serializers.NullValueSerializer.NULL;
-import static ch.sbb.perma.serializers.NullValueSerializer.NULL_OBJECT;
+import java.util.AbstractSet;
+import java.util.Iterator;
 
 /**
  * A mutable persistent set.
  * <p>
  *   Is the public Writable API for mutable sets. Load and store a persisted sets.
  * </p>
+ * <p>
+ *   The elements are kept in a {@link StripedObjectHashSet}, open addressing hash sets without entry objects. Reads do
+ *   not block each other and iteration is weakly consistent, changes are synchronized. Added and removed elements are
+ *   tracked and persisted as key only records.
+ * </p>
  *
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public class WritablePermaSet<T> extends ForwardingSet<T> implements WritableSet<T> {
+public class WritablePermaSet<T> extends AbstractSet<T> implements WritableSet<T>, HeapMeasurable {
     private final static Logger LOG = LoggerFactory.getLogger(WritablePermaSet.class);
 
-    private final ReentrantLock persistLock = new ReentrantLock();
-    private final Set<T> set;
+    private final StripedObjectHashSet<T> set = new StripedObjectHashSet<>();
+    private final SetRecords<T> records;
+    private final RecordPersister persister = new RecordPersister(this, new RecordPersister.Tracked() {
+        @Override
+        public Changes takeChanges() {
+            return records.takeChanges(set::contains);
+        }
 
-    private MapSnapshot<T, Object> lastPersisted;
+        @Override
+        public RecordSource copyAll() {
+            return records.allRecords(set.copyStripes());
+        }
 
-    private WritablePermaSet(MapSnapshot<T, Object> lastPersisted) {
-        this.lastPersisted = lastPersisted;
-        this.set = toMutableSet(lastPersisted.asImmutableMap().keySet());
-    }
+        @Override
+        public int size() {
+            return set.size();
+        }
+    });
 
-    private Set<T> toMutableSet(Set<T> snapshot) {
-        ConcurrentHashMap.KeySetView<T, Boolean> set = ConcurrentHashMap.newKeySet(snapshot.size());
-        set.addAll(snapshot);
-        return set;
+    private WritablePermaSet(BufferSerializer<T> serializer) {
+        this.records = new SetRecords<>(serializer);
     }
 
     public static WritablePermaSet<String> loadOrCreateStringSet(File dir, String name) throws IOException {
@@ -70,40 +79,94 @@ public class WritablePermaSet<T> extends ForwardingSet<T> implements WritableSet
                                                        KeyOrValueSerializer<T> serializer,
                                                        Options options) throws IOException {
         LOG.info("Loading writabe PermaSet {} from directory {} with options {}", name, dir, options);
-        return new WritablePermaSet<>(MapSnapshot.loadOrCreate(dir, name, options, serializer, NULL));
+        WritablePermaSet<T> permaSet = new WritablePermaSet<>(BufferSerializer.of(serializer));
+        permaSet.persister.load(dir, name, options, permaSet.records.loader(permaSet.set::add, permaSet.set::remove));
+        return permaSet;
     }
 
     public void persist() throws IOException {
-        try {
-            persistLock.lock();
-            LOG.debug("Persisting set");
-            this.lastPersisted = lastPersisted.writeNext(setAsMap(set));
-            LOG.info("Persisted set with {} entries to snapshot", lastPersisted.asImmutableMap().size());
-        }
-        finally {
-            persistLock.unlock();
-        }
+        LOG.debug("Persisting set");
+        persister.persist();
     }
 
     public void compact() throws IOException {
-        try {
-            persistLock.lock();
-            persist();
-            LOG.debug("Compacting set");
-            this.lastPersisted = lastPersisted.compact();
-            LOG.info("Compacted set with {} entries", lastPersisted.asImmutableMap().size());
+        LOG.debug("Compacting set");
+        persister.compact();
+    }
+
+    @Override
+    public HeapFootprint heapFootprint(HeapSizer sizer) {
+        long tracked;
+        synchronized (this) {
+            tracked = records.footprint();
         }
-        finally {
-            persistLock.unlock();
+        return HeapSample.of(this, sizer).footprint(set.footprint() + tracked);
+    }
+
+    @Override
+    public int size() {
+        return set.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return set.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return set.contains(element);
+    }
+
+    @Override
+    public synchronized boolean add(T element) {
+        if (!set.add(element)) {
+            return false;
         }
+        records.changed(element, false);
+        return true;
     }
 
-    private static <T> ImmutableMap<T, Object> setAsMap(Set<T> set) {
-        return Maps.toMap(set, key -> NULL_OBJECT);
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized boolean remove(Object element) {
+        if (!set.remove(element)) {
+            return false;
+        }
+        records.changed((T) element, true);
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        set.clear(element -> records.changed(element, true));
     }
 
     @Override
-    protected Set<T> delegate() {
-        return set;
+    public Iterator<T> iterator() {
+        Iterator<T> elements = set.iterator();
+        return new Iterator<T>() {
+            private T current;
+
+            @Override
+            public boolean hasNext() {
+                return elements.hasNext();
+            }
+
+            @Override
+            public T next() {
+                current = elements.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException("next() not called");
+                }
+                WritablePermaSet.this.remove(current);
+                current = null;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.RecordPersister.Changes;
+import ch.sbb.perma.datastore.RecordFileSequence.RecordSource;
+import ch.sbb.perma.datastore.RecordHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Base of the mutable permas keeping their entries in a specialized table instead of a ConcurrentHashMap.
+ * <p>
+ *     Subclasses guard the table with the monitor of the perma and track the keys changed since the last persist,
+ *     see {@link RecordPersister}. Iterating the map view iterates a copy.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+abstract class WritablePrimitivePerma<K,V> extends AbstractMap<K,V> implements WritableMap<K,V>, HeapMeasurable {
+    private final RecordPersister persister = new RecordPersister(this, new RecordPersister.Tracked() {
+        @Override
+        public Changes takeChanges() {
+            return WritablePrimitivePerma.this.takeChanges();
+        }
+
+        @Override
+        public RecordSource copyAll() {
+            return WritablePrimitivePerma.this.copyAll();
+        }
+
+        @Override
+        public int size() {
+            return WritablePrimitivePerma.this.size();
+        }
+    });
+
+    final void loadFiles(File dir, String name, Options options) throws IOException {
+        persister.load(dir, name, options, loader());
+    }
+
+    /**
+     * Handler adding the records to the table, called before the perma is published.
+     */
+    abstract RecordHandler loader();
+
+    /**
+     * Take the changes since the last persist and start tracking anew, called synchronized on the perma.
+     */
+    abstract Changes takeChanges();
+
+    /**
+     * A source writing a copy of all entries, called synchronized on the perma.
+     */
+    abstract RecordSource copyAll();
+
+    /**
+     * The first used slot of the table from the given slot on, -1 if there is none, called synchronized on the perma.
+     */
+    abstract int nextSlot(int from);
+
+    /**
+     * The entry at the used slot of the table, called synchronized on the perma.
+     */
+    abstract Entry<K,V> entryAt(int slot);
+
+    @Override
+    public void persist() throws IOException {
+        persister.persist();
+    }
+
+    @Override
+    public void compact() throws IOException {
+        persister.compact();
+    }
+
+    @Override
+    public Set<Entry<K,V>> entrySet() {
+        return new AbstractSet<Entry<K,V>>() {
+            @Override
+            public Iterator<Entry<K,V>> iterator() {
+                List<Entry<K,V>> entries;
+                synchronized (WritablePrimitivePerma.this) {
+                    entries = copyEntries();
+                }
+                return new CopyIterator<Entry<K,V>>(entries) {
+                    @Override
+                    void remove(Entry<K,V> entry) {
+                        WritablePrimitivePerma.this.remove(entry.getKey());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return WritablePrimitivePerma.this.size();
+            }
+        };
+    }
+
+    private List<Entry<K,V>> copyEntries() {
+        List<Entry<K,V>> entries = new ArrayList<>(size());
+        for (int slot = nextSlot(0); slot >= 0; slot = nextSlot(slot + 1)) {
+            entries.add(entryAt(slot));
+        }
+        return entries;
+    }
+
+    static <K,V> Map.Entry<K,V> entry(K key, V value) {
+        return new SimpleImmutableEntry<>(key, value);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma;
+
+import ch.sbb.perma.file.FileStats;
+import ch.sbb.perma.file.PermaFile;
+import com.google.common.base.MoreObjects;
+
+/**
+ * A file written by persist or compact, see {@link PermaListener}.
+ * <p>
+ *     The duration is split into diff (finding the changes: diffing the snapshots or taking the tracked changes),
+ *     serialize (serializing and compressing), write (writing and syncing the file) and rename (moving the temp file
+ *     to the perma file, including the directory sync).
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class WriteEvent {
+    private final String permaName;
+    private final int fullFileNumber;
+    private final int deltaFileNumber;
+    private final CompactionReason compactionReason;
+    private final int records;
+    private final long bytes;
+    private final long diffNanos;
+    private final long serializeNanos;
+    private final long writeNanos;
+    private final long renameNanos;
+
+    private WriteEvent(String permaName,
+                       int fullFileNumber,
+                       int deltaFileNumber,
+                       CompactionReason compactionReason,
+                       int records,
+                       long bytes,
+                       long diffNanos,
+                       long serializeNanos,
+                       long writeNanos,
+                       long renameNanos) {
+        this.permaName = permaName;
+        this.fullFileNumber = fullFileNumber;
+        this.deltaFileNumber = deltaFileNumber;
+        this.compactionReason = compactionReason;
+        this.records = records;
+        this.bytes = bytes;
+        this.diffNanos = diffNanos;
+        this.serializeNanos = serializeNanos;
+        this.writeNanos = writeNanos;
+        this.renameNanos = renameNanos;
+    }
+
+    /**
+     * @param writtenNanos the time from the start of the write of the file to the end of the rename
+     */
+    static WriteEvent of(String permaName,
+                         PermaFile file,
+                         CompactionReason compactionReason,
+                         FileStats stats,
+                         long diffNanos,
+                         long writtenNanos) {
+        return new WriteEvent(permaName,
+                              file.fullFileNumber(),
+                              file.deltaFileNumber(),
+                              compactionReason,
+                              stats.records(),
+                              stats.bytes(),
+                              diffNanos,
+                              Math.max(0, writtenNanos - stats.ioNanos() - stats.renameNanos()),
+                              stats.ioNanos(),
+                              stats.renameNanos());
+    }
+
+    public String permaName() {
+        return permaName;
+    }
+
+    public boolean isFullFile() {
+        return deltaFileNumber == 0;
+    }
+
+    /**
+     * @return the generation of the full file, incremented by each compaction
+     */
+    public int fullFileNumber() {
+        return fullFileNumber;
+    }
+
+    /**
+     * @return the length of the delta chain after the write, 0 for a full file
+     */
+    public int deltaFileNumber() {
+        return deltaFileNumber;
+    }
+
+    public CompactionReason compactionReason() {
+        return compactionReason;
+    }
+
+    public int records() {
+        return records;
+    }
+
+    /**
+     * @return the size of the file (compressed if compressed)
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    public long diffNanos() {
+        return diffNanos;
+    }
+
+    public long serializeNanos() {
+        return serializeNanos;
+    }
+
+    public long writeNanos() {
+        return writeNanos;
+    }
+
+    public long renameNanos() {
+        return renameNanos;
+    }
+
+    public long totalNanos() {
+        return diffNanos + serializeNanos + writeNanos + renameNanos;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("permaName", permaName)
+                .add("fullFileNumber", fullFileNumber)
+                .add("deltaFileNumber", deltaFileNumber)
+                .add("compactionReason", compactionReason)
+                .add("records", records)
+                .add("bytes", bytes)
+                .add("diffNanos", diffNanos)
+                .add("serializeNanos", serializeNanos)
+                .add("writeNanos", writeNanos)
+                .add("renameNanos", renameNanos)
+                .toString();
+    }
+}
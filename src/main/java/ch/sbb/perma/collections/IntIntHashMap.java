@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections;
+
+/**
+ * Map from int to int without boxing, 8 bytes per entry plus the free slots of the table. Not thread safe.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class IntIntHashMap extends IntKeyTable {
+    private int[] values;
+
+    public IntIntHashMap() {
+        this(0);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        super(expectedSize);
+    }
+
+    private IntIntHashMap(IntIntHashMap other) {
+        super(other);
+        this.values = other.values.clone();
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        int slot = slotOf(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    /**
+     * @return true if the key was not present before
+     */
+    public boolean put(int key, int value) {
+        int slot = insert(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return false;
+        }
+        values[~slot] = value;
+        added();
+        return true;
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    public boolean remove(int key) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    public int valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * @return heap bytes of the key and value arrays
+     */
+    public long footprint() {
+        return 4L * capacity() + 4L * values.length;
+    }
+
+    public IntIntHashMap copy() {
+        return new IntIntHashMap(this);
+    }
+
+    @Override
+    void allocateValues(int length) {
+        values = new int[length];
+    }
+
+    @Override
+    Object values() {
+        return values;
+    }
+
+    @Override
+    void transferValue(Object oldValues, int from, int to) {
+        values[to] = ((int[]) oldValues)[from];
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = 0;
+    }
+}
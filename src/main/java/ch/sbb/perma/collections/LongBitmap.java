@@ -0,0 +1,613 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections;
+
+import ch.sbb.perma.serializers.ReadBuffer;
+import ch.sbb.perma.serializers.WriteBuffer;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Compressed bitmap of longs in the style of Roaring bitmaps.
+ * <p>
+ *     The values are split into containers of 65536 values by their upper 48 bits (the container key). A container
+ *     holds up to 4096 values as a sorted char array and more as a bitmap of 1024 longs. Dense ranges use 8 KB per
+ *     65536 values instead of a boxed object per value. Containers are written as array, bitmap or runs, whatever is
+ *     smallest. Not thread safe.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class LongBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    private static final int TYPE_ARRAY = 0;
+    private static final int TYPE_BITMAP = 1;
+    private static final int TYPE_RUNS = 2;
+    private static final LongConsumer IGNORE = key -> { };
+
+    private LongObjectHashMap<Container> containers;
+    private int size;
+
+    public LongBitmap() {
+        this.containers = new LongObjectHashMap<>();
+    }
+
+    private LongBitmap(LongBitmap other) {
+        this.containers = new LongObjectHashMap<>(other.containers.size());
+        for (int slot = other.containers.nextSlot(0); slot >= 0; slot = other.containers.nextSlot(slot + 1)) {
+            containers.put(other.containers.keyAt(slot), other.containers.valueAt(slot).copy());
+        }
+        this.size = other.size;
+    }
+
+    public static long containerKey(long value) {
+        return value >> 16;
+    }
+
+    /**
+     * @return a new bitmap with the values of both bitmaps
+     */
+    public static LongBitmap or(LongBitmap first, LongBitmap second) {
+        LongBitmap result = first.copy();
+        result.addAll(second, IGNORE);
+        return result;
+    }
+
+    /**
+     * @return a new bitmap with the values in both bitmaps
+     */
+    public static LongBitmap and(LongBitmap first, LongBitmap second) {
+        LongBitmap result = first.copy();
+        result.retainAll(second, IGNORE);
+        return result;
+    }
+
+    /**
+     * @return a new bitmap with the values of the first bitmap not in the second
+     */
+    public static LongBitmap andNot(LongBitmap first, LongBitmap second) {
+        LongBitmap result = first.copy();
+        result.removeAll(second, IGNORE);
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long value) {
+        Container container = containers.get(containerKey(value));
+        return container != null && container.contains(low(value));
+    }
+
+    /**
+     * @return true if the value was not present before
+     */
+    public boolean add(long value) {
+        long key = containerKey(value);
+        Container container = containers.get(key);
+        if (container == null) {
+            container = new Container();
+            containers.put(key, container);
+        }
+        if (!container.add(low(value))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * @return true if the value was present
+     */
+    public boolean remove(long value) {
+        long key = containerKey(value);
+        Container container = containers.get(key);
+        if (container == null || !container.remove(low(value))) {
+            return false;
+        }
+        size--;
+        if (container.count == 0) {
+            containers.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Add the values of the other bitmap.
+     *
+     * @param changedContainers called with the key of each container before it is changed
+     */
+    public void addAll(LongBitmap other, LongConsumer changedContainers) {
+        for (int slot = other.containers.nextSlot(0); slot >= 0; slot = other.containers.nextSlot(slot + 1)) {
+            long key = other.containers.keyAt(slot);
+            Container container = containers.get(key);
+            Container result = Container.or(container, other.containers.valueAt(slot));
+            replace(key, container, result, changedContainers);
+        }
+    }
+
+    /**
+     * Keep only the values in the other bitmap.
+     *
+     * @param changedContainers called with the key of each container before it is changed
+     */
+    public void retainAll(LongBitmap other, LongConsumer changedContainers) {
+        for (long key : containerKeys()) {
+            Container container = containers.get(key);
+            Container result = Container.and(container, other.containers.get(key));
+            replace(key, container, result, changedContainers);
+        }
+    }
+
+    /**
+     * Remove the values of the other bitmap.
+     *
+     * @param changedContainers called with the key of each container before it is changed
+     */
+    public void removeAll(LongBitmap other, LongConsumer changedContainers) {
+        for (long key : containerKeys()) {
+            Container container = containers.get(key);
+            Container result = Container.andNot(container, other.containers.get(key));
+            replace(key, container, result, changedContainers);
+        }
+    }
+
+    public int containerCount() {
+        return containers.size();
+    }
+
+    public boolean containsContainer(long key) {
+        return containers.containsKey(key);
+    }
+
+    /**
+     * @return the keys of all containers in ascending order
+     */
+    public long[] containerKeys() {
+        long[] keys = new long[containers.size()];
+        int count = 0;
+        for (int slot = containers.nextSlot(0); slot >= 0; slot = containers.nextSlot(slot + 1)) {
+            keys[count++] = containers.keyAt(slot);
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * Write the container with the key as array, bitmap or runs.
+     *
+     * @return false if there is no such container
+     */
+    public boolean writeContainerTo(long key, WriteBuffer out) {
+        Container container = containers.get(key);
+        if (container == null) {
+            return false;
+        }
+        container.writeTo(out);
+        return true;
+    }
+
+    /**
+     * Replace the container with the key by the one read.
+     */
+    public void readContainer(long key, ReadBuffer in) {
+        removeContainer(key);
+        Container container = Container.readFrom(in);
+        if (container.count > 0) {
+            containers.put(key, container);
+            size += container.count;
+        }
+    }
+
+    /**
+     * Replace the container with the key by a copy of the one of the source, or remove it if the source has none.
+     */
+    public void copyContainer(LongBitmap source, long key) {
+        removeContainer(key);
+        Container container = source.containers.get(key);
+        if (container != null) {
+            containers.put(key, container.copy());
+            size += container.count;
+        }
+    }
+
+    public void removeContainer(long key) {
+        Container container = containers.get(key);
+        if (container != null) {
+            containers.remove(key);
+            size -= container.count;
+        }
+    }
+
+    /**
+     * @return iterator of the values in ascending order, the bitmap must not be changed while iterating
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        long[] keys = containerKeys();
+        return new PrimitiveIterator.OfLong() {
+            private int keyIndex = -1;
+            private Container container;
+            private int next = -1;
+
+            {
+                advance(0);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public long nextLong() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                long value = keys[keyIndex] << 16 | next;
+                advance(next + 1);
+                return value;
+            }
+
+            private void advance(int from) {
+                next = container == null ? -1 : container.next(from);
+                while (next < 0 && ++keyIndex < keys.length) {
+                    container = containers.get(keys[keyIndex]);
+                    next = container.next(0);
+                }
+            }
+        };
+    }
+
+    public void forEach(LongConsumer consumer) {
+        for (PrimitiveIterator.OfLong values = iterator(); values.hasNext();) {
+            consumer.accept(values.nextLong());
+        }
+    }
+
+    public LongBitmap copy() {
+        return new LongBitmap(this);
+    }
+
+    public void clear() {
+        containers = new LongObjectHashMap<>();
+        size = 0;
+    }
+
+    /**
+     * @return approximate heap bytes used by the containers
+     */
+    public long footprint() {
+        long bytes = containers.capacity() * 12L;
+        for (int slot = containers.nextSlot(0); slot >= 0; slot = containers.nextSlot(slot + 1)) {
+            Container container = containers.valueAt(slot);
+            bytes += 32 + (container.bits != null ? container.bits.length * 8L : container.values.length * 2L);
+        }
+        return bytes;
+    }
+
+    private void replace(long key, Container container, Container result, LongConsumer changedContainers) {
+        int before = container == null ? 0 : container.count;
+        int after = result == null ? 0 : result.count;
+        if (before == after) {
+            return;
+        }
+        changedContainers.accept(key);
+        size += after - before;
+        if (after == 0) {
+            containers.remove(key);
+        } else {
+            containers.put(key, result);
+        }
+    }
+
+    private static int low(long value) {
+        return (int) value & 0xFFFF;
+    }
+
+    /**
+     * Up to 4096 values as sorted char array, more as bitmap.
+     */
+    private static final class Container {
+        private char[] values;
+        private long[] bits;
+        private int count;
+
+        Container() {
+            this.values = new char[4];
+        }
+
+        private Container(char[] values, long[] bits, int count) {
+            this.values = values;
+            this.bits = bits;
+            this.count = count;
+        }
+
+        static Container ofWords(long[] words) {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            Container container = new Container(null, words, count);
+            if (count <= ARRAY_MAX) {
+                container.toArray();
+            }
+            return container;
+        }
+
+        static Container or(Container first, Container second) {
+            if (first == null) {
+                return second.copy();
+            }
+            if (first.bits == null && second.bits == null && first.count + second.count <= ARRAY_MAX) {
+                Container result = first.copy();
+                for (int i = 0; i < second.count; i++) {
+                    result.add(second.values[i]);
+                }
+                return result;
+            }
+            long[] words = first.words();
+            if (second.bits != null) {
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] |= second.bits[i];
+                }
+            } else {
+                for (int i = 0; i < second.count; i++) {
+                    words[second.values[i] >>> 6] |= 1L << second.values[i];
+                }
+            }
+            return ofWords(words);
+        }
+
+        static Container and(Container first, Container second) {
+            if (second == null) {
+                return null;
+            }
+            if (first.bits == null || second.bits == null) {
+                Container array = first.bits == null ? first : second;
+                Container other = array == first ? second : first;
+                char[] result = new char[array.count];
+                int count = 0;
+                for (int i = 0; i < array.count; i++) {
+                    if (other.contains(array.values[i])) {
+                        result[count++] = array.values[i];
+                    }
+                }
+                return new Container(result, null, count);
+            }
+            long[] words = first.words();
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] &= second.bits[i];
+            }
+            return ofWords(words);
+        }
+
+        static Container andNot(Container first, Container second) {
+            if (second == null) {
+                return first;
+            }
+            if (first.bits == null) {
+                char[] result = new char[first.count];
+                int count = 0;
+                for (int i = 0; i < first.count; i++) {
+                    if (!second.contains(first.values[i])) {
+                        result[count++] = first.values[i];
+                    }
+                }
+                return new Container(result, null, count);
+            }
+            long[] words = first.words();
+            if (second.bits != null) {
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] &= ~second.bits[i];
+                }
+            } else {
+                for (int i = 0; i < second.count; i++) {
+                    words[second.values[i] >>> 6] &= ~(1L << second.values[i]);
+                }
+            }
+            return ofWords(words);
+        }
+
+        static Container readFrom(ReadBuffer in) {
+            int type = in.readByte();
+            switch (type) {
+                case TYPE_ARRAY: {
+                    int count = in.readInt();
+                    char[] values = new char[count];
+                    for (int i = 0; i < count; i++) {
+                        values[i] = in.readChar();
+                    }
+                    return new Container(values, null, count);
+                }
+                case TYPE_BITMAP: {
+                    long[] words = new long[BITMAP_WORDS];
+                    for (int i = 0; i < BITMAP_WORDS; i++) {
+                        words[i] = in.readLong();
+                    }
+                    return ofWords(words);
+                }
+                case TYPE_RUNS: {
+                    int runs = in.readInt();
+                    long[] words = new long[BITMAP_WORDS];
+                    for (int i = 0; i < runs; i++) {
+                        int start = in.readChar();
+                        int end = start + in.readChar();
+                        for (int value = start; value <= end; value++) {
+                            words[value >>> 6] |= 1L << value;
+                        }
+                    }
+                    return ofWords(words);
+                }
+                default:
+                    throw new IllegalStateException(String.format("Unknown bitmap container type %d", type));
+            }
+        }
+
+        void writeTo(WriteBuffer out) {
+            int runs = runs();
+            int arrayBytes = 4 + count * 2;
+            int runBytes = 4 + runs * 4;
+            if (runBytes < arrayBytes && runBytes < BITMAP_WORDS * 8) {
+                out.writeByte(TYPE_RUNS);
+                out.writeInt(runs);
+                for (int start = next(0); start >= 0;) {
+                    int end = start;
+                    int value;
+                    while ((value = next(end + 1)) == end + 1) {
+                        end = value;
+                    }
+                    out.writeChar((char) start);
+                    out.writeChar((char) (end - start));
+                    start = value;
+                }
+            } else if (arrayBytes <= BITMAP_WORDS * 8) {
+                out.writeByte(TYPE_ARRAY);
+                out.writeInt(count);
+                for (int value = next(0); value >= 0; value = next(value + 1)) {
+                    out.writeChar((char) value);
+                }
+            } else {
+                out.writeByte(TYPE_BITMAP);
+                for (long word : words()) {
+                    out.writeLong(word);
+                }
+            }
+        }
+
+        boolean contains(int low) {
+            if (bits != null) {
+                return (bits[low >>> 6] & 1L << low) != 0;
+            }
+            return Arrays.binarySearch(values, 0, count, (char) low) >= 0;
+        }
+
+        boolean add(int low) {
+            if (bits == null) {
+                int index = Arrays.binarySearch(values, 0, count, (char) low);
+                if (index >= 0) {
+                    return false;
+                }
+                if (count < ARRAY_MAX) {
+                    index = -index - 1;
+                    if (count == values.length) {
+                        values = Arrays.copyOf(values, Math.min(count * 2, ARRAY_MAX));
+                    }
+                    System.arraycopy(values, index, values, index + 1, count - index);
+                    values[index] = (char) low;
+                    count++;
+                    return true;
+                }
+                toBits();
+            }
+            long bit = 1L << low;
+            if ((bits[low >>> 6] & bit) != 0) {
+                return false;
+            }
+            bits[low >>> 6] |= bit;
+            count++;
+            return true;
+        }
+
+        boolean remove(int low) {
+            if (bits == null) {
+                int index = Arrays.binarySearch(values, 0, count, (char) low);
+                if (index < 0) {
+                    return false;
+                }
+                System.arraycopy(values, index + 1, values, index, count - index - 1);
+                count--;
+                return true;
+            }
+            long bit = 1L << low;
+            if ((bits[low >>> 6] & bit) == 0) {
+                return false;
+            }
+            bits[low >>> 6] &= ~bit;
+            if (--count <= ARRAY_MAX) {
+                toArray();
+            }
+            return true;
+        }
+
+        /**
+         * @return the first value at or after from or -1
+         */
+        int next(int from) {
+            if (from > 0xFFFF) {
+                return -1;
+            }
+            if (bits == null) {
+                int index = Arrays.binarySearch(values, 0, count, (char) from);
+                if (index < 0) {
+                    index = -index - 1;
+                }
+                return index < count ? values[index] : -1;
+            }
+            int wordIndex = from >>> 6;
+            long word = bits[wordIndex] & -1L << from;
+            while (word == 0) {
+                if (++wordIndex == BITMAP_WORDS) {
+                    return -1;
+                }
+                word = bits[wordIndex];
+            }
+            return wordIndex * 64 + Long.numberOfTrailingZeros(word);
+        }
+
+        Container copy() {
+            return new Container(values == null ? null : Arrays.copyOf(values, Math.max(count, 4)),
+                                 bits == null ? null : bits.clone(),
+                                 count);
+        }
+
+        private int runs() {
+            int runs = 0;
+            int previous = -2;
+            for (int value = next(0); value >= 0; value = next(value + 1)) {
+                if (value != previous + 1) {
+                    runs++;
+                }
+                previous = value;
+            }
+            return runs;
+        }
+
+        private long[] words() {
+            if (bits != null) {
+                return bits.clone();
+            }
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < count; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return words;
+        }
+
+        private void toBits() {
+            bits = words();
+            values = null;
+        }
+
+        private void toArray() {
+            char[] array = new char[Math.max(count, 4)];
+            int index = 0;
+            for (int value = next(0); value >= 0; value = next(value + 1)) {
+                array[index++] = (char) value;
+            }
+            values = array;
+            bits = null;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections;
+
+/**
+ * Open addressing hash table with primitive long keys, linear probing and backward shift deletion (no tombstones).
+ * <p>
+ *     0 marks an empty slot, the key 0 itself is stored in an extra slot behind the table.
+ *     Subclasses store the values in a parallel array of length {@link #capacity()} + 1.
+ *     Not thread safe.
+ * </p>
+ * <pre>
+ * for (int slot = table.nextSlot(0); slot >= 0; slot = table.nextSlot(slot + 1)) {
+ *     long key = table.keyAt(slot);
+ * }
+ * </pre>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+abstract class LongKeyTable {
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private boolean hasZeroKey;
+    private int size;
+    private int mask;
+    private int maxFill;
+
+    LongKeyTable(int expectedSize) {
+        init(capacityFor(expectedSize));
+    }
+
+    LongKeyTable(LongKeyTable other) {
+        this.keys = other.keys.clone();
+        this.hasZeroKey = other.hasZeroKey;
+        this.size = other.size;
+        this.mask = other.mask;
+        this.maxFill = other.maxFill;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * @return the first used slot at or after the given slot or -1
+     */
+    public int nextSlot(int from) {
+        for (int slot = from; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                return slot;
+            }
+        }
+        return hasZeroKey && from <= keys.length ? keys.length : -1;
+    }
+
+    public long keyAt(int slot) {
+        return slot == keys.length ? 0 : keys[slot];
+    }
+
+    public void clear() {
+        size = 0;
+        hasZeroKey = false;
+        init(capacityFor(0));
+    }
+
+    final int capacity() {
+        return keys.length;
+    }
+
+    final int slotOf(long key) {
+        if (key == 0) {
+            return hasZeroKey ? keys.length : -1;
+        }
+        int slot = hash(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Find or add the key. After setting the value of a new key, {@link #added()} must be called.
+     *
+     * @return the slot of an existing key, the complement (~slot) of the slot of a new key
+     */
+    final int insert(long key) {
+        if (key == 0) {
+            if (hasZeroKey) {
+                return keys.length;
+            }
+            hasZeroKey = true;
+            return ~keys.length;
+        }
+        int slot = hash(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        return ~slot;
+    }
+
+    final void added() {
+        if (++size > maxFill) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    final void removeAt(int slot) {
+        size--;
+        if (slot == keys.length) {
+            hasZeroKey = false;
+            clearValue(slot);
+            return;
+        }
+        shiftKeys(slot);
+    }
+
+    /**
+     * Allocate the value array for the given capacity (plus the slot of the key 0).
+     */
+    abstract void allocateValues(int length);
+
+    abstract Object values();
+
+    abstract void transferValue(Object oldValues, int from, int to);
+
+    abstract void moveValue(int from, int to);
+
+    abstract void clearValue(int slot);
+
+    private void shiftKeys(int slot) {
+        int last;
+        long current;
+        while (true) {
+            slot = ((last = slot) + 1) & mask;
+            while (true) {
+                if ((current = keys[slot]) == 0) {
+                    keys[last] = 0;
+                    clearValue(last);
+                    return;
+                }
+                int home = hash(current) & mask;
+                if (last <= slot ? last >= home || home > slot : last >= home && home > slot) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = current;
+            moveValue(slot, last);
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object oldValues = values();
+        init(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            long key = oldKeys[slot];
+            if (key != 0) {
+                transferValue(oldValues, slot, ~insert(key));
+            }
+        }
+        transferValue(oldValues, oldKeys.length, keys.length);
+    }
+
+    private void init(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        maxFill = (int) (capacity * LOAD_FACTOR);
+        allocateValues(capacity + 1);
+    }
+
+    static int capacityFor(int expectedSize) {
+        long required = (long) Math.ceil(expectedSize / LOAD_FACTOR) + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < required) {
+            if (capacity == 1 << 30) {
+                throw new IllegalStateException(String.format("Too many entries: %d", expectedSize));
+            }
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+}
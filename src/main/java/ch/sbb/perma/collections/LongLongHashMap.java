@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections;
+
+/**
+ * Map from long to long without boxing, 16 bytes per entry plus the free slots of the table. Not thread safe.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class LongLongHashMap extends LongKeyTable {
+    private long[] values;
+
+    public LongLongHashMap() {
+        this(0);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        super(expectedSize);
+    }
+
+    private LongLongHashMap(LongLongHashMap other) {
+        super(other);
+        this.values = other.values.clone();
+    }
+
+    public long getOrDefault(long key, long defaultValue) {
+        int slot = slotOf(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    /**
+     * @return true if the key was not present before
+     */
+    public boolean put(long key, long value) {
+        int slot = insert(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return false;
+        }
+        values[~slot] = value;
+        added();
+        return true;
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    public boolean remove(long key) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    public long valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * @return heap bytes of the key and value arrays
+     */
+    public long footprint() {
+        return 8L * capacity() + 8L * values.length;
+    }
+
+    public LongLongHashMap copy() {
+        return new LongLongHashMap(this);
+    }
+
+    @Override
+    void allocateValues(int length) {
+        values = new long[length];
+    }
+
+    @Override
+    Object values() {
+        return values;
+    }
+
+    @Override
+    void transferValue(Object oldValues, int from, int to) {
+        values[to] = ((long[]) oldValues)[from];
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = 0;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections;
+
+/**
+ * Map from long keys without boxing to objects, 8 bytes per entry plus the reference and the free slots of the table.
+ * Null values are not allowed. Not thread safe.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class LongObjectHashMap<V> extends LongKeyTable {
+    private Object[] values;
+
+    public LongObjectHashMap() {
+        this(0);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        super(expectedSize);
+    }
+
+    private LongObjectHashMap(LongObjectHashMap<V> other) {
+        super(other);
+        this.values = other.values.clone();
+    }
+
+    /**
+     * @return the value or null if the key is not present
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = slotOf(key);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    /**
+     * @return true if the key was not present before
+     */
+    public boolean put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value is null");
+        }
+        int slot = insert(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return false;
+        }
+        values[~slot] = value;
+        added();
+        return true;
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    public boolean remove(long key) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    /**
+     * @return heap bytes of the key and value arrays (the values are references)
+     */
+    public long footprint() {
+        return 8L * capacity() + 4L * values.length;
+    }
+
+    public LongObjectHashMap<V> copy() {
+        return new LongObjectHashMap<>(this);
+    }
+
+    @Override
+    void allocateValues(int length) {
+        values = new Object[length];
+    }
+
+    @Override
+    Object values() {
+        return values;
+    }
+
+    @Override
+    void transferValue(Object oldValues, int from, int to) {
+        values[to] = ((Object[]) oldValues)[from];
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = null;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections;
+
+/**
+ * Open addressing hash set with linear probing and backward shift deletion, one reference per slot and no entry objects.
+ * <p>
+ *     Null elements are not allowed (null marks an empty slot). Not thread safe.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class ObjectHashSet<T> {
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private Object[] elements;
+    private int size;
+    private int mask;
+    private int maxFill;
+
+    public ObjectHashSet() {
+        this(0);
+    }
+
+    public ObjectHashSet(int expectedSize) {
+        init(LongKeyTable.capacityFor(expectedSize));
+    }
+
+    private ObjectHashSet(ObjectHashSet<T> other) {
+        this.elements = other.elements.clone();
+        this.size = other.size;
+        this.mask = other.mask;
+        this.maxFill = other.maxFill;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(Object element) {
+        return element != null && slotOf(element) >= 0;
+    }
+
+    /**
+     * @return true if the element was not present before
+     */
+    public boolean add(T element) {
+        if (element == null) {
+            throw new NullPointerException("element is null");
+        }
+        int slot = hash(element) & mask;
+        Object current;
+        while ((current = elements[slot]) != null) {
+            if (current.equals(element)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        elements[slot] = element;
+        if (++size > maxFill) {
+            rehash(elements.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the element was present
+     */
+    public boolean remove(Object element) {
+        if (element == null) {
+            return false;
+        }
+        int slot = slotOf(element);
+        if (slot < 0) {
+            return false;
+        }
+        size--;
+        shiftElements(slot);
+        return true;
+    }
+
+    /**
+     * @return the first used slot at or after the given slot or -1
+     */
+    public int nextSlot(int from) {
+        for (int slot = from; slot < elements.length; slot++) {
+            if (elements[slot] != null) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T elementAt(int slot) {
+        return (T) elements[slot];
+    }
+
+    /**
+     * @return heap bytes of the element array (the elements are references)
+     */
+    public long footprint() {
+        return 4L * elements.length;
+    }
+
+    public ObjectHashSet<T> copy() {
+        return new ObjectHashSet<>(this);
+    }
+
+    public void clear() {
+        size = 0;
+        init(LongKeyTable.capacityFor(0));
+    }
+
+    private int slotOf(Object element) {
+        int slot = hash(element) & mask;
+        Object current;
+        while ((current = elements[slot]) != null) {
+            if (current.equals(element)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftElements(int slot) {
+        int last;
+        Object current;
+        while (true) {
+            slot = ((last = slot) + 1) & mask;
+            while (true) {
+                if ((current = elements[slot]) == null) {
+                    elements[last] = null;
+                    return;
+                }
+                int home = hash(current) & mask;
+                if (last <= slot ? last >= home || home > slot : last >= home && home > slot) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            elements[last] = current;
+        }
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldElements = elements;
+        init(capacity);
+        for (Object element : oldElements) {
+            if (element != null) {
+                int slot = hash(element) & mask;
+                while (elements[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                elements[slot] = element;
+            }
+        }
+    }
+
+    private void init(int capacity) {
+        elements = new Object[capacity];
+        mask = capacity - 1;
+        maxFill = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int hash(Object element) {
+        int h = element.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Thread safe hash set of {@value #STRIPES} {@link ObjectHashSet}s, each guarded by its own read write lock.
+ * <p>
+ *     Readers share the read lock of the stripe of the element and do not block each other, writers only block the
+ *     readers of one stripe. Iteration is weakly consistent: one stripe at a time is copied under its read lock, the
+ *     elements present during the whole iteration are returned exactly once, there is no
+ *     ConcurrentModificationException. An iterator only holds the copy of the largest stripe. The stripes cost about
+ *     {@value #STRIPES} * 200 bytes, even for an empty set. Null elements are not allowed.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class StripedObjectHashSet<T> {
+    public static final int STRIPES = 64;
+    private static final int STRIPE_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(STRIPES);
+
+    private final ObjectHashSet<T>[] stripes;
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[STRIPES];
+    private final AtomicInteger size = new AtomicInteger();
+
+    @SuppressWarnings("unchecked")
+    public StripedObjectHashSet() {
+        stripes = new ObjectHashSet[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ObjectHashSet<>();
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(Object element) {
+        if (element == null) {
+            return false;
+        }
+        int stripe = stripeOf(element);
+        Lock lock = locks[stripe].readLock();
+        lock.lock();
+        try {
+            return stripes[stripe].contains(element);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if the element was not present before
+     */
+    public boolean add(T element) {
+        Objects.requireNonNull(element, "element is null");
+        int stripe = stripeOf(element);
+        Lock lock = locks[stripe].writeLock();
+        lock.lock();
+        try {
+            if (!stripes[stripe].add(element)) {
+                return false;
+            }
+            size.incrementAndGet();
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if the element was present
+     */
+    public boolean remove(Object element) {
+        if (element == null) {
+            return false;
+        }
+        int stripe = stripeOf(element);
+        Lock lock = locks[stripe].writeLock();
+        lock.lock();
+        try {
+            if (!stripes[stripe].remove(element)) {
+                return false;
+            }
+            size.decrementAndGet();
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove all elements, stripe by stripe.
+     *
+     * @param removed called with each removed element while the lock of its stripe is held
+     */
+    public void clear(Consumer<? super T> removed) {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            Lock lock = locks[stripe].writeLock();
+            lock.lock();
+            try {
+                ObjectHashSet<T> set = stripes[stripe];
+                for (int slot = set.nextSlot(0); slot >= 0; slot = set.nextSlot(slot + 1)) {
+                    removed.accept(set.elementAt(slot));
+                }
+                size.addAndGet(-set.size());
+                set.clear();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A copy of each stripe, the copies are not synchronized.
+     */
+    public List<ObjectHashSet<T>> copyStripes() {
+        List<ObjectHashSet<T>> copies = new ArrayList<>(STRIPES);
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            Lock lock = locks[stripe].readLock();
+            lock.lock();
+            try {
+                copies.add(stripes[stripe].copy());
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        return copies;
+    }
+
+    /**
+     * @return heap bytes of the element arrays of the stripes (the elements are references)
+     */
+    public long footprint() {
+        long footprint = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            Lock lock = locks[stripe].readLock();
+            lock.lock();
+            try {
+                footprint += stripes[stripe].footprint();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        return footprint;
+    }
+
+    /**
+     * Weakly consistent iterator, remove is not supported.
+     */
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private Object[] copy = new Object[0];
+            private int copied;
+            private int index;
+            private int nextStripe;
+
+            @Override
+            public boolean hasNext() {
+                while (index == copied && nextStripe < STRIPES) {
+                    copyStripe(nextStripe++);
+                }
+                return index < copied;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T element = (T) copy[index];
+                copy[index++] = null;
+                return element;
+            }
+
+            private void copyStripe(int stripe) {
+                Lock lock = locks[stripe].readLock();
+                lock.lock();
+                try {
+                    ObjectHashSet<T> set = stripes[stripe];
+                    if (copy.length < set.size()) {
+                        copy = new Object[set.size()];
+                    }
+                    copied = 0;
+                    for (int slot = set.nextSlot(0); slot >= 0; slot = set.nextSlot(slot + 1)) {
+                        copy[copied++] = set.elementAt(slot);
+                    }
+                    index = 0;
+                }
+                finally {
+                    lock.unlock();
+                }
+            }
+        };
+    }
+
+    private static int stripeOf(Object element) {
+        return (element.hashCode() * 0x9E3779B9) >>> STRIPE_SHIFT;
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections;
+
+import ch.sbb.perma.serializers.WriteBuffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Map from strings to strings (or null) keeping keys and values as UTF-8 bytes in a packed arena.
+ * <p>
+ *     Each entry is appended to the arena as key length, key bytes, value length and value bytes (lengths as 1 or
+ *     4 bytes, 0 for a null value). The open addressing table holds the arena offset and the hash of each key, hashing
+ *     and equality work directly on the bytes. Updated and removed entries stay in the arena as garbage until it
+ *     exceeds the live bytes, the arena is compacted then. Strings are only created by the String accessors.
+ *     Not thread safe.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class Utf8HashMap {
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIN_ARENA_CAPACITY = 256;
+    private static final int MAX_ARENA_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final int MIN_GARBAGE_TO_COMPACT = 4096;
+
+    private int[] offsets;
+    private int[] hashes;
+    private int mask;
+    private int maxFill;
+    private int size;
+
+    private byte[] arena;
+    private int arenaLength;
+    private int garbage;
+
+    public Utf8HashMap() {
+        this(0);
+    }
+
+    public Utf8HashMap(int expectedSize) {
+        initTable(LongKeyTable.capacityFor(expectedSize));
+        arena = new byte[MIN_ARENA_CAPACITY];
+    }
+
+    private Utf8HashMap(Utf8HashMap other) {
+        this.offsets = other.offsets.clone();
+        this.hashes = other.hashes.clone();
+        this.mask = other.mask;
+        this.maxFill = other.maxFill;
+        this.size = other.size;
+        this.arena = Arrays.copyOf(other.arena, Math.max(other.arenaLength, MIN_ARENA_CAPACITY));
+        this.arenaLength = other.arenaLength;
+        this.garbage = other.garbage;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the slot of the key or -1
+     */
+    public int slotOf(byte[] key, int offset, int length) {
+        int hash = hash(key, offset, length);
+        int slot = hash & mask;
+        int entry;
+        while ((entry = offsets[slot]) != 0) {
+            if (hashes[slot] == hash && keyEquals(entry - 1, key, offset, length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public boolean containsKey(byte[] key, int offset, int length) {
+        return slotOf(key, offset, length) >= 0;
+    }
+
+    /**
+     * @param value the value or null for a null value
+     * @return true if the key was not present before
+     */
+    public boolean put(byte[] key, int keyOffset, int keyLength, byte[] value, int valueOffset, int valueLength) {
+        int hash = hash(key, keyOffset, keyLength);
+        int slot = hash & mask;
+        int entry;
+        while ((entry = offsets[slot]) != 0) {
+            if (hashes[slot] == hash && keyEquals(entry - 1, key, keyOffset, keyLength)) {
+                if (!valueEquals(entry - 1, value, valueOffset, valueLength)) {
+                    garbage += entryLength(entry - 1);
+                    offsets[slot] = append(key, keyOffset, keyLength, value, valueOffset, valueLength) + 1;
+                    compactArenaIfWasteful();
+                }
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        offsets[slot] = append(key, keyOffset, keyLength, value, valueOffset, valueLength) + 1;
+        hashes[slot] = hash;
+        if (++size > maxFill) {
+            rehash(offsets.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Put the key and value of the given slot of another map.
+     *
+     * @return true if the key was not present before
+     */
+    public boolean putEntry(Utf8HashMap source, int slot) {
+        int entry = source.offsets[slot] - 1;
+        byte[] sourceArena = source.arena;
+        int keyLength = source.lengthAt(entry);
+        int keyOffset = entry + lengthSize(keyLength);
+        int valuePosition = keyOffset + keyLength;
+        int valueLength = source.lengthAt(valuePosition);
+        return put(sourceArena,
+                   keyOffset,
+                   keyLength,
+                   valueLength < 0 ? null : sourceArena,
+                   valuePosition + lengthSize(valueLength),
+                   Math.max(valueLength, 0));
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    public boolean remove(byte[] key, int offset, int length) {
+        int slot = slotOf(key, offset, length);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    public void removeAt(int slot) {
+        garbage += entryLength(offsets[slot] - 1);
+        size--;
+        shiftKeys(slot);
+        if (size == 0) {
+            arenaLength = 0;
+            garbage = 0;
+        }
+        compactArenaIfWasteful();
+    }
+
+    /**
+     * @return the first used slot at or after the given slot or -1
+     */
+    public int nextSlot(int from) {
+        for (int slot = from; slot < offsets.length; slot++) {
+            if (offsets[slot] != 0) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    public String keyAt(int slot) {
+        int entry = offsets[slot] - 1;
+        int length = lengthAt(entry);
+        return new String(arena, entry + lengthSize(length), length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the value or null for a null value
+     */
+    public String valueAt(int slot) {
+        int position = valuePosition(offsets[slot] - 1);
+        int length = lengthAt(position);
+        if (length < 0) {
+            return null;
+        }
+        return new String(arena, position + lengthSize(length), length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return arena bytes of the key, including its length
+     */
+    public int keyBytesAt(int slot) {
+        int entry = offsets[slot] - 1;
+        return valuePosition(entry) - entry;
+    }
+
+    /**
+     * @return arena bytes of the value, including its length
+     */
+    public int valueBytesAt(int slot) {
+        int entry = offsets[slot] - 1;
+        return entryLength(entry) - (valuePosition(entry) - entry);
+    }
+
+    public boolean hasNullValueAt(int slot) {
+        return lengthAt(valuePosition(offsets[slot] - 1)) < 0;
+    }
+
+    public void writeKeyTo(int slot, WriteBuffer out) {
+        int entry = offsets[slot] - 1;
+        int length = lengthAt(entry);
+        out.write(arena, entry + lengthSize(length), length);
+    }
+
+    /**
+     * @return false for a null value (nothing is written)
+     */
+    public boolean writeValueTo(int slot, WriteBuffer out) {
+        int position = valuePosition(offsets[slot] - 1);
+        int length = lengthAt(position);
+        if (length < 0) {
+            return false;
+        }
+        out.write(arena, position + lengthSize(length), length);
+        return true;
+    }
+
+    public int slotOf(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        return slotOf(bytes, 0, bytes.length);
+    }
+
+    public boolean containsKey(String key) {
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * @return the value or null if the key is not present or the value is null
+     */
+    public String get(String key) {
+        int slot = slotOf(key);
+        return slot >= 0 ? valueAt(slot) : null;
+    }
+
+    /**
+     * @return true if the key was not present before
+     */
+    public boolean put(String key, String value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+        return put(keyBytes, 0, keyBytes.length, valueBytes, 0, valueBytes != null ? valueBytes.length : 0);
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    public boolean remove(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        return remove(bytes, 0, bytes.length);
+    }
+
+    public Utf8HashMap copy() {
+        return new Utf8HashMap(this);
+    }
+
+    public void clear() {
+        size = 0;
+        arenaLength = 0;
+        garbage = 0;
+        arena = new byte[MIN_ARENA_CAPACITY];
+        initTable(LongKeyTable.capacityFor(0));
+    }
+
+    /**
+     * Bytes used by the arena (including garbage) and the table, to compare footprints.
+     */
+    public long footprint() {
+        return arena.length + 8L * offsets.length;
+    }
+
+    private int append(byte[] key, int keyOffset, int keyLength, byte[] value, int valueOffset, int valueLength) {
+        int valueLengthToWrite = value != null ? valueLength : -1;
+        int length = lengthSize(keyLength) + keyLength + lengthSize(valueLengthToWrite) + Math.max(valueLengthToWrite, 0);
+        ensureArenaCapacity(length);
+        int entry = arenaLength;
+        arenaLength = writeLength(arenaLength, keyLength);
+        System.arraycopy(key, keyOffset, arena, arenaLength, keyLength);
+        arenaLength = writeLength(arenaLength + keyLength, valueLengthToWrite);
+        if (value != null) {
+            System.arraycopy(value, valueOffset, arena, arenaLength, valueLength);
+            arenaLength += valueLength;
+        }
+        return entry;
+    }
+
+    private void ensureArenaCapacity(int additionalBytes) {
+        long required = (long) arenaLength + additionalBytes;
+        if (required <= arena.length) {
+            return;
+        }
+        if (required > MAX_ARENA_CAPACITY) {
+            throw new IllegalStateException(String.format("Arena full, %d bytes required", required));
+        }
+        arena = Arrays.copyOf(arena, (int) Math.min(MAX_ARENA_CAPACITY, Math.max(required, arena.length + (arena.length >> 1))));
+    }
+
+    private void compactArenaIfWasteful() {
+        if (garbage < MIN_GARBAGE_TO_COMPACT || garbage < arenaLength - garbage) {
+            return;
+        }
+        byte[] compacted = new byte[Math.max(MIN_ARENA_CAPACITY, arenaLength - garbage)];
+        int length = 0;
+        for (int slot = 0; slot < offsets.length; slot++) {
+            if (offsets[slot] != 0) {
+                int entry = offsets[slot] - 1;
+                int entryLength = entryLength(entry);
+                System.arraycopy(arena, entry, compacted, length, entryLength);
+                offsets[slot] = length + 1;
+                length += entryLength;
+            }
+        }
+        arena = compacted;
+        arenaLength = length;
+        garbage = 0;
+    }
+
+    private boolean keyEquals(int entry, byte[] key, int offset, int length) {
+        return lengthAt(entry) == length && rangeEquals(entry + lengthSize(length), key, offset, length);
+    }
+
+    private boolean valueEquals(int entry, byte[] value, int offset, int length) {
+        int position = valuePosition(entry);
+        int storedLength = lengthAt(position);
+        if (value == null || storedLength < 0) {
+            return value == null && storedLength < 0;
+        }
+        return storedLength == length && rangeEquals(position + lengthSize(length), value, offset, length);
+    }
+
+    private boolean rangeEquals(int position, byte[] bytes, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (arena[position + i] != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int valuePosition(int entry) {
+        int keyLength = lengthAt(entry);
+        return entry + lengthSize(keyLength) + keyLength;
+    }
+
+    private int entryLength(int entry) {
+        int position = valuePosition(entry);
+        int valueLength = lengthAt(position);
+        return position - entry + lengthSize(valueLength) + Math.max(valueLength, 0);
+    }
+
+    /**
+     * Lengths are stored plus one (0 is null), in one byte up to 126, else in 4 bytes with the highest bit set.
+     */
+    private int lengthAt(int position) {
+        int first = arena[position] & 0xFF;
+        if (first < 0x80) {
+            return first - 1;
+        }
+        return (((first & 0x7F) << 24) |
+                ((arena[position + 1] & 0xFF) << 16) |
+                ((arena[position + 2] & 0xFF) << 8) |
+                (arena[position + 3] & 0xFF)) - 1;
+    }
+
+    private int writeLength(int position, int length) {
+        int stored = length + 1;
+        if (stored < 0x80) {
+            arena[position] = (byte) stored;
+            return position + 1;
+        }
+        arena[position] = (byte) (0x80 | (stored >>> 24));
+        arena[position + 1] = (byte) (stored >>> 16);
+        arena[position + 2] = (byte) (stored >>> 8);
+        arena[position + 3] = (byte) stored;
+        return position + 4;
+    }
+
+    private static int lengthSize(int length) {
+        return length + 1 < 0x80 ? 1 : 4;
+    }
+
+    private void shiftKeys(int slot) {
+        int last;
+        int current;
+        while (true) {
+            slot = ((last = slot) + 1) & mask;
+            while (true) {
+                if ((current = offsets[slot]) == 0) {
+                    offsets[last] = 0;
+                    return;
+                }
+                int home = hashes[slot] & mask;
+                if (last <= slot ? last >= home || home > slot : last >= home && home > slot) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            offsets[last] = current;
+            hashes[last] = hashes[slot];
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldOffsets = offsets;
+        int[] oldHashes = hashes;
+        initTable(capacity);
+        for (int oldSlot = 0; oldSlot < oldOffsets.length; oldSlot++) {
+            if (oldOffsets[oldSlot] != 0) {
+                int slot = oldHashes[oldSlot] & mask;
+                while (offsets[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                offsets[slot] = oldOffsets[oldSlot];
+                hashes[slot] = oldHashes[oldSlot];
+            }
+        }
+    }
+
+    private void initTable(int capacity) {
+        offsets = new int[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        maxFill = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int h = 1;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + bytes[i];
+        }
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
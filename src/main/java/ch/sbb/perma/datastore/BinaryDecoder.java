@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.datastore;
+
+import ch.sbb.perma.serializers.ReadBuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Read headers and records of a perma file through a reusable buffer.
+ * <p>
+ *     Primitives are decoded in place without allocation, the CRC32 is computed in bulk over the bytes
+ *     read since {@link #beginChecksum()}. These bytes are kept in the buffer until the next call of
+ *     {@link #beginChecksum()}, so keys and values can be handed out as {@link ReadBuffer} views with
+ *     {@link #region(int, int, ReadBuffer)} after the checksum was verified.
+ * </p>
+ * <p>
+ *     The buffer only grows when it is full of data actually read, a corrupt length does not allocate
+ *     more memory than the file contains.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+class BinaryDecoder {
+    static final int EOF = -1;
+    static final int NULL_LENGTH = -1;
+    private static final int INITIAL_SIZE = 64 * 1024;
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+    private static final int NO_MARK = -1;
+
+    private final InputStream in;
+    private final CRC32 checksum = new CRC32();
+    private byte[] buffer = new byte[INITIAL_SIZE];
+    private int position;
+    private int limit;
+    private int mark = NO_MARK;
+    private long discarded;
+
+    BinaryDecoder(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * @return the next byte or {@link #EOF} at the end of the stream
+     */
+    int readByteOrEof() throws IOException {
+        if (position == limit && !fill(1)) {
+            return EOF;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * @return the bytes consumed from the stream so far
+     */
+    long bytesRead() {
+        return discarded + position;
+    }
+
+    int readByte() throws IOException {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    short readShort() throws IOException {
+        require(2);
+        short value = (short) ((buffer[position] << 8) | (buffer[position + 1] & 0xFF));
+        position += 2;
+        return value;
+    }
+
+    int readInt() throws IOException {
+        require(4);
+        int value = getInt(position);
+        position += 4;
+        return value;
+    }
+
+    long readLong() throws IOException {
+        require(8);
+        long value = ((long) getInt(position) << 32) | (getInt(position + 4) & 0xFFFFFFFFL);
+        position += 8;
+        return value;
+    }
+
+    byte[] read(int length) throws IOException {
+        require(length);
+        byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        return bytes;
+    }
+
+    /**
+     * Read a length written with {@link BinaryEncoder#writeWithLength(ch.sbb.perma.serializers.BufferSerializer, Object)}, which is {@link #NULL_LENGTH} for null.
+     */
+    int readLength() throws IOException {
+        int length = readInt();
+        if (length < NULL_LENGTH) {
+            throw new InvalidDataException(String.format("Invalid length: %d", length));
+        }
+        return length;
+    }
+
+    /**
+     * Skip the given number of bytes (nothing for {@link #NULL_LENGTH}), they remain available as region.
+     *
+     * @return the offset of the skipped bytes relative to the last {@link #beginChecksum()}
+     */
+    int skip(int length) throws IOException {
+        int skipped = Math.max(length, 0);
+        require(skipped);
+        int offset = position - mark;
+        position += skipped;
+        return offset;
+    }
+
+    /**
+     * Read bytes written with length as view, valid until the next read.
+     *
+     * @return the view or null for {@link #NULL_LENGTH}
+     */
+    ReadBuffer readWithLength(ReadBuffer view) throws IOException {
+        int length = readLength();
+        return region(skip(length), length, view);
+    }
+
+    /**
+     * All bytes read from now on are part of the checksum and remain in the buffer until the next call.
+     */
+    void beginChecksum() {
+        mark = position;
+    }
+
+    /**
+     * Read the checksum and compare it with the CRC32 of the bytes read since {@link #beginChecksum()}.
+     */
+    boolean readAndCheckChecksum() throws IOException {
+        checksum.reset();
+        checksum.update(buffer, mark, position - mark);
+        return checksum.getValue() == readLong();
+    }
+
+    /**
+     * Reset the view to bytes read since the last {@link #beginChecksum()}.
+     *
+     * @param offset as returned by {@link #skip(int)}
+     * @return the view or null for {@link #NULL_LENGTH}
+     */
+    ReadBuffer region(int offset, int length, ReadBuffer view) {
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        return view.reset(buffer, mark + offset, length);
+    }
+
+    private void require(int length) throws IOException {
+        if (limit - position < length && !fill(length)) {
+            throw new InvalidDataException(
+                    String.format("Less bytes available than expected, required %d", length));
+        }
+    }
+
+    private boolean fill(int length) throws IOException {
+        while (limit - position < length) {
+            if (limit == buffer.length) {
+                makeRoom();
+            }
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+        }
+        return true;
+    }
+
+    private void makeRoom() {
+        int keepFrom = mark != NO_MARK ? mark : position;
+        if (keepFrom > 0) {
+            System.arraycopy(buffer, keepFrom, buffer, 0, limit - keepFrom);
+            discarded += keepFrom;
+            limit -= keepFrom;
+            position -= keepFrom;
+            if (mark != NO_MARK) {
+                mark -= keepFrom;
+            }
+            return;
+        }
+        if (buffer.length == MAX_SIZE) {
+            throw new InvalidDataException("Record too large");
+        }
+        buffer = Arrays.copyOf(buffer, (int) Math.min((long) buffer.length * 2, MAX_SIZE));
+    }
+
+    private int getInt(int at) {
+        return (buffer[at] << 24) |
+               ((buffer[at + 1] & 0xFF) << 16) |
+               ((buffer[at + 2] & 0xFF) << 8) |
+               (buffer[at + 3] & 0xFF);
+    }
+}
@@ -23,6 +23,7 @@ public class BinaryReader {
 
     private final InputStream in;
     private final Checksum checksum;
+    private final byte[] scratch = new byte[8];
 
     BinaryReader(InputStream in, Checksum crc32) {
         this.in = in;
@@ -49,30 +50,47 @@ public class BinaryReader {
     }
 
     public short readShort() throws IOException {
-        return Shorts.fromByteArray(read(2));
+        readFully(scratch, 2);
+        checksum.update(scratch, 0, 2);
+        return Shorts.fromBytes(scratch[0], scratch[1]);
     }
 
     public int readInt() throws IOException {
-        return Ints.fromByteArray(read(4));
+        readFully(scratch, 4);
+        checksum.update(scratch, 0, 4);
+        return Ints.fromBytes(scratch[0], scratch[1], scratch[2], scratch[3]);
     }
 
     public long readLong() throws IOException {
-        return Longs.fromByteArray(read(8));
+        readFully(scratch, 8);
+        checksum.update(scratch, 0, 8);
+        return toLong(scratch);
     }
 
     public byte[] read(int length) throws IOException {
         byte[] bytes = new byte[length];
-        if(length == 0) {
-            return bytes;
-        }
-        if(in.read(bytes) != length) {
-            throw new InvalidDataException("Less bytes available than expected");
-        }
+        readFully(bytes, length);
         checksum.update(bytes, 0, length);
         return bytes;
     }
 
     boolean readAndCheckChecksum() throws IOException {
-        return checksum.getValue() == new BinaryReader(in).readLong();
+        readFully(scratch, 8);
+        return checksum.getValue() == toLong(scratch);
+    }
+
+    private void readFully(byte[] bytes, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int read = in.read(bytes, offset, length - offset);
+            if (read < 0) {
+                throw new InvalidDataException("Less bytes available than expected");
+            }
+            offset += read;
+        }
+    }
+
+    private static long toLong(byte[] bytes) {
+        return Longs.fromBytes(bytes[0], bytes[1], bytes[2], bytes[3], bytes[4], bytes[5], bytes[6], bytes[7]);
     }
 }
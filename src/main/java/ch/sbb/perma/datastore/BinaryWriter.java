@@ -4,10 +4,6 @@
 
 package ch.sbb.perma.datastore;
 
-import com.google.common.primitives.Ints;
-import com.google.common.primitives.Longs;
-import com.google.common.primitives.Shorts;
-
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.zip.Checksum;
@@ -23,6 +19,7 @@ public class BinaryWriter {
 
     private final OutputStream out;
     private final Checksum checksum;
+    private final byte[] scratch = new byte[8];
 
     BinaryWriter(OutputStream out, Checksum checksum) {
         this.out = out;
@@ -49,23 +46,42 @@ public class BinaryWriter {
     }
 
     public void writeShort(short value) throws IOException {
-        write(Shorts.toByteArray(value));
+        scratch[0] = (byte) (value >> 8);
+        scratch[1] = (byte) value;
+        write(scratch, 0, 2);
     }
 
     public void writeInt(int value) throws IOException {
-        write(Ints.toByteArray(value));
-     }
+        scratch[0] = (byte) (value >> 24);
+        scratch[1] = (byte) (value >> 16);
+        scratch[2] = (byte) (value >> 8);
+        scratch[3] = (byte) value;
+        write(scratch, 0, 4);
+    }
 
     public void writeLong(long value) throws IOException {
-        write(Longs.toByteArray(value));
+        for (int i = 7; i >= 0; i--) {
+            scratch[i] = (byte) value;
+            value >>= 8;
+        }
+        write(scratch, 0, 8);
     }
 
     public void write(byte[] bytes) throws IOException {
-        checksum.update(bytes, 0 , bytes.length);
-        out.write(bytes);
+        write(bytes, 0, bytes.length);
+    }
+
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        checksum.update(bytes, offset, length);
+        out.write(bytes, offset, length);
     }
 
     void writeChecksum() throws IOException {
-        new BinaryWriter(out).writeLong(checksum.getValue());
+        long value = checksum.getValue();
+        for (int i = 7; i >= 0; i--) {
+            scratch[i] = (byte) value;
+            value >>= 8;
+        }
+        out.write(scratch, 0, 8);
     }
 }
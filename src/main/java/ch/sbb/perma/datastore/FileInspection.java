@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.datastore;
+
+import ch.sbb.perma.file.PermaFile;
+import ch.sbb.perma.serializers.ReadBuffer;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Header fields and record statistics of a single perma file, read record by record without a serializer.
+ * <p>
+ *     Reading verifies the header and all record checksums and the record count of the header, a corrupt file throws a
+ *     {@link PermaDatastoreException}. Only one record is held in memory at a time, files of any size can be inspected.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class FileInspection {
+
+    /**
+     * Receives the records of the file in their binary form, the buffers are only valid during the call.
+     */
+    public interface RecordVisitor {
+
+        /**
+         * @param value the binary value, null for key only records and values serialized to null
+         * @param recordBytes the bytes of the record in the uncompressed file
+         */
+        void record(ReadBuffer key, ReadBuffer value, boolean deleted, int recordBytes);
+    }
+
+    public static final RecordVisitor SKIP = (key, value, deleted, recordBytes) -> {};
+
+    private final PermaFile file;
+    private final Header header;
+    private final long fileBytes;
+    private long headerBytes;
+    private long uncompressedBytes;
+    private int records;
+    private int deletes;
+    private long keyBytes;
+    private long valueBytes;
+
+    private FileInspection(PermaFile file, Header header) {
+        this.file = file;
+        this.header = header;
+        this.fileBytes = file.length();
+    }
+
+    public static FileInspection read(PermaFile file, RecordVisitor visitor) throws IOException {
+        return file.withInputStream(in -> {
+            BinaryDecoder decoder = new BinaryDecoder(in);
+            FileInspection inspection = new FileInspection(file, Header.readFrom(decoder));
+            inspection.headerBytes = decoder.bytesRead();
+            inspection.readRecords(decoder, visitor);
+            inspection.uncompressedBytes = decoder.bytesRead();
+            if (!inspection.header.hasSize(inspection.records)) {
+                throw new HeaderMismatchException(String.format("Invalid size, header has %d records, file %d",
+                                                                inspection.header.size(),
+                                                                inspection.records));
+            }
+            return inspection;
+        });
+    }
+
+    /**
+     * @return the uuid of the full file of the file, read from the header only
+     */
+    public static UUID readFullFileUUID(PermaFile file) throws IOException {
+        return file.withInputStream(in -> Header.readFrom(new BinaryDecoder(in)).fullFileUUID());
+    }
+
+    private void readRecords(BinaryDecoder decoder, RecordVisitor visitor) throws IOException {
+        ReadBuffer keyView = new ReadBuffer();
+        ReadBuffer valueView = new ReadBuffer();
+        ReadBuffer[] value = new ReadBuffer[1];
+        boolean[] deleted = new boolean[1];
+        RecordHandler handler = new RecordHandler() {
+            @Override
+            public void newOrUpdated(ReadBuffer key, ReadBuffer readValue) {
+                value[0] = readValue;
+                deleted[0] = false;
+            }
+
+            @Override
+            public void deleted(ReadBuffer key) {
+                value[0] = null;
+                deleted[0] = true;
+            }
+        };
+        long start = decoder.bytesRead();
+        while (MapEntryRecord.readFrom(decoder, handler, keyView, valueView)) {
+            long end = decoder.bytesRead();
+            records++;
+            keyBytes += keyView.remaining();
+            if (deleted[0]) {
+                deletes++;
+            } else if (value[0] != null) {
+                valueBytes += value[0].remaining();
+            }
+            visitor.record(keyView, value[0], deleted[0], (int) (end - start));
+            start = end;
+        }
+    }
+
+    public PermaFile file() {
+        return file;
+    }
+
+    public String name() {
+        return header.name();
+    }
+
+    public short version() {
+        return header.version();
+    }
+
+    public boolean isFullFile() {
+        return header.isFullFile();
+    }
+
+    public UUID fullFileUUID() {
+        return header.fullFileUUID();
+    }
+
+    /**
+     * @return 0 for full files, the number of the delta file since the full file otherwise
+     */
+    public int deltaFileNumber() {
+        return header.updateFileNumber();
+    }
+
+    /**
+     * @return true if this file is the delta file following the other file of the same full file
+     */
+    public boolean isNextDeltaFileOf(FileInspection previous) {
+        return header.isNextDeltaFileOf(previous.header);
+    }
+
+    /**
+     * @return the records of the file, new, updated and deleted
+     */
+    public int records() {
+        return records;
+    }
+
+    public int deletes() {
+        return deletes;
+    }
+
+    public int upserts() {
+        return records - deletes;
+    }
+
+    public long keyBytes() {
+        return keyBytes;
+    }
+
+    public long valueBytes() {
+        return valueBytes;
+    }
+
+    public long headerBytes() {
+        return headerBytes;
+    }
+
+    /**
+     * @return the bytes of header and records, before compression
+     */
+    public long uncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * @return the bytes of the file on disk
+     */
+    public long fileBytes() {
+        return fileBytes;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.datastore;
+
+import ch.sbb.perma.file.PermaFile;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Read a sequence of files in three overlapping stages: read and decompress, parse, apply.
+ * <p>
+ *     A single reader thread reads the files ahead in order into memory, so reads are sequential on disk. The parse
+ *     stage runs on the given executor, several files may be parsed in parallel, a direct executor parses them one
+ *     after the other in the reader thread. The results are applied in the order of the files in the calling thread.
+ *     At most {@link #READ_AHEAD} files of together at most {@link #READ_AHEAD_BYTES} bytes on disk are read or parsed
+ *     but not yet applied, which bounds the memory used. A larger file is read alone. Loading many files takes about
+ *     the time of the slowest stage instead of the sum of all stages.
+ * </p>
+ * <p>
+ *     A single file is read directly from its stream in the calling thread, the stream is open while the result
+ *     is applied. If a stage fails, the files not yet read are not read anymore and the exception is thrown by
+ *     {@link #forEach}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class FilePipeline {
+    interface Parser<T> {
+        T parse(InputStream in) throws IOException;
+    }
+
+    interface Applier<T> {
+        void apply(PermaFile file, T parsed) throws IOException;
+    }
+
+    static final int READ_AHEAD = Math.max(2, Runtime.getRuntime().availableProcessors());
+    static final long READ_AHEAD_BYTES = 64L << 20;
+
+    private static final ExecutorService READER = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("perma-read-ahead-%d").build());
+
+    private FilePipeline() {
+    }
+
+    static <T> void forEach(List<PermaFile> files,
+                            Parser<T> parser,
+                            Executor parseExecutor,
+                            Applier<T> applier) throws IOException {
+        if (files.size() < 2) {
+            for (PermaFile file : files) {
+                file.withInputStream(in -> {
+                    applier.apply(file, parser.parse(in));
+                    return file;
+                });
+            }
+            return;
+        }
+        Deque<CompletableFuture<byte[]>> reads = new ArrayDeque<>();
+        Deque<CompletableFuture<T>> parsed = new ArrayDeque<>();
+        Deque<Long> lengths = new ArrayDeque<>();
+        CompletableFuture<byte[]> lastRead = CompletableFuture.completedFuture(null);
+        long aheadBytes = 0;
+        int next = 0;
+        try {
+            for (PermaFile file : files) {
+                while (next < files.size() && parsed.size() < READ_AHEAD &&
+                        (parsed.isEmpty() || aheadBytes + files.get(next).length() <= READ_AHEAD_BYTES)) {
+                    PermaFile ahead = files.get(next++);
+                    long length = ahead.length();
+                    aheadBytes += length;
+                    lengths.addLast(length);
+                    lastRead = lastRead.thenApplyAsync(previous -> readFully(ahead), READER);
+                    reads.addLast(lastRead);
+                    parsed.addLast(lastRead.thenApplyAsync(bytes -> parse(parser, bytes), parseExecutor));
+                }
+                reads.removeFirst();
+                applier.apply(file, get(parsed.removeFirst()));
+                aheadBytes -= lengths.removeFirst();
+            }
+        }
+        finally {
+            // a cancelled read stops all reads chained after it
+            reads.forEach(read -> read.cancel(false));
+        }
+    }
+
+    private static byte[] readFully(PermaFile file) {
+        try {
+            return file.withInputStream(ByteStreams::toByteArray);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T parse(Parser<T> parser, byte[] bytes) {
+        try {
+            return parser.parse(new ByteArrayInputStream(bytes));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the result of the stage, rethrowing its exception
+     */
+    static <T> T get(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading files");
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -4,13 +4,13 @@
 
 package ch.sbb.perma.datastore;
 
+import ch.sbb.perma.serializers.ReadBuffer;
+
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.UUID;
-import java.util.zip.CRC32;
 
 import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING;
 
@@ -36,13 +36,18 @@ class Header {
         }
 
         static FileType of(int byteValue) {
-            return Arrays.stream(Header.FileType.values())
-                    .filter(type -> type.byteValue == byteValue)
-                    .findFirst()
-                    .orElseThrow(() -> new InvalidDataException(String.format("Invalid FileType byte code: %d", byteValue)));
+            switch (byteValue) {
+                case 0:
+                    return FULL;
+                case 1:
+                    return DELTA;
+                default:
+                    throw new InvalidDataException(String.format("Invalid FileType byte code: %d", byteValue));
+            }
         }
     }
 
+    private final short version;
     private final FileType fileType;
     private final UUID fullFileUUID;
     private final int updateFileNumber;
@@ -50,6 +55,11 @@ class Header {
     private final String name;
 
     private Header(FileType fileType, UUID fullFileUUID, int updateFileNumber, int size, String name) {
+        this(VERSION, fileType, fullFileUUID, updateFileNumber, size, name);
+    }
+
+    private Header(short version, FileType fileType, UUID fullFileUUID, int updateFileNumber, int size, String name) {
+        this.version = version;
         this.fileType = fileType;
         this.fullFileUUID = fullFileUUID;
         this.updateFileNumber = updateFileNumber;
@@ -66,37 +76,43 @@ class Header {
     }
 
     void writeTo(OutputStream out) throws IOException {
-        new BinaryWriter(out).write(FILE_MARKER);
-        BinaryWriter writerWithChecksum = new BinaryWriter(out, new CRC32());
-        writerWithChecksum.writeShort(VERSION);
-        writerWithChecksum.writeByte(fileType.byteValue);
-        writerWithChecksum.writeLong(fullFileUUID.getMostSignificantBits());
-        writerWithChecksum.writeLong(fullFileUUID.getLeastSignificantBits());
-        writerWithChecksum.writeInt(updateFileNumber);
-        writerWithChecksum.writeWithLength(STRING.toByteArray(name));
-        writerWithChecksum.writeInt(size);
-        writerWithChecksum.writeChecksum();
-    }
-
-    static Header readFrom(InputStream in) throws IOException {
-        byte[] marker = new BinaryReader(in).read(FILE_MARKER.length);
+        BinaryEncoder encoder = new BinaryEncoder(out);
+        writeTo(encoder);
+        encoder.flush();
+    }
+
+    void writeTo(BinaryEncoder encoder) throws IOException {
+        encoder.write(FILE_MARKER);
+        encoder.beginChecksum();
+        encoder.writeShort(VERSION);
+        encoder.writeByte(fileType.byteValue);
+        encoder.writeLong(fullFileUUID.getMostSignificantBits());
+        encoder.writeLong(fullFileUUID.getLeastSignificantBits());
+        encoder.writeInt(updateFileNumber);
+        encoder.writeWithLength(STRING, name);
+        encoder.writeInt(size);
+        encoder.writeChecksum();
+    }
+
+    static Header readFrom(BinaryDecoder decoder) throws IOException {
+        byte[] marker = decoder.read(FILE_MARKER.length);
         if(!Arrays.equals(marker, FILE_MARKER)) {
             throw new InvalidDataException(String.format("Not am Writable file, file marker invalid: %s", new String(marker,UTF_8)));
         }
-        BinaryReader readerWithChecksum = new BinaryReader(in, new CRC32());
-        readerWithChecksum.readShort(); // version is ignored for now
-        FileType fileType = FileType.of(readerWithChecksum.readByte());
-        UUID uuid = new UUID(readerWithChecksum.readLong(),
-                             readerWithChecksum.readLong());
-        int updateFileNumber = readerWithChecksum.readInt();
-        String name = STRING.fromByteArray(readerWithChecksum.readWithLength());
-        int size = readerWithChecksum.readInt();
-        if(!readerWithChecksum.readAndCheckChecksum()) {
+        decoder.beginChecksum();
+        short version = decoder.readShort(); // version is not checked for now
+        FileType fileType = FileType.of(decoder.readByte());
+        UUID uuid = new UUID(decoder.readLong(),
+                             decoder.readLong());
+        int updateFileNumber = decoder.readInt();
+        String name = STRING.readFrom(decoder.readWithLength(new ReadBuffer()));
+        int size = decoder.readInt();
+        if(!decoder.readAndCheckChecksum()) {
             throw new InvalidDataException(
                     String.format("Checksum mismatch in File header of header with name %.999s and uuid %s",
                                     name, uuid));
         }
-        return new Header(fileType, uuid, updateFileNumber, size, name);
+        return new Header(version, fileType, uuid, updateFileNumber, size, name);
     }
 
     boolean isFullFile() {
@@ -117,6 +133,26 @@ class Header {
         return mapDataSize == this.size;
     }
 
+    int size() {
+        return size;
+    }
+
+    short version() {
+        return version;
+    }
+
+    UUID fullFileUUID() {
+        return fullFileUUID;
+    }
+
+    int updateFileNumber() {
+        return updateFileNumber;
+    }
+
+    String name() {
+        return name;
+    }
+
     @Override
     public String toString() {
         return "Header{" +
@@ -10,13 +10,14 @@ package ch.sbb.perma.datastore;
  *     <li>Invalid file or record marker</li>
  *     <li>CRC32 Checksum error in file header</li>
  *     <li>CRC32 Checksum error in record header</li>
+ *     <li>Invalid binary form of a key or value, thrown by serializers</li>
  * </ul>
  *
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
 public class InvalidDataException extends PermaDatastoreException {
-    InvalidDataException(String s) {
+    public InvalidDataException(String s) {
         super(s);
     }
 }
@@ -4,55 +4,58 @@
 
 package ch.sbb.perma.datastore;
 
+import ch.sbb.perma.serializers.BufferSerializer;
 import ch.sbb.perma.serializers.KeyOrValueSerializer;
+import ch.sbb.perma.serializers.NullValueSerializer;
+import ch.sbb.perma.serializers.ReadBuffer;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.zip.CRC32;
 
 /**
  * A single record for a map entry.
+ * <p>
+ *     Files are read and written with the static methods working on {@link BinaryDecoder} and {@link BinaryEncoder},
+ *     which do not create a record object per entry. Sets write key only records without a value length,
+ *     read as records with a null value.
+ * </p>
  *
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
 class MapEntryRecord<K,V> {
     private abstract static class RecordType {
-        private final static Set <RecordType> values = new HashSet<>();
+        private final static RecordType[] values = new RecordType[4];
         private final byte byteValue;
+        private final boolean hasValue;
 
-        RecordType(int byteValue) {
+        RecordType(int byteValue, boolean hasValue) {
             this.byteValue = (byte) byteValue;
-            values.add(this);
+            this.hasValue = hasValue;
+            values[byteValue] = this;
         }
 
         static MapEntryRecord.RecordType of(int byteValue) {
-            return RecordType.values
-                    .stream()
-                    .filter(type -> type.byteValue == byteValue)
-                    .findFirst()
-                    .orElseThrow(() -> new InvalidDataException(String.format("Invalid RecordType byte code: %d", byteValue)));
+            if (byteValue < 0 || byteValue >= values.length) {
+                throw new InvalidDataException(String.format("Invalid RecordType byte code: %d", byteValue));
+            }
+            return values[byteValue];
         }
 
         abstract <K, V> void addRecordTo(MapEntryRecord<K,V> record,
                                   ImmutableMap.Builder<K, V> addedUpdatedEntries,
                                   ImmutableSet.Builder<K> deletedEntries);
 
-        abstract <K,V> MapEntryRecord<K,V> createRecord(byte[] keyAsBytes,
-                                                  byte[] valueAsBytes,
-                                                  KeyOrValueSerializer<K> keySerializer,
-                                                  KeyOrValueSerializer<V> valueSerializer);
+        abstract void handle(ReadBuffer key, ReadBuffer value, RecordHandler handler);
+
         @Override
         public String toString() {
             return Byte.toString(byteValue);
         }
     }
-    private final static RecordType NEW_UPDATED = new RecordType(0) {
+    private final static RecordType NEW_UPDATED = new RecordType(0, true) {
         @Override
         <K, V> void addRecordTo(MapEntryRecord<K,V> record,
                                 ImmutableMap.Builder<K, V> addedUpdatedEntries,
@@ -61,17 +64,11 @@ class MapEntryRecord<K,V> {
         }
 
         @Override
-        <K, V> MapEntryRecord<K, V> createRecord(byte[] keyAsBytes,
-                                                 byte[] valueAsBytes,
-                                                 KeyOrValueSerializer<K> keySerializer,
-                                                 KeyOrValueSerializer<V> valueSerializer) {
-            return new MapEntryRecord<>(
-                    keySerializer.fromByteArray(keyAsBytes),
-                    valueSerializer.fromByteArray(valueAsBytes),
-                    this);
+        void handle(ReadBuffer key, ReadBuffer value, RecordHandler handler) {
+            handler.newOrUpdated(key, value);
         }
     };
-    private final static RecordType DELETED = new RecordType(1) {
+    private final static RecordType DELETED = new RecordType(1, true) {
         @Override
         <K, V> void addRecordTo(MapEntryRecord<K,V> record,
                                 ImmutableMap.Builder<K, V> addedUpdatedEntries,
@@ -80,18 +77,37 @@ class MapEntryRecord<K,V> {
         }
 
         @Override
-        <K, V> MapEntryRecord<K, V> createRecord(byte[] keyAsBytes,
-                                                 byte[] valueAsBytes,
-                                                 KeyOrValueSerializer<K> keySerializer,
-                                                 KeyOrValueSerializer<V> valueSerializer) {
-            return new MapEntryRecord<>(
-                    keySerializer.fromByteArray(keyAsBytes),
-                    null,
-                    this);
+        void handle(ReadBuffer key, ReadBuffer value, RecordHandler handler) {
+            handler.deleted(key);
+        }
+    };
+    private final static RecordType KEY_ADDED = new RecordType(2, false) {
+        @Override
+        <K, V> void addRecordTo(MapEntryRecord<K,V> record,
+                                ImmutableMap.Builder<K, V> addedUpdatedEntries,
+                                ImmutableSet.Builder<K> deletedEntries) {
+            addedUpdatedEntries.put(record.key, record.value);
+        }
+
+        @Override
+        void handle(ReadBuffer key, ReadBuffer value, RecordHandler handler) {
+            handler.keyAdded(key);
+        }
+    };
+    private final static RecordType KEY_REMOVED = new RecordType(3, false) {
+        @Override
+        <K, V> void addRecordTo(MapEntryRecord<K,V> record,
+                                ImmutableMap.Builder<K, V> addedUpdatedEntries,
+                                ImmutableSet.Builder<K> deletedEntries) {
+            deletedEntries.add(record.key);
+        }
+
+        @Override
+        void handle(ReadBuffer key, ReadBuffer value, RecordHandler handler) {
+            handler.deleted(key);
         }
     };
     private static final int MARKER = 0xF5;
-    private static final int EOF = -1;
 
     private final K key;
     private final V value;
@@ -111,35 +127,105 @@ class MapEntryRecord<K,V> {
         return new MapEntryRecord<>(key, null, DELETED);
     }
 
-    static <K,V> MapEntryRecord<K,V> readFrom(InputStream in,
-                                              KeyOrValueSerializer<K> keySerializer,
-                                              KeyOrValueSerializer<V> valueSerializer) throws IOException {
-        int marker = new BinaryReader(in).readByte();
-        if (marker == EOF) {
-            return null;
+    /**
+     * Read the next record and pass key and value as views into the decoder buffer to the handler.
+     *
+     * @return false at the end of the file
+     */
+    static boolean readFrom(BinaryDecoder decoder,
+                            RecordHandler handler,
+                            ReadBuffer keyView,
+                            ReadBuffer valueView) throws IOException {
+        int marker = decoder.readByteOrEof();
+        if (marker == BinaryDecoder.EOF) {
+            return false;
         }
         if (marker != MARKER) {
             throw new InvalidDataException(String.format("Invalid record marker: %x", marker));
         }
-        BinaryReader readerWithChecksum = new BinaryReader(in, new CRC32());
-        RecordType recordType = RecordType.of(readerWithChecksum.readByte());
-        byte[] keyAsBytes = readerWithChecksum.readWithLength();
-        byte[] valueAsBytes = readerWithChecksum.readWithLength();
-        if (!readerWithChecksum.readAndCheckChecksum()) {
+        decoder.beginChecksum();
+        RecordType recordType = RecordType.of(decoder.readByte());
+        int keyLength = decoder.readLength();
+        int keyOffset = decoder.skip(keyLength);
+        int valueLength = recordType.hasValue ? decoder.readLength() : BinaryDecoder.NULL_LENGTH;
+        int valueOffset = decoder.skip(valueLength);
+        if (!decoder.readAndCheckChecksum()) {
             throw new InvalidDataException("Record checksum mismatch");
         }
-        return recordType.createRecord(keyAsBytes, valueAsBytes, keySerializer, valueSerializer);
+        recordType.handle(
+                decoder.region(keyOffset, keyLength, keyView),
+                decoder.region(valueOffset, valueLength, valueView),
+                handler);
+        return true;
     }
 
     void writeTo(OutputStream out,
                  KeyOrValueSerializer<K> keySerializer,
                  KeyOrValueSerializer<V> valueSerializer) throws IOException {
-        new BinaryWriter(out).writeByte(MARKER);
-        BinaryWriter writerWithChecksum = new BinaryWriter(out, new CRC32());
-        writerWithChecksum.writeByte(recordType.byteValue);
-        writerWithChecksum.writeWithLength(keySerializer.toByteArray(key));
-        writerWithChecksum.writeWithLength(valueSerializer.toByteArray(value));
-        writerWithChecksum.writeChecksum();
+        BinaryEncoder encoder = new BinaryEncoder(out);
+        write(encoder,
+              recordType,
+              key,
+              value,
+              BufferSerializer.of(keySerializer),
+              BufferSerializer.of(valueSerializer));
+        encoder.flush();
+    }
+
+    /**
+     * Already serialized keys and values are written with the serializers of {@link SerializedBytes}.
+     */
+    static <K,V> void writeNewOrUpdated(BinaryEncoder encoder,
+                                        K key,
+                                        V value,
+                                        BufferSerializer<K> keySerializer,
+                                        BufferSerializer<V> valueSerializer) throws IOException {
+        write(encoder, NEW_UPDATED, key, value, keySerializer, valueSerializer);
+    }
+
+    static <K> void writeDeleted(BinaryEncoder encoder,
+                                 K key,
+                                 BufferSerializer<K> keySerializer) throws IOException {
+        write(encoder, DELETED, key, null, keySerializer, NullValueSerializer.NULL);
+    }
+
+    /**
+     * Key only record of a set, read as a record with a null value.
+     */
+    static <K> void writeKeyAdded(BinaryEncoder encoder, K key, BufferSerializer<K> keySerializer) throws IOException {
+        writeKeyOnly(encoder, KEY_ADDED, key, keySerializer);
+    }
+
+    /**
+     * Key only record of a set, read as a deleted record.
+     */
+    static <K> void writeKeyRemoved(BinaryEncoder encoder, K key, BufferSerializer<K> keySerializer) throws IOException {
+        writeKeyOnly(encoder, KEY_REMOVED, key, keySerializer);
+    }
+
+    private static <K> void writeKeyOnly(BinaryEncoder encoder,
+                                         RecordType recordType,
+                                         K key,
+                                         BufferSerializer<K> keySerializer) throws IOException {
+        encoder.writeByte(MARKER);
+        encoder.beginChecksum();
+        encoder.writeByte(recordType.byteValue);
+        encoder.writeWithLength(keySerializer, key);
+        encoder.writeChecksum();
+    }
+
+    private static <K,V> void write(BinaryEncoder encoder,
+                                    RecordType recordType,
+                                    K key,
+                                    V value,
+                                    BufferSerializer<K> keySerializer,
+                                    BufferSerializer<V> valueSerializer) throws IOException {
+        encoder.writeByte(MARKER);
+        encoder.beginChecksum();
+        encoder.writeByte(recordType.byteValue);
+        encoder.writeWithLength(keySerializer, key);
+        encoder.writeWithLength(valueSerializer, value);
+        encoder.writeChecksum();
     }
 
     void addTo(ImmutableMap.Builder<K, V> addedUpdatedEntries,
@@ -4,15 +4,24 @@
 
 package ch.sbb.perma.datastore;
 
+import ch.sbb.perma.file.Durability;
 import ch.sbb.perma.file.PermaFile;
+import ch.sbb.perma.serializers.BufferSerializer;
 import ch.sbb.perma.serializers.KeyOrValueSerializer;
 import ch.sbb.perma.serializers.NullValueSerializer;
+import ch.sbb.perma.serializers.ReadBuffer;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The binary representation of a map or a delta to a map.
@@ -21,6 +30,8 @@ import java.util.Map;
  * @since 1.0, 2017.
  */
 public class MapFileData<K,V> {
+    private static final Logger LOG = LoggerFactory.getLogger(MapFileData.class);
+
     private final Header header;
     private final ImmutableMap<K,V> newAndUpdated;
     private final ImmutableSet<K> deleted;
@@ -44,20 +55,33 @@ public class MapFileData<K,V> {
                                                                  KeyOrValueSerializer<K> keySerializer,
                                                                  KeyOrValueSerializer<V> valueSerializer,
                                                                  Map<K, V> collector) throws IOException {
+        return readFileGroupAndCollect(fullFile,
+                                       deltaFiles,
+                                       keySerializer,
+                                       valueSerializer,
+                                       collector,
+                                       MoreExecutors.directExecutor());
+    }
+
+    /**
+     * @param parseExecutor parses the delta files, several in parallel unless it is a direct executor
+     */
+    public static <K,V> MapFileData<K,V> readFileGroupAndCollect(PermaFile fullFile,
+                                                                 List<PermaFile> deltaFiles,
+                                                                 KeyOrValueSerializer<K> keySerializer,
+                                                                 KeyOrValueSerializer<V> valueSerializer,
+                                                                 Map<K, V> collector,
+                                                                 Executor parseExecutor) throws IOException {
         MapFileData<K,V> latestData = MapFileData.readFrom(fullFile, keySerializer, valueSerializer)
                     .addTo(collector);
-        if(!latestData.header.isFullFile()) {
-            throw new HeaderMismatchException(
-                    String.format("Invalid header, expected full file header but is %s",
-                                    latestData.header));
-
-        }
+        checkFullFile(latestData.header);
         latestData = readDeltaFilesAndCollect(
                                     deltaFiles,
                                     keySerializer,
                                     valueSerializer,
                                     latestData,
-                                    collector);
+                                    collector,
+                                    parseExecutor);
         return latestData;
     }
 
@@ -65,27 +89,48 @@ public class MapFileData<K,V> {
                                                                      KeyOrValueSerializer<K> keySerializer,
                                                                      KeyOrValueSerializer<V> valueSerializer,
                                                                      MapFileData<K, V> previousData,
-                                                                     Map<K, V> collector) throws IOException {
-        MapFileData<K,V> latestData = previousData;
-        for(PermaFile deltaFile : deltaFiles) {
-            MapFileData<K,V> next = MapFileData
-                    .readFrom(deltaFile, keySerializer, valueSerializer)
-                    .addTo(collector);
-            if (!next.header.isNextDeltaFileOf(latestData.header)) {
-                throw new HeaderMismatchException(
-                        String.format("Invalid header sequence, %s is not next delta of %s",
-                                      next.header, latestData.header));
+                                                                     Map<K, V> collector,
+                                                                     Executor parseExecutor) throws IOException {
+        AtomicReference<MapFileData<K,V>> latestData = new AtomicReference<>(previousData);
+        FilePipeline.<MapFileData<K,V>>forEach(
+                deltaFiles,
+                in -> MapFileData.readFrom(in, keySerializer, valueSerializer),
+                parseExecutor,
+                (deltaFile, next) -> {
+                    file(deltaFile, next).addTo(collector);
+                    checkNextDelta(latestData.get().header, next.header);
+                    latestData.set(next);
+                });
+        return latestData.get();
+    }
+
+    static void checkFullFile(Header header) {
+        if(!header.isFullFile()) {
+            throw new HeaderMismatchException(
+                    String.format("Invalid header, expected full file header but is %s",
+                                    header));
+
+        }
+    }
+
+    static void checkNextDelta(Header previous, Header next) {
+        if (!next.isNextDeltaFileOf(previous)) {
+            throw new HeaderMismatchException(
+                    String.format("Invalid header sequence, %s is not next delta of %s",
+                                  next, previous));
 
-            }
-            latestData = next;
         }
-        return latestData;
     }
 
     private static <K,V> MapFileData<K,V> readFrom(PermaFile file,
                                                    KeyOrValueSerializer<K> keySerializer,
                                                    KeyOrValueSerializer<V> valueSerializer) throws IOException {
-        return file.withInputStream(in -> readFrom(in, keySerializer, valueSerializer));
+        return file(file, file.withInputStream(in -> readFrom(in, keySerializer, valueSerializer)));
+    }
+
+    private static <K,V> MapFileData<K,V> file(PermaFile file, MapFileData<K,V> data) {
+        file.countRecords(data.header.size());
+        return data;
     }
 
     static <K,V> MapFileData<K,V> readFrom(InputStream input,
@@ -93,57 +138,172 @@ public class MapFileData<K,V> {
                                            KeyOrValueSerializer<V> valueSerializer) throws IOException {
         ImmutableMap.Builder<K,V> newOrUpdated = new ImmutableMap.Builder<>();
         ImmutableSet.Builder<K> deleted = new ImmutableSet.Builder<>();
-        try (BufferedInputStream in = new BufferedInputStream(input)) {
-            Header header = Header.readFrom(in);
-            int count = 0;
-            while (true) {
-                MapEntryRecord<K,V> record = MapEntryRecord.readFrom(in, keySerializer, valueSerializer);
-                if (record == null) {
-                    break; // EOF
+        BufferSerializer<K> keyBufferSerializer = BufferSerializer.of(keySerializer);
+        BufferSerializer<V> valueBufferSerializer = BufferSerializer.of(valueSerializer);
+        RecordHandler collector = new RecordHandler() {
+            @Override
+            public void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+                newOrUpdated.put(keyBufferSerializer.readFrom(key), valueBufferSerializer.readFrom(value));
+            }
+
+            @Override
+            public void deleted(ReadBuffer key) {
+                deleted.add(keyBufferSerializer.readFrom(key));
+            }
+
+            @Override
+            public void keyAdded(ReadBuffer key) {
+                if (valueBufferSerializer != NullValueSerializer.NULL) {
+                    throw new HeaderMismatchException(String.format(
+                            "Key only record of a set, a set is only readable as map with the NULL value serializer, not %s",
+                            valueSerializer.getClass().getName()));
                 }
-                record.addTo(newOrUpdated, deleted);
+                newOrUpdated(key, null);
+            }
+        };
+        Header header = readRecords(input, collector);
+        return new MapFileData<>(header, newOrUpdated.build(), deleted.build());
+    }
+
+    /**
+     * Read the header and pass all records to the handler.
+     */
+    static Header readRecords(InputStream input, RecordHandler handler) throws IOException {
+        ReadBuffer keyView = new ReadBuffer();
+        ReadBuffer valueView = new ReadBuffer();
+        try (InputStream in = input) {
+            BinaryDecoder decoder = new BinaryDecoder(in);
+            Header header = Header.readFrom(decoder);
+            int count = 0;
+            while (MapEntryRecord.readFrom(decoder, handler, keyView, valueView)) {
                 count++;
             }
             if(!header.hasSize(count)) {
                 throw new HeaderMismatchException("Invalid size, mismatch between header and stored size");
             }
-            return new MapFileData<>(header, newOrUpdated.build(), deleted.build());
+            return header;
+        }
+    }
+
+    /**
+     * Compact a full file and its deltas to a new full file by copying the serialized records, no serializer is used.
+     * <p>
+     *     Keys are compared by their serialized bytes. If the number of merged records does not match the size of
+     *     the current map (e.g. a serializer writes equal keys differently), a warning is logged and the temp file
+     *     is left to be cleaned up by the next write.
+     * </p>
+     *
+     * @param current the map stored in the full file and the delta files
+     * @return the data of the new full file or empty if nothing was written
+     */
+    public static <K,V> Optional<MapFileData<K,V>> compactRaw(String name,
+                                                             PermaFile fullFile,
+                                                             List<PermaFile> deltaFiles,
+                                                             ImmutableMap<K,V> current,
+                                                             PermaFile targetFile,
+                                                             Durability durability) throws IOException {
+        RawCompaction compaction = new RawCompaction();
+        compaction.merge(fullFile, deltaFiles);
+        MapFileData<K,V> fullData = createNewFull(name, current);
+        try {
+            targetFile.withOutputStream(durability, out -> {
+                compaction.writeTo(out, fullData.header);
+                return fullData;
+            });
+        }
+        catch (HeaderMismatchException e) {
+            if (!compaction.sizeMismatch()) {
+                throw e;
+            }
+            LOG.warn("Raw compaction of {} merged {} records, but the map has {} entries, nothing was written",
+                     name, compaction.written(), current.size());
+            return Optional.empty();
         }
+        targetFile.countRecords(compaction.written());
+        return Optional.of(fullData);
     }
 
     public MapFileData<K,V> updateWithDeltasAndCollect(List<PermaFile> additionalDeltaFiles,
                                                        KeyOrValueSerializer<K> keySerializer,
                                                        KeyOrValueSerializer<V> valueSerializer,
                                                        Map<K,V> collector) throws IOException {
+        return updateWithDeltasAndCollect(additionalDeltaFiles,
+                                          keySerializer,
+                                          valueSerializer,
+                                          collector,
+                                          MoreExecutors.directExecutor());
+    }
+
+    /**
+     * @param parseExecutor parses the delta files, several in parallel unless it is a direct executor
+     */
+    public MapFileData<K,V> updateWithDeltasAndCollect(List<PermaFile> additionalDeltaFiles,
+                                                       KeyOrValueSerializer<K> keySerializer,
+                                                       KeyOrValueSerializer<V> valueSerializer,
+                                                       Map<K,V> collector,
+                                                       Executor parseExecutor) throws IOException {
         return readDeltaFilesAndCollect(additionalDeltaFiles,
                                         keySerializer,
                                         valueSerializer,
                                         this,
-                                        collector);
+                                        collector,
+                                        parseExecutor);
     }
 
     public MapFileData<K,V> writeTo(PermaFile targetFile,
                                     KeyOrValueSerializer<K> keySerializer,
                                     KeyOrValueSerializer<V> valueSerializer) throws IOException {
-        return targetFile.withOutputStream(out -> writeTo(out, keySerializer, valueSerializer));
+        return writeTo(targetFile, Durability.NONE, keySerializer, valueSerializer);
+    }
+
+    public MapFileData<K,V> writeTo(PermaFile targetFile,
+                                    Durability durability,
+                                    KeyOrValueSerializer<K> keySerializer,
+                                    KeyOrValueSerializer<V> valueSerializer) throws IOException {
+        return writeTo(targetFile, durability, keySerializer, valueSerializer, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * @param serializeExecutor serializes batches of records of large maps in parallel unless it is a direct executor
+     */
+    public MapFileData<K,V> writeTo(PermaFile targetFile,
+                                    Durability durability,
+                                    KeyOrValueSerializer<K> keySerializer,
+                                    KeyOrValueSerializer<V> valueSerializer,
+                                    Executor serializeExecutor) throws IOException {
+        targetFile.withOutputStream(durability, out -> writeTo(out, keySerializer, valueSerializer, serializeExecutor));
+        targetFile.countRecords(header.size());
+        return this;
     }
 
     MapFileData<K,V> writeTo(OutputStream output,
                              KeyOrValueSerializer<K> keySerializer,
                              KeyOrValueSerializer<V> valueSerializer) throws IOException {
-        try (OutputStream out = new BufferedOutputStream(output)) {
-            header.writeTo(out);
-            for(Map.Entry<K,V> entry : newAndUpdated.entrySet()) {
-                MapEntryRecord
-                        .newOrUpdated(entry.getKey(), entry.getValue())
-                        .writeTo(out, keySerializer, valueSerializer);
-            }
+        return writeTo(output, keySerializer, valueSerializer, MoreExecutors.directExecutor());
+    }
+
+    MapFileData<K,V> writeTo(OutputStream output,
+                             KeyOrValueSerializer<K> keySerializer,
+                             KeyOrValueSerializer<V> valueSerializer,
+                             Executor serializeExecutor) throws IOException {
+        BufferSerializer<K> keyBufferSerializer = BufferSerializer.of(keySerializer);
+        BufferSerializer<V> valueBufferSerializer = BufferSerializer.of(valueSerializer);
+        try (OutputStream out = output) {
+            BinaryEncoder encoder = new BinaryEncoder(out);
+            header.writeTo(encoder);
+            WritePipeline.write(
+                    newAndUpdated.entrySet().asList(),
+                    (entryEncoder, entry) -> MapEntryRecord.writeNewOrUpdated(entryEncoder,
+                                                                              entry.getKey(),
+                                                                              entry.getValue(),
+                                                                              keyBufferSerializer,
+                                                                              valueBufferSerializer),
+                    serializeExecutor,
+                    encoder);
             for(K deleted : deleted) {
-                MapEntryRecord
-                        .deleted(deleted)
-                        .writeTo(out, keySerializer, NullValueSerializer.NULL);
+                MapEntryRecord.writeDeleted(encoder, deleted, keyBufferSerializer);
             }
-            out.flush();
+            encoder.flush();
             if(!header.hasSize(newAndUpdated.size() + deleted.size())) {
                 throw new HeaderMismatchException("Invalid size, mismatch between header and stored size");
             }
@@ -151,6 +311,17 @@ public class MapFileData<K,V> {
         return this;
     }
 
+    /**
+     * @return the number of new and updated entries, 0 if they are the given map (written as full file)
+     */
+    public int newAndUpdatedBesides(ImmutableMap<K,V> map) {
+        return newAndUpdated == map ? 0 : newAndUpdated.size();
+    }
+
+    public int deletedSize() {
+        return deleted.size();
+    }
+
     public MapFileData<K,V> nextDelta(ImmutableMap<K,V> newAndUpdated, ImmutableSet<K> deleted) {
         return new MapFileData<>(
                         header.nextDelta(newAndUpdated.size() + deleted.size()),
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.datastore;
+
+import ch.sbb.perma.file.PermaFile;
+import ch.sbb.perma.serializers.ReadBuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static ch.sbb.perma.datastore.SerializedBytes.BYTE_ARRAY;
+import static ch.sbb.perma.datastore.SerializedBytes.READ_BUFFER;
+
+/**
+ * Merge a full file and its delta files into the records of a new full file without deserializing them.
+ * <p>
+ *     Keys are identified by their serialized bytes. Only the changes of the delta files are held in memory, the
+ *     records of the full file are streamed: unchanged records are copied as they are, changed ones are replaced by
+ *     the value of the delta files, deleted ones are dropped. The keys added by the delta files follow.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+class RawCompaction {
+    private static final byte[] DELETED = new byte[0];
+
+    private final Map<ByteBuffer, byte[]> changes = new LinkedHashMap<>();
+    private final RecordHandler collector = new RecordHandler() {
+        @Override
+        public void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+            changes.put(ByteBuffer.wrap(copy(key)), value != null ? copy(value) : null);
+        }
+
+        @Override
+        public void deleted(ReadBuffer key) {
+            changes.put(ByteBuffer.wrap(copy(key)), DELETED);
+        }
+    };
+    private PermaFile fullFile;
+    private int written;
+    private boolean sizeMismatch;
+
+    /**
+     * Check the headers of the files and collect the changes of the delta files.
+     */
+    void merge(PermaFile fullFile, List<PermaFile> deltaFiles) throws IOException {
+        this.fullFile = fullFile;
+        Header latestHeader = fullFile.withInputStream(in -> Header.readFrom(new BinaryDecoder(in)));
+        MapFileData.checkFullFile(latestHeader);
+        for (PermaFile deltaFile : deltaFiles) {
+            Header next = deltaFile.withInputStream(in -> MapFileData.readRecords(in, collector));
+            MapFileData.checkNextDelta(latestHeader, next);
+            latestHeader = next;
+        }
+    }
+
+    /**
+     * @return the records written by the last {@link #writeTo(OutputStream, Header)}
+     */
+    int written() {
+        return written;
+    }
+
+    /**
+     * @return true if the last {@link #writeTo(OutputStream, Header)} failed as the merged records did not match the
+     *         size of the header, e.g. as a serializer writes equal keys differently
+     */
+    boolean sizeMismatch() {
+        return sizeMismatch;
+    }
+
+    /**
+     * @throws HeaderMismatchException if the number of records written does not match the size of the header
+     */
+    void writeTo(OutputStream output, Header header) throws IOException {
+        written = 0;
+        sizeMismatch = false;
+        try (OutputStream out = output) {
+            BinaryEncoder encoder = new BinaryEncoder(out);
+            header.writeTo(encoder);
+            Map<ByteBuffer, byte[]> pending = new LinkedHashMap<>(changes);
+            try {
+                fullFile.withInputStream(in -> MapFileData.readRecords(in, new RecordHandler() {
+                    @Override
+                    public void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+                        ByteBuffer keyBytes = ByteBuffer.wrap(key.array(), key.position(), key.remaining());
+                        try {
+                            if (!pending.containsKey(keyBytes)) {
+                                MapEntryRecord.writeNewOrUpdated(encoder, key, value, READ_BUFFER, READ_BUFFER);
+                                written++;
+                                return;
+                            }
+                            byte[] changed = pending.remove(keyBytes);
+                            if (changed != DELETED) {
+                                MapEntryRecord.writeNewOrUpdated(encoder, key, changed, READ_BUFFER, BYTE_ARRAY);
+                                written++;
+                            }
+                        }
+                        catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+
+                    @Override
+                    public void deleted(ReadBuffer key) {
+                        // full files have no deletes
+                    }
+                }));
+            }
+            catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            for (Map.Entry<ByteBuffer, byte[]> added : pending.entrySet()) {
+                if (added.getValue() != DELETED) {
+                    MapEntryRecord.writeNewOrUpdated(encoder, added.getKey().array(), added.getValue(), BYTE_ARRAY, BYTE_ARRAY);
+                    written++;
+                }
+            }
+            encoder.flush();
+            if (!header.hasSize(written)) {
+                sizeMismatch = true;
+                throw new HeaderMismatchException("Invalid size, mismatch between header and stored size");
+            }
+        }
+    }
+
+    private static byte[] copy(ReadBuffer buffer) {
+        return Arrays.copyOfRange(buffer.array(), buffer.position(), buffer.position() + buffer.remaining());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.datastore;
+
+import ch.sbb.perma.file.Durability;
+import ch.sbb.perma.file.PermaFile;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * A full file and its delta files read or written record by record, for in-memory representations other than a map.
+ * <p>
+ *     Only the header of the latest file is kept, to check and create the next delta. The records are passed to a
+ *     {@link RecordHandler} on read and written by a {@link RecordSource}, the file format is the same as the one of
+ *     {@link MapFileData}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class RecordFileSequence {
+    /**
+     * Writes all records of a file.
+     */
+    public interface RecordSource {
+        void writeTo(RecordWriter writer) throws IOException;
+    }
+
+    private final Header header;
+
+    private RecordFileSequence(Header header) {
+        this.header = header;
+    }
+
+    public static RecordFileSequence readFileGroup(PermaFile fullFile,
+                                                   List<PermaFile> deltaFiles,
+                                                   RecordHandler handler) throws IOException {
+        Header fullHeader = read(fullFile, handler);
+        MapFileData.checkFullFile(fullHeader);
+        return new RecordFileSequence(fullHeader).readDeltas(deltaFiles, handler);
+    }
+
+    public RecordFileSequence readDeltas(List<PermaFile> deltaFiles, RecordHandler handler) throws IOException {
+        Header[] latestHeader = {header};
+        FilePipeline.forEach(
+                deltaFiles,
+                in -> in,
+                MoreExecutors.directExecutor(),
+                (deltaFile, in) -> {
+                    Header next = MapFileData.readRecords(in, handler);
+                    deltaFile.countRecords(next.size());
+                    MapFileData.checkNextDelta(latestHeader[0], next);
+                    latestHeader[0] = next;
+                });
+        return new RecordFileSequence(latestHeader[0]);
+    }
+
+    /**
+     * @param size the number of records the source writes
+     */
+    public static RecordFileSequence writeFull(String name,
+                                               int size,
+                                               PermaFile targetFile,
+                                               Durability durability,
+                                               RecordSource source) throws IOException {
+        return write(Header.newFullHeader(name, size), targetFile, durability, source);
+    }
+
+    /**
+     * @param size the number of records the source writes
+     */
+    public RecordFileSequence writeDelta(int size,
+                                         PermaFile targetFile,
+                                         Durability durability,
+                                         RecordSource source) throws IOException {
+        return write(header.nextDelta(size), targetFile, durability, source);
+    }
+
+    private static Header read(PermaFile file, RecordHandler handler) throws IOException {
+        Header header = file.withInputStream(in -> MapFileData.readRecords(in, handler));
+        file.countRecords(header.size());
+        return header;
+    }
+
+    private static RecordFileSequence write(Header header,
+                                            PermaFile targetFile,
+                                            Durability durability,
+                                            RecordSource source) throws IOException {
+        targetFile.withOutputStream(durability, output -> {
+            try (OutputStream out = output) {
+                BinaryEncoder encoder = new BinaryEncoder(out);
+                header.writeTo(encoder);
+                RecordWriter writer = new RecordWriter(encoder);
+                source.writeTo(writer);
+                encoder.flush();
+                if (!header.hasSize(writer.count())) {
+                    throw new HeaderMismatchException("Invalid size, mismatch between header and stored size");
+                }
+            }
+            return header;
+        });
+        targetFile.countRecords(header.size());
+        return new RecordFileSequence(header);
+    }
+
+    @Override
+    public String toString() {
+        return "RecordFileSequence{" +
+                "header=" + header +
+                '}';
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.datastore;
+
+import ch.sbb.perma.serializers.ReadBuffer;
+
+/**
+ * Receives the records of a perma file in their binary form, without creating an object per record.
+ * <p>
+ *     The buffers are only valid during the call, they are reused for the next record.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public interface RecordHandler {
+
+    /**
+     * @param value the binary value or null if the value was serialized to null
+     */
+    void newOrUpdated(ReadBuffer key, ReadBuffer value);
+
+    void deleted(ReadBuffer key);
+
+    /**
+     * A key only record of a set, by default handled as new or updated with a null value.
+     */
+    default void keyAdded(ReadBuffer key) {
+        newOrUpdated(key, null);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.datastore;
+
+import ch.sbb.perma.serializers.BufferSerializer;
+import ch.sbb.perma.serializers.WriteBuffer;
+
+import java.io.IOException;
+
+import static ch.sbb.perma.datastore.SerializedBytes.WRITE_BUFFER;
+
+/**
+ * Writes the records of a perma file, either serializing keys and values or with already serialized keys and values.
+ * <p>
+ *     Serializing primitives directly into reusable {@link WriteBuffer}s avoids boxing. Maps write new or updated and
+ *     deleted records, sets write the smaller key only added and removed records.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class RecordWriter {
+    private final BinaryEncoder encoder;
+    private int count;
+
+    RecordWriter(BinaryEncoder encoder) {
+        this.encoder = encoder;
+    }
+
+    /**
+     * @param value the serialized value or null if the value is serialized to null
+     */
+    public void newOrUpdated(WriteBuffer key, WriteBuffer value) throws IOException {
+        MapEntryRecord.writeNewOrUpdated(encoder, key, value, WRITE_BUFFER, WRITE_BUFFER);
+        count++;
+    }
+
+    public <K,V> void newOrUpdated(K key,
+                                   V value,
+                                   BufferSerializer<K> keySerializer,
+                                   BufferSerializer<V> valueSerializer) throws IOException {
+        MapEntryRecord.writeNewOrUpdated(encoder, key, value, keySerializer, valueSerializer);
+        count++;
+    }
+
+    public void deleted(WriteBuffer key) throws IOException {
+        MapEntryRecord.writeDeleted(encoder, key, WRITE_BUFFER);
+        count++;
+    }
+
+    public <K> void deleted(K key, BufferSerializer<K> keySerializer) throws IOException {
+        MapEntryRecord.writeDeleted(encoder, key, keySerializer);
+        count++;
+    }
+
+    /**
+     * Key only record of a set, read as a record with a null value.
+     */
+    public void added(WriteBuffer key) throws IOException {
+        MapEntryRecord.writeKeyAdded(encoder, key, WRITE_BUFFER);
+        count++;
+    }
+
+    public <K> void added(K key, BufferSerializer<K> keySerializer) throws IOException {
+        MapEntryRecord.writeKeyAdded(encoder, key, keySerializer);
+        count++;
+    }
+
+    /**
+     * Key only record of a set, read as a deleted record.
+     */
+    public void removed(WriteBuffer key) throws IOException {
+        MapEntryRecord.writeKeyRemoved(encoder, key, WRITE_BUFFER);
+        count++;
+    }
+
+    public <K> void removed(K key, BufferSerializer<K> keySerializer) throws IOException {
+        MapEntryRecord.writeKeyRemoved(encoder, key, keySerializer);
+        count++;
+    }
+
+    int count() {
+        return count;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.datastore;
+
+import ch.sbb.perma.serializers.BufferSerializer;
+import ch.sbb.perma.serializers.ReadBuffer;
+import ch.sbb.perma.serializers.WriteBuffer;
+
+/**
+ * Serializers writing keys or values which are already serialized, so records of serialized and of not yet serialized
+ * keys and values are written by the same methods. They are write only, null is written as null.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class SerializedBytes {
+    static final BufferSerializer<byte[]> BYTE_ARRAY = new WriteOnly<byte[]>() {
+        @Override
+        public boolean writeTo(byte[] bytes, WriteBuffer out) {
+            if (bytes == null) {
+                return false;
+            }
+            out.write(bytes);
+            return true;
+        }
+    };
+
+    static final BufferSerializer<ReadBuffer> READ_BUFFER = new WriteOnly<ReadBuffer>() {
+        @Override
+        public boolean writeTo(ReadBuffer bytes, WriteBuffer out) {
+            if (bytes == null) {
+                return false;
+            }
+            out.write(bytes.array(), bytes.position(), bytes.remaining());
+            return true;
+        }
+    };
+
+    static final BufferSerializer<WriteBuffer> WRITE_BUFFER = new WriteOnly<WriteBuffer>() {
+        @Override
+        public boolean writeTo(WriteBuffer bytes, WriteBuffer out) {
+            if (bytes == null) {
+                return false;
+            }
+            out.write(bytes.array(), 0, bytes.length());
+            return true;
+        }
+    };
+
+    private SerializedBytes() {
+    }
+
+    private abstract static class WriteOnly<T> implements BufferSerializer<T> {
+        @Override
+        public T readFrom(ReadBuffer in) {
+            throw new UnsupportedOperationException("Serialized bytes are only written");
+        }
+    }
+}
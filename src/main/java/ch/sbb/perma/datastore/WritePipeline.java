@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.datastore;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Write many records by serializing batches of them in parallel and appending the batches in order.
+ * <p>
+ *     Each batch is serialized and framed with its record checksums by a worker of the executor into its own
+ *     buffer. The calling thread is the only writer: it appends the buffers to the encoder in the order of the
+ *     batches, so the file is the same as written sequentially. At most {@link #IN_FLIGHT} batches are serialized but
+ *     not yet written, which bounds the memory used. Writing is bounded by the slower of the disk and all workers
+ *     together instead of a single serializing thread.
+ * </p>
+ * <p>
+ *     Fewer than two batches of records, or all records if the executor is a direct executor, are written directly
+ *     by the calling thread in order.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class WritePipeline {
+    interface RecordWriter<T> {
+        void write(BinaryEncoder encoder, T item) throws IOException;
+    }
+
+    static final int BATCH_SIZE = 4096;
+    static final int IN_FLIGHT = Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+
+    private WritePipeline() {
+    }
+
+    static <T> void write(List<T> items,
+                          RecordWriter<T> writer,
+                          Executor executor,
+                          BinaryEncoder encoder) throws IOException {
+        if (items.size() < 2 * BATCH_SIZE || executor == MoreExecutors.directExecutor()) {
+            for (T item : items) {
+                writer.write(encoder, item);
+            }
+            return;
+        }
+        Deque<CompletableFuture<ByteArrayOutputStream>> batches = new ArrayDeque<>();
+        try {
+            for (int from = 0; from < items.size(); from += BATCH_SIZE) {
+                if (batches.size() == IN_FLIGHT) {
+                    encoder.writeBlock(FilePipeline.get(batches.removeFirst()));
+                }
+                List<T> batch = items.subList(from, Math.min(from + BATCH_SIZE, items.size()));
+                batches.addLast(CompletableFuture.supplyAsync(() -> serialize(batch, writer), executor));
+            }
+            while (!batches.isEmpty()) {
+                encoder.writeBlock(FilePipeline.get(batches.removeFirst()));
+            }
+        }
+        finally {
+            batches.forEach(batch -> batch.cancel(false));
+        }
+    }
+
+    private static <T> ByteArrayOutputStream serialize(List<T> batch, RecordWriter<T> writer) {
+        ByteArrayOutputStream block = new ByteArrayOutputStream(64 * batch.size());
+        BinaryEncoder encoder = new BinaryEncoder(block);
+        try {
+            for (T item : batch) {
+                writer.write(encoder, item);
+            }
+            encoder.flush();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return block;
+    }
+}
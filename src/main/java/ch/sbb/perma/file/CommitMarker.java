@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.file;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.util.concurrent.Striped;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+
+/**
+ * The committed files of each perma of a commit group, published atomically by a single rename.
+ * <p>
+ *     The marker is the text file <code>&lt;group&gt;.commit</code> in the directory of the permas:
+ * </p>
+ * <pre>
+ * commit 42
+ * lines 3 -
+ * stations 2 1,2,3
+ * </pre>
+ * <p>
+ *     Each line after the commit number has the name, the full file number and the exact delta file numbers of a
+ *     perma, - if it has no delta files. The numbers are the last two fields, so names may contain spaces. Files not
+ *     listed are not committed and are ignored by readers of the group.
+ * </p>
+ * <p>
+ *     The next marker is written under the lock of the group, the file <code>&lt;group&gt;.commit.lock</code>, so
+ *     commits of several processes or instances do not lose each other's files. Readers refreshing several permas of
+ *     the group {@link #pin(CommitMarker)} the marker, so all of them see the same commit.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class CommitMarker {
+    private static final String FILE_FORMAT = "%s.commit";
+    private static final String LOCK_FILE_FORMAT = "%s.commit.lock";
+    private static final String COMMIT = "commit";
+    private static final String NO_DELTA_FILES = "-";
+    private static final Striped<Lock> LOCKS = Striped.lock(64); // file locks are held by the JVM, not by a thread
+    private static final ThreadLocal<CommitMarker> PINNED = new ThreadLocal<>();
+
+    private final File dir;
+    private final String group;
+    private final long commitNumber;
+    private final ImmutableSortedMap<String, Committed> committedFiles;
+
+    private CommitMarker(File dir, String group, long commitNumber, SortedMap<String, Committed> committedFiles) {
+        this.dir = dir;
+        this.group = group;
+        this.commitNumber = commitNumber;
+        this.committedFiles = ImmutableSortedMap.copyOfSorted(committedFiles);
+    }
+
+    /**
+     * @return the marker of the group, without files if nothing was committed yet
+     */
+    public static CommitMarker read(File dir, String group) throws IOException {
+        File file = new File(dir, String.format(FILE_FORMAT, group));
+        SortedMap<String, Committed> committedFiles = new TreeMap<>();
+        long commitNumber;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                                                                              StandardCharsets.UTF_8))) {
+            commitNumber = Long.parseLong(field(reader.readLine(), COMMIT, file));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                // the numbers are parsed from the end, the name may contain spaces
+                int deltaStart = line.lastIndexOf(' ');
+                int fullStart = deltaStart > 0 ? line.lastIndexOf(' ', deltaStart - 1) : -1;
+                if (fullStart <= 0) {
+                    throw new IOException(String.format("Invalid line in commit marker %s: %s", file, line));
+                }
+                committedFiles.put(line.substring(0, fullStart),
+                                   new Committed(Integer.parseInt(line.substring(fullStart + 1, deltaStart)),
+                                                 deltaFileNumbers(line.substring(deltaStart + 1))));
+            }
+        }
+        catch (FileNotFoundException e) {
+            return new CommitMarker(dir, group, 0, committedFiles);
+        }
+        catch (NumberFormatException e) {
+            throw new IOException(String.format("Invalid number in commit marker %s", file), e);
+        }
+        return new CommitMarker(dir, group, commitNumber, committedFiles);
+    }
+
+    /**
+     * @return the marker pinned on the current thread if it is of the group, else the marker read from the directory
+     */
+    static CommitMarker current(File dir, String group) throws IOException {
+        CommitMarker pinned = PINNED.get();
+        if (pinned != null && pinned.dir.equals(dir) && pinned.group.equals(group)) {
+            return pinned;
+        }
+        return read(dir, group);
+    }
+
+    /**
+     * Make the file groups of the permas of the group listed on the current thread use this marker until the returned
+     * pin is closed, instead of reading the marker for each perma.
+     */
+    public static Closeable pin(CommitMarker marker) {
+        CommitMarker previous = PINNED.get();
+        PINNED.set(marker);
+        return () -> {
+            if (previous != null) {
+                PINNED.set(previous);
+            } else {
+                PINNED.remove();
+            }
+        };
+    }
+
+    /**
+     * Read the marker, compute the next marker and write it while holding the lock of the group.
+     *
+     * @return the written marker
+     */
+    public static CommitMarker update(File dir,
+                                      String group,
+                                      Durability durability,
+                                      IOFunction<CommitMarker, CommitMarker> next) throws IOException {
+        File lockFile = new File(dir, String.format(LOCK_FILE_FORMAT, group));
+        Lock lock = LOCKS.get(lockFile.getCanonicalPath());
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(lockFile.toPath(),
+                                                    StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            CommitMarker marker = next.apply(read(dir, group));
+            marker.write(durability);
+            return marker;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long commitNumber() {
+        return commitNumber;
+    }
+
+    /**
+     * @return true if something was committed in the group, permas not committed do not exist for its readers
+     */
+    public boolean exists() {
+        return commitNumber > 0;
+    }
+
+    /**
+     * @return the committed files of the perma, empty if the perma was never committed in this group
+     */
+    Optional<Committed> committedFiles(String permaName) {
+        return Optional.ofNullable(committedFiles.get(permaName));
+    }
+
+    /**
+     * The written delta files are added to the committed ones of their full file, a written full file replaces them.
+     *
+     * @param written the files written since the last commit, all in the directory of the group
+     * @return the next marker with the written files added to the committed files of their permas
+     * @throws IllegalStateException if a file between the committed and the written files was not written by a
+     * commit, e.g. by persisting a perma of the group outside of a commit
+     */
+    public CommitMarker next(Collection<PermaFile> written) {
+        SortedMap<String, Committed> nextCommittedFiles = new TreeMap<>(committedFiles);
+        SortedMap<String, TreeSet<PermaFile>> writtenFiles = new TreeMap<>();
+        for (PermaFile file : written) {
+            Preconditions.checkArgument(file.directory().equals(dir),
+                                        "%s is not in the directory of the commit group %s", file, dir);
+            writtenFiles.computeIfAbsent(file.permaName(), name -> new TreeSet<>()).add(file);
+        }
+        writtenFiles.forEach((name, files) -> nextCommittedFiles.put(name, next(name, files)));
+        return new CommitMarker(dir, group, commitNumber + 1, nextCommittedFiles);
+    }
+
+    private Committed next(String permaName, TreeSet<PermaFile> written) {
+        int fullFileNumber = written.last().fullFileNumber();
+        List<PermaFile> generation = written.stream()
+                                            .filter(file -> file.fullFileNumber() == fullFileNumber)
+                                            .collect(Collectors.toList());
+        SortedSet<Integer> deltaFileNumbers = new TreeSet<>();
+        Committed committed = committedFiles.get(permaName);
+        if (generation.get(0).deltaFileNumber() > 0) {
+            if (committed != null) {
+                Preconditions.checkState(committed.fullFileNumber == fullFileNumber,
+                                         "Full file %s of perma %s was not written by a commit of group %s",
+                                         fullFileNumber, permaName, group);
+                deltaFileNumbers.addAll(committed.deltaFileNumbers);
+            } else {
+                // the first commit of a perma publishes the files written before it joined the group
+                for (int number = 1; number < generation.get(0).deltaFileNumber(); number++) {
+                    deltaFileNumbers.add(number);
+                }
+            }
+        }
+        generation.stream()
+                  .filter(file -> file.deltaFileNumber() > 0)
+                  .forEach(file -> deltaFileNumbers.add(file.deltaFileNumber()));
+        Preconditions.checkState(deltaFileNumbers.isEmpty() || deltaFileNumbers.last() == deltaFileNumbers.size(),
+                                 "Delta files of perma %s were not written by a commit of group %s, only %s are, " +
+                                 "compact it with the group commit",
+                                 permaName, group, deltaFileNumbers);
+        return new Committed(fullFileNumber, ImmutableSortedSet.copyOfSorted(deltaFileNumbers));
+    }
+
+    /**
+     * Write the marker to a temp file and rename it over the previous marker, readers see either the previous or this
+     * marker.
+     */
+    public void write(Durability durability) throws IOException {
+        TempFile tempFile = new TempFile(dir, String.format(FILE_FORMAT, group));
+        tempFile.withOutputStream(durability, out -> {
+            try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                writer.write(String.format("%s %d%n", COMMIT, commitNumber));
+                for (Map.Entry<String, Committed> committed : committedFiles.entrySet()) {
+                    writer.write(String.format("%s %d %s%n",
+                                               committed.getKey(),
+                                               committed.getValue().fullFileNumber,
+                                               committed.getValue().deltaFileNumbersField()));
+                }
+            }
+            return this;
+        });
+        tempFile.replace(new File(dir, String.format(FILE_FORMAT, group)), durability);
+    }
+
+    private static String field(String line, String name, File file) throws IOException {
+        if (line == null || !line.startsWith(name + " ")) {
+            throw new IOException(String.format("Invalid commit marker %s, %s expected", file, name));
+        }
+        return line.substring(name.length() + 1);
+    }
+
+    private static ImmutableSortedSet<Integer> deltaFileNumbers(String field) {
+        if (field.equals(NO_DELTA_FILES)) {
+            return ImmutableSortedSet.of();
+        }
+        return ImmutableSortedSet.copyOf(Splitter.on(',').splitToList(field)
+                                                 .stream()
+                                                 .map(Integer::parseInt)
+                                                 .iterator());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder files = new StringBuilder();
+        committedFiles.forEach((name, committed) -> files.append(' ').append(name).append('_')
+                                                         .append(committed.fullFileNumber).append('_')
+                                                         .append(committed.deltaFileNumbersField()));
+        return "CommitMarker{" +
+                "group=" + group +
+                ", commitNumber=" + commitNumber +
+                ", committedFiles=" + files +
+                '}';
+    }
+
+    /**
+     * The full file number and the delta file numbers committed of a perma.
+     */
+    static final class Committed {
+        final int fullFileNumber;
+        final ImmutableSortedSet<Integer> deltaFileNumbers;
+
+        private Committed(int fullFileNumber, ImmutableSortedSet<Integer> deltaFileNumbers) {
+            this.fullFileNumber = fullFileNumber;
+            this.deltaFileNumbers = deltaFileNumbers;
+        }
+
+        private String deltaFileNumbersField() {
+            return deltaFileNumbers.isEmpty() ? NO_DELTA_FILES : Joiner.on(',').join(deltaFileNumbers);
+        }
+    }
+}
@@ -20,7 +20,8 @@ class DeltaFilePattern {
 
     DeltaFilePattern(PermaFile fullFileName, String permaName, int fullFileNumber) {
         this.fullFileName = fullFileName;
-        this.pattern = Pattern.compile(String.format(DELTA_FILE_NAME_PATTERN_TEMPLATE, permaName, fullFileNumber));
+        this.pattern = Pattern.compile(
+                String.format(DELTA_FILE_NAME_PATTERN_TEMPLATE, Pattern.quote(permaName), fullFileNumber));
     }
 
     ImmutableList<PermaFile> listDeltaFiles(File dir) {
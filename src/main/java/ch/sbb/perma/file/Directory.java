@@ -4,13 +4,21 @@
 
 package ch.sbb.perma.file;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 class Directory {
+    private static final Logger LOG = LoggerFactory.getLogger(Directory.class);
+
     private final File dir;
 
     Directory(File dir) {
@@ -22,4 +30,21 @@ class Directory {
         return list != null ? Arrays.asList(list) : Collections.emptyList();
     }
 
+    /**
+     * Force renames and deletes in the directory to disk. Ignored where directories cannot be opened (Windows).
+     */
+    void sync() throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ);
+        }
+        catch (IOException e) {
+            LOG.debug("Directory {} cannot be opened for sync, ignoring", dir, e);
+            return;
+        }
+        try (FileChannel directory = channel) {
+            directory.force(true);
+        }
+    }
+
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.file;
+
+/**
+ * How much effort is spent to make a written perma file survive a power loss or an OS crash.
+ * <ul>
+ *     <li>NONE: Rely on the OS to write the file eventually (fastest, a crash can leave an empty or partial file)</li>
+ *     <li>FSYNC_FILE: Force the content of the file to disk before it is renamed to its final name</li>
+ *     <li>FSYNC_FILE_AND_DIRECTORY: In addition force the directory after the rename, so the new file name is durable too</li>
+ * </ul>
+ * Use a {@link SyncBatch} to share the directory sync of several permas persisted together.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public enum Durability {
+    NONE(false, false),
+    FSYNC_FILE(true, false),
+    FSYNC_FILE_AND_DIRECTORY(true, true);
+
+    private final boolean syncFile;
+    private final boolean syncDirectory;
+
+    Durability(boolean syncFile, boolean syncDirectory) {
+        this.syncFile = syncFile;
+        this.syncDirectory = syncDirectory;
+    }
+
+    boolean syncFile() {
+        return syncFile;
+    }
+
+    boolean syncDirectory() {
+        return syncDirectory;
+    }
+}
@@ -11,6 +11,9 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Writable files in a directory. Can List, create new files,...
@@ -23,12 +26,25 @@ public class FileGroup {
     private final String permaName;
     private final PermaFile fullFile;
     private final ImmutableList<PermaFile> deltaFiles;
+    private final String commitGroup;
+    private final PermaFile uncommittedFullFile; // latest full file of a perma not committed in the commit group
 
     private FileGroup(File dir, String permaName, PermaFile fullFile, ImmutableList<PermaFile> deltaFiles) {
+        this(dir, permaName, fullFile, deltaFiles, null, null);
+    }
+
+    private FileGroup(File dir,
+                      String permaName,
+                      PermaFile fullFile,
+                      ImmutableList<PermaFile> deltaFiles,
+                      String commitGroup,
+                      PermaFile uncommittedFullFile) {
         this.dir = dir;
         this.permaName = permaName;
         this.fullFile = fullFile;
         this.deltaFiles = deltaFiles;
+        this.commitGroup = commitGroup;
+        this.uncommittedFullFile = uncommittedFullFile;
     }
 
     public static FileGroup list(File dir, String name) {
@@ -40,8 +56,62 @@ public class FileGroup {
                 .orElse(new FileGroup(dir, name, null, ImmutableList.of()));
     }
 
-    public FileGroup refresh() {
-        return list(dir, permaName);
+    /**
+     * List the files committed in a commit group, files not in the last {@link CommitMarker} are ignored. Before the
+     * first commit of the group the latest files are listed, afterwards a perma not committed in the group does not
+     * exist, new files of it are numbered after its files on disk.
+     *
+     * @param commitGroup the commit group, null to list the latest files
+     */
+    public static FileGroup list(File dir, String name, String commitGroup) throws IOException {
+        if (commitGroup == null) {
+            return list(dir, name);
+        }
+        CommitMarker marker = CommitMarker.current(dir, commitGroup);
+        Optional<CommitMarker.Committed> committed = marker.committedFiles(name);
+        if (!committed.isPresent()) {
+            FileGroup latest = list(dir, name);
+            return marker.exists() ?
+                    new FileGroup(dir, name, null, ImmutableList.of(), commitGroup, latest.fullFile) :
+                    new FileGroup(dir, name, latest.fullFile, latest.deltaFiles, commitGroup, null);
+        }
+        int fullFileNumber = committed.get().fullFileNumber;
+        Set<Integer> deltaFileNumbers = committed.get().deltaFileNumbers;
+        FileGroup generation = listGenerations(dir, name)
+                .stream()
+                .filter(files -> files.fullFile.fullFileNumber() == fullFileNumber)
+                .findFirst()
+                .orElseThrow(() -> new FileNotFoundException(
+                        String.format("Committed full file %d of perma %s not found in %s",
+                                      fullFileNumber, name, dir)));
+        ImmutableList<PermaFile> deltaFiles = ImmutableList.copyOf(
+                generation.deltaFiles
+                        .stream()
+                        .filter(deltaFile -> deltaFileNumbers.contains(deltaFile.deltaFileNumber()))
+                        .iterator());
+        if (deltaFiles.size() != deltaFileNumbers.size()) {
+            throw new FileNotFoundException(String.format("Committed delta files %s of perma %s not all found in %s",
+                                                          deltaFileNumbers, name, dir));
+        }
+        return new FileGroup(dir, name, generation.fullFile, deltaFiles, commitGroup, null);
+    }
+
+    /**
+     * List all generations including stale ones not yet deleted by a compaction, oldest first.
+     */
+    public static List<FileGroup> listGenerations(File dir, String name) {
+        return new FullFilePattern(name).fullFiles(dir)
+                .stream()
+                .map(fullFile -> new FileGroup(dir, name, fullFile, fullFile.deltaFileNamePattern().listDeltaFiles(dir)))
+                .collect(Collectors.toList());
+    }
+
+    public FileGroup refresh() throws IOException {
+        return list(dir, permaName, commitGroup);
+    }
+
+    public File directory() {
+        return dir;
     }
 
     public boolean exists() {
@@ -68,6 +138,13 @@ public class FileGroup {
         return deltaFiles.get(deltaFiles.size() - 1);
     }
 
+    /**
+     * @return the latest delta file or the full file if there are no delta files
+     */
+    public PermaFile latestFile() throws FileNotFoundException {
+        return deltaFiles.isEmpty() ? fullFile() : latestDeltaFile();
+    }
+
     public List<PermaFile> deltaFiles() {
         return deltaFiles;
     }
@@ -86,14 +163,20 @@ public class FileGroup {
             return new FileGroup(
                     dir,
                     permaName,
-                    PermaFile.fullFile(compression, dir, permaName, 1),
-                    ImmutableList.of());
+                    uncommittedFullFile != null ?
+                            uncommittedFullFile.nextFull(compression) :
+                            PermaFile.fullFile(compression, dir, permaName, 1),
+                    ImmutableList.of(),
+                    commitGroup,
+                    null);
         }
         return new FileGroup(
                 dir,
                 permaName,
                 fullFile.nextFull(compression),
-                ImmutableList.of());
+                ImmutableList.of(),
+                commitGroup,
+                null);
     }
 
     public FileGroup withNextDelta() {
@@ -103,7 +186,9 @@ public class FileGroup {
                 ImmutableList.<PermaFile>builder()
                         .addAll(deltaFiles)
                         .add(nextDeltaFileName())
-                        .build());
+                        .build(),
+                commitGroup,
+                null);
     }
 
     private PermaFile nextDeltaFileName() {
@@ -117,10 +202,12 @@ public class FileGroup {
         if (!exists()) {
             return;
         }
-        fullFile().delete();
-        for (PermaFile deltaFile : deltaFiles()) {
-            deltaFile.delete();
+        List<PermaFile> files = ImmutableList.<PermaFile>builder().add(fullFile).addAll(deltaFiles).build();
+        if (SyncBatch.deferDelete(files)) {
+            return;
         }
+        SyncBatch.syncPending(dir); // the new files must be durable before the old ones are gone
+        files.forEach(PermaFile::delete);
     }
 
     @Override
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.file;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Bytes, records and time of the files read or written by one operation, recorded by the files returned by
+ * {@link PermaFile#recordingTo(FileStats)}.
+ * <p>
+ *     Bytes are counted as stored (compressed), the I/O time is the time spent in the reads and writes of the file
+ *     streams including syncing to disk, compressing and serializing are not included. Not thread safe.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class FileStats {
+    private int files;
+    private int records;
+    private long bytes;
+    private long ioNanos;
+    private long renameNanos;
+    private long lastModified;
+
+    public int files() {
+        return files;
+    }
+
+    public int records() {
+        return records;
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    public long ioNanos() {
+        return ioNanos;
+    }
+
+    public long renameNanos() {
+        return renameNanos;
+    }
+
+    /**
+     * @return the modification time of the newest file read or 0 if no file was read
+     */
+    public long lastModified() {
+        return lastModified;
+    }
+
+    void addRecords(int count) {
+        records += count;
+    }
+
+    void renamed(long nanos) {
+        renameNanos += nanos;
+    }
+
+    InputStream recordRead(InputStream in, long fileLastModified) {
+        files++;
+        lastModified = Math.max(lastModified, fileLastModified);
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                long start = System.nanoTime();
+                int read = super.read();
+                ioNanos += System.nanoTime() - start;
+                if (read >= 0) {
+                    bytes++;
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                long start = System.nanoTime();
+                int read = super.read(buffer, offset, length);
+                ioNanos += System.nanoTime() - start;
+                if (read > 0) {
+                    bytes += read;
+                }
+                return read;
+            }
+        };
+    }
+
+    OutputStream recordWrite(OutputStream out) {
+        files++;
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                long start = System.nanoTime();
+                out.write(b);
+                ioNanos += System.nanoTime() - start;
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) throws IOException {
+                long start = System.nanoTime();
+                out.write(buffer, offset, length);
+                ioNanos += System.nanoTime() - start;
+                bytes += length;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                long start = System.nanoTime();
+                out.flush();
+                ioNanos += System.nanoTime() - start;
+            }
+
+            @Override
+            public void close() throws IOException {
+                long start = System.nanoTime();
+                out.close();
+                ioNanos += System.nanoTime() - start;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "FileStats{" +
+                "files=" + files +
+                ", records=" + records +
+                ", bytes=" + bytes +
+                ", ioNanos=" + ioNanos +
+                ", renameNanos=" + renameNanos +
+                '}';
+    }
+}
@@ -8,10 +8,12 @@ import com.google.common.base.Preconditions;
 
 import java.io.File;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * File name from String.
@@ -28,7 +30,19 @@ class FullFilePattern {
 
     FullFilePattern(String permaName) {
         this.permaName = permaName;
-        this.pattern = Pattern.compile(String.format(FULL_FILE_NAME_PATTERN_TEMPLATE, permaName));
+        this.pattern = Pattern.compile(String.format(FULL_FILE_NAME_PATTERN_TEMPLATE, Pattern.quote(permaName)));
+    }
+
+    /**
+     * @return all generations, oldest first
+     */
+    List<PermaFile> fullFiles(File dir) {
+        return new Directory(dir)
+                .listDir(this::accept)
+                .stream()
+                .map(fileName -> parse(dir, fileName))
+                .sorted()
+                .collect(Collectors.toList());
     }
 
     Optional<PermaFile> latestFullFile(File dir) {
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The hash index of a full file, stored next to it as {@code <name>_<full file number>.perma.index}.
+ * <p>
+ *     The index is derived from the full file and built by the writer: it is written to a temporary file and renamed,
+ *     readers never see a partial index and never write it.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class IndexFile {
+    private final static String INDEX_FILE_FORMAT = "%s_%d.perma.index";
+    private final static String INDEX_FILE_PATTERN_TEMPLATE = "%s_(\\d+)\\.perma\\.index";
+
+    private final File dir;
+    private final String permaName;
+    private final int fullFileNumber;
+
+    private IndexFile(File dir, String permaName, int fullFileNumber) {
+        this.dir = dir;
+        this.permaName = permaName;
+        this.fullFileNumber = fullFileNumber;
+    }
+
+    public static IndexFile of(PermaFile fullFile) {
+        return new IndexFile(fullFile.directory(), fullFile.permaName(), fullFile.fullFileNumber());
+    }
+
+    public File toFile() {
+        return new File(dir, String.format(INDEX_FILE_FORMAT, permaName, fullFileNumber));
+    }
+
+    public boolean exists() {
+        return toFile().isFile();
+    }
+
+    /**
+     * Write the index to a temporary file and rename it. The temporary files are not those of the perma, cleaning up the
+     * stale temporary files of the perma does not delete an index being built.
+     */
+    public <R> R withOutputStream(IOFunction<OutputStream, R> function) throws IOException {
+        TempFile tempFile = new TempFile(dir, permaName + ".index");
+        try {
+            R retval = tempFile.withOutputStream(function);
+            tempFile.replace(toFile(), Durability.NONE);
+            return retval;
+        }
+        catch (IOException | RuntimeException e) {
+            tempFile.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Delete the indexes of the older generations. Readers which still map them keep reading, where the file system
+     * allows to delete open files.
+     */
+    public void deleteOlder() {
+        Pattern pattern = Pattern.compile(String.format(INDEX_FILE_PATTERN_TEMPLATE, Pattern.quote(permaName)));
+        new Directory(dir).listDir((d, fileName) -> {
+            Matcher matcher = pattern.matcher(fileName);
+            return matcher.matches() && Integer.parseInt(matcher.group(1)) < fullFileNumber;
+        }).forEach(fileName -> new File(dir, fileName).delete());
+    }
+
+    @Override
+    public String toString() {
+        return toFile().toString();
+    }
+}
@@ -6,9 +6,12 @@ package ch.sbb.perma.file;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ComparisonChain;
+import com.google.common.io.ByteStreams;
 
 import java.io.*;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 public final class PermaFile implements Comparable<PermaFile> {
     private final Compression compression;
@@ -16,13 +19,24 @@ public final class PermaFile implements Comparable<PermaFile> {
     private final String permaName;
     private final int fullFileNumber;
     private final int deltaFileNumber;
+    private final FileStats stats;
 
     private PermaFile(Compression compression, File dir, String permaName, int fullFileNumber, int deltaFileNumber) {
+        this(compression, dir, permaName, fullFileNumber, deltaFileNumber, null);
+    }
+
+    private PermaFile(Compression compression,
+                      File dir,
+                      String permaName,
+                      int fullFileNumber,
+                      int deltaFileNumber,
+                      FileStats stats) {
         this.compression = compression;
         this.dir = dir;
         this.permaName = permaName;
         this.fullFileNumber = fullFileNumber;
         this.deltaFileNumber = deltaFileNumber;
+        this.stats = stats;
     }
 
     public static PermaFile fullFile(Compression compression, File dir, String permaName, int fullFileNumber) {
@@ -45,20 +59,116 @@ public final class PermaFile implements Comparable<PermaFile> {
         return new PermaFile(compression, dir, permaName, fullFileNumber, nr);
     }
 
+    /**
+     * @return the same file recording the reads and writes to the stats
+     */
+    public PermaFile recordingTo(FileStats stats) {
+        return new PermaFile(compression, dir, permaName, fullFileNumber, deltaFileNumber, stats);
+    }
+
+    public static List<PermaFile> recordingTo(List<PermaFile> files, FileStats stats) {
+        return files.stream().map(file -> file.recordingTo(stats)).collect(Collectors.toList());
+    }
+
+    /**
+     * Add the records read or written to the stats, if recording.
+     */
+    public void countRecords(int records) {
+        if (stats != null) {
+            stats.addRecords(records);
+        }
+    }
+
+    /**
+     * @return the number of the full file, incremented by each compaction
+     */
+    public int fullFileNumber() {
+        return fullFileNumber;
+    }
+
+    /**
+     * @return the number of the delta file in the delta chain of the full file, 0 for the full file
+     */
+    public int deltaFileNumber() {
+        return deltaFileNumber;
+    }
+
+    String permaName() {
+        return permaName;
+    }
+
+    File directory() {
+        return dir;
+    }
+
     public <R> R withInputStream(IOFunction<InputStream, R> function) throws IOException {
-        try(InputStream in = compression.decompress(new FileInputStream(toFile()))) {
+        File file = toFile();
+        InputStream fileIn = new FileInputStream(file);
+        if (stats != null) {
+            fileIn = stats.recordRead(fileIn, file.lastModified());
+        }
+        try(InputStream in = compression.decompress(fileIn)) {
             return function.apply(in);
         }
     }
 
     public <R> R withOutputStream(IOFunction<OutputStream, R> function) throws IOException {
+        return withOutputStream(Durability.NONE, function);
+    }
+
+    public <R> R withOutputStream(Durability durability, IOFunction<OutputStream, R> function) throws IOException {
+        return write(durability, out -> function.apply(compression.compress(
+                stats != null ? stats.recordWrite(out) : out)));
+    }
+
+    /**
+     * @return the file as stored on disk, not decompressed. Stays readable if the file is deleted while open.
+     */
+    public FileInputStream openStored() throws FileNotFoundException {
+        return new FileInputStream(toFile());
+    }
+
+    /**
+     * Write the bytes of the file as stored on disk, e.g. copied from {@link #openStored()} of another file.
+     */
+    public void writeStored(InputStream in, long length, Durability durability) throws IOException {
+        write(durability, out -> {
+            long copied = ByteStreams.copy(ByteStreams.limit(in, length), out);
+            if (copied != length) {
+                throw new EOFException(String.format("%d of %d bytes of %s received", copied, length, this));
+            }
+            return this;
+        });
+    }
+
+    public boolean isCompressed() {
+        return compression instanceof GZipCompression;
+    }
+
+    private <R> R write(Durability durability, IOFunction<OutputStream, R> function) throws IOException {
         TempFile tempFile = new TempFile(dir, permaName);
         tempFile.deleteStaleTempFiles();
-        R retval = tempFile.withOutputStream(out -> function.apply(compression.compress(out)));
-        tempFile.moveTo(toFile());
+        R retval = tempFile.withOutputStream(durability, function);
+        long renameStart = System.nanoTime();
+        tempFile.moveTo(toFile(), durability);
+        SyncBatch.written(this);
+        if (stats != null) {
+            stats.renamed(System.nanoTime() - renameStart);
+        }
         return retval;
     }
 
+    /**
+     * @return the bytes of the file on disk, 0 if it does not exist
+     */
+    public long length() {
+        return toFile().length();
+    }
+
+    public String fileName() {
+        return toFileName();
+    }
+
     public boolean delete() {
         return toFile().delete();
     }
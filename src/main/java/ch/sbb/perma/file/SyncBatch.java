@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.file;
+
+import com.google.common.base.Preconditions;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Share the directory syncs of several permas persisted together in the current thread.
+ * <p>
+ *     While a batch is open, the directory syncs required by {@link Durability#FSYNC_FILE_AND_DIRECTORY}
+ *     are deferred and each directory is synced only once when the batch is closed. Files are still synced
+ *     before they are renamed. The new files are only guaranteed to be durable after {@link #close()}.
+ * </p>
+ * <pre>
+ * try (SyncBatch batch = SyncBatch.open()) {
+ *     stations.persist();
+ *     lines.persist();
+ * }
+ * </pre>
+ * Nested batches join the outermost batch.
+ * <p>
+ *     A group batch ({@link #openGroup()}) is used by the group commit of permas persisted in parallel: it is not
+ *     bound to a thread, each thread persisting {@link #join()}s it. It also records the files written and defers
+ *     deleting the files replaced by a compaction, they are still committed until the next commit marker is written.
+ *     The methods of a batch are thread safe.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class SyncBatch implements Closeable {
+    private static final ThreadLocal<SyncBatch> CURRENT = new ThreadLocal<>();
+
+    private final boolean group;
+    private final Set<File> pendingDirectories = new LinkedHashSet<>();
+    private final List<PermaFile> written = new ArrayList<>();
+    private final List<PermaFile> replaced = new ArrayList<>();
+    private int depth = 1;
+
+    private SyncBatch(boolean group) {
+        this.group = group;
+    }
+
+    public static SyncBatch open() {
+        SyncBatch current = CURRENT.get();
+        if (current != null) {
+            current.depth++;
+            return current;
+        }
+        SyncBatch batch = new SyncBatch(false);
+        CURRENT.set(batch);
+        return batch;
+    }
+
+    /**
+     * Open a group batch, not bound to a thread.
+     */
+    public static SyncBatch openGroup() {
+        return new SyncBatch(true);
+    }
+
+    /**
+     * Make this group batch the batch of the current thread until the returned join is closed. Joining again on the
+     * same thread, e.g. on the calling thread of a direct executor, is a no-op. Another batch of the thread is
+     * suspended until the join is closed.
+     */
+    public Closeable join() {
+        Preconditions.checkState(group, "Only group batches can be joined");
+        SyncBatch previous = CURRENT.get();
+        if (previous == this) {
+            return () -> {};
+        }
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * Sync the directory now or at the end of the current batch.
+     */
+    static void syncDirectory(File dir) throws IOException {
+        SyncBatch current = CURRENT.get();
+        if (current != null) {
+            synchronized (current) {
+                current.pendingDirectories.add(dir);
+            }
+            return;
+        }
+        new Directory(dir).sync();
+    }
+
+    /**
+     * Sync a pending directory of the current batch now, e.g. before files in it are deleted.
+     */
+    static void syncPending(File dir) throws IOException {
+        SyncBatch current = CURRENT.get();
+        if (current == null) {
+            return;
+        }
+        boolean pending;
+        synchronized (current) {
+            pending = current.pendingDirectories.remove(dir);
+        }
+        if (pending) {
+            new Directory(dir).sync();
+        }
+    }
+
+    /**
+     * Record a file written in the current group batch.
+     */
+    static void written(PermaFile file) {
+        SyncBatch current = CURRENT.get();
+        if (current != null && current.group) {
+            synchronized (current) {
+                current.written.add(file);
+            }
+        }
+    }
+
+    /**
+     * @return true if deleting the files is deferred by the current group batch
+     */
+    static boolean deferDelete(List<PermaFile> files) {
+        SyncBatch current = CURRENT.get();
+        if (current == null || !current.group) {
+            return false;
+        }
+        synchronized (current) {
+            current.replaced.addAll(files);
+        }
+        return true;
+    }
+
+    /**
+     * @return the files written in this group batch
+     */
+    public synchronized List<PermaFile> written() {
+        return new ArrayList<>(written);
+    }
+
+    /**
+     * @return the files to delete after the commit marker of this group batch is written
+     */
+    public synchronized List<PermaFile> replaced() {
+        return new ArrayList<>(replaced);
+    }
+
+    /**
+     * Sync the pending directories now, the files written so far are durable afterwards.
+     */
+    public void syncDirectories() throws IOException {
+        List<File> dirs;
+        synchronized (this) {
+            dirs = new ArrayList<>(pendingDirectories);
+            pendingDirectories.clear();
+        }
+        for (File dir : dirs) {
+            new Directory(dir).sync();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!group) {
+            if (--depth > 0) {
+                return;
+            }
+            CURRENT.remove();
+        }
+        syncDirectories();
+    }
+}
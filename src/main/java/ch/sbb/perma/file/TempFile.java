@@ -8,9 +8,15 @@ import ch.sbb.perma.FileRenameException;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 class TempFile {
     private final static String TEMP_FILE_FORMAT = "%s-%s.perma.temp";
@@ -34,22 +40,58 @@ class TempFile {
                         UUID.randomUUID()));
     }
 
-    void moveTo(File targetFile) throws FileRenameException {
+    void moveTo(File targetFile) throws IOException {
+        moveTo(targetFile, Durability.NONE);
+    }
+
+    void moveTo(File targetFile, Durability durability) throws IOException {
         if(!file.renameTo(targetFile)) {
             throw new FileRenameException(String.format("Could not rename temporary file %s to perma set file %s",
                     file,
                     targetFile));
         }
+        if(durability.syncDirectory()) {
+            SyncBatch.syncDirectory(dir);
+        }
+    }
+
+    /**
+     * Atomically replace the target file, also where renaming to an existing file fails (Windows).
+     */
+    void replace(File targetFile, Durability durability) throws IOException {
+        try {
+            Files.move(file.toPath(), targetFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+        catch (IOException e) {
+            FileRenameException renameException = new FileRenameException(
+                    String.format("Could not replace %s with temporary file %s", targetFile, file));
+            renameException.initCause(e);
+            throw renameException;
+        }
+        if(durability.syncDirectory()) {
+            SyncBatch.syncDirectory(dir);
+        }
     }
 
     <R> R withOutputStream(IOFunction<OutputStream, R> function) throws IOException {
-        try(OutputStream out = new FileOutputStream(file)) {
+        return withOutputStream(Durability.NONE, function);
+    }
+
+    /**
+     * The stream may be closed by the function, the content is synced to disk (if configured) on close.
+     */
+    <R> R withOutputStream(Durability durability, IOFunction<OutputStream, R> function) throws IOException {
+        try(OutputStream out = new SyncOnCloseOutputStream(new FileOutputStream(file), durability)) {
             return function.apply(out);
         }
     }
 
+    void delete() {
+        file.delete();
+    }
+
     void deleteStaleTempFiles() {
-        String pattern = String.format(TEMP_FILE_PATTERN_TEMPLATE, permaName);
+        String pattern = String.format(TEMP_FILE_PATTERN_TEMPLATE, Pattern.quote(permaName));
         new Directory(dir).listDir((d, fileName) -> fileName.matches(pattern))
                 .forEach(fileName -> new File(dir, fileName).delete());
     }
@@ -58,4 +100,34 @@ class TempFile {
     public String toString() {
         return file.toString();
     }
+
+    private static class SyncOnCloseOutputStream extends FilterOutputStream {
+        private final FileOutputStream fileOut;
+        private final Durability durability;
+        private boolean closed;
+
+        SyncOnCloseOutputStream(FileOutputStream out, Durability durability) {
+            super(out);
+            this.fileOut = out;
+            this.durability = durability;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            fileOut.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try (FileOutputStream toClose = fileOut) {
+                if (durability.syncFile()) {
+                    toClose.getChannel().force(true);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.inspect;
+
+import ch.sbb.perma.collections.LongLongHashMap;
+import ch.sbb.perma.datastore.FileInspection;
+import ch.sbb.perma.file.FileGroup;
+import ch.sbb.perma.file.PermaFile;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Record statistics of the full file and the delta files of the current generation, which records are still live
+ * and what a compaction would write.
+ * <p>
+ *     The files are streamed in order, live records are tracked by a 64 bit hash of their key bytes mapped to the
+ *     file and the size of the record that wrote the key last. Memory is 16 bytes per live key, the map itself is
+ *     never loaded. Keys are compared by their serialized bytes like the raw compaction does.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class ChainStats {
+    private static final HashFunction KEY_HASH = Hashing.murmur3_128();
+    private static final int FILE_SHIFT = 40;
+    private static final long BYTES_MASK = (1L << FILE_SHIFT) - 1;
+
+    private final List<FileInspection> files;
+    private final int[] liveRecords;
+    private final long[] liveBytes;
+    private final int liveEntries;
+
+    private ChainStats(List<FileInspection> files, int[] liveRecords, long[] liveBytes, int liveEntries) {
+        this.files = files;
+        this.liveRecords = liveRecords;
+        this.liveBytes = liveBytes;
+        this.liveEntries = liveEntries;
+    }
+
+    static ChainStats of(FileGroup group) throws IOException {
+        List<PermaFile> chain = new ArrayList<>();
+        chain.add(group.fullFile());
+        chain.addAll(group.deltaFiles());
+        List<FileInspection> files = new ArrayList<>(chain.size());
+        LongLongHashMap live = new LongLongHashMap();
+        for (PermaFile file : chain) {
+            long fileIndex = files.size();
+            files.add(FileInspection.read(file, (key, value, deleted, recordBytes) -> {
+                long keyHash = KEY_HASH.hashBytes(key.array(), key.position(), key.remaining()).asLong();
+                if (deleted) {
+                    live.remove(keyHash);
+                } else {
+                    live.put(keyHash, fileIndex << FILE_SHIFT | recordBytes);
+                }
+            }));
+        }
+        int[] liveRecords = new int[files.size()];
+        long[] liveBytes = new long[files.size()];
+        for (int slot = live.nextSlot(0); slot >= 0; slot = live.nextSlot(slot + 1)) {
+            int fileIndex = (int) (live.valueAt(slot) >>> FILE_SHIFT);
+            liveRecords[fileIndex]++;
+            liveBytes[fileIndex] += live.valueAt(slot) & BYTES_MASK;
+        }
+        return new ChainStats(files, liveRecords, liveBytes, live.size());
+    }
+
+    List<FileInspection> files() {
+        return files;
+    }
+
+    /**
+     * @return the records of the file not overwritten or deleted by a later file
+     */
+    int liveRecords(int file) {
+        return liveRecords[file];
+    }
+
+    /**
+     * @return records read per live record of the file, infinite if no record of the file is live
+     */
+    double readAmplification(int file) {
+        return (double) files.get(file).records() / liveRecords[file];
+    }
+
+    /**
+     * @return the entries of the perma
+     */
+    int liveEntries() {
+        return liveEntries;
+    }
+
+    int records() {
+        return files.stream().mapToInt(FileInspection::records).sum();
+    }
+
+    /**
+     * @return records read per entry when loading, 1 right after a compaction
+     */
+    double readAmplification() {
+        return liveEntries == 0 ? records() == 0 ? 1 : Double.POSITIVE_INFINITY : (double) records() / liveEntries;
+    }
+
+    long fileBytes() {
+        return files.stream().mapToLong(FileInspection::fileBytes).sum();
+    }
+
+    long uncompressedBytes() {
+        return files.stream().mapToLong(FileInspection::uncompressedBytes).sum();
+    }
+
+    /**
+     * @return the bytes of a new full file with the live records, before compression
+     */
+    long compactedUncompressedBytes() {
+        long bytes = files.get(0).headerBytes();
+        for (long fileLiveBytes : liveBytes) {
+            bytes += fileLiveBytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the bytes of a new full file on disk, assuming it compresses like the current files
+     */
+    long estimatedCompactedFileBytes() {
+        long uncompressed = uncompressedBytes();
+        return uncompressed == 0 ?
+                compactedUncompressedBytes() :
+                Math.round((double) compactedUncompressedBytes() * fileBytes() / uncompressed);
+    }
+}
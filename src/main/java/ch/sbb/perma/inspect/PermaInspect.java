@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.inspect;
+
+import ch.sbb.perma.datastore.FileInspection;
+import ch.sbb.perma.datastore.PermaDatastoreException;
+import ch.sbb.perma.file.FileGroup;
+import ch.sbb.perma.file.PermaFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command line tool to inspect the files of a perma without loading it, no serializer is needed.
+ * <pre>
+ * java -cp perma.jar ch.sbb.perma.inspect.PermaInspect &lt;command&gt; &lt;dir&gt; &lt;name&gt; [--threads=n]
+ * </pre>
+ * <ul>
+ * <li>files: the generations (full files) and their delta chains with the header fields of each file, including
+ * stale generations not yet deleted</li>
+ * <li>stats: records, bytes and read amplification per file of the current generation and what a compaction would
+ * save</li>
+ * <li>verify: checks the header, all record checksums and the delta chains of all files, reading the files in
+ * parallel with the given number of threads (default: available processors)</li>
+ * </ul>
+ * The exit code is 0 on success, 1 if the files are missing or invalid and 2 on invalid arguments.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class PermaInspect {
+    static final int OK = 0;
+    static final int FAILED = 1;
+    static final int USAGE = 2;
+
+    private static final String USAGE_TEXT =
+            "Usage: PermaInspect <files|stats|verify> <dir> <name> [--threads=n]";
+
+    private final PrintStream out;
+    private final File dir;
+    private final String name;
+    private final int threads;
+
+    private PermaInspect(PrintStream out, File dir, String name, int threads) {
+        this.out = out;
+        this.dir = dir;
+        this.name = name;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(System.out, args));
+    }
+
+    /**
+     * @return the exit code
+     */
+    static int run(PrintStream out, String... args) {
+        if (args.length < 3 || args.length > 4) {
+            out.println(USAGE_TEXT);
+            return USAGE;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args.length == 4) {
+            try {
+                threads = Integer.parseInt(args[3].replaceFirst("^--threads=", ""));
+            }
+            catch (NumberFormatException e) {
+                threads = 0;
+            }
+            if (!args[3].startsWith("--threads=") || threads <= 0) {
+                out.println(USAGE_TEXT);
+                return USAGE;
+            }
+        }
+        PermaInspect inspect = new PermaInspect(out, new File(args[1]), args[2], threads);
+        try {
+            switch (args[0]) {
+                case "files":
+                    return inspect.files();
+                case "stats":
+                    return inspect.stats();
+                case "verify":
+                    return inspect.verify();
+                default:
+                    out.println(USAGE_TEXT);
+                    return USAGE;
+            }
+        }
+        catch (IOException | PermaDatastoreException e) {
+            out.printf("Inspection of %s in %s failed: %s%n", args[2], args[1], e);
+            return FAILED;
+        }
+    }
+
+    private int files() throws IOException {
+        List<FileGroup> generations = FileGroup.listGenerations(dir, name);
+        if (generations.isEmpty()) {
+            return noFiles();
+        }
+        for (int i = generations.size() - 1; i >= 0; i--) {
+            List<PermaFile> files = filesOf(generations.get(i));
+            out.printf("Generation %d%s, %d delta files%n",
+                       files.get(0).fullFileNumber(),
+                       i == generations.size() - 1 ? " (current)" : " (stale)",
+                       files.size() - 1);
+            for (PermaFile file : files) {
+                try {
+                    FileInspection inspection = FileInspection.read(file, FileInspection.SKIP);
+                    out.printf("  %-40s %-5s version=%d uuid=%s number=%d name=%s records=%d bytes=%d%n",
+                               file.fileName(),
+                               inspection.isFullFile() ? "FULL" : "DELTA",
+                               inspection.version(),
+                               inspection.fullFileUUID(),
+                               inspection.deltaFileNumber(),
+                               inspection.name(),
+                               inspection.records(),
+                               inspection.fileBytes());
+                }
+                catch (IOException | PermaDatastoreException e) {
+                    out.printf("  %-40s unreadable: %s%n", file.fileName(), e);
+                }
+            }
+        }
+        return OK;
+    }
+
+    private int stats() throws IOException {
+        FileGroup group = FileGroup.list(dir, name);
+        if (!group.exists()) {
+            return noFiles();
+        }
+        ChainStats stats = ChainStats.of(group);
+        out.printf("%-40s %10s %10s %10s %12s %12s %12s %12s %10s %8s%n",
+                   "file", "records", "upserts", "deletes", "key bytes", "value bytes",
+                   "uncompressed", "on disk", "live", "read amp");
+        List<FileInspection> files = stats.files();
+        for (int i = 0; i < files.size(); i++) {
+            FileInspection file = files.get(i);
+            out.printf("%-40s %10d %10d %10d %12d %12d %12d %12d %10d %8s%n",
+                       file.file().fileName(),
+                       file.records(),
+                       file.upserts(),
+                       file.deletes(),
+                       file.keyBytes(),
+                       file.valueBytes(),
+                       file.uncompressedBytes(),
+                       file.fileBytes(),
+                       stats.liveRecords(i),
+                       amplification(stats.readAmplification(i)));
+        }
+        out.printf("Total: %d files, %d records, %d bytes on disk, %d uncompressed%n",
+                   files.size(), stats.records(), stats.fileBytes(), stats.uncompressedBytes());
+        out.printf("Live entries: %d, read amplification: %s%n",
+                   stats.liveEntries(), amplification(stats.readAmplification()));
+        long saved = stats.fileBytes() - stats.estimatedCompactedFileBytes();
+        out.printf("Compaction estimate: %d records, %d bytes on disk (%d uncompressed), saves %d records and %d bytes (%.1f%%)%n",
+                   stats.liveEntries(),
+                   stats.estimatedCompactedFileBytes(),
+                   stats.compactedUncompressedBytes(),
+                   stats.records() - stats.liveEntries(),
+                   saved,
+                   stats.fileBytes() == 0 ? 0.0 : 100.0 * saved / stats.fileBytes());
+        return OK;
+    }
+
+    private int verify() throws IOException {
+        List<FileGroup> generations = FileGroup.listGenerations(dir, name);
+        if (generations.isEmpty()) {
+            return noFiles();
+        }
+        List<List<PermaFile>> chains = new ArrayList<>();
+        for (FileGroup group : generations) {
+            chains.add(filesOf(group));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<List<Future<FileInspection>>> inspections = new ArrayList<>();
+            for (List<PermaFile> chain : chains) {
+                List<Future<FileInspection>> chainInspections = new ArrayList<>();
+                for (PermaFile file : chain) {
+                    chainInspections.add(executor.submit(() -> FileInspection.read(file, FileInspection.SKIP)));
+                }
+                inspections.add(chainInspections);
+            }
+            int failed = 0;
+            for (int i = 0; i < chains.size(); i++) {
+                FileInspection previous = null;
+                for (int j = 0; j < chains.get(i).size(); j++) {
+                    String fileName = chains.get(i).get(j).fileName();
+                    String failure;
+                    FileInspection inspection = null;
+                    try {
+                        inspection = inspections.get(i).get(j).get();
+                        failure = chainFailure(inspection, previous);
+                    }
+                    catch (ExecutionException e) {
+                        failure = e.getCause().toString();
+                    }
+                    if (failure == null) {
+                        out.printf("OK     %s (%d records)%n", fileName, inspection.records());
+                    } else {
+                        out.printf("FAILED %s: %s%n", fileName, failure);
+                        failed++;
+                    }
+                    previous = inspection;
+                }
+            }
+            out.printf("%d files verified, %d failed%n", chains.stream().mapToInt(List::size).sum(), failed);
+            return failed == 0 ? OK : FAILED;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            out.println("Verification interrupted");
+            return FAILED;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the failure or null if the file fits into its chain
+     */
+    private String chainFailure(FileInspection inspection, FileInspection previous) {
+        if (!inspection.name().equals(name)) {
+            return String.format("header has name %s", inspection.name());
+        }
+        if (inspection.file().deltaFileNumber() == 0) {
+            return inspection.isFullFile() ? null : "header of full file is a delta header";
+        }
+        if (previous == null) {
+            return "previous file is unreadable";
+        }
+        return inspection.isNextDeltaFileOf(previous) ? null :
+                String.format("not the next delta of the previous file, uuid %s number %d",
+                              inspection.fullFileUUID(),
+                              inspection.deltaFileNumber());
+    }
+
+    private static List<PermaFile> filesOf(FileGroup group) throws IOException {
+        List<PermaFile> files = new ArrayList<>();
+        files.add(group.fullFile());
+        files.addAll(group.deltaFiles());
+        return files;
+    }
+
+    private int noFiles() {
+        out.printf("No files of %s in %s%n", name, dir);
+        return FAILED;
+    }
+
+    private static String amplification(double amplification) {
+        return Double.isInfinite(amplification) ? "-" : String.format("%.2f", amplification);
+    }
+}
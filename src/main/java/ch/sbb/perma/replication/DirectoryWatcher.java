@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.replication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executor;
+
+/**
+ * Wakes the requests waiting for new files when a file is created in the directory, one watcher for all replicas.
+ * <p>
+ *     Perma files and commit markers are renamed to their final name, which is reported as created. Where the file
+ *     system does not report changes, waiting requests back off from {@value #MIN_WAIT_MILLIS} ms to at most
+ *     {@value #MAX_WAIT_MILLIS} ms between listings. A request never waits longer than the maximum without listing
+ *     the directory again, in case an event is lost.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class DirectoryWatcher implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+    static final long MIN_WAIT_MILLIS = 20;
+    static final long MAX_WAIT_MILLIS = 1000;
+
+    private final WatchService watchService;
+    private long changes = 0;
+
+    private DirectoryWatcher(WatchService watchService) {
+        this.watchService = watchService;
+    }
+
+    static DirectoryWatcher start(File dir, Executor executor) {
+        WatchService watchService = null;
+        try {
+            watchService = dir.toPath().getFileSystem().newWatchService();
+            dir.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+        }
+        catch (IOException | UnsupportedOperationException e) {
+            LOG.warn("Cannot watch {}, waiting replicas poll the directory", dir, e);
+            close(watchService);
+            return new DirectoryWatcher(null);
+        }
+        DirectoryWatcher watcher = new DirectoryWatcher(watchService);
+        executor.execute(watcher::watch);
+        return watcher;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                key.pollEvents();
+                changed();
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        }
+        catch (ClosedWatchServiceException e) {
+            // closed with the server
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void changed() {
+        changes++;
+        notifyAll();
+    }
+
+    /**
+     * @return the changes seen so far, pass it to {@link #await(long, int, long)} after listing the directory
+     */
+    synchronized long changes() {
+        return changes;
+    }
+
+    /**
+     * Wait until the directory changed since the changes were taken, or the back off of the attempt is over.
+     *
+     * @param attempt the number of listings without new files, 0 for the first
+     */
+    synchronized void await(long seenChanges, int attempt, long maxMillis) throws InterruptedIOException {
+        long backOff = watchService != null ? MAX_WAIT_MILLIS : MIN_WAIT_MILLIS << Math.min(attempt, 6);
+        long deadline = System.currentTimeMillis() + Math.min(maxMillis, Math.min(backOff, MAX_WAIT_MILLIS));
+        try {
+            for (long remaining = deadline - System.currentTimeMillis();
+                 changes == seenChanges && remaining > 0;
+                 remaining = deadline - System.currentTimeMillis()) {
+                wait(remaining);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for new files");
+        }
+    }
+
+    @Override
+    public void close() {
+        close(watchService);
+    }
+
+    private static void close(WatchService watchService) {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        }
+        catch (IOException e) {
+            LOG.debug("Closing the watch service failed", e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.replication;
+
+import ch.sbb.perma.file.Compression;
+import ch.sbb.perma.file.Durability;
+import ch.sbb.perma.file.FileGroup;
+import ch.sbb.perma.file.GZipCompression;
+import ch.sbb.perma.file.NoCompression;
+import ch.sbb.perma.file.PermaFile;
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local copy of the permas served by a {@link ReplicationServer}.
+ * <p>
+ *     The files are stored in the directory of the replica as on the server, load them with the read only permas and
+ *     refresh them after a sync. A sync requests the files missing since the latest local file, so a replica catches
+ *     up after a disconnect or a restart: only the new delta files are transferred, a full file only if the server has
+ *     compacted. Older generations are deleted after a new full file is received. Files are renamed when complete,
+ *     an interrupted transfer leaves the complete files of the response.
+ * </p>
+ * <p>
+ *     The connection is opened on the first sync and reused, a broken connection is reopened by the next sync.
+ *     Syncs of a replica are serialized.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class Replica implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(Replica.class);
+
+    static final int TIMEOUT_MILLIS = 30_000;
+
+    private final File dir;
+    private final InetSocketAddress server;
+    private final Durability durability;
+
+    private Socket socket;
+    private DataInputStream in;
+    private DataOutputStream out;
+
+    private Replica(File dir, InetSocketAddress server, Durability durability) {
+        this.dir = Preconditions.checkNotNull(dir, "dir is null");
+        this.server = Preconditions.checkNotNull(server, "server is null");
+        this.durability = Preconditions.checkNotNull(durability, "durability is null");
+    }
+
+    public static Replica of(File dir, InetSocketAddress server) {
+        return of(dir, server, Durability.NONE);
+    }
+
+    public static Replica of(File dir, InetSocketAddress server, Durability durability) {
+        return new Replica(dir, server, durability);
+    }
+
+    /**
+     * @return the number of files received
+     */
+    public synchronized int sync(String name) throws IOException {
+        return sync(name, 0);
+    }
+
+    /**
+     * Wait until the server has new files of the perma or the timeout is over.
+     *
+     * @return the number of files received, 0 if none were written on the server until the timeout
+     */
+    public synchronized int await(String name, long timeout, TimeUnit unit) throws IOException {
+        return sync(name, unit.toMillis(timeout));
+    }
+
+    private int sync(String name, long waitMillis) throws IOException {
+        ReplicationProtocol.checkName(name);
+        boolean reused = socket != null;
+        try {
+            return exchange(name, waitMillis);
+        }
+        catch (IOException e) {
+            disconnect();
+            if (!reused) {
+                throw e;
+            }
+            LOG.debug("Connection to {} broken, reconnecting", server, e);
+        }
+        try {
+            return exchange(name, waitMillis);
+        }
+        catch (IOException e) {
+            disconnect();
+            throw e;
+        }
+    }
+
+    private int exchange(String name, long waitMillis) throws IOException {
+        connect();
+        socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, waitMillis + TIMEOUT_MILLIS));
+        FileGroup local = FileGroup.list(dir, name);
+        PermaFile latest = local.exists() ? local.latestFile() : null;
+        out.writeUTF(name);
+        out.writeInt(latest != null ? latest.fullFileNumber() : ReplicationProtocol.NO_FILE);
+        out.writeInt(latest != null ? latest.deltaFileNumber() : ReplicationProtocol.NO_FILE);
+        out.writeLong(waitMillis);
+        out.flush();
+        int count = in.readInt();
+        int receivedFullFileNumber = ReplicationProtocol.NO_FILE;
+        int receivedDeltaFileNumber = ReplicationProtocol.NO_FILE;
+        for (int i = 0; i < count; i++) {
+            int fullFileNumber = in.readInt();
+            int deltaFileNumber = in.readInt();
+            boolean compressed = in.readBoolean();
+            long length = in.readLong();
+            Compression compression = compressed ? GZipCompression.GZIP_COMPRESSION : NoCompression.NO_COMPRESSION;
+            PermaFile file = PermaFile.fullFile(compression, dir, name, fullFileNumber).delta(deltaFileNumber);
+            file.writeStored(in, length, durability);
+            if (deltaFileNumber == 0) {
+                receivedFullFileNumber = fullFileNumber;
+            }
+            receivedDeltaFileNumber = deltaFileNumber;
+        }
+        if (receivedFullFileNumber != ReplicationProtocol.NO_FILE) {
+            deleteOtherFiles(name, receivedFullFileNumber, receivedDeltaFileNumber);
+        }
+        LOG.debug("Received {} files of {} from {}", count, name, server);
+        return count;
+    }
+
+    /**
+     * Delete the other generations and the local delta files after the received ones, the server sent the full file
+     * and all its delta files.
+     */
+    private void deleteOtherFiles(String name, int fullFileNumber, int deltaFileNumber) throws IOException {
+        for (FileGroup generation : FileGroup.listGenerations(dir, name)) {
+            if (generation.fullFile().fullFileNumber() != fullFileNumber) {
+                generation.delete();
+                continue;
+            }
+            for (PermaFile deltaFile : generation.deltaFiles()) {
+                if (deltaFile.deltaFileNumber() > deltaFileNumber) {
+                    deltaFile.delete();
+                }
+            }
+        }
+    }
+
+    private void connect() throws IOException {
+        if (socket != null) {
+            return;
+        }
+        Socket connected = new Socket();
+        try {
+            connected.connect(server, TIMEOUT_MILLIS);
+            connected.setSoTimeout(TIMEOUT_MILLIS);
+            in = new DataInputStream(new BufferedInputStream(connected.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(connected.getOutputStream()));
+            ReplicationProtocol.writeHandshake(out);
+            ReplicationProtocol.readHandshake(in);
+        }
+        catch (IOException e) {
+            connected.close();
+            throw e;
+        }
+        socket = connected;
+        LOG.info("Replicating from {} to {}", server, dir);
+    }
+
+    private void disconnect() {
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close();
+        }
+        catch (IOException e) {
+            LOG.debug("Closing connection to {} failed", server, e);
+        }
+        socket = null;
+        in = null;
+        out = null;
+    }
+
+    @Override
+    public synchronized void close() {
+        disconnect();
+    }
+}
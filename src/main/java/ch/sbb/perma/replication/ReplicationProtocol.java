@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.replication;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The messages exchanged between a {@link Replica} and a {@link ReplicationServer}, all numbers big endian.
+ * <pre>
+ * handshake (both):  int magic "PeMR", int version
+ * request (replica): UTF perma name, int full file number (0 if none), int delta file number, long wait millis
+ * response (server): int file count, per file:
+ *                    int full file number, int delta file number, boolean compressed, long length, the stored bytes
+ * </pre>
+ * The files of a response are in order, a full file is followed by all its delta files. Perma names are plain file name
+ * prefixes, names with path separators are rejected.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+final class ReplicationProtocol {
+    static final int MAGIC = 0x50654d52;
+    static final int VERSION = 1;
+    static final int NO_FILE = 0;
+
+    private ReplicationProtocol() {
+    }
+
+    static void writeHandshake(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.flush();
+    }
+
+    static void readHandshake(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException(String.format("Not a perma replication peer, magic %08x", magic));
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException(String.format("Unsupported replication protocol version %d, expected %d",
+                                                version, VERSION));
+        }
+    }
+
+    /**
+     * Reject names which could reach files outside of the directory of the permas.
+     */
+    static void checkName(String name) throws IOException {
+        if (name.isEmpty() ||
+                name.indexOf('/') >= 0 ||
+                name.indexOf('\\') >= 0 ||
+                name.indexOf(File.separatorChar) >= 0 ||
+                name.indexOf('\0') >= 0) {
+            throw new IOException(String.format("Invalid perma name '%s'", name));
+        }
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.replication;
+
+import ch.sbb.perma.file.FileGroup;
+import ch.sbb.perma.file.PermaFile;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Serve the files of the permas in a directory to {@link Replica}s over TCP.
+ * <p>
+ *     A replica requests a perma with the latest file it has, the server sends the files it is missing as they are
+ *     stored: the new delta files, or the full file and all its delta files if the replica has another generation,
+ *     e.g. after a compaction. A request may wait for new files, one watcher of the directory wakes the waiting
+ *     requests when files are written. Files are only visible when renamed, so only complete files are sent. With a
+ *     commit group only the committed files are sent, see {@link ch.sbb.perma.GroupCommit}.
+ * </p>
+ * <p>
+ *     The server does not authenticate replicas. It binds to the loopback address unless another address is
+ *     configured, expose it only to trusted networks. Names with path separators are rejected, and only the permas
+ *     configured are served, if any:
+ * </p>
+ * <pre>
+ * ReplicationServer server = ReplicationServer.builder(dir)
+ *         .bindAddress(InetAddress.getByName("10.0.0.1"))
+ *         .port(7070)
+ *         .permas("stations", "lines")
+ *         .start();
+ * </pre>
+ * <p>
+ *     Each connection is served by its own thread, the server keeps no state about the replicas. At most
+ *     {@link Builder#maxConnections(int)} replicas are served at the same time, further connections are closed when
+ *     accepted. A request waits at most {@link Builder#maxWait(long, TimeUnit)} for new files, whatever the replica
+ *     asked for.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class ReplicationServer implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicationServer.class);
+
+    private static final int OPEN_ATTEMPTS = 3;
+    private static final int DEFAULT_MAX_CONNECTIONS = 64;
+    private static final long DEFAULT_MAX_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Configures and starts a server, see {@link ReplicationServer#builder(File)}.
+     */
+    public static final class Builder {
+        private final File dir;
+        private InetAddress bindAddress = InetAddress.getLoopbackAddress();
+        private int port = 0;
+        private String commitGroup = null;
+        private ImmutableSet<String> permas = null;
+        private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+        private long maxWaitMillis = DEFAULT_MAX_WAIT_MILLIS;
+
+        private Builder(File dir) {
+            this.dir = Preconditions.checkNotNull(dir, "dir is null");
+        }
+
+        /**
+         * @param bindAddress the loopback address by default, e.g. the wildcard address to accept any interface
+         */
+        public Builder bindAddress(InetAddress bindAddress) {
+            this.bindAddress = Preconditions.checkNotNull(bindAddress, "bindAddress is null");
+            return this;
+        }
+
+        /**
+         * @param port 0 (the default) for any free port, see {@link ReplicationServer#port()}
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * @param commitGroup serve only the files committed in the group, null (the default) to serve the latest files
+         */
+        public Builder commitGroup(String commitGroup) {
+            this.commitGroup = commitGroup;
+            return this;
+        }
+
+        /**
+         * Serve only these permas, all permas of the directory by default.
+         */
+        public Builder permas(String... permas) {
+            return permas(Arrays.asList(permas));
+        }
+
+        public Builder permas(Collection<String> permas) {
+            this.permas = ImmutableSet.copyOf(permas);
+            return this;
+        }
+
+        /**
+         * @param maxConnections the replicas served at the same time, {@value #DEFAULT_MAX_CONNECTIONS} by default
+         */
+        public Builder maxConnections(int maxConnections) {
+            Preconditions.checkArgument(maxConnections > 0, "maxConnections %s is not positive", maxConnections);
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * @param maxWait the longest a request waits for new files, one minute by default
+         */
+        public Builder maxWait(long maxWait, TimeUnit unit) {
+            Preconditions.checkArgument(maxWait >= 0, "maxWait %s is negative", maxWait);
+            this.maxWaitMillis = unit.toMillis(maxWait);
+            return this;
+        }
+
+        public ReplicationServer start() throws IOException {
+            ServerSocket serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(new InetSocketAddress(bindAddress, port));
+            ReplicationServer server = new ReplicationServer(dir,
+                                                             commitGroup,
+                                                             permas,
+                                                             maxConnections,
+                                                             maxWaitMillis,
+                                                             serverSocket);
+            server.threads.execute(server::accept);
+            LOG.info("Replicating permas in {} on {}", dir, serverSocket.getLocalSocketAddress());
+            return server;
+        }
+    }
+
+    private final File dir;
+    private final String commitGroup;
+    private final ImmutableSet<String> permas;
+    private final int maxConnections;
+    private final long maxWaitMillis;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Semaphore connectionPermits;
+    private final ThreadPoolExecutor threads;
+
+    private final DirectoryWatcher watcher;
+
+    private ReplicationServer(File dir,
+                              String commitGroup,
+                              ImmutableSet<String> permas,
+                              int maxConnections,
+                              long maxWaitMillis,
+                              ServerSocket serverSocket) {
+        this.dir = dir;
+        this.commitGroup = commitGroup;
+        this.permas = permas;
+        this.maxConnections = maxConnections;
+        this.maxWaitMillis = maxWaitMillis;
+        this.serverSocket = serverSocket;
+        this.connectionPermits = new Semaphore(maxConnections);
+        // the accepting thread, the watcher and a thread per connection
+        this.threads = new ThreadPoolExecutor(
+                maxConnections + 2,
+                maxConnections + 2,
+                1,
+                TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("perma-replication-%d").build());
+        this.threads.allowCoreThreadTimeOut(true);
+        this.watcher = DirectoryWatcher.start(dir, threads);
+    }
+
+    public static Builder builder(File dir) {
+        return new Builder(dir);
+    }
+
+    /**
+     * Serve all permas of the directory on the loopback address.
+     *
+     * @param port 0 for any free port, see {@link #port()}
+     */
+    public static ReplicationServer start(File dir, int port) throws IOException {
+        return builder(dir).port(port).start();
+    }
+
+    /**
+     * @param commitGroup serve only the files committed in the group, null to serve the latest files
+     */
+    public static ReplicationServer start(File dir, int port, String commitGroup) throws IOException {
+        return builder(dir).port(port).commitGroup(commitGroup).start();
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                if (!connectionPermits.tryAcquire()) {
+                    LOG.warn("Closing connection of {}, {} replicas are served",
+                             socket.getRemoteSocketAddress(),
+                             maxConnections);
+                    socket.close();
+                    continue;
+                }
+                connections.add(socket);
+                threads.execute(() -> serve(socket));
+            }
+            catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    LOG.warn("Accepting a replica failed", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket closed = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            ReplicationProtocol.readHandshake(in);
+            ReplicationProtocol.writeHandshake(out);
+            while (true) {
+                String name;
+                try {
+                    name = in.readUTF();
+                }
+                catch (EOFException e) {
+                    return; // replica disconnected
+                }
+                int fullFileNumber = in.readInt();
+                int deltaFileNumber = in.readInt();
+                long waitMillis = in.readLong();
+                checkServed(name);
+                respond(out, name, fullFileNumber, deltaFileNumber, waitMillis);
+            }
+        }
+        catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                LOG.warn("Replicating to {} failed", socket.getRemoteSocketAddress(), e);
+            }
+        }
+        finally {
+            connections.remove(socket);
+            connectionPermits.release();
+        }
+    }
+
+    private void respond(DataOutputStream out,
+                         String name,
+                         int fullFileNumber,
+                         int deltaFileNumber,
+                         long waitMillis) throws IOException {
+        long deadline = System.currentTimeMillis() + Math.max(0, Math.min(waitMillis, maxWaitMillis));
+        long seenChanges = watcher.changes();
+        List<Opened> files = open(name, fullFileNumber, deltaFileNumber);
+        try {
+            for (int attempt = 0; files.isEmpty() && System.currentTimeMillis() < deadline; attempt++) {
+                watcher.await(seenChanges, attempt, deadline - System.currentTimeMillis());
+                seenChanges = watcher.changes();
+                files = open(name, fullFileNumber, deltaFileNumber);
+            }
+            out.writeInt(files.size());
+            for (Opened opened : files) {
+                out.writeInt(opened.file.fullFileNumber());
+                out.writeInt(opened.file.deltaFileNumber());
+                out.writeBoolean(opened.file.isCompressed());
+                out.writeLong(opened.length);
+                ByteStreams.copy(ByteStreams.limit(opened.in, opened.length), out);
+            }
+            out.flush();
+        }
+        finally {
+            close(files);
+        }
+        LOG.debug("Sent {} files of {} to replica", files.size(), name);
+    }
+
+    /**
+     * Open the files first, so they are sent even if a compaction deletes them in the meantime.
+     */
+    private List<Opened> open(String name, int fullFileNumber, int deltaFileNumber) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            List<Opened> opened = new ArrayList<>();
+            try {
+                for (PermaFile file : missing(name, fullFileNumber, deltaFileNumber)) {
+                    FileInputStream in = file.openStored();
+                    opened.add(new Opened(file, in, in.getChannel().size()));
+                }
+                return opened;
+            }
+            catch (FileNotFoundException e) {
+                close(opened);
+                if (attempt == OPEN_ATTEMPTS) {
+                    throw e;
+                }
+                LOG.debug("File of {} deleted while opening, listing again", name, e);
+            }
+        }
+    }
+
+    private List<PermaFile> missing(String name, int fullFileNumber, int deltaFileNumber) throws IOException {
+        FileGroup files = FileGroup.list(dir, name, commitGroup);
+        if (!files.exists()) {
+            return Collections.emptyList();
+        }
+        List<PermaFile> deltaFiles = files.deltaFiles();
+        int latestDeltaFileNumber = deltaFiles.isEmpty() ? 0 : files.latestDeltaFile().deltaFileNumber();
+        if (files.fullFile().fullFileNumber() == fullFileNumber && deltaFileNumber <= latestDeltaFileNumber) {
+            return deltaFiles.stream()
+                             .filter(deltaFile -> deltaFile.deltaFileNumber() > deltaFileNumber)
+                             .collect(Collectors.toList());
+        }
+        List<PermaFile> all = new ArrayList<>();
+        all.add(files.fullFile());
+        all.addAll(deltaFiles);
+        return all;
+    }
+
+    private void checkServed(String name) throws IOException {
+        ReplicationProtocol.checkName(name);
+        if (permas != null && !permas.contains(name)) {
+            throw new IOException(String.format("Perma %s is not served", name));
+        }
+    }
+
+    private static void close(List<Opened> files) {
+        for (Opened opened : files) {
+            try {
+                opened.in.close();
+            }
+            catch (IOException e) {
+                LOG.debug("Closing {} failed", opened.file, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        watcher.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+        threads.shutdownNow();
+        LOG.info("Stopped replicating permas in {}", dir);
+    }
+
+    private static final class Opened {
+        private final PermaFile file;
+        private final FileInputStream in;
+        private final long length;
+
+        private Opened(PermaFile file, FileInputStream in, long length) {
+            this.file = file;
+            this.in = in;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+import com.google.common.base.Preconditions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serialize the fields of a bean (or any other class) positionally with a serializer per field.
+ * <p>
+ *     The field accessors and the no-args constructor (may be private) are looked up once as method handles, there is
+ *     no reflection and no class descriptor per value as with {@link JavaObjectSerializer}. Final fields are supported.
+ *     Fields may be null, primitive fields use the serializer of their wrapper type.
+ * </p>
+ * <p>
+ *     Schema evolution: new fields may be added at the end. Fields missing in values written before keep the value set by
+ *     the constructor, fields unknown to the serializer (written by a newer schema) are skipped. Fields must not be
+ *     removed or reordered.
+ * </p>
+ * <p>
+ *     The fields are registered explicitly and are not derived from the class: the order of the fields returned by
+ *     reflection is unspecified, but it is the binary form.
+ * </p>
+ * <pre>
+ * BeanSerializer&lt;Station&gt; serializer = BeanSerializer.builder(Station.class)
+ *                                                    .field("id", INTEGER)
+ *                                                    .field("name", STRING)
+ *                                                    .build();
+ * </pre>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public class BeanSerializer<T> implements BufferSerializer<T> {
+    public static class Builder<T> {
+        private final Class<T> beanClass;
+        private final List<String> names = new ArrayList<>();
+        private final List<KeyOrValueSerializer<?>> serializers = new ArrayList<>();
+
+        private Builder(Class<T> beanClass) {
+            this.beanClass = Preconditions.checkNotNull(beanClass, "beanClass is null");
+        }
+
+        /**
+         * Add the next field, the order of the fields is the binary form.
+         */
+        public Builder<T> field(String name, KeyOrValueSerializer<?> serializer) {
+            Preconditions.checkNotNull(name, "name is null");
+            Preconditions.checkNotNull(serializer, "serializer is null");
+            Preconditions.checkArgument(!names.contains(name), "Duplicate field %s", name);
+            names.add(name);
+            serializers.add(serializer);
+            return this;
+        }
+
+        public BeanSerializer<T> build() {
+            return new BeanSerializer<>(beanClass, names, serializers);
+        }
+    }
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<T> beanClass;
+    private final MethodHandle constructor;
+    private final MethodHandle[] getters;
+    private final MethodHandle[] setters;
+    private final boolean[] primitive;
+    private final BufferSerializer[] serializers;
+
+    private BeanSerializer(Class<T> beanClass, List<String> names, List<KeyOrValueSerializer<?>> serializers) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        this.beanClass = beanClass;
+        this.getters = new MethodHandle[names.size()];
+        this.setters = new MethodHandle[names.size()];
+        this.primitive = new boolean[names.size()];
+        this.serializers = new BufferSerializer[names.size()];
+        try {
+            Constructor<T> noArgs = beanClass.getDeclaredConstructor();
+            noArgs.setAccessible(true);
+            this.constructor = lookup.unreflectConstructor(noArgs).asType(CONSTRUCTOR_TYPE);
+            for (int i = 0; i < names.size(); i++) {
+                Field field = findField(beanClass, names.get(i));
+                field.setAccessible(true);
+                getters[i] = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                setters[i] = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+                primitive[i] = field.getType().isPrimitive();
+                this.serializers[i] = BufferSerializer.of(serializers.get(i));
+            }
+        }
+        catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(String.format("%s has no no-args constructor", beanClass.getName()), e);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(String.format("%s is not accessible", beanClass.getName()), e);
+        }
+    }
+
+    public static <T> Builder<T> builder(Class<T> beanClass) {
+        return new Builder<>(beanClass);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean writeTo(T bean, WriteBuffer out) {
+        out.writeVarInt(getters.length);
+        for (int i = 0; i < getters.length; i++) {
+            Object value = get(i, bean);
+            if (value == null) {
+                out.writeWithLength(null);
+            }
+            else if (!out.writeWithLength(serializers[i], value)) {
+                throw new IllegalArgumentException(String.format(
+                        "To Null Serializer is not allowed as field serializer in bean serializer: %s",
+                        serializers[i]));
+            }
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T readFrom(ReadBuffer in) {
+        T bean = newBean();
+        int count = in.readVarInt();
+        for (int i = 0; i < count; i++) {
+            if (i >= setters.length) {
+                in.readWithLength();
+                continue;
+            }
+            Object value = in.readNullableWithLength(serializers[i]);
+            if (value != null || !primitive[i]) {
+                set(i, bean, value);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public int estimatedSize(T bean) {
+        return 1 + getters.length * 12;
+    }
+
+    private Object get(int field, Object bean) {
+        try {
+            return (Object) getters[field].invokeExact(bean);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void set(int field, Object bean, Object value) {
+        try {
+            setters[field].invokeExact(bean, value);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T newBean() {
+        try {
+            return (T) (Object) constructor.invokeExact();
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new IllegalStateException(String.format("Creating %s failed", beanClass.getName()), e);
+        }
+    }
+
+    private static Field findField(Class<?> beanClass, String name) {
+        for (Class<?> type = beanClass; type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                Preconditions.checkArgument(!Modifier.isStatic(field.getModifiers()),
+                                            String.format("Field %s of %s is static", name, beanClass.getName()));
+                return field;
+            }
+            catch (NoSuchFieldException e) {
+                // look in the superclass
+            }
+        }
+        throw new IllegalArgumentException(String.format("%s has no field %s", beanClass.getName(), name));
+    }
+}
@@ -11,18 +11,16 @@ import java.math.BigInteger;
  * @author u206123 (Florian Seidl)
  * @since 3.1, 2017.
  */
-public class BigDecimalSerializer implements KeyOrValueSerializer<BigDecimal> {
+public class BigDecimalSerializer implements BufferSerializer<BigDecimal> {
     @Override
-    public byte[] toByteArray(BigDecimal bigDecimal) {
-        CompoundBinaryWriter writer = new CompoundBinaryWriter();
-        writer.writeWithLength(bigDecimal.unscaledValue().toByteArray());
-        writer.writeInt(bigDecimal.scale());
-        return writer.toByteArray();
+    public boolean writeTo(BigDecimal bigDecimal, WriteBuffer out) {
+        out.writeWithLength(bigDecimal.unscaledValue().toByteArray());
+        out.writeInt(bigDecimal.scale());
+        return true;
     }
 
     @Override
-    public BigDecimal fromByteArray(byte[] bytes) {
-        CompoundBinaryReader reader = new CompoundBinaryReader(bytes);
-        return new BigDecimal(new BigInteger(reader.readWithLength()), reader.readInt());
+    public BigDecimal readFrom(ReadBuffer in) {
+        return new BigDecimal(new BigInteger(in.readWithLength()), in.readInt());
     }
 }
@@ -10,18 +10,15 @@ import java.math.BigInteger;
  * @author u206123 (Florian Seidl)
  * @since 3.1, 2017.
  */
-public class BigIntegerSerializer implements KeyOrValueSerializer<BigInteger> {
-
+public class BigIntegerSerializer implements BufferSerializer<BigInteger> {
     @Override
-    public byte[] toByteArray(BigInteger bigInteger) {
-        CompoundBinaryWriter writer = new CompoundBinaryWriter();
-        writer.writeWithLength(bigInteger.toByteArray());
-        return writer.toByteArray();
+    public boolean writeTo(BigInteger bigInteger, WriteBuffer out) {
+        out.writeWithLength(bigInteger.toByteArray());
+        return true;
     }
 
     @Override
-    public BigInteger fromByteArray(byte[] bytes) {
-        CompoundBinaryReader reader = new CompoundBinaryReader(bytes);
-        return new BigInteger(reader.readWithLength());
+    public BigInteger readFrom(ReadBuffer in) {
+        return new BigInteger(in.readWithLength());
     }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+/**
+ * Serialize a key or a value directly into a reusable buffer and read it from a buffer without intermediate arrays.
+ * <p>
+ *     All built-in serializers implement this interface. Perma adapts custom {@link KeyOrValueSerializer}s
+ *     using {@link #of(KeyOrValueSerializer)}, so implementing it is only required for better performance.
+ *     The binary form is the same as the one of {@link #toByteArray(Object)}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public interface BufferSerializer<T> extends KeyOrValueSerializer<T> {
+    int DEFAULT_ESTIMATED_SIZE = 32;
+
+    /**
+     * Append the binary form of the object to the buffer.
+     *
+     * @return false if the object is serialized to null (nothing must be written to the buffer in that case)
+     */
+    boolean writeTo(T object, WriteBuffer out);
+
+    /**
+     * Read the object from the buffer. The buffer ends where the binary form of the object ends.
+     *
+     * @param in the binary form or null if the object was serialized to null
+     */
+    T readFrom(ReadBuffer in);
+
+    /**
+     * The (estimated) number of bytes of the binary form, used to size buffers.
+     */
+    default int estimatedSize(T object) {
+        return DEFAULT_ESTIMATED_SIZE;
+    }
+
+    @Override
+    default byte[] toByteArray(T object) {
+        WriteBuffer out = new WriteBuffer(estimatedSize(object));
+        return writeTo(object, out) ? out.toByteArray() : null;
+    }
+
+    @Override
+    default T fromByteArray(byte[] bytes) {
+        return readFrom(bytes != null ? new ReadBuffer(bytes) : null);
+    }
+
+    /**
+     * The given serializer if it is a buffer serializer, an adapter for a custom serializer else.
+     */
+    static <T> BufferSerializer<T> of(KeyOrValueSerializer<T> serializer) {
+        if (serializer instanceof BufferSerializer) {
+            return (BufferSerializer<T>) serializer;
+        }
+        return new ByteArraySerializerAdapter<>(serializer);
+    }
+}
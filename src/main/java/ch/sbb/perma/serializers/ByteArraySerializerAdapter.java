@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+/**
+ * Use a custom serializer producing byte arrays as buffer serializer.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+class ByteArraySerializerAdapter<T> implements BufferSerializer<T> {
+    private final KeyOrValueSerializer<T> serializer;
+
+    ByteArraySerializerAdapter(KeyOrValueSerializer<T> serializer) {
+        if (serializer == null) {
+            throw new NullPointerException("Serializer is null");
+        }
+        this.serializer = serializer;
+    }
+
+    @Override
+    public boolean writeTo(T object, WriteBuffer out) {
+        byte[] bytes = serializer.toByteArray(object);
+        if (bytes == null) {
+            return false;
+        }
+        out.write(bytes);
+        return true;
+    }
+
+    @Override
+    public T readFrom(ReadBuffer in) {
+        return serializer.fromByteArray(in != null ? in.readRemaining() : null);
+    }
+
+    @Override
+    public byte[] toByteArray(T object) {
+        return serializer.toByteArray(object);
+    }
+
+    @Override
+    public T fromByteArray(byte[] bytes) {
+        return serializer.fromByteArray(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return "ByteArraySerializerAdapter{" +
+                "serializer=" + serializer.getClass().getName() +
+                '}';
+    }
+}
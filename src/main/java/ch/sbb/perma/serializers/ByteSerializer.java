@@ -8,14 +8,20 @@ package ch.sbb.perma.serializers;
  * @author u206123 (Florian Seidl)
  * @since 3.1, 2017.
  */
-public class ByteSerializer implements KeyOrValueSerializer<Byte> {
+public class ByteSerializer implements BufferSerializer<Byte> {
     @Override
-    public byte[] toByteArray(Byte byteValue) {
-        return new byte[]{byteValue};
+    public boolean writeTo(Byte byteValue, WriteBuffer out) {
+        out.writeByte(byteValue);
+        return true;
     }
 
     @Override
-    public Byte fromByteArray(byte[] bytes) {
-        return bytes[0];
+    public Byte readFrom(ReadBuffer in) {
+        return (byte) in.readByte();
+    }
+
+    @Override
+    public int estimatedSize(Byte byteValue) {
+        return 1;
     }
 }
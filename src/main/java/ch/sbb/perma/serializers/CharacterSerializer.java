@@ -4,22 +4,26 @@
 
 package ch.sbb.perma.serializers;
 
-import com.google.common.primitives.Chars;
-
 /**
  * Serialize single characters to 2 bytes.
  *
  * @author u206123 (Florian Seidl)
  * @since 5.1, 2017.
  */
-public class CharacterSerializer implements KeyOrValueSerializer<Character> {
+public class CharacterSerializer implements BufferSerializer<Character> {
+    @Override
+    public boolean writeTo(Character charValue, WriteBuffer out) {
+        out.writeChar(charValue);
+        return true;
+    }
+
     @Override
-    public byte[] toByteArray(Character charValue) {
-        return Chars.toByteArray(charValue);
+    public Character readFrom(ReadBuffer in) {
+        return in.readChar();
     }
 
     @Override
-    public Character fromByteArray(byte[] bytes) {
-        return Chars.fromByteArray(bytes);
+    public int estimatedSize(Character charValue) {
+        return 2;
     }
 }
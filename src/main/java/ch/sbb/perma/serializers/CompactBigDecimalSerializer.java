@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Serialize BigDecimals with variable length scale and unscaled value.
+ * <p>
+ *     Amounts and measures with a small scale and an unscaled value fitting a long take a few bytes
+ *     (12.50 takes 3 bytes instead of 10), larger unscaled values are written as two's complement bytes.
+ *     The binary form differs from {@link BigDecimalSerializer}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public class CompactBigDecimalSerializer implements BufferSerializer<BigDecimal> {
+    @Override
+    public boolean writeTo(BigDecimal bigDecimal, WriteBuffer out) {
+        BigInteger unscaled = bigDecimal.unscaledValue();
+        boolean big = unscaled.bitLength() > 63;
+        long scale = VarIntegerSerializer.zigZag(bigDecimal.scale()) & 0xFFFFFFFFL;
+        out.writeVarLong(scale << 1 | (big ? 1 : 0));
+        if (big) {
+            out.write(unscaled.toByteArray());
+        } else {
+            out.writeVarLong(VarLongSerializer.zigZag(unscaled.longValue()));
+        }
+        return true;
+    }
+
+    @Override
+    public BigDecimal readFrom(ReadBuffer in) {
+        long header = in.readVarLong();
+        int scale = VarIntegerSerializer.unZigZag((int) (header >>> 1));
+        if ((header & 1) != 0) {
+            return new BigDecimal(new BigInteger(in.readRemaining()), scale);
+        }
+        return BigDecimal.valueOf(VarLongSerializer.unZigZag(in.readVarLong()), scale);
+    }
+
+    @Override
+    public int estimatedSize(BigDecimal bigDecimal) {
+        return 12;
+    }
+}
@@ -4,65 +4,38 @@
 
 package ch.sbb.perma.serializers;
 
-import ch.sbb.perma.datastore.BinaryReader;
-
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-
 /**
  * Read multiple items from bytes.
+ * <p>
+ *     Prefer implementing {@link BufferSerializer} and reading from the given {@link ReadBuffer} in new serializers.
+ * </p>
  *
  * @author u206123 (Florian Seidl)
  * @since 2.1, 2017.
  */
 public class CompoundBinaryReader {
-    private final BinaryReader reader;
+    private final ReadBuffer reader;
     public CompoundBinaryReader(byte[] bytes) {
-        reader = new BinaryReader(new ByteArrayInputStream(bytes));
+        reader = new ReadBuffer(bytes);
     }
 
     public byte[] readWithLength() {
-        try {
-            return reader.readWithLength();
-        }
-        catch (IOException ex) {
-            throw new IllegalStateException(ex);
-        }
+        return reader.readWithLength();
     }
 
     public int readInt() {
-        try {
-            return reader.readInt();
-        }
-        catch (IOException ex) {
-            throw new IllegalStateException(ex);
-        }
+        return reader.readInt();
     }
 
     public int readByte() {
-        try {
-            return reader.readByte();
-        }
-        catch (IOException ex) {
-            throw new IllegalStateException(ex);
-        }
+        return reader.readByte();
     }
 
     public short readShort() {
-        try {
-            return reader.readShort();
-        }
-        catch (IOException ex) {
-            throw new IllegalStateException(ex);
-        }
+        return reader.readShort();
     }
 
     public long readLong() {
-        try {
-            return reader.readLong();
-        }
-        catch (IOException ex) {
-            throw new IllegalStateException(ex);
-        }
+        return reader.readLong();
     }
 }
@@ -4,63 +4,41 @@
 
 package ch.sbb.perma.serializers;
 
-import ch.sbb.perma.datastore.BinaryWriter;
-
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-
 /**
  * Write multiple items to bytes.
+ * <p>
+ *     Prefer implementing {@link BufferSerializer} and writing to the given {@link WriteBuffer} in new serializers,
+ *     this avoids the intermediate array.
+ * </p>
  *
  * @author u206123 (Florian Seidl)
  * @since 2.1, 2017.
  */
 public class CompoundBinaryWriter {
-    private final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-    private final BinaryWriter writer = new BinaryWriter(bos);
+    private final WriteBuffer buffer = new WriteBuffer();
 
     public void writeWithLength(byte[] bytes) {
-        try {
-            writer.writeWithLength(bytes);
-        } catch (IOException ex) {
-            throw new IllegalStateException(ex);
-        }
+        buffer.writeWithLength(bytes);
     }
 
     public void writeInt(int length) {
-        try {
-            writer.writeInt(length);
-        } catch (IOException ex) {
-            throw new IllegalStateException(ex);
-        }
+        buffer.writeInt(length);
     }
 
     public void writeByte(int byteValue) {
-        try {
-            writer.writeByte(byteValue);
-        } catch (IOException ex) {
-            throw new IllegalStateException(ex);
-        }
+        buffer.writeByte(byteValue);
     }
 
     public void writeShort(short shortValue) {
-        try {
-            writer.writeShort(shortValue);
-        } catch (IOException ex) {
-            throw new IllegalStateException(ex);
-        }
+        buffer.writeShort(shortValue);
     }
 
 
     public void writeLong(long longValue) {
-        try {
-            writer.writeLong(longValue);
-        } catch (IOException ex) {
-            throw new IllegalStateException(ex);
-        }
+        buffer.writeLong(longValue);
     }
 
     public byte[] toByteArray() {
-        return bos.toByteArray();
+        return buffer.toByteArray();
     }
 }
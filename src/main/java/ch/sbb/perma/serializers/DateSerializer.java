@@ -10,14 +10,20 @@ import java.util.Date;
  * @author u206123 (Florian Seidl)
  * @since 3.1, 2017.
  */
-public class DateSerializer implements KeyOrValueSerializer<Date> {
+public class DateSerializer implements BufferSerializer<Date> {
     @Override
-    public byte[] toByteArray(Date date) {
-        return LONG.toByteArray(date.getTime());
+    public boolean writeTo(Date date, WriteBuffer out) {
+        out.writeLong(date.getTime());
+        return true;
     }
 
     @Override
-    public Date fromByteArray(byte[] bytes) {
-        return new Date(LONG.fromByteArray(bytes));
+    public Date readFrom(ReadBuffer in) {
+        return new Date(in.readLong());
+    }
+
+    @Override
+    public int estimatedSize(Date date) {
+        return 8;
     }
 }
@@ -4,21 +4,24 @@
 
 package ch.sbb.perma.serializers;
 
-import com.google.common.primitives.Longs;
-
 /**
  * @author u206123 (Florian Seidl)
  * @since 3.1, 2017.
  */
-public class DoubleSerializer implements KeyOrValueSerializer<Double> {
+public class DoubleSerializer implements BufferSerializer<Double> {
+    @Override
+    public boolean writeTo(Double doubleValue, WriteBuffer out) {
+        out.writeLong(Double.doubleToRawLongBits(doubleValue));
+        return true;
+    }
 
     @Override
-    public byte[] toByteArray(Double doubleValue) {
-        return Longs.toByteArray(Double.doubleToRawLongBits(doubleValue));
+    public Double readFrom(ReadBuffer in) {
+        return Double.longBitsToDouble(in.readLong());
     }
 
     @Override
-    public Double fromByteArray(byte[] bytes) {
-        return Double.longBitsToDouble(Longs.fromByteArray(bytes));
+    public int estimatedSize(Double doubleValue) {
+        return 8;
     }
 }
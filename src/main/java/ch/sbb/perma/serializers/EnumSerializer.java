@@ -10,7 +10,7 @@ package ch.sbb.perma.serializers;
  * @author u206123 (Florian Seidl)
  * @since 5.1, 2018.
  */
-public class EnumSerializer<T extends Enum<T>> implements KeyOrValueSerializer<T> {
+public class EnumSerializer<T extends Enum<T>> implements BufferSerializer<T> {
     private final Class<T> enumClass;
 
     public EnumSerializer(Class<T> enumClass) {
@@ -18,12 +18,12 @@ public class EnumSerializer<T extends Enum<T>> implements KeyOrValueSerializer<T
     }
 
     @Override
-    public byte[] toByteArray(T enumObject) {
-        return STRING.toByteArray(enumObject.name());
+    public boolean writeTo(T enumObject, WriteBuffer out) {
+        return STRING.writeTo(enumObject.name(), out);
     }
 
     @Override
-    public T fromByteArray(byte[] bytes) {
-        return Enum.valueOf(enumClass, STRING.fromByteArray(bytes));
+    public T readFrom(ReadBuffer in) {
+        return Enum.valueOf(enumClass, STRING.readFrom(in));
     }
 }
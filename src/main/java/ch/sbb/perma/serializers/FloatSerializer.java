@@ -4,21 +4,24 @@
 
 package ch.sbb.perma.serializers;
 
-import com.google.common.primitives.Ints;
-
 /**
  * @author u206123 (Florian Seidl)
  * @since 3.1, 2017.
  */
-public class FloatSerializer implements KeyOrValueSerializer<Float> {
+public class FloatSerializer implements BufferSerializer<Float> {
+    @Override
+    public boolean writeTo(Float floatValue, WriteBuffer out) {
+        out.writeInt(Float.floatToRawIntBits(floatValue));
+        return true;
+    }
 
     @Override
-    public byte[] toByteArray(Float floatValue) {
-        return Ints.toByteArray(Float.floatToRawIntBits(floatValue));
+    public Float readFrom(ReadBuffer in) {
+        return Float.intBitsToFloat(in.readInt());
     }
 
     @Override
-    public Float fromByteArray(byte[] bytes) {
-        return Float.intBitsToFloat(Ints.fromByteArray(bytes));
+    public int estimatedSize(Float floatValue) {
+        return 4;
     }
 }
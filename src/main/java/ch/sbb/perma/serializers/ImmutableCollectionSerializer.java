@@ -12,30 +12,29 @@ import com.google.common.collect.ImmutableCollection;
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public abstract class ImmutableCollectionSerializer<C extends ImmutableCollection<T>, T> implements KeyOrValueSerializer<C> {
-    private final KeyOrValueSerializer<T> itemSerializer;
+public abstract class ImmutableCollectionSerializer<C extends ImmutableCollection<T>, T> implements BufferSerializer<C> {
+    private final BufferSerializer<T> itemSerializer;
 
     public ImmutableCollectionSerializer(KeyOrValueSerializer<T> itemSerializier) {
-        this.itemSerializer = itemSerializier;
+        this.itemSerializer = BufferSerializer.of(itemSerializier);
     }
 
     @Override
-    public byte[] toByteArray(C collection) {
-        CompoundBinaryWriter writer = new CompoundBinaryWriter();
-        writer.writeInt(collection.size());
+    public boolean writeTo(C collection, WriteBuffer out) {
+        out.writeInt(collection.size());
         for (T item : collection) {
-            writer.writeWithLength(itemSerializer.toByteArray(item));
+            out.writeWithLength(itemSerializer, item);
         }
-        return writer.toByteArray();
+        return true;
     }
 
+    @Override
     @SuppressWarnings("unchecked")
-    public C fromByteArray(byte[] bytes) {
-        CompoundBinaryReader reader = new CompoundBinaryReader(bytes);
-        int collectionSize = reader.readInt();
+    public C readFrom(ReadBuffer in) {
+        int collectionSize = in.readInt();
         ImmutableCollection.Builder<T> builder = collectionBuilder();
         for (int i = 0; i < collectionSize; i++) {
-            builder.add(itemSerializer.fromByteArray(reader.readWithLength()));
+            builder.add(in.readWithLength(itemSerializer));
         }
         return (C) builder.build();
     }
@@ -4,20 +4,24 @@
 
 package ch.sbb.perma.serializers;
 
-import com.google.common.primitives.Ints;
-
 /**
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public class IntegerSerializer implements KeyOrValueSerializer<Integer> {
+public class IntegerSerializer implements BufferSerializer<Integer> {
+    @Override
+    public boolean writeTo(Integer integer, WriteBuffer out) {
+        out.writeInt(integer);
+        return true;
+    }
+
     @Override
-    public byte[] toByteArray(Integer integer) {
-        return Ints.toByteArray(integer);
+    public Integer readFrom(ReadBuffer in) {
+        return in.readInt();
     }
 
     @Override
-    public Integer fromByteArray(byte[] bytes) {
-        return Ints.fromByteArray(bytes);
+    public int estimatedSize(Integer integer) {
+        return 4;
     }
 }
@@ -14,14 +14,13 @@ import java.io.*;
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public class JavaObjectSerializer<T extends Serializable> implements KeyOrValueSerializer<T> {
+public class JavaObjectSerializer<T extends Serializable> implements BufferSerializer<T> {
     @Override
-    public byte[] toByteArray(T object) {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        try (ObjectOutput oos = new ObjectOutputStream(bos)) {
+    public boolean writeTo(T object, WriteBuffer out) {
+        try (ObjectOutput oos = new ObjectOutputStream(out.asOutputStream())) {
             oos.writeObject(object);
             oos.flush();
-            return bos.toByteArray();
+            return true;
         }
         catch (IOException ex) {
             throw new IllegalStateException(ex);
@@ -30,13 +29,17 @@ public class JavaObjectSerializer<T extends Serializable> implements KeyOrValueS
 
     @Override
     @SuppressWarnings("unchecked")
-    public T fromByteArray(byte[] bytes) {
-        ByteArrayInputStream bis = new ByteArrayInputStream(bytes);
-        try (ObjectInputStream ois = new ObjectInputStream(bis)) {
+    public T readFrom(ReadBuffer in) {
+        try (ObjectInputStream ois = new ObjectInputStream(in.asInputStream())) {
             return (T) ois.readObject();
         }
         catch (IOException | ClassNotFoundException ex) {
             throw new IllegalStateException(ex);
         }
     }
+
+    @Override
+    public int estimatedSize(T object) {
+        return 256;
+    }
 }
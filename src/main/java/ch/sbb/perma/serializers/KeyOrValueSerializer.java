@@ -8,6 +8,7 @@ package ch.sbb.perma.serializers;
  * Serialize a key or a value.
  * <p>
  *     Extend this to implement a custom serializer.
+ *     Implement {@link BufferSerializer} instead to avoid intermediate arrays (as all built-in serializers do).
  * </p>
  *
  * @author u206123 (Florian Seidl)
@@ -32,6 +33,13 @@ public interface KeyOrValueSerializer<T> {
     ZonedDateTimeSerializer ZONED_DATE_TIME = new ZonedDateTimeSerializer();
     OffsetDateTimeSerializer OFFSET_DATE_TIME = new OffsetDateTimeSerializer();
     DateSerializer DATE = new DateSerializer();
+    VarIntegerSerializer VAR_INTEGER = new VarIntegerSerializer();
+    VarLongSerializer VAR_LONG = new VarLongSerializer();
+    CompactBigDecimalSerializer COMPACT_BIG_DECIMAL = new CompactBigDecimalSerializer();
+    PackedLocalDateSerializer PACKED_LOCAL_DATE = new PackedLocalDateSerializer();
+    PackedLocalTimeSerializer PACKED_LOCAL_TIME = new PackedLocalTimeSerializer();
+    PackedLocalDateTimeSerializer PACKED_LOCAL_DATE_TIME = new PackedLocalDateTimeSerializer();
+    PackedZonedDateTimeSerializer PACKED_ZONED_DATE_TIME = new PackedZonedDateTimeSerializer();
 
     byte[] toByteArray(T object);
     T fromByteArray(byte[] bytes);
@@ -12,23 +12,25 @@ import java.time.LocalDate;
  * @author u206123 (Florian Seidl)
  * @since 3.1, 2017.
  */
-public class LocalDateSerializer implements KeyOrValueSerializer<LocalDate> {
-
+public class LocalDateSerializer implements BufferSerializer<LocalDate> {
     @Override
-    public byte[] toByteArray(LocalDate localDate) {
-        CompoundBinaryWriter writer = new CompoundBinaryWriter();
-        writer.writeInt(localDate.getYear());
-        writer.writeByte((byte)localDate.getMonthValue());
-        writer.writeByte((byte)localDate.getDayOfMonth());
-        return writer.toByteArray();
+    public boolean writeTo(LocalDate localDate, WriteBuffer out) {
+        out.writeInt(localDate.getYear());
+        out.writeByte((byte)localDate.getMonthValue());
+        out.writeByte((byte)localDate.getDayOfMonth());
+        return true;
     }
 
     @Override
-    public LocalDate fromByteArray(byte[] bytes) {
-        CompoundBinaryReader reader = new CompoundBinaryReader(bytes);
+    public LocalDate readFrom(ReadBuffer in) {
         return LocalDate.of(
-                reader.readInt(),
-                reader.readByte(),
-                reader.readByte());
+                in.readInt(),
+                in.readByte(),
+                in.readByte());
+    }
+
+    @Override
+    public int estimatedSize(LocalDate localDate) {
+        return 6;
     }
 }
@@ -4,36 +4,29 @@
 
 package ch.sbb.perma.serializers;
 
-import com.google.common.primitives.Bytes;
-
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 
 /**
  * @author u206123 (Florian Seidl)
  * @since 3.1, 2017.
  */
-public class LocalDateTimeSerializer implements KeyOrValueSerializer<LocalDateTime> {
-    private final int lengthOfLocalDateAsBytes;
-
-    public LocalDateTimeSerializer() {
-        lengthOfLocalDateAsBytes = LOCAL_DATE.toByteArray(LocalDate.MAX).length;
+public class LocalDateTimeSerializer implements BufferSerializer<LocalDateTime> {
+    @Override
+    public boolean writeTo(LocalDateTime localDateTime, WriteBuffer out) {
+        LOCAL_DATE.writeTo(localDateTime.toLocalDate(), out);
+        LOCAL_TIME.writeTo(localDateTime.toLocalTime(), out);
+        return true;
     }
 
     @Override
-    public byte[] toByteArray(LocalDateTime localDateTime) {
-        return Bytes.concat(
-                LOCAL_DATE.toByteArray(localDateTime.toLocalDate()),
-                LOCAL_TIME.toByteArray(localDateTime.toLocalTime())
-        );
+    public LocalDateTime readFrom(ReadBuffer in) {
+        return LocalDateTime.of(
+                LOCAL_DATE.readFrom(in),
+                LOCAL_TIME.readFrom(in));
     }
 
     @Override
-    public LocalDateTime fromByteArray(byte[] bytes) {
-        byte[] timeBytes = Arrays.copyOfRange(bytes, lengthOfLocalDateAsBytes, bytes.length);
-        return LocalDateTime.of(
-                LOCAL_DATE.fromByteArray(bytes),
-                LOCAL_TIME.fromByteArray(timeBytes));
+    public int estimatedSize(LocalDateTime localDateTime) {
+        return 13;
     }
 }
@@ -10,25 +10,27 @@ import java.time.LocalTime;
  * @author u206123 (Florian Seidl)
  * @since 3.1, 2017.
  */
-public class LocalTimeSerializer implements KeyOrValueSerializer<LocalTime> {
-
+public class LocalTimeSerializer implements BufferSerializer<LocalTime> {
     @Override
-    public byte[] toByteArray(LocalTime localTime) {
-        CompoundBinaryWriter writer = new CompoundBinaryWriter();
-        writer.writeByte(localTime.getHour());
-        writer.writeByte(localTime.getMinute());
-        writer.writeByte(localTime.getSecond());
-        writer.writeInt(localTime.getNano());
-        return writer.toByteArray();
+    public boolean writeTo(LocalTime localTime, WriteBuffer out) {
+        out.writeByte(localTime.getHour());
+        out.writeByte(localTime.getMinute());
+        out.writeByte(localTime.getSecond());
+        out.writeInt(localTime.getNano());
+        return true;
     }
 
     @Override
-    public LocalTime fromByteArray(byte[] bytes) {
-        CompoundBinaryReader reader = new CompoundBinaryReader(bytes);
+    public LocalTime readFrom(ReadBuffer in) {
         return LocalTime.of(
-                reader.readByte(),
-                reader.readByte(),
-                reader.readByte(),
-                reader.readInt());
+                in.readByte(),
+                in.readByte(),
+                in.readByte(),
+                in.readInt());
+    }
+
+    @Override
+    public int estimatedSize(LocalTime localTime) {
+        return 7;
     }
 }
@@ -4,20 +4,24 @@
 
 package ch.sbb.perma.serializers;
 
-import com.google.common.primitives.Longs;
-
 /**
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public class LongSerializer implements KeyOrValueSerializer<Long> {
+public class LongSerializer implements BufferSerializer<Long> {
+    @Override
+    public boolean writeTo(Long longValue, WriteBuffer out) {
+        out.writeLong(longValue);
+        return true;
+    }
+
     @Override
-    public byte[] toByteArray(Long longValue) {
-        return Longs.toByteArray(longValue);
+    public Long readFrom(ReadBuffer in) {
+        return in.readLong();
     }
 
     @Override
-    public Long fromByteArray(byte[] bytes) {
-        return Longs.fromByteArray(bytes);
+    public int estimatedSize(Long longValue) {
+        return 8;
     }
 }
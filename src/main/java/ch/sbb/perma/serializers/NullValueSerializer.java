@@ -10,7 +10,7 @@ package ch.sbb.perma.serializers;
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public class NullValueSerializer implements KeyOrValueSerializer<Object> {
+public class NullValueSerializer implements BufferSerializer<Object> {
     public final static Object NULL_OBJECT = Boolean.TRUE;
 
     public final static NullValueSerializer NULL = new NullValueSerializer();
@@ -27,4 +27,19 @@ public class NullValueSerializer implements KeyOrValueSerializer<Object> {
     public Object fromByteArray(byte[] bytes) {
         return NULL_OBJECT;
     }
+
+    @Override
+    public boolean writeTo(Object dummy, WriteBuffer out) {
+        return false;
+    }
+
+    @Override
+    public Object readFrom(ReadBuffer in) {
+        return NULL_OBJECT;
+    }
+
+    @Override
+    public int estimatedSize(Object dummy) {
+        return 0;
+    }
 }
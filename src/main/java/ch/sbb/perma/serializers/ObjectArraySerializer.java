@@ -12,32 +12,30 @@ import com.google.common.collect.ObjectArrays;
  * @author u206123 (Florian Seidl)
  * @since 5.1, 2018.
  */
-public class ObjectArraySerializer<T> implements KeyOrValueSerializer<T[]> {
+public class ObjectArraySerializer<T> implements BufferSerializer<T[]> {
     private final Class<T> elementClass;
-    private final KeyOrValueSerializer<T> elementSerializer;
+    private final BufferSerializer<T> elementSerializer;
 
     public ObjectArraySerializer(Class<T> elementClass, KeyOrValueSerializer<T> elementSerializer) {
         this.elementClass = elementClass;
-        this.elementSerializer = elementSerializer;
+        this.elementSerializer = BufferSerializer.of(elementSerializer);
     }
 
     @Override
-    public byte[] toByteArray(T[] array) {
-        CompoundBinaryWriter writer = new CompoundBinaryWriter();
-        writer.writeInt(array.length);
+    public boolean writeTo(T[] array, WriteBuffer out) {
+        out.writeInt(array.length);
         for(T element : array) {
-            writer.writeWithLength(elementSerializer.toByteArray(element));
+            out.writeWithLength(elementSerializer, element);
         }
-        return writer.toByteArray();
+        return true;
     }
 
     @Override
-    public T[] fromByteArray(byte[] bytes) {
-        CompoundBinaryReader reader = new CompoundBinaryReader(bytes);
-        int length = reader.readInt();
+    public T[] readFrom(ReadBuffer in) {
+        int length = in.readInt();
         T[] array = ObjectArrays.newArray(elementClass, length);
         for(int i = 0; i < length; i++) {
-            array[i] = elementSerializer.fromByteArray(reader.readWithLength());
+            array[i] = in.readWithLength(elementSerializer);
         }
         return array;
     }
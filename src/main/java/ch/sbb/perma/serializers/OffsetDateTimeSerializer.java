@@ -4,38 +4,30 @@
 
 package ch.sbb.perma.serializers;
 
-import com.google.common.primitives.Bytes;
-
-import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.util.Arrays;
 
 /**
  * @author u206123 (Florian Seidl)
  * @since 3.1, 2017.
  */
-public class OffsetDateTimeSerializer implements KeyOrValueSerializer<OffsetDateTime> {
-    private final int lengthOfLocalDateTimeAsBytes;
-
-    public OffsetDateTimeSerializer() {
-        lengthOfLocalDateTimeAsBytes = LOCAL_DATE_TIME.toByteArray(LocalDateTime.MAX).length;
-    }
-
+public class OffsetDateTimeSerializer implements BufferSerializer<OffsetDateTime> {
     @Override
-    public byte[] toByteArray(OffsetDateTime offsetDateTime) {
-        return Bytes.concat(
-                LOCAL_DATE_TIME.toByteArray(offsetDateTime.toLocalDateTime()),
-                STRING.toByteArray(offsetDateTime.getOffset().getId())
-        );
+    public boolean writeTo(OffsetDateTime offsetDateTime, WriteBuffer out) {
+        LOCAL_DATE_TIME.writeTo(offsetDateTime.toLocalDateTime(), out);
+        STRING.writeTo(offsetDateTime.getOffset().getId(), out);
+        return true;
     }
 
     @Override
-    public OffsetDateTime fromByteArray(byte[] bytes) {
-        byte[] offsetBytes = Arrays.copyOfRange(bytes, lengthOfLocalDateTimeAsBytes, bytes.length);
+    public OffsetDateTime readFrom(ReadBuffer in) {
         return OffsetDateTime.of(
-                LOCAL_DATE_TIME.fromByteArray(bytes),
-                ZoneOffset.of(STRING.fromByteArray(offsetBytes)));
+                LOCAL_DATE_TIME.readFrom(in),
+                ZoneOffset.of(STRING.readFrom(in)));
     }
 
+    @Override
+    public int estimatedSize(OffsetDateTime offsetDateTime) {
+        return 19;
+    }
 }
@@ -4,7 +4,6 @@
 
 package ch.sbb.perma.serializers;
 
-import java.nio.charset.Charset;
 import java.util.Optional;
 
 /**
@@ -17,21 +16,17 @@ import java.util.Optional;
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public class OptionalStringSerializer implements KeyOrValueSerializer<Optional<String>> {
-    private static final Charset UTF_8 = Charset.forName("UTF-8");
-
+public class OptionalStringSerializer implements BufferSerializer<Optional<String>> {
     @Override
-    public byte[] toByteArray(Optional<String> optionalString) {
-        return optionalString
-                .map(string -> STRING.toByteArray(string))
-                .orElse(null);
+    public boolean writeTo(Optional<String> optionalString, WriteBuffer out) {
+        return optionalString.isPresent() && STRING.writeTo(optionalString.get(), out);
     }
 
     @Override
-    public Optional<String> fromByteArray(byte[] bytes) {
-        if(bytes == null) {
+    public Optional<String> readFrom(ReadBuffer in) {
+        if(in == null) {
             return Optional.empty();
         }
-        return Optional.of(STRING.fromByteArray(bytes));
+        return Optional.of(STRING.readFrom(in));
     }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+import java.time.LocalDate;
+
+/**
+ * Serialize a LocalDate as epoch day in 4 bytes.
+ * <p>
+ *     Supports the years -5'877'641 to 5'881'580 (not {@link LocalDate#MIN} and {@link LocalDate#MAX}),
+ *     the binary form differs from {@link LocalDateSerializer}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public class PackedLocalDateSerializer implements BufferSerializer<LocalDate> {
+    @Override
+    public boolean writeTo(LocalDate localDate, WriteBuffer out) {
+        out.writeInt(Math.toIntExact(localDate.toEpochDay()));
+        return true;
+    }
+
+    @Override
+    public LocalDate readFrom(ReadBuffer in) {
+        return LocalDate.ofEpochDay(in.readInt());
+    }
+
+    @Override
+    public int estimatedSize(LocalDate localDate) {
+        return 4;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Serialize a LocalDateTime as nanoseconds since 1970-01-01T00:00 in 8 bytes.
+ * <p>
+ *     Supports 1677-09-21T00:12:43.145224192 to 2262-04-11T23:47:16.854775807, others fail with an
+ *     {@link ArithmeticException}. The binary form differs from {@link LocalDateTimeSerializer}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public class PackedLocalDateTimeSerializer implements BufferSerializer<LocalDateTime> {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    @Override
+    public boolean writeTo(LocalDateTime localDateTime, WriteBuffer out) {
+        out.writeLong(epochNanos(localDateTime.toEpochSecond(ZoneOffset.UTC), localDateTime.getNano()));
+        return true;
+    }
+
+    @Override
+    public LocalDateTime readFrom(ReadBuffer in) {
+        long epochNanos = in.readLong();
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                                           (int) Math.floorMod(epochNanos, NANOS_PER_SECOND),
+                                           ZoneOffset.UTC);
+    }
+
+    @Override
+    public int estimatedSize(LocalDateTime localDateTime) {
+        return 8;
+    }
+
+    static long epochNanos(long epochSecond, int nano) {
+        return Math.addExact(Math.multiplyExact(epochSecond, NANOS_PER_SECOND), nano);
+    }
+}
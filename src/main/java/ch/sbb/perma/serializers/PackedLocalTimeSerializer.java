@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+import java.time.LocalTime;
+
+/**
+ * Serialize a LocalTime as nano of day in 6 bytes, the binary form differs from {@link LocalTimeSerializer}.
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public class PackedLocalTimeSerializer implements BufferSerializer<LocalTime> {
+    @Override
+    public boolean writeTo(LocalTime localTime, WriteBuffer out) {
+        long nanoOfDay = localTime.toNanoOfDay();
+        out.writeShort((short) (nanoOfDay >>> 32));
+        out.writeInt((int) nanoOfDay);
+        return true;
+    }
+
+    @Override
+    public LocalTime readFrom(ReadBuffer in) {
+        long high = in.readShort() & 0xFFFFL;
+        return LocalTime.ofNanoOfDay(high << 32 | in.readInt() & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public int estimatedSize(LocalTime localTime) {
+        return 6;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+import ch.sbb.perma.datastore.InvalidDataException;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serialize a ZonedDateTime as nanoseconds since the epoch (8 bytes) and a zone code (usually 1 byte).
+ * <p>
+ *     Zones of the dictionary are written as their index, offsets as seconds and other zones by their id.
+ *     The dictionary is part of the binary form: only append zones to it, never reorder or remove them.
+ *     Supports the instants 1677-09-21T00:12:43.145224192Z to 2262-04-11T23:47:16.854775807Z, the binary form
+ *     differs from {@link ZonedDateTimeSerializer}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public class PackedZonedDateTimeSerializer implements BufferSerializer<ZonedDateTime> {
+    /**
+     * The dictionary of the default instance, append only: the index of a zone is its code in existing files,
+     * reordering or removing a zone changes how they are read.
+     */
+    public static final List<String> DEFAULT_ZONE_IDS = Collections.unmodifiableList(Arrays.asList(
+            "UTC",
+            "Europe/Zurich",
+            "Europe/Berlin",
+            "Europe/Paris",
+            "Europe/Rome",
+            "Europe/Vienna",
+            "Europe/Amsterdam",
+            "Europe/Brussels",
+            "Europe/London"));
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int ZONE_ID = 0;
+    private static final int ZONE_OFFSET = 1;
+    private static final int DICTIONARY_START = 2;
+
+    private final List<ZoneId> zones = new ArrayList<>();
+    private final Map<ZoneId, Integer> codes = new HashMap<>();
+
+    public PackedZonedDateTimeSerializer() {
+        this(DEFAULT_ZONE_IDS);
+    }
+
+    /**
+     * @param zoneIds the dictionary of the zones written as index, append only as {@link #DEFAULT_ZONE_IDS}
+     */
+    public PackedZonedDateTimeSerializer(List<String> zoneIds) {
+        for (String zoneId : zoneIds) {
+            ZoneId zone = ZoneId.of(zoneId);
+            codes.put(zone, DICTIONARY_START + zones.size());
+            zones.add(zone);
+        }
+    }
+
+    @Override
+    public boolean writeTo(ZonedDateTime zonedDateTime, WriteBuffer out) {
+        out.writeLong(PackedLocalDateTimeSerializer.epochNanos(zonedDateTime.toEpochSecond(),
+                                                               zonedDateTime.getNano()));
+        ZoneId zone = zonedDateTime.getZone();
+        Integer code = codes.get(zone);
+        if (code != null) {
+            out.writeVarInt(code);
+        } else if (zone instanceof ZoneOffset) {
+            out.writeVarInt(ZONE_OFFSET);
+            out.writeVarInt(VarIntegerSerializer.zigZag(((ZoneOffset) zone).getTotalSeconds()));
+        } else {
+            out.writeVarInt(ZONE_ID);
+            STRING.writeTo(zone.getId(), out);
+        }
+        return true;
+    }
+
+    @Override
+    public ZonedDateTime readFrom(ReadBuffer in) {
+        long epochNanos = in.readLong();
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                                                Math.floorMod(epochNanos, NANOS_PER_SECOND));
+        return ZonedDateTime.ofInstant(instant, readZone(in));
+    }
+
+    @Override
+    public int estimatedSize(ZonedDateTime zonedDateTime) {
+        return 9;
+    }
+
+    private ZoneId readZone(ReadBuffer in) {
+        int code = in.readVarInt();
+        switch (code) {
+            case ZONE_ID:
+                return ZoneId.of(STRING.readFrom(in));
+            case ZONE_OFFSET:
+                return ZoneOffset.ofTotalSeconds(VarIntegerSerializer.unZigZag(in.readVarInt()));
+            default:
+                if (code < DICTIONARY_START || code - DICTIONARY_START >= zones.size()) {
+                    throw new InvalidDataException(String.format("Invalid zone code %d, dictionary has %d zones",
+                                                                 code,
+                                                                 zones.size()));
+                }
+                return zones.get(code - DICTIONARY_START);
+        }
+    }
+}
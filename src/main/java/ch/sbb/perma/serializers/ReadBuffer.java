@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A reusable view on a range of bytes serializers read their binary form from.
+ * <p>
+ *     Reading never copies more than the returned value requires. The limit is the end of the serialized value,
+ *     nested values written with {@link WriteBuffer#writeWithLength(BufferSerializer, Object)} are read with a
+ *     temporarily reduced limit.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class ReadBuffer {
+    private static final int NULL_LENGTH = -1;
+    private static final byte[] EMPTY = new byte[0];
+
+    private byte[] bytes;
+    private int position;
+    private int limit;
+
+    public ReadBuffer() {
+        this(EMPTY);
+    }
+
+    public ReadBuffer(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    public ReadBuffer(byte[] bytes, int offset, int length) {
+        reset(bytes, offset, length);
+    }
+
+    /**
+     * Reuse this buffer for another range of bytes.
+     */
+    public ReadBuffer reset(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid range offset %d length %d for %d bytes", offset, length, bytes.length));
+        }
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+        return this;
+    }
+
+    public int readByte() {
+        require(1);
+        return bytes[position++] & 0xFF;
+    }
+
+    public short readShort() {
+        require(2);
+        short value = (short) ((bytes[position] << 8) | (bytes[position + 1] & 0xFF));
+        position += 2;
+        return value;
+    }
+
+    public char readChar() {
+        return (char) readShort();
+    }
+
+    public int readInt() {
+        require(4);
+        int value = getInt(position);
+        position += 4;
+        return value;
+    }
+
+    public long readLong() {
+        require(8);
+        long value = ((long) getInt(position) << 32) | (getInt(position + 4) & 0xFFFFFFFFL);
+        position += 8;
+        return value;
+    }
+
+    /**
+     * Read a value written with {@link WriteBuffer#writeVarInt(int)}.
+     */
+    public int readVarInt() {
+        long value = readVarLong();
+        if ((value & ~0xFFFFFFFFL) != 0) {
+            throw new IllegalStateException(String.format("Var int out of range: %d", value));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Read a value written with {@link WriteBuffer#writeVarLong(long)}.
+     */
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed var long, more than 10 bytes");
+    }
+
+    public byte[] read(int length) {
+        require(length);
+        byte[] value = Arrays.copyOfRange(bytes, position, position + length);
+        position += length;
+        return value;
+    }
+
+    public byte[] readRemaining() {
+        return read(remaining());
+    }
+
+    public String readString(int length, Charset charset) {
+        require(length);
+        String value = new String(bytes, position, length, charset);
+        position += length;
+        return value;
+    }
+
+    /**
+     * Read bytes written with {@link WriteBuffer#writeWithLength(byte[])}, null for a length of -1.
+     */
+    public byte[] readWithLength() {
+        int length = readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        return read(length);
+    }
+
+    /**
+     * Read a value written with {@link WriteBuffer#writeWithLength(BufferSerializer, Object)} without copying its bytes.
+     */
+    public <T> T readWithLength(BufferSerializer<T> serializer) {
+        int length = readInt();
+        if (length == NULL_LENGTH) {
+            return serializer.readFrom(null);
+        }
+        require(length);
+        int outerLimit = limit;
+        int end = position + length;
+        limit = end;
+        try {
+            return serializer.readFrom(this);
+        }
+        finally {
+            position = end;
+            limit = outerLimit;
+        }
+    }
+
+    /**
+     * Same as {@link #readWithLength(BufferSerializer)}, but null instead of deserializing the null representation.
+     */
+    public <T> T readNullableWithLength(BufferSerializer<T> serializer) {
+        int length = readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        position -= 4;
+        return readWithLength(serializer);
+    }
+
+    public void skip(int length) {
+        require(length);
+        position += length;
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    /**
+     * The internal array and the current position in it. Not copied, use with care.
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    /**
+     * View for APIs requiring a stream (e.g. java serialization), reads consume this buffer.
+     */
+    public InputStream asInputStream() {
+        return new InputStream() {
+            @Override
+            public int read() {
+                return hasRemaining() ? readByte() : -1;
+            }
+
+            @Override
+            public int read(byte[] target, int offset, int length) {
+                if (length == 0) {
+                    return 0;
+                }
+                if (!hasRemaining()) {
+                    return -1;
+                }
+                int count = Math.min(length, remaining());
+                System.arraycopy(bytes, position, target, offset, count);
+                position += count;
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return remaining();
+            }
+        };
+    }
+
+    private void require(int length) {
+        if (length < 0 || length > remaining()) {
+            throw new IllegalStateException(
+                    String.format("Less bytes available than expected, required %d but %d remaining", length, remaining()));
+        }
+    }
+
+    private int getInt(int at) {
+        return (bytes[at] << 24) |
+               ((bytes[at + 1] & 0xFF) << 16) |
+               ((bytes[at + 2] & 0xFF) << 8) |
+               (bytes[at + 3] & 0xFF);
+    }
+}
@@ -4,20 +4,24 @@
 
 package ch.sbb.perma.serializers;
 
-import com.google.common.primitives.Shorts;
-
 /**
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public class ShortSerializer implements KeyOrValueSerializer<Short> {
+public class ShortSerializer implements BufferSerializer<Short> {
+    @Override
+    public boolean writeTo(Short shortValue, WriteBuffer out) {
+        out.writeShort(shortValue);
+        return true;
+    }
+
     @Override
-    public byte[] toByteArray(Short shortValue) {
-        return Shorts.toByteArray(shortValue);
+    public Short readFrom(ReadBuffer in) {
+        return in.readShort();
     }
 
     @Override
-    public Short fromByteArray(byte[] bytes) {
-        return Shorts.fromByteArray(bytes);
+    public int estimatedSize(Short shortValue) {
+        return 2;
     }
 }
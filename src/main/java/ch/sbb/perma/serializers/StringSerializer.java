@@ -21,7 +21,7 @@ import java.nio.charset.StandardCharsets;
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public class StringSerializer implements KeyOrValueSerializer<String> {
+public class StringSerializer implements BufferSerializer<String> {
     public static final Charset UTF_8 = StandardCharsets.UTF_8;
     public static final Charset UTF_16BE = StandardCharsets.UTF_16BE;
 
@@ -44,4 +44,59 @@ public class StringSerializer implements KeyOrValueSerializer<String> {
     public String fromByteArray(byte[] bytes) {
         return new String(bytes, charset);
     }
+
+    @Override
+    public boolean writeTo(String string, WriteBuffer out) {
+        if (charset.equals(UTF_8)) {
+            writeUtf8(string, out);
+        }
+        else {
+            out.write(string.getBytes(charset));
+        }
+        return true;
+    }
+
+    @Override
+    public String readFrom(ReadBuffer in) {
+        return in.readString(in.remaining(), charset);
+    }
+
+    @Override
+    public int estimatedSize(String string) {
+        return string.length();
+    }
+
+    /**
+     * Encode without the intermediate array of String.getBytes, the result is the same (including '?' for
+     * unpaired surrogates).
+     */
+    private static void writeUtf8(String string, WriteBuffer out) {
+        int length = string.length();
+        out.ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                out.writeByte(c);
+            }
+            else if (c < 0x800) {
+                out.writeByte(0xC0 | (c >> 6));
+                out.writeByte(0x80 | (c & 0x3F));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, string.charAt(++i));
+                out.writeByte(0xF0 | (codePoint >> 18));
+                out.writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                out.writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                out.writeByte(0x80 | (codePoint & 0x3F));
+            }
+            else if (Character.isSurrogate(c)) {
+                out.writeByte('?');
+            }
+            else {
+                out.writeByte(0xE0 | (c >> 12));
+                out.writeByte(0x80 | ((c >> 6) & 0x3F));
+                out.writeByte(0x80 | (c & 0x3F));
+            }
+        }
+    }
 }
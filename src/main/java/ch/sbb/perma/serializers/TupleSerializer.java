@@ -4,7 +4,6 @@
 
 package ch.sbb.perma.serializers;
 
-import com.google.common.base.Preconditions;
 import org.javatuples.Tuple;
 
 /**
@@ -13,47 +12,42 @@ import org.javatuples.Tuple;
  * @author u206123 (Florian Seidl)
  * @since 2.1, 2017.
  */
-public abstract class TupleSerializer<T extends Tuple> implements KeyOrValueSerializer<T> {
-    private final KeyOrValueSerializer[] serializers;
+public abstract class TupleSerializer<T extends Tuple> implements BufferSerializer<T> {
+    private final BufferSerializer[] serializers;
 
+    @SuppressWarnings("unchecked")
     protected TupleSerializer(KeyOrValueSerializer... serializers) {
         if(serializers == null) {
             throw new NullPointerException("Serializers are null");
         }
-        this.serializers = serializers;
+        this.serializers = new BufferSerializer[serializers.length];
+        for(int i = 0; i < serializers.length; i++) {
+            this.serializers[i] = BufferSerializer.of(serializers[i]);
+        }
     }
 
     @Override
-    public byte[] toByteArray(T tuple) {
-        CompoundBinaryWriter writer = new CompoundBinaryWriter();
+    @SuppressWarnings("unchecked")
+    public boolean writeTo(T tuple, WriteBuffer out) {
         for(int i = 0; i < tuple.getSize(); i++) {
-            writer.writeWithLength(tuple.getValue(i) != null ?
-                    toByteArray(serializers[i], tuple.getValue(i)) :
-                    null);
+            Object value = tuple.getValue(i);
+            if(value == null) {
+                out.writeWithLength(null);
+            }
+            else if(!out.writeWithLength(serializers[i], value)) {
+                throw new IllegalArgumentException(String.format(
+                        "To Null Serializer is not allowed as value serializer in Tuple serializer: %s",
+                        serializers[i]));
+            }
         }
-        return writer.toByteArray();
-    }
-
-    @SuppressWarnings("unchecked")
-    private static byte[] toByteArray(KeyOrValueSerializer serializer, Object value) {
-        byte[] bytes = serializer.toByteArray(value);
-        Preconditions.checkArgument(
-                bytes != null,
-                String.format(
-                    "To Null Serializer is not allowed as value serializer in Tuple serializer: %s",
-                    serializer.getClass().getSimpleName()));
-        return bytes;
+        return true;
     }
 
     @Override
-    public T fromByteArray(byte[] bytes) {
-        CompoundBinaryReader reader = new CompoundBinaryReader(bytes);
+    public T readFrom(ReadBuffer in) {
         Object[] values = new Object[serializers.length];
         for(int i = 0; i < serializers.length; i++) {
-            byte[] valueAsBytes = reader.readWithLength();
-            values[i] = valueAsBytes != null ?
-                    serializers[i].fromByteArray(valueAsBytes) :
-                    null;
+            values[i] = in.readNullableWithLength(serializers[i]);
         }
         return createFrom(values);
     }
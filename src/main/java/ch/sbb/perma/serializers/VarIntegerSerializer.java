@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+/**
+ * Serialize integers zig-zag encoded with variable length.
+ * <p>
+ *     Small absolute values take 1 byte (-64 to 63) or 2 bytes (-8192 to 8191), large ones up to 5 bytes.
+ *     The binary form differs from {@link IntegerSerializer}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public class VarIntegerSerializer implements BufferSerializer<Integer> {
+    @Override
+    public boolean writeTo(Integer integer, WriteBuffer out) {
+        out.writeVarInt(zigZag(integer));
+        return true;
+    }
+
+    @Override
+    public Integer readFrom(ReadBuffer in) {
+        return unZigZag(in.readVarInt());
+    }
+
+    @Override
+    public int estimatedSize(Integer integer) {
+        return 5;
+    }
+
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+/**
+ * Serialize longs zig-zag encoded with variable length.
+ * <p>
+ *     Small absolute values take 1 byte (-64 to 63), ids up to 2^34 at most 5 bytes, large ones up to 10 bytes.
+ *     The binary form differs from {@link LongSerializer}.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public class VarLongSerializer implements BufferSerializer<Long> {
+    @Override
+    public boolean writeTo(Long longValue, WriteBuffer out) {
+        out.writeVarLong(zigZag(longValue));
+        return true;
+    }
+
+    @Override
+    public Long readFrom(ReadBuffer in) {
+        return unZigZag(in.readVarLong());
+    }
+
+    @Override
+    public int estimatedSize(Long longValue) {
+        return 10;
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A reusable, growing byte buffer serializers write their binary form to.
+ * <p>
+ *     All numbers are written big endian, as done by Guava and the {@link CompoundBinaryWriter}.
+ *     Call {@link #reset()} to reuse the buffer (and its already allocated capacity) for the next value.
+ * </p>
+ *
+ * @author agent
+ * @since 7.1, 2026.
+ */
+public final class WriteBuffer {
+    private static final int NULL_LENGTH = -1;
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private byte[] bytes;
+    private int position;
+
+    public WriteBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public WriteBuffer(int initialCapacity) {
+        this.bytes = new byte[Math.max(initialCapacity, 8)];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        bytes[position++] = (byte) value;
+    }
+
+    public void writeShort(short value) {
+        ensureCapacity(2);
+        bytes[position++] = (byte) (value >> 8);
+        bytes[position++] = (byte) value;
+    }
+
+    public void writeChar(char value) {
+        writeShort((short) value);
+    }
+
+    public void writeInt(int value) {
+        ensureCapacity(4);
+        putInt(position, value);
+        position += 4;
+    }
+
+    public void writeLong(long value) {
+        ensureCapacity(8);
+        bytes[position++] = (byte) (value >> 56);
+        bytes[position++] = (byte) (value >> 48);
+        bytes[position++] = (byte) (value >> 40);
+        bytes[position++] = (byte) (value >> 32);
+        bytes[position++] = (byte) (value >> 24);
+        bytes[position++] = (byte) (value >> 16);
+        bytes[position++] = (byte) (value >> 8);
+        bytes[position++] = (byte) value;
+    }
+
+    /**
+     * Write the value unsigned in 7 bit groups, least significant first (1 byte up to 127, 5 bytes at most).
+     */
+    public void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Write the value unsigned in 7 bit groups, least significant first (1 byte up to 127, 10 bytes at most).
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+    }
+
+    public void write(byte[] source) {
+        write(source, 0, source.length);
+    }
+
+    public void write(byte[] source, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(source, offset, bytes, position, length);
+        position += length;
+    }
+
+    /**
+     * Write the length (-1 for null) followed by the bytes, the same format as {@link CompoundBinaryWriter#writeWithLength(byte[])}.
+     */
+    public void writeWithLength(byte[] source) {
+        if (source == null) {
+            writeInt(NULL_LENGTH);
+            return;
+        }
+        writeInt(source.length);
+        write(source);
+    }
+
+    /**
+     * Serialize the value directly into this buffer, prefixed with its length (-1 if serialized to null).
+     *
+     * @return false if the value was serialized to null
+     */
+    public <T> boolean writeWithLength(BufferSerializer<T> serializer, T value) {
+        int lengthPosition = position;
+        writeInt(NULL_LENGTH);
+        if (!serializer.writeTo(value, this)) {
+            position = lengthPosition + 4;
+            return false;
+        }
+        putInt(lengthPosition, position - lengthPosition - 4);
+        return true;
+    }
+
+    public void ensureCapacity(int additionalBytes) {
+        int required = position + additionalBytes;
+        if (required > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length * 2));
+        }
+    }
+
+    /**
+     * Number of bytes written since creation or the last reset.
+     */
+    public int length() {
+        return position;
+    }
+
+    /**
+     * The internal array, valid from 0 to {@link #length()}. Not copied, use with care.
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, position);
+    }
+
+    public void reset() {
+        position = 0;
+    }
+
+    /**
+     * Set the length back to a previous value, discarding everything written after it.
+     */
+    public void truncate(int length) {
+        if (length < 0 || length > position) {
+            throw new IllegalArgumentException(String.format("Invalid length %d, buffer length is %d", length, position));
+        }
+        position = length;
+    }
+
+    /**
+     * View for APIs requiring a stream (e.g. java serialization), writes are appended to this buffer.
+     */
+    public OutputStream asOutputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+                writeByte(b);
+            }
+
+            @Override
+            public void write(byte[] source, int offset, int length) {
+                WriteBuffer.this.write(source, offset, length);
+            }
+        };
+    }
+
+    private void putInt(int at, int value) {
+        bytes[at] = (byte) (value >> 24);
+        bytes[at + 1] = (byte) (value >> 16);
+        bytes[at + 2] = (byte) (value >> 8);
+        bytes[at + 3] = (byte) value;
+    }
+}
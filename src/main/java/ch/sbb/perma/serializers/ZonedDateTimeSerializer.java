@@ -4,37 +4,30 @@
 
 package ch.sbb.perma.serializers;
 
-import com.google.common.primitives.Bytes;
-
-import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.Arrays;
 
 /**
  * @author u206123 (Florian Seidl)
  * @since 1.0, 2017.
  */
-public class ZonedDateTimeSerializer implements KeyOrValueSerializer<ZonedDateTime> {
-    private final int lengthOfLocalDateTimeAsBytes;
-
-    public ZonedDateTimeSerializer() {
-        lengthOfLocalDateTimeAsBytes = LOCAL_DATE_TIME.toByteArray(LocalDateTime.MAX).length;
+public class ZonedDateTimeSerializer implements BufferSerializer<ZonedDateTime> {
+    @Override
+    public boolean writeTo(ZonedDateTime zonedDateTime, WriteBuffer out) {
+        LOCAL_DATE_TIME.writeTo(zonedDateTime.toLocalDateTime(), out);
+        STRING.writeTo(zonedDateTime.getZone().getId(), out);
+        return true;
     }
 
     @Override
-    public byte[] toByteArray(ZonedDateTime zonedDateTime) {
-        return Bytes.concat(
-                LOCAL_DATE_TIME.toByteArray(zonedDateTime.toLocalDateTime()),
-                STRING.toByteArray(zonedDateTime.getZone().getId())
-        );
+    public ZonedDateTime readFrom(ReadBuffer in) {
+        return ZonedDateTime.of(
+                LOCAL_DATE_TIME.readFrom(in),
+                ZoneId.of(STRING.readFrom(in)));
     }
 
     @Override
-    public ZonedDateTime fromByteArray(byte[] bytes) {
-        byte[] zoneBytes = Arrays.copyOfRange(bytes, lengthOfLocalDateTimeAsBytes, bytes.length);
-        return ZonedDateTime.of(
-                LOCAL_DATE_TIME.fromByteArray(bytes),
-                ZoneId.of(STRING.fromByteArray(zoneBytes)));
+    public int estimatedSize(ZonedDateTime zonedDateTime) {
+        return 32;
     }
 }
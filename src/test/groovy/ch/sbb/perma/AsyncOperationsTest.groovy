@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma
+
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletionException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING
+
+class AsyncOperationsTest extends SpecificationWithTempDir {
+    List<Runnable> queued = []
+    Executor manual = { queued << it } as Executor
+
+    def "persist and refresh asynchronously"() {
+        given:
+        def perma = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING)
+        perma.put('Bern', 'BN')
+        perma.persist()
+        def reader = ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING)
+
+        when:
+        perma.put('Olten', 'OL')
+        perma.persistAsync().get(10, TimeUnit.SECONDS)
+        reader.refreshAsync().get(10, TimeUnit.SECONDS)
+
+        then:
+        reader == [Bern: 'BN', Olten: 'OL']
+    }
+
+    def "calls while an operation is queued share it"() {
+        given:
+        def perma = new CountingPerma()
+
+        when:
+        def futures = (1..3).collect { perma.persistAsync(manual) }
+
+        then:
+        queued.size() == 1
+        futures.every { !it.done }
+
+        when:
+        queued.remove(0).run()
+
+        then:
+        perma.persists.get() == 1
+        futures.every { it.done && !it.completedExceptionally }
+    }
+
+    def "call while an operation runs queues the next one"() {
+        given:
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def perma = new CountingPerma(started: started, release: release)
+        def running = perma.persistAsync()
+        started.await(10, TimeUnit.SECONDS)
+
+        when:
+        def next = (1..3).collect { perma.persistAsync() }
+        release.countDown()
+        running.get(10, TimeUnit.SECONDS)
+        next*.get(10, TimeUnit.SECONDS)
+
+        then:
+        perma.persists.get() == 2
+    }
+
+    def "kinds of operations are independent"() {
+        given:
+        def perma = new CountingPerma()
+
+        when:
+        perma.persistAsync(manual)
+        perma.compactAsync(manual)
+
+        then:
+        queued.size() == 2
+    }
+
+    def "cancelled operation is skipped if no other caller waits for it"() {
+        given:
+        def perma = new CountingPerma()
+        def cancelled = perma.persistAsync(manual)
+        def other = perma.compactAsync(manual)
+
+        when:
+        cancelled.cancel(false)
+        queued*.run()
+
+        then:
+        perma.persists.get() == 0
+        perma.compactions.get() == 1
+        other.done
+    }
+
+    def "operation runs for the callers that did not cancel"() {
+        given:
+        def perma = new CountingPerma()
+        def cancelled = perma.persistAsync(manual)
+        def waiting = perma.persistAsync(manual)
+
+        when:
+        cancelled.cancel(false)
+        queued*.run()
+
+        then:
+        perma.persists.get() == 1
+        cancelled.cancelled
+        waiting.done && !waiting.completedExceptionally
+    }
+
+    def "failure is reported to all callers and the next operation runs"() {
+        given:
+        def perma = new CountingPerma(failure: new IOException('disk full'))
+        def futures = (1..2).collect { perma.persistAsync(manual) }
+
+        when:
+        queued.remove(0).run()
+        futures[0].get()
+
+        then:
+        def e = thrown(ExecutionException)
+        e.cause.message == 'disk full'
+        futures[1].completedExceptionally
+
+        when:
+        perma.failure = null
+        def next = perma.persistAsync(manual)
+        queued.remove(0).run()
+
+        then:
+        next.done && !next.completedExceptionally
+    }
+
+    def "rejected operation fails the future"() {
+        given:
+        def perma = new CountingPerma()
+
+        when:
+        perma.persistAsync({ throw new RejectedExecutionException('shut down') } as Executor).join()
+
+        then:
+        thrown(CompletionException)
+
+        when:
+        perma.persistAsync(manual)
+        queued.remove(0).run()
+
+        then:
+        perma.persists.get() == 1
+    }
+
+    def "cancelled future throws cancellation"() {
+        given:
+        def future = new CountingPerma().persistAsync(manual)
+
+        when:
+        future.cancel(false)
+        future.get()
+
+        then:
+        thrown(CancellationException)
+    }
+
+    static class CountingPerma implements Writable<String, String> {
+        AtomicInteger persists = new AtomicInteger()
+        AtomicInteger compactions = new AtomicInteger()
+        CountDownLatch started
+        CountDownLatch release
+        IOException failure
+
+        @Override
+        void persist() throws IOException {
+            started?.countDown()
+            release?.await(10, TimeUnit.SECONDS)
+            if (failure != null) {
+                throw failure
+            }
+            persists.incrementAndGet()
+        }
+
+        @Override
+        void compact() throws IOException {
+            compactions.incrementAndGet()
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma
+
+class BitmapSetTest extends SpecificationWithTempDir {
+
+    def "int set write read with deltas"() {
+        given:
+        def set = WritableIntBitmapSet.loadOrCreate(tempDir, 'ints')
+
+        when:
+        set.addAll([1, -5, 70_000, Integer.MAX_VALUE])
+        set.persist()
+        set.remove(-5)
+        set.add(3)
+        set.remove(Integer.MAX_VALUE)
+        set.persist()
+
+        then:
+        set == [1, 3, 70_000] as Set
+        WritableIntBitmapSet.loadOrCreate(tempDir, 'ints') == [1, 3, 70_000] as Set
+        ReadOnlyIntBitmapSet.load(tempDir, 'ints') == [1, 3, 70_000] as Set
+        ReadOnlyIntBitmapSet.load(tempDir, 'ints').contains(70_000)
+        !set.contains(3L)
+    }
+
+    def "long set dense range persist compact refresh"() {
+        given:
+        def set = WritableLongBitmapSet.loadOrCreate(tempDir, 'longs')
+
+        when:
+        (0L..<300_000L).each { set.add(it) }
+        set.persist()
+        def readOnly = ReadOnlyLongBitmapSet.load(tempDir, 'longs')
+        set.iterator().with { it.next(); it.remove() }
+        set.add(10_000_000_000L)
+        set.persist()
+        readOnly.refresh()
+
+        then:
+        readOnly.size() == 300_000
+        !readOnly.contains(0L)
+        readOnly.contains(10_000_000_000L)
+        tempDir.listFiles().sum { it.length() } < 2_000
+
+        when:
+        set.clear()
+        set.add(5L)
+        set.persist()
+        set.compact()
+        readOnly.refresh()
+
+        then:
+        readOnly == [5L] as Set
+        WritableLongBitmapSet.loadOrCreate(tempDir, 'longs') == [5L] as Set
+    }
+
+    def "union intersection and difference between permasets"() {
+        given:
+        def first = WritableLongBitmapSet.loadOrCreate(tempDir, 'first')
+        def second = WritableLongBitmapSet.loadOrCreate(tempDir, 'second')
+        first.addAll([1L, 2L, 3L, 100_000L])
+        second.addAll([2L, 3L, 4L, 200_000L])
+        first.persist()
+        second.persist()
+        def readOnlySecond = ReadOnlyLongBitmapSet.load(tempDir, 'second')
+
+        when:
+        def union = WritableLongBitmapSet.loadOrCreate(tempDir, 'union')
+        union.addAll(first)
+        union.addAll(readOnlySecond)
+        def intersection = WritableLongBitmapSet.loadOrCreate(tempDir, 'intersection')
+        intersection.addAll(first)
+        intersection.retainAll(readOnlySecond)
+        first.removeAll(second)
+        [union, intersection, first]*.persist()
+
+        then:
+        union == [1L, 2L, 3L, 4L, 100_000L, 200_000L] as Set
+        intersection == [2L, 3L] as Set
+        first == [1L, 100_000L] as Set
+        ReadOnlyLongBitmapSet.load(tempDir, 'union') == union
+        ReadOnlyLongBitmapSet.load(tempDir, 'intersection') == intersection
+        ReadOnlyLongBitmapSet.load(tempDir, 'first') == first
+    }
+
+    def "retain all of other collection"() {
+        given:
+        def set = WritableIntBitmapSet.loadOrCreate(tempDir, 'ints')
+        set.addAll([1, 2, 3])
+        set.persist()
+
+        when:
+        set.retainAll([2, 3, 4])
+        set.persist()
+
+        then:
+        WritableIntBitmapSet.loadOrCreate(tempDir, 'ints') == [2, 3] as Set
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma
+
+class CompactStringPermaTest extends SpecificationWithTempDir {
+    private static String LONG_STRING = 'the quick brown fox jumped over the lazy cat'.multiply(999)
+
+    def "write read"() {
+        given:
+        def perma = WritableCompactStringPerma.loadOrCreate(tempDir, 'strings')
+
+        when:
+        perma.putAll(['foo': 'bar', 'Zürich': 'HB', 'long': LONG_STRING, '': 'empty'])
+        perma.persist()
+        perma.remove('foo')
+        perma.put('Zürich', 'Oerlikon')
+        perma.persist()
+
+        then:
+        WritableCompactStringPerma.loadOrCreate(tempDir, 'strings') == ['Zürich': 'Oerlikon', 'long': LONG_STRING, '': 'empty']
+        ReadOnlyCompactStringPerma.load(tempDir, 'strings').get('Zürich') == 'Oerlikon'
+    }
+
+    def "same files as string map"() {
+        given:
+        def compact = WritableCompactStringPerma.loadOrCreate(tempDir, 'compact')
+        def plain = WritablePerma.loadOrCreateStringMap(tempDir, 'plain')
+
+        when:
+        compact.putAll(['a': '1', 'b': '2'])
+        compact.persist()
+        compact.remove('a')
+        compact.persist()
+        plain.putAll(['c': '3', 'd': '4'])
+        plain.persist()
+        plain.put('c', '33')
+        plain.persist()
+
+        then:
+        WritablePerma.loadOrCreateStringMap(tempDir, 'compact') == ['b': '2']
+        ReadOnlyCompactStringPerma.load(tempDir, 'plain') == ['c': '33', 'd': '4']
+    }
+
+    def "set write read and same files as string set"() {
+        given:
+        def compact = WritableCompactStringSet.loadOrCreate(tempDir, 'compact')
+        def plain = WritablePermaSet.loadOrCreateStringSet(tempDir, 'plain')
+
+        when:
+        compact.addAll(['a', 'b', 'ü'])
+        compact.persist()
+        compact.remove('a')
+        compact.persist()
+        plain.addAll(['x', 'y'])
+        plain.persist()
+
+        then:
+        WritablePermaSet.loadOrCreateStringSet(tempDir, 'compact') == ['b', 'ü'] as Set
+        WritableCompactStringSet.loadOrCreate(tempDir, 'compact') == ['b', 'ü'] as Set
+        ReadOnlyCompactStringSet.load(tempDir, 'plain') == ['x', 'y'] as Set
+    }
+
+    def "read only refresh"() {
+        given:
+        def writable = WritableCompactStringSet.loadOrCreate(tempDir, 'refresh')
+        writable.add('one')
+        writable.persist()
+        def readOnly = ReadOnlyCompactStringSet.load(tempDir, 'refresh')
+
+        when:
+        writable.add('two')
+        writable.persist()
+        readOnly.refresh()
+
+        then:
+        readOnly == ['one', 'two'] as Set
+
+        when:
+        writable.clear()
+        writable.add('three')
+        writable.compact()
+        readOnly.refresh()
+
+        then:
+        readOnly == ['three'] as Set
+    }
+
+    def "iterator remove"() {
+        given:
+        def perma = WritableCompactStringPerma.loadOrCreate(tempDir, 'iterator')
+        perma.putAll(['a': '1', 'b': '2'])
+        perma.persist()
+
+        when:
+        perma.entrySet().removeIf { it.key == 'a' }
+        perma.persist()
+
+        then:
+        WritableCompactStringPerma.loadOrCreate(tempDir, 'iterator') == ['b': '2']
+    }
+}
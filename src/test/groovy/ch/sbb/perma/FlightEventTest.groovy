@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma
+
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordedEvent
+import jdk.jfr.consumer.RecordingFile
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING
+
+class FlightEventTest extends SpecificationWithTempDir {
+    Recording recording = new Recording()
+
+    def setup() {
+        ['Persist', 'DeltaWrite', 'FullWrite', 'Compaction', 'Load', 'Refresh', 'DirectoryScan'].each {
+            recording.enable("ch.sbb.perma.$it" as String)
+        }
+    }
+
+    def cleanup() {
+        recording.close()
+    }
+
+    def "not recording begins no event"() {
+        expect:
+        FlightEvent.begin(FlightEvent.Type.PERSIST).is(FlightEvent.NONE)
+    }
+
+    def "recording emits persist, write, compaction and load events"() {
+        given:
+        recording.start()
+        def perma = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING)
+        perma.put('Bern', 'BN')
+        perma.persist()
+        perma.put('Olten', 'OL')
+        perma.persist()
+        perma.compact()
+        ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING)
+
+        when:
+        def events = recorded()
+
+        then:
+        events.collect { it.eventType.name - 'ch.sbb.perma.' } == [
+                'DirectoryScan',
+                'FullWrite', 'Persist',
+                'DeltaWrite', 'Persist',
+                'Persist', 'FullWrite', 'Compaction',
+                'DirectoryScan', 'Load']
+        events.every { it.getString('permaName') == 'stations' }
+        def delta = events[3]
+        delta.getInt('fullFileNumber') == 1
+        delta.getInt('deltaFileNumber') == 1
+        delta.getInt('records') == 1
+        delta.getLong('bytes') > 0
+        delta.getString('serializers').contains('StringSerializer')
+        events[7].getString('compactionReason') == 'REQUESTED'
+        events[7].getInt('fullFileNumber') == 2
+        events[8].getString('directory') == tempDir.path
+        events[8].getInt('files') == 1
+        events[9].getInt('records') == 2
+    }
+
+    def "recording emits refresh events of record based permas"() {
+        given:
+        def writable = WritableIntIntPerma.loadOrCreate(tempDir, 'stations')
+        writable.put(1, 2)
+        writable.persist()
+        def readOnly = ReadOnlyIntIntPerma.load(tempDir, 'stations')
+        recording.start()
+
+        when:
+        writable.put(3, 4)
+        writable.persist()
+        readOnly.refresh()
+        def events = recorded()
+
+        then:
+        events.collect { it.eventType.name - 'ch.sbb.perma.' } == ['DeltaWrite', 'Persist', 'DirectoryScan', 'Refresh']
+        events[1].getInt('records') == 1
+        events[3].getInt('deltaFileNumber') == 1
+        events[3].getInt('records') == 1
+    }
+
+    def "recording emits one refresh event when a refresh reloads a compacted map"() {
+        given:
+        def writable = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING)
+        writable.put('Bern', 'BN')
+        writable.persist()
+        def readOnly = ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING)
+        writable.put('Olten', 'OL')
+        writable.persist()
+        writable.compact()
+        recording.start()
+
+        when:
+        readOnly.refresh()
+        def events = recorded()
+
+        then:
+        events.collect { it.eventType.name - 'ch.sbb.perma.' } == ['DirectoryScan', 'Refresh']
+        events[1].getInt('fullFileNumber') == 2
+        events[1].getInt('records') == 2
+        events[1].getString('serializers').contains('StringSerializer')
+        events[1].getDuration('duration') >= events[0].getDuration('duration')
+    }
+
+    private List<RecordedEvent> recorded() {
+        recording.stop()
+        def file = new File(tempDir, 'recording.jfr')
+        recording.dump(file.toPath())
+        RecordingFile.readAllEvents(file.toPath()).sort { it.endTime }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma
+
+import ch.sbb.perma.file.CommitMarker
+import ch.sbb.perma.file.Durability
+import ch.sbb.perma.file.SyncBatch
+import com.google.common.util.concurrent.MoreExecutors
+import ch.sbb.perma.serializers.KeyOrValueSerializer
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING
+
+class GroupCommitTest extends SpecificationWithTempDir {
+    private static final String GROUP = 'timetable'
+
+    Options options = Options.builder().commitGroup(GROUP).build()
+
+    def "commit publishes all permas with one marker"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        def lines = WritablePermaSet.loadOrCreateStringSet(tempDir, 'lines', options)
+        stations.put('Bern', 'BN')
+        lines.add('IC1')
+
+        when:
+        GroupCommit.of(tempDir, GROUP, Durability.FSYNC_FILE_AND_DIRECTORY).commit(stations, lines)
+
+        then:
+        CommitMarker.read(tempDir, GROUP).commitNumber() == 1
+        ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING, options) == [Bern: 'BN']
+        ReadOnlyPermaSet.load(tempDir, 'lines', STRING, options) == ['IC1'] as Set
+    }
+
+    def "readers of the group do not see files persisted after the last commit"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        def lines = WritablePermaSet.loadOrCreateStringSet(tempDir, 'lines', options)
+        def commit = GroupCommit.of(tempDir, GROUP)
+        stations.put('Bern', 'BN')
+        lines.add('IC1')
+        commit.commit(stations, lines)
+        def readStations = ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING, options)
+        def readLines = ReadOnlyPermaSet.load(tempDir, 'lines', STRING, options)
+
+        when: 'a commit is interrupted after the first perma'
+        stations.put('Olten', 'OL')
+        stations.persist()
+        readStations.refresh()
+        readLines.refresh()
+
+        then:
+        readStations == [Bern: 'BN']
+        readLines == ['IC1'] as Set
+        ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING) == [Bern: 'BN', Olten: 'OL']
+
+        when:
+        lines.add('IC2')
+        commit.commit(stations, lines)
+        readStations.refresh()
+        readLines.refresh()
+
+        then:
+        readStations == [Bern: 'BN']
+        readLines == ['IC1', 'IC2'] as Set
+    }
+
+    def "writer of the group continues from the committed files"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        def commit = GroupCommit.of(tempDir, GROUP)
+        stations.put('Bern', 'BN')
+        commit.commit(stations)
+        stations.put('Olten', 'OL')
+        stations.persist()
+
+        when:
+        def restarted = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        restarted.put('Zürich', 'ZUE')
+        commit.commit(restarted)
+
+        then:
+        restarted == [Bern: 'BN', 'Zürich': 'ZUE']
+        ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING, options) == [Bern: 'BN', 'Zürich': 'ZUE']
+    }
+
+    def "failed persist writes no marker and the other permas are published by the next commit"() {
+        given:
+        def failing = new KeyOrValueSerializer<String>() {
+            @Override
+            byte[] toByteArray(String value) {
+                if (value == 'fail') {
+                    throw new IllegalArgumentException('not serializable')
+                }
+                STRING.toByteArray(value)
+            }
+
+            @Override
+            String fromByteArray(byte[] bytes) {
+                STRING.fromByteArray(bytes)
+            }
+        }
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        def lines = WritablePerma.loadOrCreate(tempDir, 'lines', STRING, failing, options)
+        def commit = GroupCommit.of(tempDir, GROUP)
+        stations.put('Bern', 'BN')
+        lines.put('IC1', 'Bern')
+        commit.commit(stations, lines)
+        stations.put('Olten', 'OL')
+        lines.put('IC2', 'fail')
+
+        when:
+        commit.commit(stations, lines)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == 'not serializable'
+        CommitMarker.read(tempDir, GROUP).commitNumber() == 1
+        ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING, options) == [Bern: 'BN']
+
+        when:
+        lines.put('IC2', 'Olten')
+        commit.commit(lines)
+
+        then:
+        CommitMarker.read(tempDir, GROUP).commitNumber() == 2
+        ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING, options) == [Bern: 'BN', Olten: 'OL']
+    }
+
+    def "files replaced by a compaction are deleted after the commit"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        def commit = GroupCommit.of(tempDir, GROUP)
+        (1..10).each { stations.put("station $it" as String, 'Bern') }
+        commit.commit(stations)
+        def reader = ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING, options)
+
+        when:
+        (1..10).each { stations.put("station $it" as String, 'Olten') }
+        commit.commit(stations)
+        reader.refresh()
+
+        then:
+        !new File(tempDir, 'stations_1_0.perma').exists()
+        new File(tempDir, 'stations_2_0.perma').exists()
+        reader.values().every { it == 'Olten' }
+    }
+
+    def "commits of several instances do not lose each other's files"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        def lines = WritablePermaSet.loadOrCreateStringSet(tempDir, 'lines', options)
+        def stationsCommit = GroupCommit.of(tempDir, GROUP)
+        def linesCommit = GroupCommit.of(tempDir, GROUP)
+
+        when:
+        def committers = [
+                Thread.start { (1..20).each { stations.put("station $it" as String, 'BN'); stationsCommit.commit(stations) } },
+                Thread.start { (1..20).each { lines.add("IC$it" as String); linesCommit.commit([lines]) } }]
+        committers*.join()
+
+        then:
+        CommitMarker.read(tempDir, GROUP).commitNumber() == 40
+        ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING, options).size() == 20
+        ReadOnlyPermaSet.load(tempDir, 'lines', STRING, options).size() == 20
+    }
+
+    def "perma not committed in the group does not exist for its readers"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        stations.put('Bern', 'BN')
+        GroupCommit.of(tempDir, GROUP).commit(stations)
+        def lines = WritablePermaSet.loadOrCreateStringSet(tempDir, 'lines')
+        lines.add('IC1')
+        lines.persist()
+
+        expect:
+        ReadOnlyPermaSet.load(tempDir, 'lines', STRING, options).isEmpty()
+        WritablePermaSet.loadOrCreateStringSet(tempDir, 'lines', options).isEmpty()
+
+        when: 'the existing perma is compacted in the group once'
+        GroupCommit.of(tempDir, GROUP).compact([lines])
+
+        then:
+        ReadOnlyPermaSet.load(tempDir, 'lines', STRING, options) == ['IC1'] as Set
+    }
+
+    def "writer of a perma not committed in the group numbers its files after the files on disk"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        stations.put('Bern', 'BN')
+        GroupCommit.of(tempDir, GROUP).commit(stations)
+        def lines = WritablePerma.loadOrCreate(tempDir, 'lines', STRING, STRING)
+        lines.put('IC1', 'Genève')
+        lines.persist()
+
+        when:
+        def joined = WritablePerma.loadOrCreate(tempDir, 'lines', STRING, STRING, options)
+        joined.put('IC5', 'Rorschach')
+        GroupCommit.of(tempDir, GROUP).commit(joined)
+
+        then:
+        new File(tempDir, 'lines_1_0.perma').exists()
+        ReadOnlyPerma.load(tempDir, 'lines', STRING, STRING, options) == [IC5: 'Rorschach']
+        new File(tempDir, 'timetable.commit').readLines() == ['commit 2', 'lines 2 -', 'stations 1 -']
+    }
+
+    def "delta file persisted outside of a commit is not published by the next commit"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        def commit = GroupCommit.of(tempDir, GROUP)
+        (1..10).each { stations.put("station $it" as String, 'Bern') }
+        commit.commit(stations)
+        stations.put('station 1', 'Olten')
+        stations.persist()
+        stations.put('station 2', 'Olten')
+
+        when:
+        commit.commit(stations)
+
+        then:
+        thrown(IllegalStateException)
+        CommitMarker.read(tempDir, GROUP).commitNumber() == 1
+        ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING, options).values().every { it == 'Bern' }
+
+        when:
+        commit.compact(stations)
+
+        then:
+        new File(tempDir, 'timetable.commit').readLines() == ['commit 2', 'stations 2 -']
+        ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING, options) == stations
+    }
+
+    def "group refresh shows all readers the same commit"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        def lines = WritablePermaSet.loadOrCreateStringSet(tempDir, 'lines', options)
+        def commit = GroupCommit.of(tempDir, GROUP)
+        stations.put('Bern', 'BN')
+        lines.add('IC1')
+        commit.commit(stations, lines)
+        def readStations = ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING, options)
+        def readLines = ReadOnlyPermaSet.load(tempDir, 'lines', STRING, options)
+        stations.put('Olten', 'OL')
+        lines.add('IC2')
+        commit.commit(stations, lines)
+        Refreshable committing = {
+            stations.put('Zürich', 'ZUE')
+            lines.add('IC3')
+            commit.commit(stations, lines)
+        }
+
+        when: 'a commit is written while the readers are refreshed'
+        GroupCommit.refresh(tempDir, GROUP, readStations, committing, readLines)
+
+        then:
+        readStations == [Bern: 'BN', Olten: 'OL']
+        readLines == ['IC1', 'IC2'] as Set
+
+        when:
+        GroupCommit.refresh(tempDir, GROUP, readStations, readLines)
+
+        then:
+        readStations == [Bern: 'BN', Olten: 'OL', Zürich: 'ZUE']
+        readLines == ['IC1', 'IC2', 'IC3'] as Set
+    }
+
+    def "marker lists the latest file of each perma"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        (1..10).each { stations.put("station $it" as String, 'Bern') }
+        stations.persist()
+        stations.put('station 1', 'Olten')
+
+        when:
+        GroupCommit.of(tempDir, GROUP).commit(stations)
+
+        then:
+        new File(tempDir, 'timetable.commit').readLines() == ['commit 1', 'stations 1 1']
+    }
+
+    def "names with spaces are read from the marker"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'main stations', STRING, STRING, options)
+        stations.put('Bern', 'BN')
+        def commit = GroupCommit.of(tempDir, GROUP)
+
+        when:
+        commit.commit(stations)
+        stations.put('Olten', 'OL')
+        commit.commit(stations)
+
+        then:
+        new File(tempDir, 'timetable.commit').readLines() == ['commit 2', 'main stations 1 1']
+        ReadOnlyPerma.load(tempDir, 'main stations', STRING, STRING, options) == [Bern: 'BN', Olten: 'OL']
+    }
+
+    def "commit with a direct executor on a thread in a batch"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        def lines = WritablePermaSet.loadOrCreateStringSet(tempDir, 'lines', options)
+        stations.put('Bern', 'BN')
+        lines.add('IC1')
+        def commit = GroupCommit.of(tempDir, GROUP, Durability.NONE, MoreExecutors.directExecutor())
+
+        when:
+        def batch = SyncBatch.open()
+        try {
+            commit.commit(stations, lines)
+        }
+        finally {
+            batch.close()
+        }
+
+        then:
+        CommitMarker.read(tempDir, GROUP).commitNumber() == 1
+        ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING, options) == [Bern: 'BN']
+        ReadOnlyPermaSet.load(tempDir, 'lines', STRING, options) == ['IC1'] as Set
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma
+
+import java.util.concurrent.TimeUnit
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING
+
+class HeapFootprintTest extends SpecificationWithTempDir {
+    def "reflective sizer sizes strings, boxed numbers and object graphs"() {
+        given:
+        def sizer = HeapSizer.REFLECTIVE
+        def bern = new AbstractMap.SimpleEntry('Bern', 'Bern')
+
+        expect:
+        sizer.sizeOf(null) == 0
+        sizer.sizeOf(42) == 16
+        sizer.sizeOf(42L) == 24
+        sizer.sizeOf(TimeUnit.SECONDS) == 0
+        sizer.sizeOf(new long[3]) == 40
+        sizer.sizeOf('Bern') > sizer.sizeOf('')
+        sizer.sizeOf(bern) == 24 + sizer.sizeOf('Bern')
+    }
+
+    def "writable perma counts keys, values, map and snapshot"() {
+        given:
+        def perma = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING)
+        (1..100).each { perma.put(String.format('%05d', it), 'Bern') }
+        def unpersisted = perma.heapFootprint()
+        perma.persist()
+
+        when:
+        def footprint = perma.heapFootprint()
+
+        then:
+        footprint.entries() == 100
+        !footprint.isSampled()
+        footprint.keyBytes() == 100 * HeapSizer.REFLECTIVE.sizeOf('00001')
+        footprint.valueBytes() == 100 * HeapSizer.REFLECTIVE.sizeOf('Bern')
+        footprint.overheadBytes() > unpersisted.overheadBytes()
+        footprint.totalBytes() == footprint.keyBytes() + footprint.valueBytes() + footprint.overheadBytes()
+    }
+
+    def "large permas are sampled"() {
+        given:
+        def perma = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING)
+        (1..10_000).each { perma.put(String.format('%05d', it), 'Bern') }
+
+        when:
+        def footprint = perma.heapFootprint()
+
+        then:
+        footprint.entries() == 10_000
+        footprint.isSampled()
+        footprint.sampledEntries() <= 1000
+        footprint.keyBytes() == 10_000 * HeapSizer.REFLECTIVE.sizeOf('00001')
+    }
+
+    def "read only perma and sets report their entries"() {
+        given:
+        def writable = WritablePermaSet.loadOrCreateStringSet(tempDir, 'stations')
+        writable.addAll(['Bern', 'Olten', 'Zürich'])
+        writable.persist()
+        def readOnlySet = ReadOnlyPermaSet.loadStringSet(tempDir, 'stations')
+        def map = WritablePerma.loadOrCreate(tempDir, 'lines', STRING, STRING)
+        map.put('IC1', 'Genf')
+        map.persist()
+        def readOnlyMap = ReadOnlyPerma.load(tempDir, 'lines', STRING, STRING)
+
+        expect:
+        writable.heapFootprint().entries() == 3
+        readOnlySet.heapFootprint().keyBytes() == writable.heapFootprint().keyBytes()
+        readOnlySet.heapFootprint().valueBytes() == 0
+        readOnlyMap.heapFootprint().entries() == 1
+        readOnlyMap.heapFootprint().valueBytes() == HeapSizer.REFLECTIVE.sizeOf('Genf')
+    }
+
+    def "specialized permas are sized from their tables"() {
+        given:
+        def ints = WritableIntIntPerma.loadOrCreate(tempDir, 'ints')
+        (1..10).each { ints.put(it, it) }
+        def bitmap = WritableLongBitmapSet.loadOrCreate(tempDir, 'bitmap')
+        (1..10).each { bitmap.add(it as long) }
+        def strings = WritableCompactStringSet.loadOrCreate(tempDir, 'strings')
+        strings.addAll(['Bern', 'Olten'])
+
+        expect:
+        ints.heapFootprint().keyBytes() == 40
+        ints.heapFootprint().valueBytes() == 40
+        ints.heapFootprint().overheadBytes() > 0
+        bitmap.heapFootprint().keyBytes() > 0
+        strings.heapFootprint().keyBytes() == 5 + 6
+        strings.heapFootprint().valueBytes() == 2
+    }
+
+    def "total sums a group of permas"() {
+        given:
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING)
+        stations.put('Bern', 'BN')
+        def ints = WritableIntIntPerma.loadOrCreate(tempDir, 'ints')
+        ints.put(1, 2)
+
+        when:
+        def total = HeapFootprint.total([stations, ints])
+
+        then:
+        total.entries() == 2
+        total.totalBytes() == stations.heapFootprint().totalBytes() + ints.heapFootprint().totalBytes()
+    }
+}
@@ -10,9 +10,14 @@ import ch.sbb.perma.file.GZipCompression
 import ch.sbb.perma.file.NoCompression
 import ch.sbb.perma.file.PermaFile
 import ch.sbb.perma.serializers.KeyOrValueSerializer
+import ch.sbb.perma.serializers.NullValueSerializer
+import com.google.common.primitives.Bytes
+import com.google.common.util.concurrent.MoreExecutors
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.util.concurrent.Executors
+
 import static ch.sbb.perma.serializers.KeyOrValueSerializer.*
 
 class MapSnapshotTest extends Specification {
@@ -421,6 +426,134 @@ class MapSnapshotTest extends Specification {
         ['A': VALUE_A, 'B': VALUE_B, 'C': VALUE_C] | Options.compressed() | GZipCompression.class
     }
 
+    @Unroll
+    def "compact raw #rawCompaction serializes #expectedSerializations"() {
+        given:
+        def serializer = new CountingSerializer()
+        def options = Options.builder().rawCompaction(rawCompaction).build()
+        def next = new NewMapSnapshot('foo', FileGroup.list(tempDir, 'foo'), options, serializer, serializer)
+        def states = [['A': VALUE_A, 'B': VALUE_B], ['A': VALUE_C, 'B': VALUE_B, 'C': VALUE_A], ['A': VALUE_C, 'C': VALUE_B]]
+
+        when:
+        for (def state : states) {
+            next = next.writeNext(state)
+        }
+        serializer.count = 0
+        def compacted = next.compact()
+        def serializations = serializer.count
+        def reloaded = MapSnapshot.loadOrCreate(tempDir, 'foo', options, STRING, STRING)
+
+        then:
+        serializations == expectedSerializations
+        compacted.asImmutableMap().equals(states[2])
+        reloaded.asImmutableMap().equals(states[2])
+        FileGroup.list(tempDir, 'foo').deltaFiles().isEmpty()
+
+        where:
+        rawCompaction || expectedSerializations
+        true          || 0
+        false         || 4
+    }
+
+    def "compact raw falls back if equal keys are serialized differently"() {
+        given:
+        def keySerializer = new NonDeterministicSerializer()
+        def options = Options.builder().rawCompaction(true).build()
+        def next = new NewMapSnapshot('foo', FileGroup.list(tempDir, 'foo'), options, keySerializer, STRING)
+
+        when:
+        next = next.writeNext(['A': VALUE_A, 'B': VALUE_B, 'C': VALUE_C])
+        next = next.writeNext(['A': VALUE_B, 'B': VALUE_B, 'C': VALUE_C])
+        def compacted = next.compact()
+        def reloaded = MapSnapshot.loadOrCreate(tempDir, 'foo', options, keySerializer, STRING)
+
+        then:
+        compacted.asImmutableMap().equals(['A': VALUE_B, 'B': VALUE_B, 'C': VALUE_C])
+        reloaded.asImmutableMap().equals(['A': VALUE_B, 'B': VALUE_B, 'C': VALUE_C])
+    }
+
+    def "compact raw streams the full file and applies the changes of all delta files"() {
+        given:
+        def options = Options.builder().rawCompaction(true).compactThresholdPercent(100).build()
+        def next = new NewMapSnapshot('foo', FileGroup.list(tempDir, 'foo'), options, STRING, STRING)
+        def states = [['A': VALUE_A, 'B': VALUE_B, 'C': VALUE_C],
+                      ['A': VALUE_A, 'C': VALUE_A, 'D': VALUE_B],
+                      ['A': VALUE_A, 'B': VALUE_C, 'C': VALUE_A],
+                      ['B': VALUE_C, 'C': VALUE_B, 'E': VALUE_A]]
+
+        when:
+        for (def state : states) {
+            next = next.writeNext(state)
+        }
+        def compacted = next.compact()
+        def reloaded = MapSnapshot.loadOrCreate(tempDir, 'foo', options, STRING, STRING)
+
+        then:
+        compacted.asImmutableMap().equals(states[3])
+        reloaded.asImmutableMap().equals(states[3])
+        FileGroup.list(tempDir, 'foo').deltaFiles().isEmpty()
+    }
+
+    def "custom serializers are called sequentially unless an executor is given"() {
+        given:
+        def executor = Executors.newSingleThreadExecutor()
+
+        expect:
+        Options.defaults().executor(STRING, STRING) != MoreExecutors.directExecutor()
+        Options.defaults().executor(STRING, new CountingSerializer()) == MoreExecutors.directExecutor()
+        Options.defaults().executor(new CountingSerializer(), NullValueSerializer.NULL) == MoreExecutors.directExecutor()
+        Options.builder().executor(executor).build().executor(new CountingSerializer(), STRING) == executor
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "large maps with custom serializers are written by the calling thread"() {
+        given:
+        def serializer = new CountingSerializer()
+        def map = (0..<3 * 4096).collectEntries { ["key $it" as String, 'value'] }
+        def next = new NewMapSnapshot('foo', FileGroup.list(tempDir, 'foo'), Options.defaults(), serializer, serializer)
+
+        when:
+        next.writeNext(map)
+
+        then:
+        serializer.count == 2 * map.size()
+        serializer.threads == [Thread.currentThread()] as Set
+        MapSnapshot.loadOrCreate(tempDir, 'foo', Options.defaults(), STRING, STRING).asImmutableMap() == map
+    }
+
+    static class CountingSerializer implements KeyOrValueSerializer<String> {
+        int count
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>())
+
+        @Override
+        byte[] toByteArray(String object) {
+            count++
+            threads << Thread.currentThread()
+            return STRING.toByteArray(object)
+        }
+
+        @Override
+        String fromByteArray(byte[] bytes) {
+            return STRING.fromByteArray(bytes)
+        }
+    }
+
+    static class NonDeterministicSerializer implements KeyOrValueSerializer<String> {
+        byte counter
+
+        @Override
+        byte[] toByteArray(String object) {
+            return Bytes.concat([counter++] as byte[], STRING.toByteArray(object))
+        }
+
+        @Override
+        String fromByteArray(byte[] bytes) {
+            return STRING.fromByteArray(Arrays.copyOfRange(bytes, 1, bytes.length))
+        }
+    }
+
     def rename(PermaFile source, PermaFile target) {
         toFile(source).renameTo(toFile(target))
     }
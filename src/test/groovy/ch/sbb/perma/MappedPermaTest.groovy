@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.INTEGER
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING
+
+class MappedPermaTest extends SpecificationWithTempDir {
+    WritablePerma<String, String> perma
+
+    def setup() {
+        // only explicit compactions, the changes are kept in delta files
+        def options = Options.builder().compactThresholdPercent(100).mappedIndex(true).build()
+        perma = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        perma.putAll([Bern: 'BN', Olten: 'OL', Zürich: 'ZUE'])
+        perma.persist()
+    }
+
+    def "reads the full file from the index and the delta files from the overlay"() {
+        given:
+        perma.put('Bern', 'BERN')
+        perma.remove('Olten')
+        perma.persist()
+        perma.put('Basel', 'BS')
+        perma.put('Olten', 'OLTEN')
+        perma.persist()
+
+        when:
+        def mapped = MappedPerma.load(tempDir, 'stations', STRING, STRING)
+
+        then:
+        new File(tempDir, 'stations_1.perma.index').exists()
+        mapped.@loaded.index != null
+        mapped == [Bern: 'BERN', Olten: 'OLTEN', Zürich: 'ZUE', Basel: 'BS']
+        mapped.size() == 4
+        mapped['Zürich'] == 'ZUE'
+        mapped['Luzern'] == null
+        !mapped.containsKey('Luzern')
+        mapped[null] == null
+        mapped[42] == null
+    }
+
+    def "refresh applies new delta files and maps the index of a new full file"() {
+        given:
+        def mapped = MappedPerma.load(tempDir, 'stations', STRING, STRING)
+
+        when:
+        perma.remove('Bern')
+        perma.put('Basel', 'BS')
+        perma.persist()
+        mapped.refresh()
+
+        then:
+        mapped == [Olten: 'OL', Zürich: 'ZUE', Basel: 'BS']
+        mapped.size() == 3
+
+        when:
+        perma.put('Bern', 'BN')
+        perma.compact()
+        mapped.refresh()
+
+        then:
+        mapped == [Bern: 'BN', Olten: 'OL', Zürich: 'ZUE', Basel: 'BS']
+        new File(tempDir, 'stations_2.perma.index').exists()
+        !new File(tempDir, 'stations_1.perma.index').exists()
+        mapped.heapFootprint().entries() == 0
+    }
+
+    def "reader without an index loads the full file and maps the index once the writer has built it"() {
+        given:
+        def index = new File(tempDir, 'stations_1.perma.index')
+        index.delete()
+
+        when:
+        def mapped = MappedPerma.load(tempDir, 'stations', STRING, STRING)
+
+        then:
+        !index.exists()
+        mapped.@loaded.index == null
+        mapped == [Bern: 'BN', Olten: 'OL', Zürich: 'ZUE']
+        mapped.heapFootprint().entries() == 3
+
+        when:
+        perma.put('Basel', 'BS')
+        perma.persist()
+        mapped.refresh()
+
+        then:
+        !index.exists()
+        mapped == [Bern: 'BN', Olten: 'OL', Zürich: 'ZUE', Basel: 'BS']
+
+        when:
+        MappedPerma.buildIndex(tempDir, 'stations', Options.defaults())
+        mapped.refresh()
+
+        then:
+        index.exists()
+        mapped.@loaded.index != null
+        mapped == [Bern: 'BN', Olten: 'OL', Zürich: 'ZUE', Basel: 'BS']
+        mapped.heapFootprint().entries() == 1
+    }
+
+    def "corrupt or truncated index is not used and not rewritten by readers"() {
+        given:
+        def index = new File(tempDir, 'stations_1.perma.index')
+        def built = index.bytes
+
+        when:
+        def corrupt = built.clone() as byte[]
+        corrupt[10] ^= 1
+        index.bytes = corrupt
+        def mapped = MappedPerma.load(tempDir, 'stations', STRING, STRING)
+
+        then:
+        mapped.@loaded.index == null
+        mapped == perma
+        index.bytes == corrupt
+
+        when:
+        index.bytes = built[0..<(built.length - 1)] as byte[]
+        mapped = MappedPerma.load(tempDir, 'stations', STRING, STRING)
+
+        then:
+        mapped.@loaded.index == null
+        mapped == perma
+        index.length() == built.length - 1
+    }
+
+    def "stale index of another full file is not used"() {
+        given:
+        def other = new File(tempDir, 'other')
+        other.mkdirs()
+        def otherPerma = WritablePerma.loadOrCreate(other, 'stations', STRING, STRING,
+                                                    Options.builder().mappedIndex(true).build())
+        otherPerma.put('Genève', 'GE')
+        otherPerma.persist()
+        new File(tempDir, 'stations_1.perma.index').bytes = new File(other, 'stations_1.perma.index').bytes
+
+        when:
+        def mapped = MappedPerma.load(tempDir, 'stations', STRING, STRING)
+
+        then:
+        mapped.@loaded.index == null
+        mapped == [Bern: 'BN', Olten: 'OL', Zürich: 'ZUE']
+    }
+
+    def "entries spanning mapped segments are read from both segments"() {
+        given:
+        def large = WritablePerma.loadOrCreate(tempDir, 'large', INTEGER, STRING,
+                                               Options.builder().mappedIndex(true).build())
+        (1..500).each { large.put(it, 'x' * (it % 37)) }
+        large.persist()
+
+        when:
+        def mapped = MappedPerma.load(tempDir, 'large', INTEGER, STRING, Options.illegal(), 64)
+
+        then:
+        mapped.@loaded.index != null
+        mapped == large
+        (1..500).every { mapped[it] == 'x' * (it % 37) }
+    }
+
+    def "compressed full files are not indexed"() {
+        given:
+        def compressed = WritablePerma.loadOrCreate(tempDir, 'compressed', INTEGER, STRING,
+                                                    Options.builder().compress(true).mappedIndex(true).build())
+        (1..50).each { compressed.put(it, 'x' * it) }
+        compressed.persist()
+
+        when:
+        def mapped = MappedPerma.load(tempDir, 'compressed', INTEGER, STRING)
+
+        then:
+        !new File(tempDir, 'compressed_1.perma.index').exists()
+        mapped.@loaded.index == null
+        mapped == compressed
+    }
+
+    def "perma without files is empty until the writer persists"() {
+        given:
+        def mapped = MappedPerma.load(tempDir, 'lines', STRING, STRING)
+
+        expect:
+        mapped.isEmpty()
+        mapped['IC1'] == null
+
+        when:
+        def lines = WritablePerma.loadOrCreate(tempDir, 'lines', STRING, STRING,
+                                               Options.builder().mappedIndex(true).build())
+        lines.put('IC1', 'Genève-Aéroport - St. Gallen')
+        lines.persist()
+        lines.put('IC5', 'Genève - Rorschach')
+        lines.persist()
+        mapped.refresh()
+
+        then:
+        mapped == [IC1: 'Genève-Aéroport - St. Gallen', IC5: 'Genève - Rorschach']
+        mapped.heapFootprint().entries() == 1
+    }
+
+    def "null values are not supported"() {
+        given:
+        def set = WritablePermaSet.loadOrCreateStringSet(tempDir, 'lines', Options.builder().mappedIndex(true).build())
+        set.add('IC1')
+        set.persist()
+
+        when:
+        MappedPerma.load(tempDir, 'lines', STRING, STRING)
+
+        then:
+        thrown(IllegalStateException)
+        !new File(tempDir, 'lines_1.perma.index').exists()
+    }
+}
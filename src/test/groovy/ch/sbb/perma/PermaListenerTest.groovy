@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING
+
+class PermaListenerTest extends SpecificationWithTempDir {
+    List<WriteEvent> written = []
+    List<ReadEvent> read = []
+    PermaListener listener = new PermaListener() {
+        @Override
+        void written(WriteEvent event) {
+            written.add(event)
+        }
+
+        @Override
+        void read(ReadEvent event) {
+            read.add(event)
+        }
+    }
+
+    def "persist reports full and delta writes"() {
+        given:
+        def perma = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, Options.builder().listener(listener).build())
+
+        when:
+        perma.put('Bern', 'BN')
+        perma.put('Olten', 'OL')
+        perma.persist()
+        perma.put('Zürich', 'ZUE')
+        perma.persist()
+
+        then:
+        written.size() == 2
+        written[0].permaName() == 'stations'
+        written[0].isFullFile()
+        written[0].fullFileNumber() == 1
+        written[0].compactionReason() == CompactionReason.NONE
+        written[0].records() == 2
+        written[0].bytes() == new File(tempDir, 'stations_1_0.perma').length()
+        !written[1].isFullFile()
+        written[1].deltaFileNumber() == 1
+        written[1].records() == 1
+        written.every { it.totalNanos() == it.diffNanos() + it.serializeNanos() + it.writeNanos() + it.renameNanos() }
+    }
+
+    def "compaction reports its reason"() {
+        given:
+        def perma = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, Options.builder().listener(listener).build())
+        (1..10).each { perma.put("station $it" as String, 'Bern') }
+        perma.persist()
+
+        when:
+        (1..5).each { perma.put("station $it" as String, 'Olten') }
+        perma.persist()
+        perma.put('station 6', 'Olten')
+        perma.compact()
+
+        then:
+        written*.compactionReason() == [CompactionReason.NONE,
+                                        CompactionReason.THRESHOLD,
+                                        CompactionReason.NONE,
+                                        CompactionReason.REQUESTED]
+        written[1].fullFileNumber() == 2
+        written[1].deltaFileNumber() == 0
+        written[3].fullFileNumber() == 3
+    }
+
+    def "load and refresh report files read"() {
+        given:
+        def perma = WritablePerma.loadOrCreateStringMap(tempDir, 'stations')
+        (1..100).each { perma.put("station $it" as String, 'Bern') }
+        perma.persist()
+        def readOnly = ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING, Options.builder().listener(listener).build())
+
+        when:
+        readOnly.refresh()
+        perma.put('Olten', 'OL')
+        perma.persist()
+        readOnly.refresh()
+
+        then:
+        read*.isRefresh() == [false, true, true]
+        read*.files() == [1, 0, 1]
+        read*.records() == [100, 0, 1]
+        read*.deltaFileNumber() == [0, 0, 1]
+        read[0].bytes() == new File(tempDir, 'stations_1_0.perma').length()
+        read[0].stalenessMillis() >= 0
+        read[1].stalenessMillis() == -1
+    }
+
+    def "record based permas report writes and reads"() {
+        given:
+        def options = Options.builder().listener(listener).build()
+        def set = WritableIntBitmapSet.loadOrCreate(tempDir, 'days', options)
+
+        when:
+        set.addAll([1, 2, 3])
+        set.persist()
+        set.add(100000)
+        set.persist()
+        set.compact()
+        def readOnly = ReadOnlyIntBitmapSet.load(tempDir, 'days', options)
+        set.add(7 << 20)
+        set.persist()
+        readOnly.refresh()
+
+        then:
+        written*.compactionReason() == [CompactionReason.NONE, CompactionReason.NONE, CompactionReason.REQUESTED, CompactionReason.NONE]
+        written*.records() == [1, 1, 2, 1]
+        read*.isRefresh() == [false, true]
+        read*.records() == [2, 1]
+    }
+
+    def "metrics count per perma"() {
+        given:
+        def metrics = new PermaMetrics()
+        def options = Options.builder().listener(metrics).build()
+        def stations = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        def lines = WritablePermaSet.loadOrCreate(tempDir, 'lines', STRING, options)
+
+        when:
+        stations.put('Bern', 'BN')
+        stations.persist()
+        stations.put('Olten', 'OL')
+        stations.persist()
+        stations.compact()
+        lines.add('IC 1')
+        lines.persist()
+
+        then:
+        metrics.permaNames() == ['stations', 'lines'] as Set
+        metrics.of('stations').persist().count() == 3
+        metrics.of('stations').deltaFilesWritten() == 1
+        metrics.of('stations').fullFilesWritten() == 2
+        metrics.of('stations').compactions(CompactionReason.REQUESTED) == 1
+        metrics.of('stations').recordsWritten() == 4
+        metrics.of('stations').fullFileNumber() == 2
+        metrics.of('stations').deltaChainLength() == 0
+        metrics.of('lines').recordsWritten() == 1
+        metrics.of('lines').bytesWritten() > 0
+    }
+
+    def "failing listener does not fail persist"() {
+        given:
+        def failing = new PermaListener() {
+            @Override
+            void written(WriteEvent event) {
+                throw new IllegalStateException('monitoring down')
+            }
+        }
+        def perma = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, Options.builder().listener(failing).build())
+
+        when:
+        perma.put('Bern', 'BN')
+        perma.persist()
+
+        then:
+        WritablePerma.loadOrCreateStringMap(tempDir, 'stations') == ['Bern': 'BN']
+    }
+}
@@ -4,11 +4,14 @@
 
 package ch.sbb.perma
 
+import ch.sbb.perma.datastore.HeaderMismatchException
 import spock.lang.Unroll
 
 import java.time.LocalDate
 
 import static ch.sbb.perma.serializers.KeyOrValueSerializer.*
+import static ch.sbb.perma.serializers.NullValueSerializer.NULL
+import static ch.sbb.perma.serializers.NullValueSerializer.NULL_OBJECT
 
 class PermaSetTest extends SpecificationWithTempDir {
     private static String LONG_STRING = 'the quick brown fox jumped over the lazy cat'.multiply(99999)
@@ -119,4 +122,94 @@ class PermaSetTest extends SpecificationWithTempDir {
         permaSet.equals(['N I X','long store'] as Set)
         permaRereadSet.equals(['N I X','long store'] as Set)
     }
-}
\ No newline at end of file
+
+    def "add remove persist deltas and reread"() {
+        given:
+        def permaSet = WritablePermaSet.loadOrCreate(tempDir, "testset", INTEGER)
+
+        when:
+        permaSet.addAll([1, 2, 3])
+        permaSet.persist()
+        permaSet.remove(2)
+        permaSet.add(4)
+        permaSet.remove(4)
+        permaSet.iterator().with { it.next(); it.remove() }
+        permaSet.add(5)
+        permaSet.persist()
+        def readOnly = ReadOnlyPermaSet.load(tempDir, "testset", INTEGER)
+        permaSet.add(6)
+        permaSet.persist()
+        readOnly.refresh()
+
+        then:
+        permaSet.size() == 3
+        WritablePermaSet.loadOrCreate(tempDir, "testset", INTEGER) == permaSet
+        readOnly == permaSet
+        readOnly.contains(6)
+        !readOnly.contains(2)
+    }
+
+    def "set files are readable as maps with null values"() {
+        given:
+        def permaSet = WritablePermaSet.loadOrCreateStringSet(tempDir, "testset")
+
+        when:
+        permaSet.addAll(['foo', 'bar'])
+        permaSet.persist()
+        permaSet.remove('foo')
+        permaSet.persist()
+        def map = MapSnapshot.loadOrCreate(tempDir, "testset", Options.defaults(), STRING, NULL).asImmutableMap()
+
+        then:
+        map.keySet() == ['bar'] as Set
+    }
+
+    def "set files are not readable as maps with other value serializers"() {
+        given:
+        def permaSet = WritablePermaSet.loadOrCreateStringSet(tempDir, "testset")
+        permaSet.add('foo')
+        permaSet.persist()
+
+        when:
+        WritablePerma.loadOrCreate(tempDir, "testset", STRING, STRING)
+
+        then:
+        def e = thrown(HeaderMismatchException)
+        e.message.contains('NULL value serializer')
+    }
+
+    def "sets written as maps with null values are read"() {
+        given:
+        def snapshot = MapSnapshot.loadOrCreate(tempDir, "testset", Options.defaults(), STRING, NULL)
+
+        when:
+        snapshot.writeNext(['foo': NULL_OBJECT, 'bar': NULL_OBJECT])
+                .writeNext(['bar': NULL_OBJECT, 'baz': NULL_OBJECT])
+        def permaSet = WritablePermaSet.loadOrCreateStringSet(tempDir, "testset")
+        permaSet.add('next')
+        permaSet.persist()
+
+        then:
+        permaSet == ['bar', 'baz', 'next'] as Set
+        ReadOnlyPermaSet.loadStringSet(tempDir, "testset") == ['bar', 'baz', 'next'] as Set
+    }
+
+    def "key only records are smaller than null values"() {
+        given:
+        def elements = (1..1000).collect { 'element ' + it }
+        def permaSet = WritablePermaSet.loadOrCreateStringSet(tempDir, "set")
+
+        when:
+        permaSet.addAll(elements)
+        permaSet.persist()
+        MapSnapshot.loadOrCreate(tempDir, "map", Options.defaults(), STRING, NULL)
+                   .writeNext(elements.collectEntries { [(it): NULL_OBJECT] })
+
+        then:
+        fileSize("set") < fileSize("map")
+    }
+
+    private long fileSize(String name) {
+        tempDir.listFiles().findAll { it.name.startsWith(name) }.sum { it.length() }
+    }
+}
@@ -4,6 +4,8 @@
 
 package ch.sbb.perma
 
+import ch.sbb.perma.file.Durability
+import ch.sbb.perma.file.SyncBatch
 import ch.sbb.perma.serializers.ImmutableListSerializer
 import ch.sbb.perma.serializers.ImmutableSetSerializer
 import ch.sbb.perma.serializers.PairSerializer
@@ -45,6 +47,8 @@ class PermaTest extends SpecificationWithTempDir {
         ['foo' : new Date(0)]                            | STRING        | JAVA_OBJECT     | Options.defaults()
         [(LocalDate.MAX) : LocalDate.MIN]                | JAVA_OBJECT   | JAVA_OBJECT     | Options.defaults()*/
         ['foo':FOO]                                      | STRING        | STRING          | Options.compressed()
+        ['foo':FOO,'N I X':NIX]                          | STRING        | STRING          | Options.builder().durability(Durability.FSYNC_FILE).build()
+        ['foo':FOO,'N I X':NIX]                          | STRING        | STRING          | Options.builder().durability(Durability.FSYNC_FILE_AND_DIRECTORY).build()
     }
 
     @Unroll
@@ -196,4 +200,27 @@ class PermaTest extends SpecificationWithTempDir {
         perma.equals(['N I X':NIX, 'long store':LONG_STRING])
         permaReread.equals(['N I X':NIX, 'long store':LONG_STRING])
     }
-}
\ No newline at end of file
+
+    def "write compact in sync batch reread string maps"() {
+        given:
+        def options = Options.builder().durability(Durability.FSYNC_FILE_AND_DIRECTORY).build()
+        def stations = WritablePerma.loadOrCreate(tempDir, "stations", STRING, STRING, options)
+        def lines = WritablePerma.loadOrCreate(tempDir, "lines", STRING, STRING, options)
+
+        when:
+        def batch = SyncBatch.open()
+        batch.withCloseable {
+            stations.put('foo', FOO)
+            stations.persist()
+            lines.put('N I X', NIX)
+            lines.persist()
+            stations.put('foo', NIX)
+            stations.compact()
+        }
+
+        then:
+        ReadOnlyPerma.loadStringMap(tempDir, "stations").equals(['foo':NIX])
+        ReadOnlyPerma.loadStringMap(tempDir, "lines").equals(['N I X':NIX])
+        tempDir.list().size() == 2
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.*
+
+class PrimitivePermaTest extends SpecificationWithTempDir {
+
+    def "long long write read"() {
+        given:
+        def perma = WritableLongLongPerma.loadOrCreate(tempDir, 'longs')
+
+        when:
+        perma.put(7L, 42L)
+        perma.put(0L, Long.MIN_VALUE)
+        perma.put(-3L, 3L)
+        perma.persist()
+        perma.put(-3L, 4L)
+        perma.remove(0L)
+        perma.put(9L, 9L)
+        perma.persist()
+
+        then:
+        WritableLongLongPerma.loadOrCreate(tempDir, 'longs') == [7L: 42L, (-3L): 4L, 9L: 9L]
+        ReadOnlyLongLongPerma.load(tempDir, 'longs').getOrDefault(-3L, 0L) == 4L
+    }
+
+    def "same files as writable perma"() {
+        given:
+        def primitive = WritableLongLongPerma.loadOrCreate(tempDir, 'primitive')
+        def boxed = WritablePerma.loadOrCreate(tempDir, 'boxed', LONG, LONG)
+
+        when:
+        primitive.put(1L, 2L)
+        primitive.put(3L, 4L)
+        primitive.persist()
+        primitive.put(1L, 5L)
+        primitive.remove(3L)
+        primitive.persist()
+        boxed.putAll([10L: 20L, 30L: 40L])
+        boxed.persist()
+        boxed.remove(10L)
+        boxed.persist()
+
+        then:
+        WritablePerma.loadOrCreate(tempDir, 'primitive', LONG, LONG) == [1L: 5L]
+        ReadOnlyLongLongPerma.load(tempDir, 'boxed') == [30L: 40L]
+    }
+
+    def "int int, long int and long object write read"() {
+        given:
+        def ints = WritableIntIntPerma.loadOrCreate(tempDir, 'ints')
+        def longInts = WritableLongIntPerma.loadOrCreate(tempDir, 'longInts')
+        def strings = WritableLongObjectPerma.loadOrCreate(tempDir, 'strings', STRING)
+
+        when:
+        ints.put(1, -1)
+        ints.put(0, 0)
+        longInts.put(Long.MAX_VALUE, 1)
+        strings.put(5L, 'five')
+        strings.put(6L, 'six')
+        [ints, longInts, strings]*.persist()
+        strings.remove(6L)
+        strings.persist()
+
+        then:
+        WritablePerma.loadOrCreate(tempDir, 'ints', INTEGER, INTEGER) == [1: -1, 0: 0]
+        ReadOnlyIntIntPerma.load(tempDir, 'ints').getOrDefault(1, 0) == -1
+        WritablePerma.loadOrCreate(tempDir, 'longInts', LONG, INTEGER) == [(Long.MAX_VALUE): 1]
+        ReadOnlyLongIntPerma.load(tempDir, 'longInts') == [(Long.MAX_VALUE): 1]
+        ReadOnlyLongObjectPerma.load(tempDir, 'strings', STRING).get(5L) == 'five'
+        WritableLongObjectPerma.loadOrCreate(tempDir, 'strings', STRING) == [5L: 'five']
+    }
+
+    def "map api"() {
+        given:
+        def perma = WritableLongIntPerma.loadOrCreate(tempDir, 'map')
+
+        when:
+        def previous = perma.put(1L, 1)
+        def updated = perma.put(1L, 2)
+        perma.putAll([2L: 2, 3L: 3])
+        def iterator = perma.entrySet().iterator()
+        iterator.next()
+        iterator.remove()
+
+        then:
+        previous == null
+        updated == 1
+        perma.size() == 2
+        perma.get(2L) != null || perma.get(3L) != null
+        perma.get('no long') == null
+    }
+
+    def "nothing written for a new perma without changes"() {
+        given:
+        def perma = WritableLongLongPerma.loadOrCreate(tempDir, 'empty')
+
+        when:
+        perma.put(1L, 1L)
+        perma.remove(1L)
+        perma.persist()
+        perma.compact()
+
+        then:
+        tempDir.list().length == 0
+    }
+
+    def "compact and clear"() {
+        given:
+        def perma = WritableLongLongPerma.loadOrCreate(tempDir, 'compact')
+        (1L..100L).each { perma.put(it, it) }
+        perma.persist()
+        perma.put(1L, 0L)
+        perma.persist()
+
+        when:
+        perma.compact()
+
+        then:
+        tempDir.list().length == 1
+        WritableLongLongPerma.loadOrCreate(tempDir, 'compact').getOrDefault(1L, -1L) == 0L
+
+        when:
+        perma.clear()
+        perma.persist()
+
+        then:
+        WritableLongLongPerma.loadOrCreate(tempDir, 'compact').isEmpty()
+    }
+
+    def "compaction threshold writes full file"() {
+        given:
+        def perma = WritableIntIntPerma.loadOrCreate(tempDir, 'threshold')
+        (1..10).each { perma.put(it, it) }
+        perma.persist()
+
+        when:
+        (1..5).each { perma.put(it, -it) }
+        perma.persist()
+
+        then:
+        tempDir.list().length == 1
+        WritableIntIntPerma.loadOrCreate(tempDir, 'threshold').getOrDefault(5, 0) == -5
+    }
+
+    def "read only refresh"() {
+        given:
+        def writable = WritableLongObjectPerma.loadOrCreate(tempDir, 'refresh', STRING)
+        writable.put(1L, 'one')
+        writable.persist()
+        def readOnly = ReadOnlyLongObjectPerma.load(tempDir, 'refresh', STRING)
+        def before = readOnly.entrySet()
+
+        when:
+        writable.put(2L, 'two')
+        writable.persist()
+        readOnly.refresh()
+
+        then:
+        readOnly == [1L: 'one', 2L: 'two']
+        before.size() == 1
+
+        when:
+        writable.remove(1L)
+        writable.compact()
+        readOnly.refresh()
+
+        then:
+        readOnly == [2L: 'two']
+    }
+
+    def "read only refresh of not yet written perma"() {
+        given:
+        def readOnly = ReadOnlyLongLongPerma.load(tempDir, 'later')
+        def writable = WritableLongLongPerma.loadOrCreate(tempDir, 'later')
+
+        when:
+        writable.put(1L, 1L)
+        writable.persist()
+        readOnly.refresh()
+
+        then:
+        readOnly.getOrDefault(1L, 0L) == 1L
+    }
+}
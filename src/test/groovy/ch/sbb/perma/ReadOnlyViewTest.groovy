@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING
+
+class ReadOnlyViewTest extends SpecificationWithTempDir {
+    WritablePerma<String, String> perma
+
+    def setup() {
+        perma = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING)
+    }
+
+    def "view sees the entries persisted when refreshed"() {
+        given:
+        perma.put('Bern', 'BN')
+        perma.persist()
+        def view = perma.readOnlyView()
+
+        when:
+        perma.put('Olten', 'OL')
+
+        then:
+        view == [Bern: 'BN']
+
+        when:
+        perma.persist()
+
+        then:
+        view == [Bern: 'BN']
+
+        when:
+        view.refresh()
+
+        then:
+        view == [Bern: 'BN', Olten: 'OL']
+    }
+
+    def "view of a new perma is empty until persisted"() {
+        given:
+        def view = perma.readOnlyView()
+        perma.put('Bern', 'BN')
+
+        when:
+        view.refresh()
+
+        then:
+        view.isEmpty()
+
+        when:
+        perma.persist()
+        view.refresh()
+
+        then:
+        view == [Bern: 'BN']
+    }
+
+    def "views share the persisted entries without reading files"() {
+        given:
+        perma.put('Bern', 'BN')
+        perma.persist()
+        def views = (1..3).collect { perma.readOnlyView() }
+        perma.put('Olten', 'OL')
+        perma.compact()
+
+        when:
+        new File(tempDir, 'stations_2_0.perma').delete()
+        views*.refresh()
+
+        then:
+        views.every { it == [Bern: 'BN', Olten: 'OL'] }
+        views.collect { it.delegate() }.every { it.is(views[0].delegate()) }
+    }
+
+    def "view is read only"() {
+        given:
+        perma.put('Bern', 'BN')
+        perma.persist()
+
+        when:
+        perma.readOnlyView().put('Olten', 'OL')
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    def "fork in memory has no view"() {
+        expect:
+        !PermaFork.methods*.name.contains('readOnlyView')
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma
+
+import spock.lang.Timeout
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING
+
+class SnapshotForkTest extends SpecificationWithTempDir {
+    WritablePerma<String, String> perma
+
+    def setup() {
+        def options = Options.builder().versionedSnapshots(true).build()
+        perma = WritablePerma.loadOrCreate(tempDir, 'stations', STRING, STRING, options)
+        perma.putAll([Bern: 'BN', Olten: 'OL', Zürich: 'ZUE'])
+    }
+
+    def "snapshot and fork copy the entries without versioned snapshots"() {
+        given:
+        def copying = WritablePerma.loadOrCreate(tempDir, 'lines', STRING, STRING)
+        copying.putAll([IC1: 'GE-SG', IC5: 'GE-RO'])
+        def snapshot = copying.snapshot()
+        def fork = copying.fork()
+
+        when:
+        copying.put('IC1', 'changed')
+        copying.remove('IC5')
+        fork.put('IC8', 'BI-RO')
+
+        then:
+        snapshot == [IC1: 'GE-SG', IC5: 'GE-RO']
+        fork == [IC1: 'GE-SG', IC5: 'GE-RO', IC8: 'BI-RO']
+        copying == [IC1: 'changed']
+
+        when:
+        snapshot.close()
+        snapshot.size()
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "snapshot is frozen"() {
+        given:
+        def snapshot = perma.snapshot()
+
+        when:
+        perma.put('Bern', 'BERN')
+        perma.remove('Olten')
+        perma.put('Basel', 'BS')
+        perma.compute('Zürich') { key, value -> value + '!' }
+
+        then:
+        snapshot == [Bern: 'BN', Olten: 'OL', Zürich: 'ZUE']
+        snapshot.size() == 3
+        snapshot.get('Basel') == null
+        perma == [Bern: 'BERN', Basel: 'BS', Zürich: 'ZUE!']
+    }
+
+    def "snapshots taken at different times see their own state"() {
+        given:
+        def first = perma.snapshot()
+        perma.put('Bern', 'BERN')
+        def second = perma.snapshot()
+        perma.remove('Bern')
+        def third = perma.snapshot()
+
+        expect:
+        first['Bern'] == 'BN'
+        second['Bern'] == 'BERN'
+        third['Bern'] == null
+        [first, second, third]*.size() == [3, 3, 2]
+
+        when:
+        second.close()
+        perma.put('Bern', 'new')
+
+        then:
+        first['Bern'] == 'BN'
+        third['Bern'] == null
+    }
+
+    def "snapshot is immutable and closed snapshot fails"() {
+        given:
+        def snapshot = perma.snapshot()
+
+        when:
+        snapshot.put('Basel', 'BS')
+
+        then:
+        thrown(UnsupportedOperationException)
+
+        when:
+        def iterator = snapshot.entrySet().iterator()
+        iterator.next()
+        iterator.remove()
+
+        then:
+        thrown(UnsupportedOperationException)
+        perma.size() == 3
+
+        when:
+        snapshot.close()
+        snapshot.get('Bern')
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "fork is independent of its parent"() {
+        given:
+        def fork = perma.fork()
+
+        when:
+        fork.put('Basel', 'BS')
+        fork.remove('Bern')
+        perma.put('Olten', 'OLTEN')
+        perma.put('Luzern', 'LZ')
+
+        then:
+        fork == [Olten: 'OL', Zürich: 'ZUE', Basel: 'BS']
+        fork.size() == 3
+        perma == [Bern: 'BN', Olten: 'OLTEN', Zürich: 'ZUE', Luzern: 'LZ']
+        !fork.containsKey('Bern')
+
+        when:
+        fork.put('Bern', 'again')
+        def forkOfFork = fork.fork()
+        forkOfFork.clear()
+
+        then:
+        fork == [Bern: 'again', Olten: 'OL', Zürich: 'ZUE', Basel: 'BS']
+        forkOfFork.isEmpty()
+    }
+
+    def "snapshot of a fork is frozen"() {
+        given:
+        def fork = perma.fork()
+        fork.put('Basel', 'BS')
+        def snapshot = fork.snapshot()
+
+        when:
+        fork.remove('Olten')
+        fork.put('Basel', 'BASEL')
+
+        then:
+        snapshot == [Bern: 'BN', Olten: 'OL', Zürich: 'ZUE', Basel: 'BS']
+    }
+
+    def "fork in memory is not persistable"() {
+        when:
+        def fork = perma.fork()
+
+        then:
+        fork instanceof PermaFork
+        !(fork instanceof Writable)
+        !PermaFork.methods*.name.contains('persist')
+    }
+
+    @Timeout(10)
+    def "write nested in a compute function does not release collected snapshots"() {
+        given:
+        def map = new VersionedMap<String, String>([Bern: 'BN'])
+        def snapshot = map.snapshot()
+
+        when:
+        map.compute('Bern') { key, value ->
+            map.@snapshots.keySet().first().enqueue() // as if the snapshot was garbage collected
+            map.put('Olten', 'OL')
+            'BERN'
+        }
+
+        then:
+        map == [Bern: 'BERN', Olten: 'OL']
+        map.@snapshots.size() == 1
+
+        when:
+        map.put('Basel', 'BS')
+
+        then:
+        map.@snapshots.isEmpty()
+        snapshot.size() == 1
+    }
+
+    def "fork with a name is persisted as the other perma"() {
+        given:
+        perma.persist()
+        def fork = perma.fork(tempDir, 'what-if', Options.defaults())
+        fork.put('Basel', 'BS')
+
+        when:
+        fork.persist()
+        perma.put('Luzern', 'LZ')
+        perma.persist()
+
+        then:
+        ReadOnlyPerma.load(tempDir, 'what-if', STRING, STRING) == [Bern: 'BN', Olten: 'OL', Zürich: 'ZUE', Basel: 'BS']
+        ReadOnlyPerma.load(tempDir, 'stations', STRING, STRING) == [Bern: 'BN', Olten: 'OL', Zürich: 'ZUE', Luzern: 'LZ']
+    }
+
+    def "iterator of the perma writes through"() {
+        when:
+        def iterator = perma.entrySet().iterator()
+        def first = iterator.next()
+        first.value = 'changed'
+        def second = iterator.next()
+        iterator.remove()
+
+        then:
+        perma[first.key] == 'changed'
+        !perma.containsKey(second.key)
+        perma.size() == 2
+    }
+
+    def "snapshot taken while writing sees a consistent state"() {
+        given:
+        def keys = (0..<1000).collect { "key $it" as String }
+        def keysOfWriter = (0..<4).collect { writer -> keys.findAll { keys.indexOf(it) % 4 == writer } }
+        keys.each { perma.put(it, '0') }
+        def executor = Executors.newFixedThreadPool(4)
+        def stop = new CountDownLatch(1)
+        4.times { writer ->
+            executor.submit {
+                def round = 0
+                while (stop.count > 0) {
+                    round++
+                    // all keys of a writer are changed in ascending order
+                    keys.eachWithIndex { key, i -> if (i % 4 == writer) perma.put(key, "$round" as String) }
+                }
+            }
+        }
+
+        when:
+        def consistent = (1..20).every {
+            def snapshot = perma.snapshot()
+            try {
+                def iterated = snapshot.entrySet().collectEntries { [it.key, it.value] }
+                iterated == snapshot && keysOfWriter.every { writerKeys ->
+                    def values = writerKeys.collect { snapshot[it] as int }
+                    values == values.sort(false).reverse()
+                }
+            }
+            finally {
+                snapshot.close()
+            }
+        }
+        stop.countDown()
+        executor.shutdown()
+        executor.awaitTermination(10, TimeUnit.SECONDS)
+
+        then:
+        consistent
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections
+
+import ch.sbb.perma.serializers.ReadBuffer
+import ch.sbb.perma.serializers.WriteBuffer
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class LongBitmapTest extends Specification {
+
+    def "add contains remove"() {
+        given:
+        def bitmap = new LongBitmap()
+
+        when:
+        def added = bitmap.add(7L)
+        def addedAgain = bitmap.add(7L)
+        bitmap.add(-1L)
+        bitmap.add(Long.MAX_VALUE)
+        bitmap.add(Long.MIN_VALUE)
+
+        then:
+        added
+        !addedAgain
+        bitmap.size() == 4
+        bitmap.contains(-1L)
+        !bitmap.contains(8L)
+        toList(bitmap) == [Long.MIN_VALUE, -1L, 7L, Long.MAX_VALUE]
+
+        when:
+        def removed = bitmap.remove(-1L)
+
+        then:
+        removed
+        !bitmap.remove(-1L)
+        bitmap.size() == 3
+        bitmap.containerCount() == 3
+    }
+
+    def "random operations same as java set"() {
+        given:
+        def random = new Random(4711)
+        def bitmap = new LongBitmap()
+        def expected = new TreeSet<Long>()
+
+        when:
+        300_000.times {
+            long value = random.nextInt(200_000) - 50_000
+            if (random.nextInt(3) == 0) {
+                assert bitmap.remove(value) == expected.remove(value)
+            } else {
+                assert bitmap.add(value) == expected.add(value)
+            }
+        }
+
+        then:
+        toList(bitmap) == expected as List
+        bitmap.size() == expected.size()
+    }
+
+    def "set operations"() {
+        given:
+        def random = new Random(42)
+        def first = new LongBitmap()
+        def second = new LongBitmap()
+        def firstExpected = new TreeSet<Long>()
+        def secondExpected = new TreeSet<Long>()
+        50_000.times {
+            long value = random.nextInt(300_000)
+            first.add(value)
+            firstExpected.add(value)
+        }
+        (100_000L..250_000L).each {
+            second.add(it)
+            secondExpected.add(it)
+        }
+        [7L, 9L, 1_000_000L].each {
+            second.add(it)
+            secondExpected.add(it)
+        }
+
+        def union = new TreeSet<Long>(firstExpected)
+        union.addAll(secondExpected)
+        def intersection = new TreeSet<Long>(firstExpected)
+        intersection.retainAll(secondExpected)
+        def difference = new TreeSet<Long>(firstExpected)
+        difference.removeAll(secondExpected)
+
+        expect:
+        toList(LongBitmap.or(first, second)) == union as List
+        toList(LongBitmap.and(first, second)) == intersection as List
+        toList(LongBitmap.andNot(first, second)) == difference as List
+        toList(first) == firstExpected as List
+        LongBitmap.and(first, second).size() == intersection.size()
+    }
+
+    def "changed containers are reported before change"() {
+        given:
+        def bitmap = new LongBitmap()
+        bitmap.add(1L)
+        bitmap.add(70_000L)
+        def other = new LongBitmap()
+        other.add(1L)
+        other.add(140_000L)
+        def changed = []
+
+        when:
+        bitmap.addAll(other, { changed << [it, bitmap.containsContainer(it)] })
+
+        then:
+        changed == [[2L, false]]
+
+        when:
+        changed.clear()
+        bitmap.retainAll(other, { changed << it })
+
+        then:
+        changed == [1L]
+        toList(bitmap) == [1L, 140_000L]
+    }
+
+    @Unroll
+    def "write read container #name"() {
+        given:
+        def bitmap = new LongBitmap()
+        values.each { bitmap.add(it) }
+        def out = new WriteBuffer()
+
+        when:
+        bitmap.writeContainerTo(0L, out)
+        def read = new LongBitmap()
+        read.readContainer(0L, new ReadBuffer(out.toByteArray()))
+
+        then:
+        toList(read) == values
+        out.length() <= maxBytes
+
+        where:
+        name     | values                                     | maxBytes
+        'array'  | (0L..<100L).collect { it * 3 }             | 205
+        'bitmap' | (0L..<30_000L).collect { it * 2 }          | 8193
+        'runs'   | (0L..<65_536L) as List                     | 9
+        'mixed'  | (10L..<5000L) + (6000L..<6010L) + [65535L] | 17
+    }
+
+    def "dense range is compact"() {
+        given:
+        def bitmap = new LongBitmap()
+
+        when:
+        (0L..<1_000_000L).each { bitmap.add(it) }
+
+        then:
+        bitmap.size() == 1_000_000
+        bitmap.footprint() < 200_000
+    }
+
+    def "copy is independent"() {
+        given:
+        def bitmap = new LongBitmap()
+        bitmap.add(1L)
+
+        when:
+        def copy = bitmap.copy()
+        copy.add(2L)
+        bitmap.clear()
+
+        then:
+        bitmap.isEmpty()
+        toList(copy) == [1L, 2L]
+    }
+
+    private static List<Long> toList(LongBitmap bitmap) {
+        def result = []
+        bitmap.forEach { result << it }
+        return result
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections
+
+import spock.lang.Specification
+
+class ObjectHashSetTest extends Specification {
+
+    def "add contains remove"() {
+        given:
+        def set = new ObjectHashSet<String>()
+
+        when:
+        def added = set.add('foo')
+        def addedAgain = set.add('foo')
+        set.add('bar')
+
+        then:
+        added
+        !addedAgain
+        set.size() == 2
+        set.contains('foo')
+        !set.contains('baz')
+        !set.contains(null)
+
+        when:
+        def removed = set.remove('foo')
+
+        then:
+        removed
+        !set.remove('foo')
+        !set.remove(null)
+        set.size() == 1
+    }
+
+    def "null element not allowed"() {
+        when:
+        new ObjectHashSet<String>().add(null)
+
+        then:
+        thrown(NullPointerException)
+    }
+
+    def "random operations same as java set"() {
+        given:
+        def random = new Random(4711)
+        def set = new ObjectHashSet<Integer>()
+        def expected = new HashSet<Integer>()
+
+        when:
+        200_000.times {
+            def element = random.nextInt(5000)
+            if (random.nextInt(3) == 0) {
+                assert set.remove(element) == expected.remove(element)
+            } else {
+                assert set.add(element) == expected.add(element)
+            }
+        }
+
+        then:
+        toJavaSet(set) == expected
+        set.size() == expected.size()
+    }
+
+    def "copy is independent"() {
+        given:
+        def set = new ObjectHashSet<String>()
+        set.add('one')
+
+        when:
+        def copy = set.copy()
+        copy.add('two')
+        set.clear()
+
+        then:
+        toJavaSet(set).isEmpty()
+        toJavaSet(copy) == ['one', 'two'] as Set
+    }
+
+    private static <T> Set<T> toJavaSet(ObjectHashSet<T> set) {
+        def result = new HashSet<T>()
+        for (int slot = set.nextSlot(0); slot >= 0; slot = set.nextSlot(slot + 1)) {
+            result.add(set.elementAt(slot))
+        }
+        return result
+    }
+}
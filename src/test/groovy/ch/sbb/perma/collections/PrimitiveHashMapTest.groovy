@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections
+
+import spock.lang.Specification
+
+class PrimitiveHashMapTest extends Specification {
+
+    def "long long put get remove"() {
+        given:
+        def map = new LongLongHashMap()
+
+        when:
+        def added = map.put(7L, 42L)
+        def addedAgain = map.put(7L, 43L)
+        map.put(0L, 1L)
+        map.put(-1L, Long.MAX_VALUE)
+
+        then:
+        added
+        !addedAgain
+        map.size() == 3
+        map.getOrDefault(7L, -1L) == 43L
+        map.getOrDefault(0L, -1L) == 1L
+        map.getOrDefault(-1L, 0L) == Long.MAX_VALUE
+        map.getOrDefault(8L, -1L) == -1L
+
+        when:
+        def removed = map.remove(0L)
+        def removedAgain = map.remove(0L)
+
+        then:
+        removed
+        !removedAgain
+        !map.containsKey(0L)
+        map.size() == 2
+    }
+
+    def "random operations same as java map"() {
+        given:
+        def random = new Random(4711)
+        def map = new LongLongHashMap()
+        def intMap = new IntIntHashMap()
+        def expected = [:]
+
+        when:
+        100_000.times {
+            long key = random.nextInt(5000) - 100
+            if (random.nextInt(3) == 0) {
+                map.remove(key)
+                intMap.remove((int) key)
+                expected.remove(key)
+            } else {
+                map.put(key, key * 3)
+                intMap.put((int) key, (int) key * 3)
+                expected[key] = key * 3
+            }
+        }
+
+        then:
+        toJavaMap(map) == expected
+        toJavaMap(intMap) == expected
+        expected.keySet().every { map.containsKey(it) && intMap.containsKey((int) it) }
+    }
+
+    def "copy is independent"() {
+        given:
+        def map = new LongObjectHashMap<String>()
+        map.put(1L, 'one')
+        map.put(0L, 'zero')
+
+        when:
+        def copy = map.copy()
+        copy.put(2L, 'two')
+        copy.remove(0L)
+
+        then:
+        map.size() == 2
+        map.get(0L) == 'zero'
+        map.get(2L) == null
+        copy.size() == 2
+        copy.get(2L) == 'two'
+    }
+
+    def "null value rejected"() {
+        when:
+        new LongObjectHashMap<String>().put(1L, null)
+
+        then:
+        thrown(NullPointerException)
+    }
+
+    def "clear"() {
+        given:
+        def map = new LongIntHashMap()
+        (0..100).each { map.put(it, it) }
+
+        when:
+        map.clear()
+
+        then:
+        map.isEmpty()
+        map.nextSlot(0) == -1
+        !map.containsKey(0L)
+    }
+
+    private static Map<Long, Long> toJavaMap(def map) {
+        def result = [:]
+        for (int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot + 1)) {
+            result[(long) map.keyAt(slot)] = (long) map.valueAt(slot)
+        }
+        return result
+    }
+}
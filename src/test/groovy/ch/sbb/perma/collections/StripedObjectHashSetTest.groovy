@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections
+
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class StripedObjectHashSetTest extends Specification {
+
+    def "add contains remove clear"() {
+        given:
+        def set = new StripedObjectHashSet<Integer>()
+
+        when:
+        (1..1000).each { set.add(it) }
+
+        then:
+        !set.add(1)
+        set.size() == 1000
+        set.contains(500)
+        !set.contains(1001)
+        !set.contains(null)
+        set.iterator().collect() as Set == (1..1000) as Set
+
+        when:
+        def removed = []
+        set.remove(500)
+        set.clear { removed << it }
+
+        then:
+        !set.remove(500)
+        set.isEmpty()
+        removed.size() == 999
+        !set.iterator().hasNext()
+    }
+
+    def "copies of the stripes hold all elements"() {
+        given:
+        def set = new StripedObjectHashSet<String>()
+        ['a', 'b', 'c'].each { set.add(it) }
+
+        when:
+        def copies = set.copyStripes()
+        set.remove('a')
+
+        then:
+        copies.size() == StripedObjectHashSet.STRIPES
+        copies.sum { it.size() } == 3
+    }
+
+    def "iteration returns the elements present during the whole iteration exactly once"() {
+        given:
+        def set = new StripedObjectHashSet<Integer>()
+        (0..<10000).each { set.add(it) }
+        def executor = Executors.newSingleThreadExecutor()
+        def started = new CountDownLatch(1)
+        def running = true
+
+        when:
+        executor.execute {
+            started.countDown()
+            int next = 10000
+            while (running) {
+                set.add(next)
+                set.remove(next - 100)
+                next++
+            }
+        }
+        started.await()
+        def seen = []
+        for (Iterator<Integer> elements = set.iterator(); elements.hasNext();) {
+            seen << elements.next()
+        }
+        running = false
+        executor.shutdown()
+        executor.awaitTermination(10, TimeUnit.SECONDS)
+
+        then:
+        seen.size() == (seen as Set).size()
+        // the writer only removes elements from 9900 on
+        seen.containsAll(0..<9900)
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.collections
+
+import ch.sbb.perma.serializers.WriteBuffer
+import spock.lang.Specification
+
+class Utf8HashMapTest extends Specification {
+
+    def "put get remove"() {
+        given:
+        def map = new Utf8HashMap()
+
+        when:
+        def added = map.put('foo', 'bar')
+        def addedAgain = map.put('foo', 'bär')
+        map.put('', '')
+        map.put('set element', null)
+
+        then:
+        added
+        !addedAgain
+        map.size() == 3
+        map.get('foo') == 'bär'
+        map.get('') == ''
+        map.containsKey('set element')
+        map.get('set element') == null
+        map.hasNullValueAt(map.slotOf('set element'))
+        !map.containsKey('bar')
+
+        when:
+        def removed = map.remove('foo')
+
+        then:
+        removed
+        !map.remove('foo')
+        map.size() == 2
+    }
+
+    def "long and non ascii strings"() {
+        given:
+        def map = new Utf8HashMap()
+        def longString = 'Zürich HB '.multiply(1000)
+
+        when:
+        map.put(longString, '🚂')
+        map.put('🚂', longString)
+
+        then:
+        map.get(longString) == '🚂'
+        map.get('🚂') == longString
+    }
+
+    def "random operations same as java map with arena compaction"() {
+        given:
+        def random = new Random(4711)
+        def map = new Utf8HashMap()
+        def expected = [:]
+
+        when:
+        200_000.times {
+            def key = 'key ' + random.nextInt(3000)
+            if (random.nextInt(3) == 0) {
+                map.remove(key)
+                expected.remove(key)
+            } else {
+                def value = 'value ' + random.nextInt()
+                map.put(key, value)
+                expected[key] = value
+            }
+        }
+
+        then:
+        toJavaMap(map) == expected
+        map.footprint() < 3000 * 64
+    }
+
+    def "copy is independent"() {
+        given:
+        def map = new Utf8HashMap()
+        map.put('one', '1')
+
+        when:
+        def copy = map.copy()
+        copy.put('two', '2')
+        copy.put('one', 'eins')
+
+        then:
+        toJavaMap(map) == ['one': '1']
+        toJavaMap(copy) == ['one': 'eins', 'two': '2']
+    }
+
+    def "put entry and write bytes"() {
+        given:
+        def source = new Utf8HashMap()
+        source.put('key', 'value')
+        source.put('element', null)
+        def target = new Utf8HashMap()
+        def key = new WriteBuffer()
+        def value = new WriteBuffer()
+
+        when:
+        for (int slot = source.nextSlot(0); slot >= 0; slot = source.nextSlot(slot + 1)) {
+            target.putEntry(source, slot)
+        }
+        def slot = target.slotOf('key')
+        target.writeKeyTo(slot, key)
+        def written = target.writeValueTo(slot, value)
+
+        then:
+        toJavaMap(target) == ['key': 'value', 'element': null]
+        written
+        new String(key.toByteArray(), 'UTF-8') == 'key'
+        new String(value.toByteArray(), 'UTF-8') == 'value'
+        !target.writeValueTo(target.slotOf('element'), value)
+    }
+
+    private static Map<String, String> toJavaMap(Utf8HashMap map) {
+        def result = [:]
+        for (int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot + 1)) {
+            result[map.keyAt(slot)] = map.valueAt(slot)
+        }
+        return result
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.datastore
+
+import ch.sbb.perma.SpecificationWithTempDir
+import ch.sbb.perma.file.GZipCompression
+import ch.sbb.perma.file.PermaFile
+import ch.sbb.perma.serializers.ReadBuffer
+import com.google.common.collect.ImmutableMap
+import com.google.common.collect.ImmutableSet
+import spock.lang.Unroll
+
+import java.util.concurrent.ForkJoinPool
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING
+
+class FilePipelineTest extends SpecificationWithTempDir {
+    private static final String NAME = 'stations'
+    private static final int DELTAS = 50
+
+    PermaFile fullFile
+    List<PermaFile> deltaFiles = []
+
+    def setup() {
+        fullFile = PermaFile.fullFile(GZipCompression.GZIP_COMPRESSION, tempDir, NAME, 1)
+        def data = MapFileData.createNewFull(NAME, ImmutableMap.copyOf((0..<100).collectEntries { ["$it" as String, 'full'] }))
+                              .writeTo(fullFile, STRING, STRING)
+        (1..DELTAS).each { number ->
+            def deltaFile = fullFile.delta(number)
+            data = data.nextDelta(ImmutableMap.of("${number % 10}" as String, "delta $number" as String,
+                                                  "new $number" as String, 'added'),
+                                  ImmutableSet.of("${number + 49}" as String))
+                       .writeTo(deltaFile, STRING, STRING)
+            deltaFiles << deltaFile
+        }
+    }
+
+    def "deltas are applied in order"() {
+        given:
+        def map = [:]
+
+        when:
+        MapFileData.readFileGroupAndCollect(fullFile, deltaFiles, STRING, STRING, map)
+
+        then:
+        map == expected()
+    }
+
+    def "deltas parsed in parallel are applied in order"() {
+        given:
+        def map = [:]
+
+        when:
+        MapFileData.readFileGroupAndCollect(fullFile, deltaFiles, STRING, STRING, map, ForkJoinPool.commonPool())
+
+        then:
+        map == expected()
+    }
+
+    def "deltas are refreshed in order"() {
+        given:
+        def map = [:]
+        def data = MapFileData.readFileGroupAndCollect(fullFile, deltaFiles.subList(0, 1), STRING, STRING, map)
+
+        when:
+        data.updateWithDeltasAndCollect(deltaFiles.subList(1, DELTAS), STRING, STRING, map)
+
+        then:
+        map == expected()
+    }
+
+    def "records of deltas are handled in order"() {
+        given:
+        def map = [:]
+        def handler = new RecordHandler() {
+            @Override
+            void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+                map[STRING.readFrom(key)] = STRING.readFrom(value)
+            }
+
+            @Override
+            void deleted(ReadBuffer key) {
+                map.remove(STRING.readFrom(key))
+            }
+        }
+
+        when:
+        RecordFileSequence.readFileGroup(fullFile, deltaFiles, handler)
+
+        then:
+        map == expected()
+    }
+
+    @Unroll
+    def "corrupt delta #corrupt fails"() {
+        given:
+        def file = new File(tempDir, "${NAME}_1_${corrupt}.perma.gzip")
+        file.bytes = new byte[10]
+
+        when:
+        MapFileData.readFileGroupAndCollect(fullFile, deltaFiles, STRING, STRING, [:])
+
+        then:
+        thrown(IOException)
+
+        where:
+        corrupt << [1, 25, DELTAS]
+    }
+
+    def "deltas out of order fail"() {
+        given:
+        Collections.swap(deltaFiles, 10, 11)
+
+        when:
+        MapFileData.readFileGroupAndCollect(fullFile, deltaFiles, STRING, STRING, [:])
+
+        then:
+        thrown(HeaderMismatchException)
+    }
+
+    private static Map expected() {
+        def map = (0..<100).collectEntries { ["$it" as String, 'full'] }
+        (1..DELTAS).each { number ->
+            map["${number % 10}" as String] = "delta $number" as String
+            map["new $number" as String] = 'added'
+            map.remove("${number + 49}" as String)
+        }
+        map
+    }
+}
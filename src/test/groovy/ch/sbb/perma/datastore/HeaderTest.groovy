@@ -15,7 +15,7 @@ class HeaderTest extends Specification {
         when:
         def newHeader = Header.newFullHeader("foo",1)
         newHeader.writeTo(out)
-        def reread = Header.readFrom(new ByteArrayInputStream(out.toByteArray()))
+        def reread = Header.readFrom(new BinaryDecoder(new ByteArrayInputStream(out.toByteArray())))
 
         then:
         reread.isFullFile()
@@ -29,7 +29,7 @@ class HeaderTest extends Specification {
         when:
         def newHeader = Header.newFullHeader("foo",42)
         newHeader.nextDelta(1).writeTo(out)
-        def reread = Header.readFrom(new ByteArrayInputStream(out.toByteArray()))
+        def reread = Header.readFrom(new BinaryDecoder(new ByteArrayInputStream(out.toByteArray())))
 
         then:
         reread.isNextDeltaFileOf(newHeader)
@@ -42,7 +42,7 @@ class HeaderTest extends Specification {
         when:
         def newHeader = Header.newFullHeader("foo",2)
         newHeader.nextDelta(3).nextDelta(5).writeTo(out)
-        def reread = Header.readFrom(new ByteArrayInputStream(out.toByteArray()))
+        def reread = Header.readFrom(new BinaryDecoder(new ByteArrayInputStream(out.toByteArray())))
 
         then:
         !reread.isNextDeltaFileOf(newHeader)
@@ -57,7 +57,7 @@ class HeaderTest extends Specification {
         Header.newFullHeader("foo",7).writeTo(out)
         def bytes = out.toByteArray()
         bytes[0] = 0x00
-        Header.readFrom(new ByteArrayInputStream(bytes))
+        Header.readFrom(new BinaryDecoder(new ByteArrayInputStream(bytes)))
 
         then:
         thrown InvalidDataException
@@ -71,7 +71,7 @@ class HeaderTest extends Specification {
         Header.newFullHeader("foo",7).writeTo(out)
         def bytes = out.toByteArray()
         bytes[10] = 0xF9
-        Header.readFrom(new ByteArrayInputStream(bytes))
+        Header.readFrom(new BinaryDecoder(new ByteArrayInputStream(bytes)))
 
         then:
         thrown InvalidDataException
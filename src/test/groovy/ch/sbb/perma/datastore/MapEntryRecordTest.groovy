@@ -4,6 +4,8 @@
 
 package ch.sbb.perma.datastore
 
+import ch.sbb.perma.serializers.BufferSerializer
+import ch.sbb.perma.serializers.ReadBuffer
 import com.google.common.collect.ImmutableMap
 import com.google.common.collect.ImmutableSet
 import com.sun.xml.internal.messaging.saaj.util.ByteOutputStream
@@ -26,10 +28,7 @@ class MapEntryRecordTest extends Specification {
                 out,
                 keySerializer,
                 valueSerializer)
-        def reread = record.readFrom(
-                new ByteArrayInputStream(out.toByteArray()),
-                keySerializer,
-                valueSerializer)
+        def reread = readRecord(out.toByteArray(), keySerializer, valueSerializer)
 
         then:
         extractNewOrUdpated(reread).equals(ImmutableMap.of(entryKey, entryValue))
@@ -57,10 +56,7 @@ class MapEntryRecordTest extends Specification {
                 STRING)
         def bytes = out.bytes
         bytes[at] = 0xF0
-        record.readFrom(
-                new ByteArrayInputStream(out.bytes),
-                STRING,
-                STRING)
+        readRecord(out.bytes, STRING, STRING)
 
         then:
         thrown InvalidDataException
@@ -86,10 +82,7 @@ class MapEntryRecordTest extends Specification {
                 out,
                 STRING,
                 NULL)
-        def reread = record.readFrom(
-                        new ByteArrayInputStream(out.bytes),
-                        STRING,
-                        NULL)
+        def reread = readRecord(out.bytes, STRING, NULL)
 
         then:
         extractDeleted(reread).equals(['foo'] as Set)
@@ -104,10 +97,7 @@ class MapEntryRecordTest extends Specification {
         when:
         def record = MapEntryRecord.newOrUpdated('foo', value)
         record.writeTo(out, STRING, OPTIONAL_STRING)
-        def reread = MapEntryRecord.readFrom(
-                new ByteArrayInputStream(out.bytes),
-                STRING,
-                OPTIONAL_STRING)
+        def reread = readRecord(out.bytes, STRING, OPTIONAL_STRING)
         reread.addTo(mapBuilder, ImmutableSet.builder())
 
         then:
@@ -118,6 +108,25 @@ class MapEntryRecordTest extends Specification {
         value << [Optional.empty(), Optional.of("is eh was da")];
     }
 
+    def readRecord(byte[] bytes, keySerializer, valueSerializer) {
+        def keyBufferSerializer = BufferSerializer.of(keySerializer)
+        def valueBufferSerializer = BufferSerializer.of(valueSerializer)
+        def read = null
+        def handler = new RecordHandler() {
+            @Override
+            void newOrUpdated(ReadBuffer key, ReadBuffer value) {
+                read = MapEntryRecord.newOrUpdated(keyBufferSerializer.readFrom(key), valueBufferSerializer.readFrom(value))
+            }
+
+            @Override
+            void deleted(ReadBuffer key) {
+                read = MapEntryRecord.deleted(keyBufferSerializer.readFrom(key))
+            }
+        }
+        MapEntryRecord.readFrom(new BinaryDecoder(new ByteArrayInputStream(bytes)), handler, new ReadBuffer(), new ReadBuffer())
+        return read
+    }
+
     def extractNewOrUdpated(mapEntryRecord) {
         return extract(mapEntryRecord)[0]
     }
@@ -148,6 +148,30 @@ class MapFileDataTest extends Specification {
         ['A':VALUE_A, 'B':VALUE_B] | ['C']   || ['A':VALUE_A, 'B':VALUE_B]
     }
 
+    def "write read larger than read buffer, slow stream"() {
+        given:
+        def out = new ByteArrayOutputStream();
+        def map = (1..20000).collectEntries { ["key $it".toString(), "value $it".toString()] }
+        map['big'] = VALUE_C
+
+        when:
+        new MapFileData(Header.newFullHeader(NAME, map.size()),
+                ImmutableMap.copyOf(map),
+                ImmutableSet.of()
+        )
+                .writeTo(out, STRING, STRING)
+        def slowIn = new FilterInputStream(new ByteArrayInputStream(out.toByteArray())) {
+            @Override
+            int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 7))
+            }
+        }
+        def reread = MapFileData.readFrom(slowIn, STRING, STRING)
+
+        then:
+        extractMap(reread).equals(map)
+    }
+
     def sizeMismatchOnWrite() {
         given:
         def out = new ByteArrayOutputStream();
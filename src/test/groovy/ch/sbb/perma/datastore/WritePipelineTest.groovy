@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.datastore
+
+import ch.sbb.perma.serializers.BufferSerializer
+import ch.sbb.perma.serializers.KeyOrValueSerializer
+import com.google.common.collect.ImmutableMap
+import com.google.common.collect.ImmutableSet
+import com.google.common.util.concurrent.MoreExecutors
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.ForkJoinPool
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.INTEGER
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING
+
+class WritePipelineTest extends Specification {
+
+    @Unroll
+    def "parallel write of #size records equals sequential write"() {
+        given:
+        def entries = (0..<size).collect { new AbstractMap.SimpleEntry(it, "value $it" as String) }
+
+        when:
+        def parallel = write(entries, ForkJoinPool.commonPool())
+        def sequential = write(entries, MoreExecutors.directExecutor())
+
+        then:
+        parallel == sequential
+
+        where:
+        size << [0, 1, 2 * WritePipeline.BATCH_SIZE - 1, (WritePipeline.IN_FLIGHT + 2) * WritePipeline.BATCH_SIZE + 17]
+    }
+
+    def "large map is written in order and read back"() {
+        given:
+        def map = ImmutableMap.copyOf((0..<3 * WritePipeline.BATCH_SIZE).collectEntries { [it, "value $it" as String] })
+        def out = new ByteArrayOutputStream()
+
+        when:
+        new MapFileData(Header.newFullHeader('test', map.size()), map, ImmutableSet.of()).writeTo(out, INTEGER, STRING)
+        def reread = [:]
+        MapFileData.readFrom(new ByteArrayInputStream(out.toByteArray()), INTEGER, STRING).addTo(reread)
+
+        then:
+        reread == map
+        reread.keySet().toList() == map.keySet().toList()
+    }
+
+    def "serializer failure is thrown"() {
+        given:
+        def failing = new KeyOrValueSerializer<Integer>() {
+            @Override
+            byte[] toByteArray(Integer value) {
+                if (value == 2 * WritePipeline.BATCH_SIZE + 1) {
+                    throw new IllegalArgumentException('not serializable')
+                }
+                INTEGER.toByteArray(value)
+            }
+
+            @Override
+            Integer fromByteArray(byte[] bytes) {
+                INTEGER.fromByteArray(bytes)
+            }
+        }
+        def map = ImmutableMap.copyOf((0..<3 * WritePipeline.BATCH_SIZE).collectEntries { [it, 'value'] })
+
+        when:
+        new MapFileData(Header.newFullHeader('test', map.size()), map, ImmutableSet.of())
+                .writeTo(new ByteArrayOutputStream(), failing, STRING)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == 'not serializable'
+    }
+
+    private static byte[] write(List<Map.Entry<Integer, String>> entries, executor) {
+        def out = new ByteArrayOutputStream()
+        def encoder = new BinaryEncoder(out)
+        WritePipeline.write(entries, { entryEncoder, entry ->
+            MapEntryRecord.writeNewOrUpdated(entryEncoder,
+                                             entry.key,
+                                             entry.value,
+                                             BufferSerializer.of(INTEGER),
+                                             BufferSerializer.of(STRING))
+        } as WritePipeline.RecordWriter, executor, encoder)
+        encoder.flush()
+        out.toByteArray()
+    }
+}
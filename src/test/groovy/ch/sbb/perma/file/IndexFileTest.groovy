@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.file
+
+import ch.sbb.perma.SpecificationWithTempDir
+
+class IndexFileTest extends SpecificationWithTempDir {
+    def "write renames the complete index"() {
+        given:
+        def indexFile = IndexFile.of(PermaFile.fullFile(NoCompression.NO_COMPRESSION, tempDir, 'stations', 1))
+
+        when:
+        indexFile.withOutputStream { out -> out.write('index'.bytes) }
+
+        then:
+        indexFile.exists()
+        indexFile.toFile().name == 'stations_1.perma.index'
+        indexFile.toFile().text == 'index'
+        tempDir.list().length == 1
+    }
+
+    def "delete older deletes only the older indexes of the perma"() {
+        given:
+        ['a.b_1', 'a.b_2', 'a.b_3', 'axb_1', 'a.b.c_1'].each {
+            new File(tempDir, "${it}.perma.index").text = 'index'
+        }
+
+        when:
+        IndexFile.of(PermaFile.fullFile(NoCompression.NO_COMPRESSION, tempDir, 'a.b', 3)).deleteOlder()
+
+        then:
+        tempDir.list().sort() == ['a.b.c_1.perma.index', 'a.b_3.perma.index', 'axb_1.perma.index']
+    }
+}
@@ -41,4 +41,24 @@ class PermaFileTest extends SpecificationWithTempDir {
         then:
         reread == bytes
     }
+
+    def "recording counts stored bytes"() {
+        given:
+        def fullFile = PermaFile.fullFile(GZipCompression.GZIP_COMPRESSION, tempDir, 'foo', 1)
+        def written = new FileStats()
+        def read = new FileStats()
+
+        when:
+        fullFile.recordingTo(written).withOutputStream({out -> out.write(('something' * 100).bytes); out.close()})
+        fullFile.recordingTo(read).withInputStream({input -> input.getBytes()})
+
+        then:
+        written.files() == 1
+        written.bytes() == new File(fullFile.toString()).length()
+        written.bytes() < 900
+        read.files() == 1
+        read.bytes() == written.bytes()
+        read.lastModified() == new File(fullFile.toString()).lastModified()
+        fullFile.recordingTo(read) == fullFile
+    }
 }
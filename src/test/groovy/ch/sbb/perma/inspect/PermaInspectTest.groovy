@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.inspect
+
+import ch.sbb.perma.SpecificationWithTempDir
+import ch.sbb.perma.WritablePerma
+import ch.sbb.perma.datastore.FileInspection
+import ch.sbb.perma.file.FileGroup
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.INTEGER
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING
+
+class PermaInspectTest extends SpecificationWithTempDir {
+    WritablePerma<Integer, String> perma
+
+    def setup() {
+        perma = WritablePerma.loadOrCreate(tempDir, 'stations', INTEGER, STRING)
+        (1..100).each { perma.put(it, "station $it" as String) }
+        perma.persist()
+        (1..5).each { perma.put(it, "renamed $it" as String) }
+        perma.remove(6)
+        perma.persist()
+    }
+
+    def "stats count live records per file"() {
+        when:
+        def stats = ChainStats.of(FileGroup.list(tempDir, 'stations'))
+
+        then:
+        stats.files()*.records() == [100, 6]
+        stats.files()*.deletes() == [0, 1]
+        stats.liveRecords(0) == 94
+        stats.liveRecords(1) == 5
+        stats.readAmplification(0) == 100d / 94
+        stats.readAmplification(1) == 1.2d
+        stats.liveEntries() == 99
+        stats.readAmplification() == 106d / 99
+    }
+
+    def "compaction estimate is the size of the compacted file"() {
+        given:
+        def stats = ChainStats.of(FileGroup.list(tempDir, 'stations'))
+
+        when:
+        perma.compact()
+        def compacted = FileInspection.read(FileGroup.list(tempDir, 'stations').fullFile(), FileInspection.SKIP)
+
+        then:
+        compacted.records() == 99
+        compacted.uncompressedBytes() == stats.compactedUncompressedBytes()
+        compacted.fileBytes() == stats.estimatedCompactedFileBytes()
+    }
+
+    def "files lists the generations with their headers"() {
+        given:
+        def files = tempDir.list().sort()
+        def current = files.find { it.endsWith('_0.perma') }
+        def stale = current.replaceFirst(/_\d+_0/, '_0_0')
+        new File(tempDir, stale).bytes = new File(tempDir, current).bytes
+
+        when:
+        def output = run('files', tempDir.path, 'stations')
+
+        then:
+        output.exitCode == PermaInspect.OK
+        output.text.contains('(current), 1 delta files')
+        output.text.contains('(stale), 0 delta files')
+        output.text.contains('FULL  version=1')
+        output.text.contains('DELTA version=1')
+        output.text.contains('number=1 name=stations records=6')
+    }
+
+    def "stats prints the files and the compaction estimate"() {
+        when:
+        def output = run('stats', tempDir.path, 'stations')
+
+        then:
+        output.exitCode == PermaInspect.OK
+        output.text.contains('Live entries: 99, read amplification: 1.07')
+        output.text.contains('Compaction estimate: 99 records')
+    }
+
+    def "verify all files"() {
+        when:
+        def output = run('verify', tempDir.path, 'stations', '--threads=2')
+
+        then:
+        output.exitCode == PermaInspect.OK
+        output.text.contains('2 files verified, 0 failed')
+    }
+
+    def "verify finds a corrupt record"() {
+        given:
+        def delta = FileGroup.list(tempDir, 'stations').latestDeltaFile().fileName()
+        def file = new File(tempDir, delta)
+        def bytes = file.bytes
+        bytes[bytes.length - 2] ^= 0xFF
+        file.bytes = bytes
+
+        when:
+        def output = run('verify', tempDir.path, 'stations')
+
+        then:
+        output.exitCode == PermaInspect.FAILED
+        output.text.contains("FAILED $delta")
+        output.text.contains('2 files verified, 1 failed')
+    }
+
+    def "missing files and invalid arguments"() {
+        expect:
+        run('stats', tempDir.path, 'unknown').exitCode == PermaInspect.FAILED
+        run('verify', tempDir.path).exitCode == PermaInspect.USAGE
+        run('compact', tempDir.path, 'stations').exitCode == PermaInspect.USAGE
+        run('verify', tempDir.path, 'stations', '--threads=none').exitCode == PermaInspect.USAGE
+    }
+
+    private static Map run(String... args) {
+        def bytes = new ByteArrayOutputStream()
+        def exitCode = PermaInspect.run(new PrintStream(bytes, true), args)
+        [exitCode: exitCode, text: bytes.toString()]
+    }
+}
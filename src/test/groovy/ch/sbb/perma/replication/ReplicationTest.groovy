@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.replication
+
+import ch.sbb.perma.GroupCommit
+import ch.sbb.perma.Options
+import ch.sbb.perma.ReadOnlyPerma
+import ch.sbb.perma.SpecificationWithTempDir
+import ch.sbb.perma.WritablePerma
+
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.STRING
+
+class ReplicationTest extends SpecificationWithTempDir {
+    File writerDir
+    File replicaDir
+    ReplicationServer server
+    Replica replica
+    WritablePerma<String, String> perma
+
+    def setup() {
+        writerDir = new File(tempDir, 'writer')
+        replicaDir = new File(tempDir, 'replica')
+        writerDir.mkdirs()
+        replicaDir.mkdirs()
+        server = ReplicationServer.start(writerDir, 0)
+        replica = Replica.of(replicaDir, new InetSocketAddress(InetAddress.loopbackAddress, server.port()))
+        perma = WritablePerma.loadOrCreate(writerDir, 'stations', STRING, STRING)
+    }
+
+    def cleanup() {
+        replica.close()
+        server.close()
+    }
+
+    def "replica receives the full file and then only the new delta files"() {
+        given:
+        (1..10).each { perma.put("station $it" as String, 'Bern') }
+        perma.persist()
+
+        when:
+        def first = replica.sync('stations')
+        def reader = ReadOnlyPerma.load(replicaDir, 'stations', STRING, STRING)
+
+        then:
+        first == 1
+        reader == perma
+
+        when:
+        perma.put('station 1', 'Olten')
+        perma.persist()
+        perma.put('station 2', 'Olten')
+        perma.persist()
+        def deltas = replica.sync('stations')
+        reader.refresh()
+
+        then:
+        deltas == 2
+        new File(replicaDir, 'stations_1_2.perma').bytes == new File(writerDir, 'stations_1_2.perma').bytes
+        reader == perma
+        replica.sync('stations') == 0
+    }
+
+    def "replica receives a full file after compaction and deletes the old generation"() {
+        given:
+        (1..10).each { perma.put("station $it" as String, 'Bern') }
+        perma.persist()
+        perma.put('station 1', 'Olten')
+        perma.persist()
+        replica.sync('stations')
+
+        when:
+        perma.put('station 3', 'Olten')
+        perma.compact()
+        def received = replica.sync('stations')
+
+        then:
+        received == 1
+        !new File(replicaDir, 'stations_1_0.perma').exists()
+        !new File(replicaDir, 'stations_1_1.perma').exists()
+        ReadOnlyPerma.load(replicaDir, 'stations', STRING, STRING) == perma
+    }
+
+    def "replica catches up after the server restarted"() {
+        given:
+        perma.put('Bern', 'BN')
+        perma.persist()
+        replica.sync('stations')
+        def port = server.port()
+        server.close()
+
+        when:
+        perma.put('Olten', 'OL')
+        perma.persist()
+        replica.sync('stations')
+
+        then:
+        thrown(IOException)
+
+        when:
+        server = ReplicationServer.start(writerDir, port)
+        perma.put('Zürich', 'ZUE')
+        perma.persist()
+        def received = replica.sync('stations')
+
+        then:
+        received == 2
+        ReadOnlyPerma.load(replicaDir, 'stations', STRING, STRING) == [Bern: 'BN', Olten: 'OL', 'Zürich': 'ZUE']
+    }
+
+    def "await returns when the writer persists"() {
+        given:
+        perma.put('Bern', 'BN')
+        perma.persist()
+        replica.sync('stations')
+        def executor = Executors.newSingleThreadScheduledExecutor()
+
+        when:
+        def timedOut = replica.await('stations', 50, TimeUnit.MILLISECONDS)
+        executor.schedule({
+            perma.put('Olten', 'OL')
+            perma.persist()
+        }, 200, TimeUnit.MILLISECONDS)
+        def received = replica.await('stations', 10, TimeUnit.SECONDS)
+
+        then:
+        timedOut == 0
+        received == 1
+        ReadOnlyPerma.load(replicaDir, 'stations', STRING, STRING) == [Bern: 'BN', Olten: 'OL']
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "unknown perma has no files"() {
+        expect:
+        replica.sync('unknown') == 0
+        replicaDir.list().length == 0
+    }
+
+    def "compressed files are replicated as stored"() {
+        given:
+        def compressed = WritablePerma.loadOrCreate(writerDir, 'lines', STRING, STRING, Options.compressed())
+        compressed.put('IC1', 'Genève-Aéroport - St. Gallen')
+        compressed.persist()
+
+        when:
+        replica.sync('lines')
+
+        then:
+        new File(replicaDir, 'lines_1_0.perma.gzip').bytes == new File(writerDir, 'lines_1_0.perma.gzip').bytes
+        ReadOnlyPerma.load(replicaDir, 'lines', STRING, STRING) == [IC1: 'Genève-Aéroport - St. Gallen']
+    }
+
+    def "server of a commit group sends only committed files"() {
+        given:
+        def options = Options.builder().commitGroup('timetable').build()
+        def grouped = WritablePerma.loadOrCreate(writerDir, 'lines', STRING, STRING, options)
+        def groupServer = ReplicationServer.start(writerDir, 0, 'timetable')
+        def groupReplica = Replica.of(replicaDir, new InetSocketAddress(InetAddress.loopbackAddress, groupServer.port()))
+        grouped.put('IC1', 'Bern')
+        GroupCommit.of(writerDir, 'timetable').commit(grouped)
+        grouped.put('IC2', 'Olten')
+        grouped.persist()
+
+        when:
+        groupReplica.sync('lines')
+
+        then:
+        ReadOnlyPerma.load(replicaDir, 'lines', STRING, STRING) == [IC1: 'Bern']
+
+        cleanup:
+        groupReplica.close()
+        groupServer.close()
+    }
+
+    def "perma names are not patterns and may not contain path separators"() {
+        given:
+        perma.put('Bern', 'BN')
+        perma.persist()
+
+        expect:
+        replica.sync('st.tions') == 0
+        replica.sync('.*') == 0
+        replicaDir.list().length == 0
+
+        when:
+        replica.sync('../writer/stations')
+
+        then:
+        thrown(IOException)
+    }
+
+    def "server with permas configured serves only those"() {
+        given:
+        def lines = WritablePerma.loadOrCreate(writerDir, 'lines', STRING, STRING)
+        lines.put('IC1', 'Bern')
+        lines.persist()
+        perma.put('Bern', 'BN')
+        perma.persist()
+        def restricted = ReplicationServer.builder(writerDir).permas('lines').start()
+        def restrictedReplica = Replica.of(replicaDir,
+                                           new InetSocketAddress(InetAddress.loopbackAddress, restricted.port()))
+
+        when:
+        def received = restrictedReplica.sync('lines')
+
+        then:
+        received == 1
+
+        when:
+        restrictedReplica.sync('stations')
+
+        then:
+        thrown(IOException)
+        !new File(replicaDir, 'stations_1_0.perma').exists()
+
+        cleanup:
+        restrictedReplica.close()
+        restricted.close()
+    }
+
+    def "server closes connections over the maximum"() {
+        given:
+        perma.put('Bern', 'BN')
+        perma.persist()
+        def limited = ReplicationServer.builder(writerDir).maxConnections(1).start()
+        def address = new InetSocketAddress(InetAddress.loopbackAddress, limited.port())
+        def secondDir = new File(tempDir, 'second')
+        secondDir.mkdirs()
+        def first = Replica.of(replicaDir, address)
+        def second = Replica.of(secondDir, address)
+
+        when:
+        first.sync('stations')
+        second.sync('stations')
+
+        then:
+        thrown(IOException)
+
+        when:
+        first.close()
+        def received = (1..50).findResult {
+            try {
+                return second.sync('stations')
+            }
+            catch (IOException e) {
+                Thread.sleep(20) // until the server has released the connection of the first replica
+                return null
+            }
+        }
+
+        then:
+        received == 1
+
+        cleanup:
+        first.close()
+        second.close()
+        limited.close()
+    }
+
+    def "server cuts the wait requested by a replica"() {
+        given:
+        def limited = ReplicationServer.builder(writerDir).maxWait(50, TimeUnit.MILLISECONDS).start()
+        def limitedReplica = Replica.of(replicaDir,
+                                        new InetSocketAddress(InetAddress.loopbackAddress, limited.port()))
+        def start = System.nanoTime()
+
+        when:
+        def received = limitedReplica.await('stations', 1, TimeUnit.HOURS)
+
+        then:
+        received == 0
+        System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10)
+
+        cleanup:
+        limitedReplica.close()
+        limited.close()
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2026.
+ */
+
+package ch.sbb.perma.serializers
+
+import groovy.transform.EqualsAndHashCode
+import spock.lang.Specification
+
+import java.time.LocalDate
+
+import static ch.sbb.perma.serializers.KeyOrValueSerializer.*
+
+class BeanSerializerTest extends Specification {
+
+    def "serialize deserialize bean"() {
+        given:
+        def serializer = BeanSerializer.builder(Station)
+                                       .field('id', INTEGER)
+                                       .field('name', STRING)
+                                       .field('validFrom', PACKED_LOCAL_DATE)
+                                       .field('distance', DOUBLE)
+                                       .build()
+        def station = new Station(id: 8507000, name: 'Bern', validFrom: LocalDate.of(2018, 12, 9), distance: 1.5d)
+
+        when:
+        def reread = serializer.fromByteArray(serializer.toByteArray(station))
+
+        then:
+        reread == station
+    }
+
+    def "null fields"() {
+        given:
+        def serializer = BeanSerializer.builder(Station)
+                                       .field('id', INTEGER)
+                                       .field('name', STRING)
+                                       .field('validFrom', PACKED_LOCAL_DATE)
+                                       .build()
+
+        when:
+        def reread = serializer.fromByteArray(serializer.toByteArray(new Station(id: 1)))
+
+        then:
+        reread == new Station(id: 1)
+    }
+
+    def "final fields, superclass fields and nested serializers"() {
+        given:
+        def stationSerializer = BeanSerializer.builder(Station)
+                                              .field('id', INTEGER)
+                                              .field('name', STRING)
+                                              .build()
+        def serializer = BeanSerializer.builder(Stop)
+                                       .field('station', stationSerializer)
+                                       .field('code', STRING)
+                                       .field('track', STRING)
+                                       .build()
+        def stop = new Stop('BN', new Station(id: 1, name: 'Bern'), '7')
+
+        when:
+        def reread = serializer.fromByteArray(serializer.toByteArray(stop))
+
+        then:
+        reread.code == 'BN'
+        reread.station == new Station(id: 1, name: 'Bern')
+        reread.track == '7'
+    }
+
+    def "fields added at the end are read from old values and skipped by old serializers"() {
+        given:
+        def oldSerializer = BeanSerializer.builder(Station)
+                                          .field('id', INTEGER)
+                                          .field('name', STRING)
+                                          .build()
+        def newSerializer = BeanSerializer.builder(Station)
+                                          .field('id', INTEGER)
+                                          .field('name', STRING)
+                                          .field('distance', DOUBLE)
+                                          .build()
+        def station = new Station(id: 1, name: 'Olten', distance: 2.0d)
+
+        expect:
+        newSerializer.fromByteArray(oldSerializer.toByteArray(station)) == new Station(id: 1, name: 'Olten')
+        oldSerializer.fromByteArray(newSerializer.toByteArray(station)) == new Station(id: 1, name: 'Olten')
+    }
+
+    def "unknown field fails"() {
+        when:
+        BeanSerializer.builder(Station).field('unknown', STRING).build()
+
+        then:
+        thrown IllegalArgumentException
+    }
+
+    def "null field name or serializer fails"() {
+        when:
+        BeanSerializer.builder(Station).field(name, serializer)
+
+        then:
+        thrown exception
+
+        where:
+        name | serializer | exception
+        null | STRING     | NullPointerException
+        'id' | null       | NullPointerException
+    }
+
+    def "duplicate field fails"() {
+        when:
+        BeanSerializer.builder(Station).field('id', INTEGER).field('id', INTEGER)
+
+        then:
+        thrown IllegalArgumentException
+    }
+
+    def "no-args constructor required"() {
+        when:
+        BeanSerializer.builder(NoDefaultConstructor).field('value', STRING).build()
+
+        then:
+        thrown IllegalArgumentException
+    }
+
+    @EqualsAndHashCode
+    static class Station {
+        int id
+        String name
+        LocalDate validFrom
+        double distance
+    }
+
+    static class Located {
+        protected Station station
+    }
+
+    static class Stop extends Located {
+        private final String code
+        private String track
+
+        private Stop() {
+            this.code = null
+        }
+
+        Stop(String code, Station station, String track) {
+            this.code = code
+            this.station = station
+            this.track = track
+        }
+    }
+
+    static class NoDefaultConstructor {
+        String value
+
+        NoDefaultConstructor(String value) {
+            this.value = value
+        }
+    }
+}
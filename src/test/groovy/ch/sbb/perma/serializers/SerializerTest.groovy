@@ -4,6 +4,7 @@
 
 package ch.sbb.perma.serializers
 
+import ch.sbb.perma.datastore.InvalidDataException
 import com.google.common.collect.ImmutableList
 import com.google.common.collect.ImmutableSet
 import org.javatuples.Pair
@@ -92,6 +93,29 @@ class SerializerTest extends Specification {
         new DateSerializer()                                        | new Date(Long.MAX_VALUE)
         new DateSerializer()                                        | new Date(0)
         new EnumSerializer(DayOfWeek.class)                         | DayOfWeek.FRIDAY
+        new VarIntegerSerializer()                                  | Integer.MAX_VALUE
+        new VarIntegerSerializer()                                  | Integer.MIN_VALUE
+        new VarIntegerSerializer()                                  | -1
+        new VarLongSerializer()                                     | Long.MAX_VALUE
+        new VarLongSerializer()                                     | Long.MIN_VALUE
+        new VarLongSerializer()                                     | 0L
+        new CompactBigDecimalSerializer()                           | BigDecimal.ZERO
+        new CompactBigDecimalSerializer()                           | new BigDecimal('-12.50')
+        new CompactBigDecimalSerializer()                           | new BigDecimal('1E+10')
+        new CompactBigDecimalSerializer()                           | new BigDecimal(Long.MIN_VALUE)
+        new CompactBigDecimalSerializer()                           | new BigDecimal('9999999999999999999999999999999999999.00000000000000000000000000000000000000001')
+        new CompactBigDecimalSerializer()                           | new BigDecimal(BigInteger.TEN, Integer.MIN_VALUE)
+        new PackedLocalDateSerializer()                             | LocalDate.of(2018, 12, 31)
+        new PackedLocalDateSerializer()                             | LocalDate.of(-2000, 1, 1)
+        new PackedLocalTimeSerializer()                             | LocalTime.MAX
+        new PackedLocalTimeSerializer()                             | LocalTime.MIN
+        new PackedLocalDateTimeSerializer()                         | LocalDateTime.of(2018, 3, 4, 5, 6, 7, 8)
+        new PackedLocalDateTimeSerializer()                         | LocalDateTime.of(1900, 1, 1, 0, 0, 0, 999_999_999)
+        new PackedZonedDateTimeSerializer()                         | ZonedDateTime.of(2018, 3, 4, 5, 6, 7, 8, ZoneId.of('Europe/Zurich'))
+        new PackedZonedDateTimeSerializer()                         | ZonedDateTime.of(2018, 10, 28, 2, 30, 0, 0, ZoneId.of('Europe/Zurich')).withLaterOffsetAtOverlap()
+        new PackedZonedDateTimeSerializer()                         | ZonedDateTime.of(1960, 1, 1, 0, 0, 0, 0, ZoneOffset.ofHoursMinutes(-3, -30))
+        new PackedZonedDateTimeSerializer()                         | ZonedDateTime.of(2018, 3, 4, 5, 6, 7, 8, ZoneId.of('Asia/Tokyo'))
+        new PackedZonedDateTimeSerializer(['Asia/Tokyo'])           | ZonedDateTime.of(2018, 3, 4, 5, 6, 7, 8, ZoneId.of('Asia/Tokyo'))
     }
 
     @Unroll
@@ -148,5 +172,122 @@ class SerializerTest extends Specification {
         new StringSerializer(Charset.forName('ISO-8859-1')) | 'föö' | 3
         KeyOrValueSerializer.INTEGER                        | 42    | 4
         KeyOrValueSerializer.BYTE                           | (byte) 42 | 1
+        KeyOrValueSerializer.VAR_INTEGER                    | 42    | 1
+        KeyOrValueSerializer.VAR_INTEGER                    | -64   | 1
+        KeyOrValueSerializer.VAR_INTEGER                    | 8191  | 2
+        KeyOrValueSerializer.VAR_INTEGER                    | Integer.MIN_VALUE | 5
+        KeyOrValueSerializer.VAR_LONG                       | 4711L | 2
+        KeyOrValueSerializer.VAR_LONG                       | Long.MAX_VALUE | 10
+        KeyOrValueSerializer.COMPACT_BIG_DECIMAL            | new BigDecimal('12.50') | 3
+        KeyOrValueSerializer.PACKED_LOCAL_DATE              | LocalDate.of(2018, 1, 1) | 4
+        KeyOrValueSerializer.PACKED_LOCAL_TIME              | LocalTime.of(12, 0) | 6
+        KeyOrValueSerializer.PACKED_LOCAL_DATE_TIME         | LocalDateTime.of(2018, 1, 1, 12, 0) | 8
+        KeyOrValueSerializer.PACKED_ZONED_DATE_TIME         | ZonedDateTime.of(2018, 1, 1, 12, 0, 0, 0, ZoneId.of('Europe/Zurich')) | 9
     }
-}
\ No newline at end of file
+
+    def "packed local date time out of range fails"() {
+        when:
+        KeyOrValueSerializer.PACKED_LOCAL_DATE_TIME.toByteArray(LocalDateTime.of(2300, 1, 1, 0, 0))
+
+        then:
+        thrown ArithmeticException
+    }
+
+    def "unknown packed zone code fails"() {
+        given:
+        def bytes = new PackedZonedDateTimeSerializer(['UTC', 'Asia/Tokyo'])
+                .toByteArray(ZonedDateTime.of(2018, 3, 4, 5, 6, 7, 8, ZoneId.of('Asia/Tokyo')))
+
+        when:
+        new PackedZonedDateTimeSerializer(['UTC']).fromByteArray(bytes)
+
+        then:
+        def e = thrown InvalidDataException
+        e.message.contains('zone code 3')
+    }
+
+    def "negative packed zone code fails"() {
+        given:
+        def buffer = new WriteBuffer()
+        buffer.writeLong(0)
+        buffer.writeVarInt(-2)
+
+        when:
+        KeyOrValueSerializer.PACKED_ZONED_DATE_TIME.fromByteArray(buffer.toByteArray())
+
+        then:
+        def e = thrown InvalidDataException
+        e.message.contains('zone code -2')
+    }
+
+    @Unroll
+    def "buffer serialization equals byte array serialization #serializer.class.simpleName #value"() {
+        given:
+        def buffer = new WriteBuffer()
+        buffer.writeInt(42)
+
+        when:
+        def written = buffer.writeWithLength(serializer, value)
+        def reader = new ReadBuffer(buffer.toByteArray())
+        reader.readInt()
+
+        then:
+        written
+        Arrays.copyOfRange(buffer.toByteArray(), 8, buffer.length()) == serializer.toByteArray(value)
+        reader.readWithLength(serializer).equals(value)
+        !reader.hasRemaining()
+
+        where:
+        serializer                                                  | value
+        KeyOrValueSerializer.STRING                                 | 'föö bär 漢字 \uD83D\uDE00'
+        new StringSerializer(StringSerializer.UTF_16BE)             | 'föö'
+        KeyOrValueSerializer.LONG                                   | Long.MIN_VALUE
+        KeyOrValueSerializer.BIG_DECIMAL                            | new BigDecimal('-12345.6789')
+        KeyOrValueSerializer.LOCAL_DATE_TIME                        | LocalDateTime.of(2018, 3, 4, 5, 6, 7, 8)
+        KeyOrValueSerializer.ZONED_DATE_TIME                        | ZonedDateTime.of(2018, 3, 4, 5, 6, 7, 8, ZoneId.of('Europe/Zurich'))
+        KeyOrValueSerializer.JAVA_OBJECT                            | LocalDate.of(2018, 1, 1)
+        KeyOrValueSerializer.COMPACT_BIG_DECIMAL                    | new BigDecimal('123456789012345678901234567890.5')
+        KeyOrValueSerializer.PACKED_ZONED_DATE_TIME                 | ZonedDateTime.of(2018, 3, 4, 5, 6, 7, 8, ZoneId.of('America/New_York'))
+        new ImmutableListSerializer(KeyOrValueSerializer.STRING)    | ImmutableList.of('a', '', 'c')
+        new PairSerializer(new StringSerializer(),
+                new ImmutableSetSerializer(new IntegerSerializer()))| new Pair('foo', ImmutableSet.of(1, 2))
+    }
+
+    def "string serializer writes the same bytes as String.getBytes"() {
+        given:
+        def string = (0..0xFFFF).collect { (char) it }.join()
+
+        expect:
+        KeyOrValueSerializer.STRING.toByteArray(string) == new BufferSerializerWrapper().toByteArray(string)
+    }
+
+    def "custom serializer is adapted to buffer serializer"() {
+        given:
+        def custom = new KeyOrValueSerializer<String>() {
+            byte[] toByteArray(String object) { return object.reverse().getBytes('UTF-8') }
+            String fromByteArray(byte[] bytes) { return new String(bytes, 'UTF-8').reverse() }
+        }
+        def serializer = new PairSerializer(custom, KeyOrValueSerializer.INTEGER)
+
+        when:
+        def reread = serializer.fromByteArray(serializer.toByteArray(new Pair('abc', 42)))
+
+        then:
+        BufferSerializer.of(custom) instanceof ByteArraySerializerAdapter
+        BufferSerializer.of(KeyOrValueSerializer.STRING).is(KeyOrValueSerializer.STRING)
+        reread == new Pair('abc', 42)
+    }
+
+    def "read beyond serialized value fails"() {
+        when:
+        KeyOrValueSerializer.LONG.fromByteArray([1, 2, 3, 4] as byte[])
+
+        then:
+        thrown IllegalStateException
+    }
+
+    static class BufferSerializerWrapper implements BufferSerializer<String> {
+        boolean writeTo(String object, WriteBuffer out) { return KeyOrValueSerializer.STRING.writeTo(object, out) }
+        String readFrom(ReadBuffer input) { return KeyOrValueSerializer.STRING.readFrom(input) }
+    }
+}